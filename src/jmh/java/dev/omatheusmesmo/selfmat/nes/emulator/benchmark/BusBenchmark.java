@@ -0,0 +1,144 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.benchmark;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Bus#read(int)} and {@link Bus#write(int, byte)} for random and sequential
+ * access patterns over RAM, PPU registers and cartridge space.
+ * <p>
+ * Cartridge reads cover PRG ROM ($8000-$FFFF). Writes there would hit mapper registers and change
+ * the layout under measurement, so cartridge writes go to the same offsets in the PRG RAM window
+ * ($6000-$7FFF), which every benchmark mapper has.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BusBenchmark {
+
+    private static final int ACCESSES = 4096;
+
+    /** Which part of the address space the access pattern covers. */
+    @Param({"RAM", "PPU", "CARTRIDGE", "MIXED"})
+    public String region;
+
+    /** Mapper behind the cartridge space. */
+    @Param({"0", "4"})
+    public int mapperNumber;
+
+    private Bus bus;
+    private int[] randomAddresses;
+    private int[] sequentialAddresses;
+    private int[] randomWriteAddresses;
+    private int[] sequentialWriteAddresses;
+
+    @Setup
+    public void setUp() {
+        Mapper mapper = SyntheticRoms.mapper(mapperNumber);
+        mapper.configurePrgRam(8 * 1024); // NROM has none by default
+        bus = new Bus(new Cartridge(null, null, null, null, mapper));
+
+        Random random = new Random(42);
+        randomAddresses = new int[ACCESSES];
+        sequentialAddresses = new int[ACCESSES];
+        int start = regionStart(0);
+        for (int i = 0; i < ACCESSES; i++) {
+            randomAddresses[i] = randomAddress(random, i);
+            sequentialAddresses[i] = region.equals("MIXED") ? regionStart(i) + (i & 0xFF) : start + (i % regionSize());
+        }
+        randomWriteAddresses = toWriteAddresses(randomAddresses);
+        sequentialWriteAddresses = toWriteAddresses(sequentialAddresses);
+    }
+
+    /**
+     * Moves cartridge addresses from PRG ROM to PRG RAM, keeping the other regions as they are.
+     */
+    private static int[] toWriteAddresses(int[] addresses) {
+        int[] writeAddresses = new int[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            int address = addresses[i];
+            writeAddresses[i] = address >= 0x8000 ? 0x6000 | (address & 0x1FFF) : address;
+        }
+        return writeAddresses;
+    }
+
+    private int randomAddress(Random random, int i) {
+        switch (region) {
+            case "RAM": return random.nextInt(0x2000);
+            case "PPU": return 0x2000 + random.nextInt(0x2000);
+            case "CARTRIDGE": return 0x8000 + random.nextInt(0x8000);
+            default:
+                int start = regionStart(i);
+                return start + random.nextInt(start == 0x8000 ? 0x8000 : 0x2000);
+        }
+    }
+
+    private int regionStart(int i) {
+        switch (region) {
+            case "RAM": return 0x0000;
+            case "PPU": return 0x2000;
+            case "CARTRIDGE": return 0x8000;
+            default: // MIXED: 50% RAM, 10% PPU, 40% cartridge, like a typical game loop
+                int slot = i % 10;
+                return slot < 5 ? 0x0000 : slot == 5 ? 0x2000 : 0x8000;
+        }
+    }
+
+    private int regionSize() {
+        return region.equals("CARTRIDGE") ? 0x8000 : 0x2000;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void readRandom(Blackhole blackhole) {
+        for (int address : randomAddresses) {
+            blackhole.consume(bus.read(address));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void readSequential(Blackhole blackhole) {
+        for (int address : sequentialAddresses) {
+            blackhole.consume(bus.read(address));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void writeRandom() {
+        int[] addresses = randomWriteAddresses;
+        for (int i = 0; i < addresses.length; i++) {
+            bus.write(addresses[i], (byte) i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void writeSequential() {
+        int[] addresses = sequentialWriteAddresses;
+        for (int i = 0; i < addresses.length; i++) {
+            bus.write(addresses[i], (byte) i);
+        }
+    }
+}
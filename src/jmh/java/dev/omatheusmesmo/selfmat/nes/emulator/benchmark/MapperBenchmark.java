@@ -0,0 +1,95 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.benchmark;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code cpuRead}/{@code ppuRead} on NROM, MMC1 and MMC3, with a bank switch
+ * mixed in every {@code switchInterval} accesses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MapperBenchmark {
+
+    private static final int ACCESSES = 4096;
+
+    @Param({"0", "1", "4"})
+    public int mapperNumber;
+
+    /** Accesses between two bank switches (0 disables switching). */
+    @Param({"0", "256"})
+    public int switchInterval;
+
+    private Mapper mapper;
+    private int[] cpuAddresses;
+    private int[] ppuAddresses;
+    private int bank;
+
+    @Setup
+    public void setUp() {
+        mapper = SyntheticRoms.mapper(mapperNumber);
+
+        Random random = new Random(7);
+        cpuAddresses = new int[ACCESSES];
+        ppuAddresses = new int[ACCESSES];
+        for (int i = 0; i < ACCESSES; i++) {
+            cpuAddresses[i] = 0x8000 + random.nextInt(0x8000);
+            ppuAddresses[i] = random.nextInt(0x2000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void cpuRead(Blackhole blackhole) {
+        int[] addresses = cpuAddresses;
+        for (int i = 0; i < addresses.length; i++) {
+            maybeSwitchBank(i);
+            blackhole.consume(mapper.cpuRead(addresses[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void ppuRead(Blackhole blackhole) {
+        int[] addresses = ppuAddresses;
+        for (int i = 0; i < addresses.length; i++) {
+            maybeSwitchBank(i);
+            blackhole.consume(mapper.ppuRead(addresses[i]));
+        }
+    }
+
+    /** Sequential pattern fetches, as the PPU does for a row of tiles. */
+    @Benchmark
+    @OperationsPerInvocation(ACCESSES)
+    public void ppuReadSequential(Blackhole blackhole) {
+        for (int i = 0; i < ACCESSES; i++) {
+            maybeSwitchBank(i);
+            blackhole.consume(mapper.ppuRead(i & 0x1FFF));
+        }
+    }
+
+    private void maybeSwitchBank(int i) {
+        if (switchInterval != 0 && i % switchInterval == 0) {
+            SyntheticRoms.switchBank(mapper, bank++);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.benchmark;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.video.FrameBuffer;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.video.PaletteConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting one frame of colour indices to ARGB. The {@code best} converter is the SIMD one
+ * when built with {@code -Pjmh,vector}; otherwise both variants run the scalar loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class PaletteConverterBenchmark {
+
+    @Param({"scalar", "best"})
+    public String converterType;
+
+    @Param({"1", "3"})
+    public int scale;
+
+    private PaletteConverter converter;
+    private final byte[] indices = new byte[FrameBuffer.PIXELS];
+    private final byte[] emphasis = new byte[FrameBuffer.HEIGHT];
+    private IntBuffer out;
+
+    @Setup
+    public void setUp() {
+        converter = converterType.equals("scalar") ? PaletteConverter.scalar(scale) : PaletteConverter.create(scale);
+        Random random = new Random(1);
+        random.nextBytes(indices);
+        random.nextBytes(emphasis);
+        out = ByteBuffer.allocateDirect(converter.getOutputWidth() * converter.getOutputHeight() * Integer.BYTES)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    @Benchmark
+    public IntBuffer convertFrame() {
+        converter.convertFrame(indices, emphasis, out);
+        return out;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.benchmark;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RomLoader#loadRom(String)} on a synthetic image written to a temporary file
+ * (served from the page cache after the first iteration), and {@link RomLoader#loadRom(ByteBuffer)}
+ * on the same image held in memory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RomLoaderBenchmark {
+
+    /** Synthetic image: a small NROM game or a large MMC3 one (256KB PRG + 256KB CHR). */
+    @Param({"NROM_40K", "MMC3_512K"})
+    public String rom;
+
+    private final RomLoader loader = new RomLoader();
+    private Path romFile;
+    private ByteBuffer romImage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] image = rom.equals("NROM_40K")
+                ? SyntheticRoms.inesImage(0, 2, 1)
+                : SyntheticRoms.inesImage(4, 16, 32);
+        romImage = ByteBuffer.wrap(image);
+        romFile = Files.createTempFile("synthetic-", ".nes");
+        Files.write(romFile, image);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(romFile);
+    }
+
+    @Benchmark
+    public void loadRom(Blackhole blackhole) throws IOException {
+        consumeAndClose(loader.loadRom(romFile.toString()), blackhole);
+    }
+
+    @Benchmark
+    public void loadRomFromMemory(Blackhole blackhole) throws IOException {
+        consumeAndClose(loader.loadRom(romImage), blackhole);
+    }
+
+    /**
+     * Keeps the cartridge alive for the measurement, then returns its ROM image lease.
+     */
+    private static void consumeAndClose(ICartridge cartridge, Blackhole blackhole) {
+        blackhole.consume(cartridge);
+        cartridge.close();
+    }
+}
@@ -0,0 +1,68 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.benchmark;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.Cpu6502;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.SaveState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures capturing and restoring a full save state into a reused direct buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SaveStateBenchmark {
+
+    @Param({"0", "4"})
+    public int mapperNumber;
+
+    private Mapper mapper;
+    private Bus bus;
+    private Cpu6502 cpu;
+    private RomHash romHash;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        mapper = SyntheticRoms.mapper(mapperNumber);
+        bus = new Bus(new Cartridge(null, null, null, null, mapper));
+        cpu = new Cpu6502(bus);
+        romHash = RomHash.of(new byte[0], new byte[0]);
+        buffer = ByteBuffer.allocateDirect(SaveState.sizeOf(cpu, bus, mapper));
+    }
+
+    @Benchmark
+    public ByteBuffer save() {
+        buffer.clear();
+        SaveState.save(buffer, romHash, cpu, bus, mapper);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer saveAndLoad() {
+        buffer.clear();
+        SaveState.save(buffer, romHash, cpu, bus, mapper);
+        buffer.flip();
+        SaveState.load(buffer, romHash, cpu, bus, mapper);
+        return buffer;
+    }
+}
@@ -0,0 +1,122 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.benchmark;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC1Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC3Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.NRomMapper;
+
+import java.util.Random;
+
+/**
+ * Builds synthetic in-memory ROM images and mappers so benchmarks run offline,
+ * without any real game dumps.
+ */
+final class SyntheticRoms {
+
+    static final int HEADER_SIZE = 16;
+    static final int PRG_UNIT_BYTES = 16 * 1024;
+    static final int CHR_UNIT_BYTES = 8 * 1024;
+
+    /** Fixed seed so every run sees the same data. */
+    private static final long SEED = 0x5E1F_4A7L;
+
+    private SyntheticRoms() {
+    }
+
+    /**
+     * Creates random PRG/CHR content of the given size.
+     */
+    static byte[] randomData(int sizeBytes) {
+        byte[] data = new byte[sizeBytes];
+        new Random(SEED ^ sizeBytes).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Creates a complete iNES 1.0 image (header + PRG + CHR).
+     *
+     * @param mapperNumber iNES mapper number.
+     * @param prgUnits     PRG ROM size in 16KB units.
+     * @param chrUnits     CHR ROM size in 8KB units (0 for CHR RAM).
+     */
+    static byte[] inesImage(int mapperNumber, int prgUnits, int chrUnits) {
+        int prgSize = prgUnits * PRG_UNIT_BYTES;
+        int chrSize = chrUnits * CHR_UNIT_BYTES;
+        byte[] image = new byte[HEADER_SIZE + prgSize + chrSize];
+
+        image[0] = 'N';
+        image[1] = 'E';
+        image[2] = 'S';
+        image[3] = 0x1A;
+        image[4] = (byte) prgUnits;
+        image[5] = (byte) chrUnits;
+        image[6] = (byte) ((mapperNumber & 0x0F) << 4);
+        image[7] = (byte) (mapperNumber & 0xF0);
+
+        byte[] prg = randomData(prgSize);
+        System.arraycopy(prg, 0, image, HEADER_SIZE, prgSize);
+        if (chrSize > 0) {
+            byte[] chr = randomData(chrSize);
+            System.arraycopy(chr, 0, image, HEADER_SIZE + prgSize, chrSize);
+        }
+        return image;
+    }
+
+    /**
+     * Creates a mapper with random PRG/CHR ROM already loaded.
+     *
+     * @param mapperNumber 0 (NROM), 1 (MMC1) or 4 (MMC3).
+     */
+    static Mapper mapper(int mapperNumber) {
+        Mapper mapper;
+        int prgSize;
+        int chrSize;
+        switch (mapperNumber) {
+            case 0:
+                prgSize = 2 * PRG_UNIT_BYTES;
+                chrSize = CHR_UNIT_BYTES;
+                mapper = new NRomMapper(0, prgSize, chrSize, false);
+                break;
+            case 1:
+                prgSize = 16 * PRG_UNIT_BYTES;
+                chrSize = 16 * CHR_UNIT_BYTES;
+                mapper = new MMC1Mapper(1, prgSize, chrSize, false);
+                break;
+            case 4:
+                prgSize = 32 * PRG_UNIT_BYTES;
+                chrSize = 32 * CHR_UNIT_BYTES;
+                mapper = new MMC3Mapper(4, prgSize, chrSize, false);
+                break;
+            default:
+                throw new IllegalArgumentException("No synthetic setup for mapper " + mapperNumber);
+        }
+        mapper.loadRomData(randomData(prgSize), randomData(chrSize));
+        return mapper;
+    }
+
+    /**
+     * Performs a representative bank switch on the mapper.
+     *
+     * @param mapper The mapper.
+     * @param bank   Bank number to select (wrapped by the mapper).
+     */
+    static void switchBank(Mapper mapper, int bank) {
+        switch (mapper.getMapperNumber()) {
+            case 1:
+                // Five serial writes load the PRG bank register ($E000-$FFFF)
+                for (int bit = 0; bit < 5; bit++) {
+                    mapper.cpuWrite(0xE000, (byte) ((bank >> bit) & 1));
+                }
+                break;
+            case 4:
+                mapper.cpuWrite(0x8000, (byte) 6); // Select R6 (PRG bank at $8000)
+                mapper.cpuWrite(0x8001, (byte) bank);
+                mapper.cpuWrite(0x8000, (byte) 2); // Select R2 (1KB CHR bank)
+                mapper.cpuWrite(0x8001, (byte) bank);
+                break;
+            default:
+                // NROM has no bank switching
+                break;
+        }
+    }
+}
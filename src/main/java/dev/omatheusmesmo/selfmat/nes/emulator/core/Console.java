@@ -0,0 +1,291 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.apu.Apu2A03;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.AudioRing;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.RateController;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.Resampler;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.Cpu6502;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.Ppu2C02;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.SaveState;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.video.FrameBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wires the CPU, PPU, APU, Bus and cartridge together and drives them with the {@link Scheduler}.
+ * <p>
+ * The CPU runs in bursts up to the next scheduled event; components are never ticked per cycle.
+ * The PPU catches up lazily (see {@link Ppu2C02}); the console only schedules the video timing
+ * points something else depends on: the end of every scanline, the start of vblank (NMI) and the
+ * end of the frame. Scanline ends clock scanline-counting mappers, and only for those is the PPU
+ * caught up there. The APU schedules its own frame counter and DMC events and synthesizes a frame
+ * of audio at the end of every frame.
+ */
+public class Console {
+
+    // --- Constants: NTSC Video Timing ---
+    public static final int VISIBLE_SCANLINES = Ppu2C02.VISIBLE_SCANLINES;
+    public static final int VBLANK_SCANLINE = Ppu2C02.VBLANK_SCANLINE;
+    public static final int PRE_RENDER_SCANLINE = Ppu2C02.PRE_RENDER_SCANLINE;
+    public static final long MASTER_CYCLES_PER_SCANLINE = Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+    public static final long MASTER_CYCLES_PER_FRAME = Ppu2C02.MASTER_CYCLES_PER_FRAME;
+    /** Sample rate of {@link #getAudioOutput()}, the usual sound card rate. */
+    public static final int AUDIO_OUTPUT_RATE = 48_000;
+    /** Audio ring size: about 0.17 s; rate control keeps it half full. */
+    private static final int AUDIO_RING_CAPACITY = 8192;
+    /** frame start time (8), frame count (8), scanline (2). */
+    private static final int TIMING_STATE_SIZE = 2 * Long.BYTES + Short.BYTES;
+
+    private final Bus bus;
+    private final Cpu6502 cpu;
+    private final Ppu2C02 ppu;
+    private final Apu2A03 apu;
+    private final Mapper mapper;
+    /** Whether the mapper counts scanlines, so rendered lines need the PPU caught up. */
+    private final boolean clocksScanlines;
+    private final Scheduler scheduler = new Scheduler();
+    /** Video output, null while headless (see {@link #connectOutput}). */
+    private FrameBuffer frameBuffer;
+
+    // --- Frame State ---
+    private long frameStartTime;
+    private int scanline;
+    private long frameCount;
+    private boolean frameDone;
+
+    /**
+     * Creates a console with a plain {@link Bus} for the cartridge.
+     */
+    public Console(ICartridge cartridge) {
+        this(new Bus(cartridge), cartridge.getMapper());
+    }
+
+    /**
+     * Creates a console around an existing Bus (e.g. an instrumented one).
+     *
+     * @param bus    The Bus the cartridge is connected to.
+     * @param mapper The cartridge's mapper (may be null).
+     */
+    public Console(Bus bus, Mapper mapper) {
+        this.bus = java.util.Objects.requireNonNull(bus, "Bus cannot be null");
+        this.mapper = mapper;
+        this.clocksScanlines = mapper != null && mapper.hasScanlineCounter();
+        this.cpu = new Cpu6502(bus);
+        this.ppu = new Ppu2C02(mapper, bus.getOam());
+        bus.connectPpu(ppu);
+        this.apu = new Apu2A03(new AudioRing(AUDIO_RING_CAPACITY), Apu2A03.DEFAULT_SAMPLE_RATE);
+        apu.setResampler(new Resampler(Apu2A03.DEFAULT_SAMPLE_RATE, AUDIO_OUTPUT_RATE, new RateController()));
+        bus.connectApu(apu);
+
+        scheduler.setClock(() -> cpu.getCycles() * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE);
+        ppu.setClock(scheduler::now);
+        ppu.connectNmi(cpu::triggerNmi);
+        apu.setClock(scheduler::now);
+        apu.attachScheduler(scheduler);
+        apu.connectIrqLines(asserted -> cpu.setIrq(Cpu6502.IRQ_SOURCE_APU_FRAME, asserted),
+                asserted -> cpu.setIrq(Cpu6502.IRQ_SOURCE_DMC, asserted));
+        apu.connectMemory(bus::dmcRead);
+        scheduler.setDeadlineListener(time -> cpu.endRunAt(toCpuCycle(time)));
+        scheduler.setHandler(Scheduler.EVENT_SCANLINE_END, (type, time) -> onScanlineEnd(time));
+        scheduler.setHandler(Scheduler.EVENT_VBLANK, (type, time) -> ppu.catchUp(time));
+        scheduler.setHandler(Scheduler.EVENT_FRAME_END, (type, time) -> onFrameEnd(time));
+        scheduler.setHandler(Scheduler.EVENT_APU_FRAME, (type, time) -> apu.onFrameCounterEvent(time));
+        scheduler.setHandler(Scheduler.EVENT_DMC_FETCH, (type, time) -> apu.onDmcFetch(time));
+
+        if (mapper != null) {
+            mapper.connectIrqLine(asserted -> cpu.setIrq(Cpu6502.IRQ_SOURCE_MAPPER, asserted));
+            mapper.attachScheduler(scheduler);
+            scheduler.setHandler(Scheduler.EVENT_MAPPER_IRQ, (type, time) -> mapper.onMapperEvent(time));
+        }
+    }
+
+    /**
+     * Resets the CPU and restarts video timing at the top of a frame.
+     */
+    public void reset() {
+        cpu.reset();
+        scheduler.clear();
+        frameStartTime = scheduler.now();
+        ppu.reset(frameStartTime);
+        apu.reset(frameStartTime);
+        scanline = 0;
+        scheduleFrameEvents();
+        scheduler.schedule(Scheduler.EVENT_SCANLINE_END, frameStartTime + MASTER_CYCLES_PER_SCANLINE);
+    }
+
+    /**
+     * Runs until the end of the current frame.
+     */
+    public void runFrame() {
+        frameDone = false;
+        while (!frameDone) {
+            cpu.runUntil(toCpuCycle(scheduler.nextEventTime()));
+            scheduler.runDueEvents(scheduler.now());
+        }
+    }
+
+    /**
+     * Converts a master clock time to the first CPU cycle at or after it.
+     */
+    private static long toCpuCycle(long masterTime) {
+        return (masterTime + Scheduler.MASTER_CYCLES_PER_CPU_CYCLE - 1) / Scheduler.MASTER_CYCLES_PER_CPU_CYCLE;
+    }
+
+    private void scheduleFrameEvents() {
+        scheduler.schedule(Scheduler.EVENT_VBLANK, frameStartTime
+                + VBLANK_SCANLINE * MASTER_CYCLES_PER_SCANLINE + Scheduler.MASTER_CYCLES_PER_PPU_DOT);
+        scheduler.schedule(Scheduler.EVENT_FRAME_END, frameStartTime + MASTER_CYCLES_PER_FRAME);
+    }
+
+    // --- Video Output ---
+
+    /**
+     * Starts publishing completed frames with unscaled ARGB output.
+     * Consoles are headless until then: replays and verification never pay for the colour conversion.
+     *
+     * @return The frame buffer frames are published to.
+     */
+    public FrameBuffer connectOutput() {
+        return connectOutput(new FrameBuffer());
+    }
+
+    /**
+     * Starts publishing completed frames to the given buffer, or goes headless with null.
+     *
+     * @param output The frame buffer, e.g. with a scaling converter.
+     * @return The same frame buffer.
+     */
+    public FrameBuffer connectOutput(FrameBuffer output) {
+        this.frameBuffer = output;
+        ppu.connectOutput(output);
+        return output;
+    }
+
+    // --- Event Handlers ---
+
+    private void onScanlineEnd(long time) {
+        // Scanline counters are clocked on rendered lines (visible + pre-render) while rendering is on
+        if (clocksScanlines && (scanline < VISIBLE_SCANLINES || scanline == PRE_RENDER_SCANLINE)) {
+            ppu.catchUp(time);
+            if (ppu.isRenderingEnabled()) {
+                mapper.onScanline();
+            }
+        }
+        scanline = scanline == PRE_RENDER_SCANLINE ? 0 : scanline + 1;
+        scheduler.schedule(Scheduler.EVENT_SCANLINE_END, time + MASTER_CYCLES_PER_SCANLINE);
+    }
+
+    private void onFrameEnd(long time) {
+        ppu.catchUp(time);
+        apu.endFrame(time);
+        bus.getControllers().endFrame(System.nanoTime());
+        frameCount++;
+        frameDone = true;
+        frameStartTime += MASTER_CYCLES_PER_FRAME;
+        scheduleFrameEvents();
+    }
+
+    // --- Save States ---
+
+    /**
+     * @return The number of bytes {@link #saveState} writes.
+     */
+    public int getStateSize() {
+        return SaveState.sizeOf(cpu, bus, requireMapper()) + TIMING_STATE_SIZE;
+    }
+
+    /**
+     * Writes a {@link SaveState} followed by the console's frame timing, so that loading it resumes
+     * exactly where the console left off. Meant to be called between frames.
+     *
+     * @param buffer  Destination; must have at least {@link #getStateSize()} bytes remaining.
+     * @param romHash Hash of the loaded ROM.
+     */
+    public void saveState(ByteBuffer buffer, RomHash romHash) {
+        SaveState.save(buffer, romHash, cpu, bus, requireMapper());
+        buffer.putLong(frameStartTime);
+        buffer.putLong(frameCount);
+        buffer.putShort((short) scanline);
+    }
+
+    /**
+     * Restores a state written by {@link #saveState} and reschedules the video timing events.
+     *
+     * @throws IllegalArgumentException If the state does not belong to this ROM (see {@link SaveState#load}).
+     */
+    public void loadState(ByteBuffer buffer, RomHash romHash) {
+        SaveState.load(buffer, romHash, cpu, bus, requireMapper()); // The APU reschedules its own events
+        frameStartTime = buffer.getLong();
+        frameCount = buffer.getLong();
+        scanline = buffer.getShort();
+
+        long vblankTime = frameStartTime + VBLANK_SCANLINE * MASTER_CYCLES_PER_SCANLINE
+                + Scheduler.MASTER_CYCLES_PER_PPU_DOT;
+        if (vblankTime > scheduler.now()) {
+            scheduler.schedule(Scheduler.EVENT_VBLANK, vblankTime);
+        } else {
+            scheduler.cancel(Scheduler.EVENT_VBLANK);
+        }
+        scheduler.schedule(Scheduler.EVENT_FRAME_END, frameStartTime + MASTER_CYCLES_PER_FRAME);
+        scheduler.schedule(Scheduler.EVENT_SCANLINE_END, frameStartTime + (scanline + 1) * MASTER_CYCLES_PER_SCANLINE);
+    }
+
+    private Mapper requireMapper() {
+        if (mapper == null) {
+            throw new IllegalStateException("Save states need a cartridge with a mapper");
+        }
+        return mapper;
+    }
+
+    // --- Getters ---
+
+    public Bus getBus() {
+        return bus;
+    }
+
+    public Cpu6502 getCpu() {
+        return cpu;
+    }
+
+    public Ppu2C02 getPpu() {
+        return ppu;
+    }
+
+    /**
+     * Completed frames for display or streaming; see {@link FrameBuffer#acquire()}.
+     * @return The connected output, or null if the console is headless.
+     */
+    public FrameBuffer getFrameBuffer() {
+        return frameBuffer;
+    }
+
+    public Apu2A03 getApu() {
+        return apu;
+    }
+
+    /**
+     * Synthesized audio, {@link #AUDIO_OUTPUT_RATE} mono samples for the audio thread.
+     */
+    public AudioRing getAudioOutput() {
+        return apu.getOutput();
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /** Scanline currently being drawn (0-261). */
+    public int getScanline() {
+        return scanline;
+    }
+
+    /** Number of completed frames. */
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
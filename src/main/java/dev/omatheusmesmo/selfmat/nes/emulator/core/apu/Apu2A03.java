@@ -0,0 +1,639 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.AudioRing;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.BandLimitedBuffer;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.Resampler;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.IrqLine;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * The 2A03's audio processing unit: two pulse channels, triangle, noise, DMC and the frame counter.
+ * <p>
+ * The APU is split along what the CPU can observe. The frame counter, the length counters reported
+ * by $4015, the DMC sample reader and both IRQs run in real time on {@link Scheduler} events
+ * ({@link Scheduler#EVENT_APU_FRAME}, {@link Scheduler#EVENT_DMC_FETCH}). Everything that only
+ * affects the sound is deferred: register writes, frame counter clocks and fetched DMC bytes are
+ * appended to a log with their CPU cycle, and {@link #endFrame} replays the log once per frame.
+ * Between two log entries each channel runs on its own in a tight loop over its timer periods and
+ * reports amplitude changes to a {@link BandLimitedBuffer}; no per-cycle work and no per-sample
+ * resampling is done. The finished samples go into an {@link AudioRing} for the audio thread,
+ * through a {@link Resampler} when the sound card runs at another rate.
+ * <p>
+ * Channels are mixed linearly (the usual approximation of the 2A03's non-linear DAC), which is what
+ * lets them be synthesized independently.
+ *
+ * @see <a href="https://www.nesdev.org/wiki/APU">APU</a>
+ */
+public class Apu2A03 implements StateSerializable {
+
+    /** NTSC CPU (and APU input) clock in Hz. */
+    public static final double CPU_CLOCK_RATE = 21_477_272.0 / Scheduler.MASTER_CYCLES_PER_CPU_CYCLE;
+    public static final int DEFAULT_SAMPLE_RATE = 44_100;
+
+    // --- Constants: Registers ($4000 + offset) ---
+    private static final int REG_TRIANGLE = 0x08;
+    private static final int REG_DMC = 0x10;
+    private static final int REG_DMC_CONTROL = 0x10;
+    private static final int REG_DMC_ADDRESS = 0x12;
+    private static final int REG_DMC_LENGTH = 0x13;
+    private static final int REG_STATUS = 0x15;
+    private static final int REG_FRAME_COUNTER = 0x17;
+    private static final int LENGTH_REGISTER = 3;
+
+    // --- Constants: $4015 Bits ---
+    private static final int STATUS_DMC = 0x10;
+    private static final int STATUS_FRAME_IRQ = 0x40;
+    private static final int STATUS_DMC_IRQ = 0x80;
+
+    // --- Constants: Frame Counter (CPU cycles after the $4017 write) ---
+    private static final int[] FOUR_STEP_CYCLES = {7457, 14913, 22371, 29829};
+    private static final int[] FIVE_STEP_CYCLES = {7457, 14913, 22371, 37281};
+    private static final int FOUR_STEP_PERIOD = 29830;
+    private static final int FIVE_STEP_PERIOD = 37282;
+    private static final int LAST_STEP = 3;
+
+    // --- Constants: DMC Reader ---
+    private static final int DMC_ADDRESS_BASE = 0xC000;
+    private static final int DMC_WRAP_ADDRESS = 0x8000;
+
+    // --- Constants: Mixer (output units per level step, 40000 = full scale of the 2A03 DAC) ---
+    private static final int PULSE_GAIN = 301;
+    private static final int TRIANGLE_GAIN = 340;
+    private static final int NOISE_GAIN = 198;
+    private static final int DMC_GAIN = 134;
+
+    // --- Constants: Write Log ---
+    private static final int LOG_CAPACITY = 4096;
+    /** Log kinds below this are register offsets. */
+    private static final int LOG_FRAME_CLOCK = 0x20;
+    private static final int LOG_DMC_BYTE = 0x21;
+    private static final int FRAME_QUARTER = 0x01;
+    private static final int FRAME_HALF = 0x02;
+    /** Longest batch handed to the band-limited buffer (about 1/30 s). */
+    private static final int MAX_BATCH_CYCLES = 60_000;
+
+    /**
+     * lengths (4), length flags, frame flags, frame step, DMC rate/flags, DMC IRQ,
+     * address/length/current/remaining (2 each), three times.
+     */
+    private static final int CONTROL_STATE_SIZE = 4 + 3 + 2 + 4 * Short.BYTES + 3 * Long.BYTES;
+
+    private final PulseChannel pulse1 = new PulseChannel(PULSE_GAIN, true);
+    private final PulseChannel pulse2 = new PulseChannel(PULSE_GAIN, false);
+    private final TriangleChannel triangle = new TriangleChannel(TRIANGLE_GAIN);
+    private final NoiseChannel noise = new NoiseChannel(NOISE_GAIN);
+    private final DmcChannel dmc = new DmcChannel(DMC_GAIN);
+    private final ApuChannel[] channels = {pulse1, pulse2, triangle, noise, dmc};
+
+    private final BandLimitedBuffer buffer;
+    private final AudioRing output;
+    private final short[] samples;
+    private Resampler resampler;
+    private long droppedSamples;
+
+    private LongSupplier clock = () -> 0;
+    private Scheduler scheduler;
+    private IrqLine frameIrqLine;
+    private IrqLine dmcIrqLine;
+    private IntUnaryOperator memory;
+
+    // --- Write Log (parallel arrays) ---
+    private final long[] logCycles = new long[LOG_CAPACITY];
+    private final byte[] logKinds = new byte[LOG_CAPACITY];
+    private final byte[] logValues = new byte[LOG_CAPACITY];
+    private int logSize;
+    /** CPU cycle the channels have been synthesized up to. */
+    private long synthesizedCycle;
+
+    // --- Real-Time Length Counters (pulse 1, pulse 2, triangle, noise) ---
+    private final int[] lengthCounters = new int[4];
+    private int lengthHalted;
+    private int channelsEnabled;
+
+    // --- Frame Counter ---
+    private boolean fiveStepMode;
+    private boolean irqInhibit;
+    private boolean frameIrq;
+    private int frameStep;
+    /** CPU cycle the current frame counter sequence started at. */
+    private long sequenceStart;
+
+    // --- DMC Reader ---
+    private int dmcRateIndex;
+    private boolean dmcLoop;
+    private boolean dmcIrqEnabled;
+    private boolean dmcIrq;
+    private int sampleAddress = DMC_ADDRESS_BASE;
+    private int sampleLength = 1;
+    private int currentAddress;
+    private int bytesRemaining;
+    /** CPU cycle of the next sample fetch, or {@link Scheduler#NO_EVENT}. */
+    private long nextFetchCycle = Scheduler.NO_EVENT;
+
+    /**
+     * @param output     Receives the synthesized samples.
+     * @param sampleRate Output sample rate in Hz.
+     */
+    public Apu2A03(AudioRing output, int sampleRate) {
+        this.output = Objects.requireNonNull(output, "Output cannot be null");
+        int capacity = (int) Math.ceil((double) MAX_BATCH_CYCLES * sampleRate / CPU_CLOCK_RATE) + 1;
+        this.buffer = new BandLimitedBuffer(CPU_CLOCK_RATE, sampleRate, capacity);
+        this.samples = new short[capacity];
+        reset(0);
+    }
+
+    // --- Wiring ---
+
+    /**
+     * Sets the source of the current master clock time, usually {@link Scheduler#now()}.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * Attaches the console's scheduler, which runs the frame counter and DMC fetches. Without one,
+     * register writes are still synthesized but the frame counter and DMC reader stand still.
+     */
+    public void attachScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Connects the IRQ outputs of the frame counter and the DMC.
+     */
+    public void connectIrqLines(IrqLine frameIrqLine, IrqLine dmcIrqLine) {
+        this.frameIrqLine = frameIrqLine;
+        this.dmcIrqLine = dmcIrqLine;
+    }
+
+    /**
+     * Connects the memory the DMC fetches samples from. The reader is expected to charge the CPU
+     * for the stolen cycles (see {@code Bus#dmcRead}).
+     */
+    public void connectMemory(IntUnaryOperator memory) {
+        this.memory = memory;
+    }
+
+    /**
+     * Sends the samples through a resampler before the output ring, or directly if null. Its input
+     * rate must be this APU's synthesis rate.
+     */
+    public void setResampler(Resampler resampler) {
+        if (resampler != null && resampler.getInputRate() != buffer.getSampleRate()) {
+            throw new IllegalArgumentException("Resampler input rate " + resampler.getInputRate()
+                    + " Hz does not match the synthesis rate " + buffer.getSampleRate() + " Hz");
+        }
+        this.resampler = resampler;
+    }
+
+    /**
+     * Silences all channels and restarts the frame counter.
+     *
+     * @param time Master clock time of the reset.
+     */
+    public void reset(long time) {
+        long cycle = toCpuCycle(time);
+        for (ApuChannel channel : channels) {
+            channel.reset(cycle);
+        }
+        buffer.clear(cycle);
+        if (resampler != null) {
+            resampler.reset();
+        }
+        logSize = 0;
+        synthesizedCycle = cycle;
+        Arrays.fill(lengthCounters, 0);
+        lengthHalted = 0;
+        channelsEnabled = 0;
+        setFrameIrq(false);
+        setDmcIrq(false);
+        dmcRateIndex = 0;
+        dmcLoop = false;
+        dmcIrqEnabled = false;
+        bytesRemaining = 0;
+        nextFetchCycle = Scheduler.NO_EVENT;
+        if (scheduler != null) {
+            scheduler.cancel(Scheduler.EVENT_DMC_FETCH);
+        }
+        writeFrameCounter(0, cycle);
+    }
+
+    private static long toCpuCycle(long time) {
+        return time / Scheduler.MASTER_CYCLES_PER_CPU_CYCLE;
+    }
+
+    private long now() {
+        return toCpuCycle(clock.getAsLong());
+    }
+
+    // --- CPU Register Access ---
+
+    /**
+     * Writes an APU register on behalf of the CPU.
+     *
+     * @param address $4000-$4013, $4015 or $4017.
+     * @param data    The byte written.
+     */
+    public void writeRegister(int address, byte data) {
+        int register = address & 0x1F;
+        int value = data & 0xFF;
+        long cycle = now();
+        switch (register) {
+            case REG_STATUS:
+                writeStatus(value, cycle);
+                log(register, value, cycle);
+                break;
+            case REG_FRAME_COUNTER:
+                writeFrameCounter(value, cycle);
+                break;
+            case REG_DMC_CONTROL:
+                dmcIrqEnabled = (value & 0x80) != 0;
+                dmcLoop = (value & 0x40) != 0;
+                dmcRateIndex = value & 0x0F;
+                if (!dmcIrqEnabled) {
+                    setDmcIrq(false);
+                }
+                log(register, value, cycle);
+                break;
+            case REG_DMC_ADDRESS:
+                sampleAddress = DMC_ADDRESS_BASE + value * 64;
+                break;
+            case REG_DMC_LENGTH:
+                sampleLength = value * 16 + 1;
+                break;
+            default:
+                if (register < REG_DMC) {
+                    trackLength(register, value);
+                    log(register, value, cycle);
+                } else if (register < REG_STATUS) {
+                    log(register, value, cycle); // $4011 direct load
+                }
+                break;
+        }
+    }
+
+    /**
+     * Reads $4015: length counter and DMC activity, frame and DMC IRQ flags. Clears the frame IRQ.
+     */
+    public int readStatus() {
+        int status = 0;
+        for (int channel = 0; channel < lengthCounters.length; channel++) {
+            if (lengthCounters[channel] > 0) {
+                status |= 1 << channel;
+            }
+        }
+        if (bytesRemaining > 0) {
+            status |= STATUS_DMC;
+        }
+        if (frameIrq) {
+            status |= STATUS_FRAME_IRQ;
+        }
+        if (dmcIrq) {
+            status |= STATUS_DMC_IRQ;
+        }
+        setFrameIrq(false);
+        return status;
+    }
+
+    /**
+     * Mirrors the length counter and halt flag writes the CPU can observe through $4015.
+     */
+    private void trackLength(int register, int value) {
+        int channel = register >> 2;
+        int haltBit = channel == REG_TRIANGLE >> 2 ? 0x80 : 0x20;
+        if ((register & 3) == 0) {
+            lengthHalted = (value & haltBit) != 0 ? lengthHalted | (1 << channel) : lengthHalted & ~(1 << channel);
+        } else if ((register & 3) == LENGTH_REGISTER && (channelsEnabled & (1 << channel)) != 0) {
+            lengthCounters[channel] = ApuChannel.LENGTH_TABLE[value >> 3];
+        }
+    }
+
+    private void writeStatus(int value, long cycle) {
+        channelsEnabled = value & 0x0F;
+        for (int channel = 0; channel < lengthCounters.length; channel++) {
+            if ((channelsEnabled & (1 << channel)) == 0) {
+                lengthCounters[channel] = 0;
+            }
+        }
+        setDmcIrq(false);
+        if ((value & STATUS_DMC) == 0) {
+            bytesRemaining = 0;
+        } else if (bytesRemaining == 0) {
+            restartSample();
+            if (nextFetchCycle == Scheduler.NO_EVENT) {
+                scheduleFetch(cycle);
+            }
+        }
+    }
+
+    // --- Frame Counter ---
+
+    private void writeFrameCounter(int value, long cycle) {
+        fiveStepMode = (value & 0x80) != 0;
+        irqInhibit = (value & 0x40) != 0;
+        if (irqInhibit) {
+            setFrameIrq(false);
+        }
+        sequenceStart = cycle;
+        frameStep = 0;
+        if (fiveStepMode) {
+            clockFrame(cycle, true); // Five-step mode clocks everything immediately
+        }
+        scheduleFrameStep();
+    }
+
+    private void scheduleFrameStep() {
+        if (scheduler != null) {
+            int[] steps = fiveStepMode ? FIVE_STEP_CYCLES : FOUR_STEP_CYCLES;
+            scheduler.schedule(Scheduler.EVENT_APU_FRAME,
+                    (sequenceStart + steps[frameStep]) * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE);
+        }
+    }
+
+    /**
+     * Called from the console's {@link Scheduler#EVENT_APU_FRAME} event.
+     */
+    public void onFrameCounterEvent(long time) {
+        long cycle = toCpuCycle(time);
+        clockFrame(cycle, frameStep == 1 || frameStep == LAST_STEP);
+        if (frameStep == LAST_STEP) {
+            if (!fiveStepMode && !irqInhibit) {
+                setFrameIrq(true);
+            }
+            sequenceStart += fiveStepMode ? FIVE_STEP_PERIOD : FOUR_STEP_PERIOD;
+            frameStep = 0;
+        } else {
+            frameStep++;
+        }
+        scheduleFrameStep();
+    }
+
+    private void clockFrame(long cycle, boolean halfFrame) {
+        if (halfFrame) {
+            for (int channel = 0; channel < lengthCounters.length; channel++) {
+                if ((lengthHalted & (1 << channel)) == 0 && lengthCounters[channel] > 0) {
+                    lengthCounters[channel]--;
+                }
+            }
+        }
+        log(LOG_FRAME_CLOCK, halfFrame ? FRAME_QUARTER | FRAME_HALF : FRAME_QUARTER, cycle);
+    }
+
+    private void setFrameIrq(boolean asserted) {
+        frameIrq = asserted;
+        if (frameIrqLine != null) {
+            frameIrqLine.set(asserted);
+        }
+    }
+
+    // --- DMC Reader ---
+
+    private void restartSample() {
+        currentAddress = sampleAddress;
+        bytesRemaining = sampleLength;
+    }
+
+    private void scheduleFetch(long cycle) {
+        if (scheduler != null) {
+            nextFetchCycle = cycle;
+            scheduler.schedule(Scheduler.EVENT_DMC_FETCH, cycle * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE);
+        }
+    }
+
+    /**
+     * Called from the console's {@link Scheduler#EVENT_DMC_FETCH} event: fetches the next sample
+     * byte, one byte per eight output bits.
+     */
+    public void onDmcFetch(long time) {
+        long cycle = toCpuCycle(time);
+        nextFetchCycle = Scheduler.NO_EVENT;
+        if (bytesRemaining == 0) {
+            return;
+        }
+        int value = memory != null ? memory.applyAsInt(currentAddress) & 0xFF : 0;
+        log(LOG_DMC_BYTE, value, cycle);
+        currentAddress = currentAddress == 0xFFFF ? DMC_WRAP_ADDRESS : currentAddress + 1;
+        if (--bytesRemaining == 0) {
+            if (dmcLoop) {
+                restartSample();
+            } else if (dmcIrqEnabled) {
+                setDmcIrq(true);
+            }
+        }
+        if (bytesRemaining > 0) {
+            scheduleFetch(cycle + 8L * DmcChannel.RATES[dmcRateIndex]);
+        }
+    }
+
+    private void setDmcIrq(boolean asserted) {
+        dmcIrq = asserted;
+        if (dmcIrqLine != null) {
+            dmcIrqLine.set(asserted);
+        }
+    }
+
+    // --- Synthesis ---
+
+    private void log(int kind, int value, long cycle) {
+        if (logSize == LOG_CAPACITY) {
+            synthesize(cycle);
+        }
+        logCycles[logSize] = cycle;
+        logKinds[logSize] = (byte) kind;
+        logValues[logSize] = (byte) value;
+        logSize++;
+    }
+
+    /**
+     * Synthesizes the sound up to a time and pushes the samples to the output ring. Called by the
+     * console at the end of every frame.
+     *
+     * @param time Master clock time.
+     */
+    public void endFrame(long time) {
+        synthesize(toCpuCycle(time));
+    }
+
+    /**
+     * Replays the log up to {@code toCycle} in batches of at most {@link #MAX_BATCH_CYCLES}.
+     * Entries after {@code toCycle} (a write by an instruction that ended past the frame) stay
+     * in the log for the next call.
+     */
+    private void synthesize(long toCycle) {
+        int entry = 0;
+        while (synthesizedCycle < toCycle) {
+            long batchEnd = Math.min(toCycle, synthesizedCycle + MAX_BATCH_CYCLES);
+            for (; entry < logSize && logCycles[entry] <= batchEnd; entry++) {
+                long cycle = Math.max(logCycles[entry], synthesizedCycle);
+                runChannels(cycle);
+                apply(logKinds[entry] & 0xFF, logValues[entry] & 0xFF, cycle);
+            }
+            runChannels(batchEnd);
+            buffer.endFrame(batchEnd);
+            synthesizedCycle = batchEnd;
+            drainBuffer();
+        }
+        int remaining = logSize - entry;
+        System.arraycopy(logCycles, entry, logCycles, 0, remaining);
+        System.arraycopy(logKinds, entry, logKinds, 0, remaining);
+        System.arraycopy(logValues, entry, logValues, 0, remaining);
+        logSize = remaining;
+    }
+
+    private void runChannels(long toCycle) {
+        for (ApuChannel channel : channels) {
+            channel.run(toCycle, buffer);
+        }
+    }
+
+    private void apply(int kind, int value, long cycle) {
+        switch (kind) {
+            case LOG_FRAME_CLOCK:
+                for (ApuChannel channel : channels) {
+                    channel.quarterFrame();
+                    if ((value & FRAME_HALF) != 0) {
+                        channel.halfFrame();
+                    }
+                }
+                break;
+            case LOG_DMC_BYTE:
+                dmc.playByte(cycle, value);
+                return; // Its level changes bit by bit from here on
+            case REG_STATUS:
+                for (int channel = 0; channel < 4; channel++) {
+                    channels[channel].setEnabled((value & (1 << channel)) != 0);
+                }
+                break;
+            default:
+                channels[kind >> 2].write(kind & 3, value);
+                break;
+        }
+        for (ApuChannel channel : channels) {
+            channel.update(cycle, buffer);
+        }
+    }
+
+    private void drainBuffer() {
+        int count;
+        while ((count = buffer.readSamples(samples, 0, samples.length)) > 0) {
+            if (resampler != null) {
+                droppedSamples += resampler.process(samples, 0, count, output);
+            } else {
+                droppedSamples += count - output.write(samples, 0, count);
+            }
+        }
+    }
+
+    // --- Getters ---
+
+    public AudioRing getOutput() {
+        return output;
+    }
+
+    /**
+     * @return Rate of the samples in the output ring.
+     */
+    public int getSampleRate() {
+        return resampler != null ? resampler.getOutputRate() : buffer.getSampleRate();
+    }
+
+    public Resampler getResampler() {
+        return resampler;
+    }
+
+    /** Samples dropped because the output ring was full. */
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        int size = CONTROL_STATE_SIZE;
+        for (ApuChannel channel : channels) {
+            size += channel.getStateSize();
+        }
+        return size;
+    }
+
+    /**
+     * Saves the real-time state and the channels. Pending log entries are synthesized first, so
+     * the log never needs saving.
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        synthesize(Math.max(now(), synthesizedCycle));
+        for (int length : lengthCounters) {
+            buffer.put((byte) length);
+        }
+        buffer.put((byte) (lengthHalted | (channelsEnabled << 4)));
+        buffer.put((byte) ((fiveStepMode ? 1 : 0) | (irqInhibit ? 2 : 0) | (frameIrq ? 4 : 0)));
+        buffer.put((byte) frameStep);
+        buffer.put((byte) (dmcRateIndex | (dmcLoop ? 0x40 : 0) | (dmcIrqEnabled ? 0x80 : 0)));
+        buffer.put((byte) (dmcIrq ? 1 : 0));
+        buffer.putShort((short) sampleAddress);
+        buffer.putShort((short) sampleLength);
+        buffer.putShort((short) currentAddress);
+        buffer.putShort((short) bytesRemaining);
+        buffer.putLong(sequenceStart);
+        buffer.putLong(nextFetchCycle);
+        buffer.putLong(synthesizedCycle);
+        for (ApuChannel channel : channels) {
+            channel.saveState(buffer);
+        }
+    }
+
+    /**
+     * Restores the state and reschedules the frame counter and DMC events. Samples still inside
+     * the band-limited buffer's kernel window at save time are not restored.
+     */
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        for (int channel = 0; channel < lengthCounters.length; channel++) {
+            lengthCounters[channel] = buffer.get() & 0xFF;
+        }
+        int lengthFlags = buffer.get() & 0xFF;
+        lengthHalted = lengthFlags & 0x0F;
+        channelsEnabled = lengthFlags >> 4;
+        int frameFlags = buffer.get();
+        fiveStepMode = (frameFlags & 1) != 0;
+        irqInhibit = (frameFlags & 2) != 0;
+        frameIrq = (frameFlags & 4) != 0;
+        frameStep = buffer.get() & 0x03;
+        int dmcControl = buffer.get() & 0xFF;
+        dmcRateIndex = dmcControl & 0x0F;
+        dmcLoop = (dmcControl & 0x40) != 0;
+        dmcIrqEnabled = (dmcControl & 0x80) != 0;
+        dmcIrq = buffer.get() != 0;
+        sampleAddress = buffer.getShort() & 0xFFFF;
+        sampleLength = buffer.getShort() & 0xFFFF;
+        currentAddress = buffer.getShort() & 0xFFFF;
+        bytesRemaining = buffer.getShort() & 0xFFFF;
+        sequenceStart = buffer.getLong();
+        nextFetchCycle = buffer.getLong();
+        synthesizedCycle = buffer.getLong();
+        for (ApuChannel channel : channels) {
+            channel.loadState(buffer);
+        }
+
+        this.buffer.clear(synthesizedCycle);
+        logSize = 0;
+        if (scheduler != null) {
+            scheduleFrameStep();
+            if (nextFetchCycle != Scheduler.NO_EVENT) {
+                scheduleFetch(nextFetchCycle);
+            } else {
+                scheduler.cancel(Scheduler.EVENT_DMC_FETCH);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.BandLimitedBuffer;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Synthesis side of one APU channel: its registers, length counter and waveform generator.
+ * <p>
+ * Channels are only run during batch synthesis. {@link #run} advances the timer in whole periods up
+ * to a cycle and reports every output change to the {@link BandLimitedBuffer}; between register
+ * writes and frame counter clocks nothing else can change, so a silent channel skips straight to
+ * the end of the interval.
+ */
+abstract class ApuChannel implements StateSerializable {
+
+    /** Length counter load values, indexed by bits 3-7 of the fourth register. */
+    static final int[] LENGTH_TABLE = {
+            10, 254, 20, 2, 40, 4, 80, 6, 160, 8, 60, 10, 14, 12, 26, 14,
+            12, 16, 24, 18, 48, 20, 96, 22, 192, 24, 72, 26, 16, 28, 32, 30,
+    };
+
+    /** length, flags (1 each), next clock (8), last output (1). */
+    private static final int BASE_STATE_SIZE = 2 + Long.BYTES + 1;
+
+    /** Output units per step of this channel's 0-15 (0-127 for DMC) level. */
+    protected final int gain;
+    protected int length;
+    protected boolean halt;
+    protected boolean enabled;
+    /** CPU cycle of the next timer clock. */
+    protected long nextClock;
+    /** Level last reported to the buffer. */
+    protected int lastOutput;
+
+    protected ApuChannel(int gain) {
+        this.gain = gain;
+    }
+
+    /**
+     * Writes one of the channel's four registers.
+     *
+     * @param register 0-3.
+     * @param value    The byte written.
+     */
+    abstract void write(int register, int value);
+
+    /** Frame counter quarter-frame clock (envelopes, linear counter). */
+    void quarterFrame() {
+    }
+
+    /** Frame counter half-frame clock (length counters, sweeps). */
+    void halfFrame() {
+        if (!halt && length > 0) {
+            length--;
+        }
+    }
+
+    /** @return The current level. */
+    abstract int output();
+
+    /**
+     * Runs the timer up to (excluding) a CPU cycle, reporting output changes.
+     */
+    abstract void run(long toCycle, BandLimitedBuffer buffer);
+
+    void reset(long cycle) {
+        length = 0;
+        halt = false;
+        enabled = false;
+        nextClock = cycle;
+        lastOutput = 0;
+    }
+
+    final void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            length = 0;
+        }
+    }
+
+    protected final void loadLength(int value) {
+        if (enabled) {
+            length = LENGTH_TABLE[value >> 3];
+        }
+    }
+
+    /**
+     * Reports a change of {@link #output()} caused by a register write or frame counter clock.
+     */
+    final void update(long cycle, BandLimitedBuffer buffer) {
+        emit(cycle, output(), buffer);
+    }
+
+    protected final void emit(long cycle, int output, BandLimitedBuffer buffer) {
+        if (output != lastOutput) {
+            buffer.addDelta(cycle, (output - lastOutput) * gain);
+            lastOutput = output;
+        }
+    }
+
+    /**
+     * Advances the timer to the first clock at or after {@code toCycle} without running it.
+     *
+     * @return Number of clocks skipped.
+     */
+    protected final long skip(long toCycle, long period) {
+        if (nextClock >= toCycle) {
+            return 0;
+        }
+        long clocks = (toCycle - nextClock + period - 1) / period;
+        nextClock += clocks * period;
+        return clocks;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return BASE_STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) length);
+        buffer.put((byte) ((halt ? 1 : 0) | (enabled ? 2 : 0)));
+        buffer.putLong(nextClock);
+        buffer.put((byte) lastOutput);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        length = buffer.get() & 0xFF;
+        int flags = buffer.get();
+        halt = (flags & 1) != 0;
+        enabled = (flags & 2) != 0;
+        nextClock = buffer.getLong();
+        lastOutput = buffer.get() & 0xFF;
+    }
+}
@@ -0,0 +1,113 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.BandLimitedBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Output unit of the delta modulation channel ($4010-$4013): a 7-bit level moved up or down by 2
+ * for each bit of a sample byte.
+ * <p>
+ * Sample bytes are fetched in real time by {@link Apu2A03} (they cost CPU cycles and may raise an
+ * IRQ) and handed over through the write log; each one is played bit by bit from the moment it was
+ * fetched. The one-byte sample buffer between fetch and shift register is not modelled.
+ */
+final class DmcChannel extends ApuChannel {
+
+    /** NTSC output rates in CPU cycles per bit. */
+    static final int[] RATES = {428, 380, 340, 320, 286, 254, 226, 214, 190, 160, 142, 128, 106, 84, 72, 54};
+    private static final int MAX_LEVEL = 127;
+
+    /** rate index, level, shift register, bits remaining. */
+    private static final int STATE_SIZE = 4;
+
+    private int rateIndex;
+    private int level;
+    private int shiftRegister;
+    private int bitsRemaining;
+
+    DmcChannel(int gain) {
+        super(gain);
+    }
+
+    @Override
+    void write(int register, int value) {
+        switch (register) {
+            case 0:
+                rateIndex = value & 0x0F;
+                break;
+            case 1:
+                level = value & MAX_LEVEL; // Direct load
+                break;
+            default: // Sample address and length are used by the reader
+                break;
+        }
+    }
+
+    /**
+     * Starts playing a fetched sample byte: its first bit is output at {@code cycle}, the last one
+     * just before the next fetch.
+     */
+    void playByte(long cycle, int value) {
+        shiftRegister = value;
+        bitsRemaining = 8;
+        nextClock = cycle;
+    }
+
+    @Override
+    int output() {
+        return level;
+    }
+
+    @Override
+    void run(long toCycle, BandLimitedBuffer buffer) {
+        long period = RATES[rateIndex];
+        while (bitsRemaining > 0 && nextClock < toCycle) {
+            if ((shiftRegister & 1) != 0) {
+                if (level <= MAX_LEVEL - 2) {
+                    level += 2;
+                }
+            } else if (level >= 2) {
+                level -= 2;
+            }
+            shiftRegister >>= 1;
+            bitsRemaining--;
+            emit(nextClock, level, buffer);
+            nextClock += period;
+        }
+    }
+
+    @Override
+    void reset(long cycle) {
+        super.reset(cycle);
+        rateIndex = 0;
+        level = 0;
+        shiftRegister = 0;
+        bitsRemaining = 0;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return super.getStateSize() + STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.put((byte) rateIndex);
+        buffer.put((byte) level);
+        buffer.put((byte) shiftRegister);
+        buffer.put((byte) bitsRemaining);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        rateIndex = buffer.get() & 0x0F;
+        level = buffer.get() & MAX_LEVEL;
+        shiftRegister = buffer.get() & 0xFF;
+        bitsRemaining = buffer.get() & 0x0F;
+    }
+}
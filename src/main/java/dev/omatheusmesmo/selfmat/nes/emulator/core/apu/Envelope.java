@@ -0,0 +1,74 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Volume envelope of the pulse and noise channels: either a constant volume or a decay from 15
+ * to 0, optionally looping, clocked by the frame counter's quarter frames.
+ */
+final class Envelope {
+
+    static final int STATE_SIZE = 3;
+
+    private int period;
+    private boolean constant;
+    private boolean loop;
+    private boolean start;
+    private int divider;
+    private int decay;
+
+    /** Bits 0-3: volume/period, bit 4: constant volume, bit 5: loop. */
+    void write(int value) {
+        period = value & 0x0F;
+        constant = (value & 0x10) != 0;
+        loop = (value & 0x20) != 0;
+    }
+
+    void restart() {
+        start = true;
+    }
+
+    void clock() {
+        if (start) {
+            start = false;
+            decay = 15;
+            divider = period;
+        } else if (divider == 0) {
+            divider = period;
+            if (decay > 0) {
+                decay--;
+            } else if (loop) {
+                decay = 15;
+            }
+        } else {
+            divider--;
+        }
+    }
+
+    int volume() {
+        return constant ? period : decay;
+    }
+
+    void reset() {
+        period = 0;
+        constant = false;
+        loop = false;
+        start = false;
+        divider = 0;
+        decay = 0;
+    }
+
+    void saveState(ByteBuffer buffer) {
+        buffer.put((byte) (period | (constant ? 0x10 : 0) | (loop ? 0x20 : 0) | (start ? 0x40 : 0)));
+        buffer.put((byte) divider);
+        buffer.put((byte) decay);
+    }
+
+    void loadState(ByteBuffer buffer) {
+        int flags = buffer.get();
+        write(flags);
+        start = (flags & 0x40) != 0;
+        divider = buffer.get() & 0x0F;
+        decay = buffer.get() & 0x0F;
+    }
+}
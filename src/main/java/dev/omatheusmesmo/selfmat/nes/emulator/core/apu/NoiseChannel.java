@@ -0,0 +1,110 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.BandLimitedBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Noise channel ($400C-$400F): a 15-bit linear feedback shift register with envelope and length
+ * counter. Short mode takes the feedback from bit 6 instead of bit 1, giving a 93-step metallic loop.
+ */
+final class NoiseChannel extends ApuChannel {
+
+    /** NTSC timer periods in CPU cycles. */
+    private static final int[] PERIODS = {4, 8, 16, 32, 64, 96, 128, 160, 202, 254, 380, 508, 762, 1016, 2034, 4068};
+
+    /** period index / mode, shift register (2), envelope. */
+    private static final int STATE_SIZE = 3 + Envelope.STATE_SIZE;
+
+    private final Envelope envelope = new Envelope();
+    private int periodIndex;
+    private boolean shortMode;
+    private int shiftRegister = 1;
+
+    NoiseChannel(int gain) {
+        super(gain);
+    }
+
+    @Override
+    void write(int register, int value) {
+        switch (register) {
+            case 0:
+                halt = (value & 0x20) != 0;
+                envelope.write(value);
+                break;
+            case 2:
+                shortMode = (value & 0x80) != 0;
+                periodIndex = value & 0x0F;
+                break;
+            case 3:
+                loadLength(value);
+                envelope.restart();
+                break;
+            default: // $400D is unused
+                break;
+        }
+    }
+
+    @Override
+    void quarterFrame() {
+        envelope.clock();
+    }
+
+    @Override
+    int output() {
+        return length == 0 || (shiftRegister & 1) != 0 ? 0 : envelope.volume();
+    }
+
+    @Override
+    void run(long toCycle, BandLimitedBuffer buffer) {
+        long period = PERIODS[periodIndex];
+        int volume = envelope.volume();
+        if (length == 0 || volume == 0) {
+            skip(toCycle, period); // Inaudible: the register sequence is not advanced
+            return;
+        }
+        int tap = shortMode ? 6 : 1;
+        int register = shiftRegister;
+        while (nextClock < toCycle) {
+            int feedback = (register ^ (register >> tap)) & 1;
+            register = (register >> 1) | (feedback << 14);
+            emit(nextClock, (register & 1) != 0 ? 0 : volume, buffer);
+            nextClock += period;
+        }
+        shiftRegister = register;
+    }
+
+    @Override
+    void reset(long cycle) {
+        super.reset(cycle);
+        envelope.reset();
+        periodIndex = 0;
+        shortMode = false;
+        shiftRegister = 1;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return super.getStateSize() + STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.put((byte) (periodIndex | (shortMode ? 0x80 : 0)));
+        buffer.putShort((short) shiftRegister);
+        envelope.saveState(buffer);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        int mode = buffer.get();
+        periodIndex = mode & 0x0F;
+        shortMode = (mode & 0x80) != 0;
+        shiftRegister = buffer.getShort() & 0x7FFF;
+        envelope.loadState(buffer);
+    }
+}
@@ -0,0 +1,174 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.BandLimitedBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pulse channel ($4000-$4003 / $4004-$4007): an 8-step duty cycle sequencer with envelope,
+ * sweep and length counter.
+ */
+final class PulseChannel extends ApuChannel {
+
+    private static final int[][] DUTY_CYCLES = {
+            {0, 1, 0, 0, 0, 0, 0, 0},
+            {0, 1, 1, 0, 0, 0, 0, 0},
+            {0, 1, 1, 1, 1, 0, 0, 0},
+            {1, 0, 0, 1, 1, 1, 1, 1},
+    };
+    private static final int MAX_PERIOD = 0x7FF;
+    private static final int MIN_PERIOD = 8;
+
+    /** duty, step, timer (2), sweep flags, sweep divider, envelope. */
+    private static final int STATE_SIZE = 6 + Envelope.STATE_SIZE;
+
+    /** Pulse 1 negates with ones' complement, pulse 2 with two's complement. */
+    private final boolean onesComplement;
+    private final Envelope envelope = new Envelope();
+    private int duty;
+    private int step;
+    private int timer;
+
+    // --- Sweep ---
+    private boolean sweepEnabled;
+    private int sweepPeriod;
+    private boolean sweepNegate;
+    private int sweepShift;
+    private boolean sweepReload;
+    private int sweepDivider;
+
+    PulseChannel(int gain, boolean onesComplement) {
+        super(gain);
+        this.onesComplement = onesComplement;
+    }
+
+    @Override
+    void write(int register, int value) {
+        switch (register) {
+            case 0:
+                duty = value >> 6;
+                halt = (value & 0x20) != 0;
+                envelope.write(value);
+                break;
+            case 1:
+                sweepEnabled = (value & 0x80) != 0;
+                sweepPeriod = (value >> 4) & 0x07;
+                sweepNegate = (value & 0x08) != 0;
+                sweepShift = value & 0x07;
+                sweepReload = true;
+                break;
+            case 2:
+                timer = (timer & 0x700) | value;
+                break;
+            default:
+                timer = (timer & 0xFF) | ((value & 0x07) << 8);
+                loadLength(value);
+                step = 0;
+                envelope.restart();
+                break;
+        }
+    }
+
+    @Override
+    void quarterFrame() {
+        envelope.clock();
+    }
+
+    @Override
+    void halfFrame() {
+        super.halfFrame();
+        if (sweepDivider == 0 && sweepEnabled && sweepShift > 0 && !isMuted()) {
+            timer = targetPeriod();
+        }
+        if (sweepDivider == 0 || sweepReload) {
+            sweepDivider = sweepPeriod;
+            sweepReload = false;
+        } else {
+            sweepDivider--;
+        }
+    }
+
+    private int targetPeriod() {
+        int change = timer >> sweepShift;
+        if (!sweepNegate) {
+            return timer + change;
+        }
+        return timer - change - (onesComplement ? 1 : 0);
+    }
+
+    /** The sweep unit silences periods below 8 and targets above $7FF, even when disabled. */
+    private boolean isMuted() {
+        return timer < MIN_PERIOD || targetPeriod() > MAX_PERIOD;
+    }
+
+    @Override
+    int output() {
+        if (length == 0 || isMuted() || DUTY_CYCLES[duty][step] == 0) {
+            return 0;
+        }
+        return envelope.volume();
+    }
+
+    @Override
+    void run(long toCycle, BandLimitedBuffer buffer) {
+        long period = (timer + 1) * 2L;
+        int volume = envelope.volume();
+        if (length == 0 || volume == 0 || isMuted()) {
+            step = (int) ((step + skip(toCycle, period)) & 0x07);
+            return;
+        }
+        int[] pattern = DUTY_CYCLES[duty];
+        while (nextClock < toCycle) {
+            step = (step + 1) & 0x07;
+            emit(nextClock, pattern[step] * volume, buffer);
+            nextClock += period;
+        }
+    }
+
+    @Override
+    void reset(long cycle) {
+        super.reset(cycle);
+        envelope.reset();
+        duty = 0;
+        step = 0;
+        timer = 0;
+        sweepEnabled = false;
+        sweepPeriod = 0;
+        sweepNegate = false;
+        sweepShift = 0;
+        sweepReload = false;
+        sweepDivider = 0;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return super.getStateSize() + STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.put((byte) duty);
+        buffer.put((byte) step);
+        buffer.putShort((short) timer);
+        buffer.put((byte) ((sweepEnabled ? 0x80 : 0) | (sweepPeriod << 4) | (sweepNegate ? 0x08 : 0)
+                | sweepShift));
+        buffer.put((byte) (sweepDivider | (sweepReload ? 0x80 : 0)));
+        envelope.saveState(buffer);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        duty = buffer.get() & 0x03;
+        step = buffer.get() & 0x07;
+        timer = buffer.getShort() & MAX_PERIOD;
+        write(1, buffer.get() & 0xFF);
+        int divider = buffer.get();
+        sweepDivider = divider & 0x07;
+        sweepReload = (divider & 0x80) != 0;
+        envelope.loadState(buffer);
+    }
+}
@@ -0,0 +1,121 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.BandLimitedBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Triangle channel ($4008-$400B): a 32-step sequencer gated by the linear and length counters.
+ * When gated it holds its current level instead of dropping to zero.
+ */
+final class TriangleChannel extends ApuChannel {
+
+    private static final int[] SEQUENCE = {
+            15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0,
+            0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+    };
+    /** Periods below this are ultrasonic; they are stopped, as most emulators do, to avoid popping. */
+    private static final int MIN_PERIOD = 2;
+
+    /** step, timer (2), linear reload value, linear counter, reload flag. */
+    private static final int STATE_SIZE = 6;
+
+    private int step;
+    private int timer;
+    private int linearReloadValue;
+    private int linearCounter;
+    private boolean linearReload;
+
+    TriangleChannel(int gain) {
+        super(gain);
+    }
+
+    @Override
+    void write(int register, int value) {
+        switch (register) {
+            case 0:
+                halt = (value & 0x80) != 0; // Also the linear counter's control flag
+                linearReloadValue = value & 0x7F;
+                break;
+            case 2:
+                timer = (timer & 0x700) | value;
+                break;
+            case 3:
+                timer = (timer & 0xFF) | ((value & 0x07) << 8);
+                loadLength(value);
+                linearReload = true;
+                break;
+            default: // $4009 is unused
+                break;
+        }
+    }
+
+    @Override
+    void quarterFrame() {
+        if (linearReload) {
+            linearCounter = linearReloadValue;
+        } else if (linearCounter > 0) {
+            linearCounter--;
+        }
+        if (!halt) {
+            linearReload = false;
+        }
+    }
+
+    @Override
+    int output() {
+        return SEQUENCE[step];
+    }
+
+    @Override
+    void run(long toCycle, BandLimitedBuffer buffer) {
+        long period = timer + 1L;
+        if (length == 0 || linearCounter == 0 || timer < MIN_PERIOD) {
+            skip(toCycle, period);
+            return;
+        }
+        while (nextClock < toCycle) {
+            step = (step + 1) & 0x1F;
+            emit(nextClock, SEQUENCE[step], buffer);
+            nextClock += period;
+        }
+    }
+
+    @Override
+    void reset(long cycle) {
+        super.reset(cycle);
+        step = 0;
+        timer = 0;
+        linearReloadValue = 0;
+        linearCounter = 0;
+        linearReload = false;
+        lastOutput = SEQUENCE[0];
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return super.getStateSize() + STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        buffer.put((byte) step);
+        buffer.putShort((short) timer);
+        buffer.put((byte) linearReloadValue);
+        buffer.put((byte) linearCounter);
+        buffer.put((byte) (linearReload ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        super.loadState(buffer);
+        step = buffer.get() & 0x1F;
+        timer = buffer.getShort() & 0x7FF;
+        linearReloadValue = buffer.get() & 0x7F;
+        linearCounter = buffer.get() & 0x7F;
+        linearReload = buffer.get() != 0;
+    }
+}
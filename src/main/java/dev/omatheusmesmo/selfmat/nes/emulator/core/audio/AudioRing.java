@@ -0,0 +1,93 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring of 16-bit audio samples.
+ * <p>
+ * The emulation thread writes, the audio thread reads. Each side owns one ever-increasing position
+ * and publishes it with an ordered store after copying; the other side only reads it, and caches the
+ * last value it saw so the shared counters are touched once per call at most. Neither side blocks:
+ * a full ring drops the excess samples (the caller sees how many were written) and an empty ring
+ * returns fewer samples than asked for.
+ */
+public class AudioRing {
+
+    private final short[] samples;
+    private final int mask;
+
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+    /** Producer's copy of {@link #readPosition}. */
+    private long cachedReadPosition;
+    /** Consumer's copy of {@link #writePosition}. */
+    private long cachedWritePosition;
+
+    /**
+     * @param capacity Number of samples; must be a power of two.
+     */
+    public AudioRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.samples = new short[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // --- Producer ---
+
+    /**
+     * Appends samples, as many as fit.
+     *
+     * @return Number of samples written; the rest were dropped.
+     */
+    public int write(short[] source, int offset, int length) {
+        long write = writePosition.get();
+        int free = samples.length - (int) (write - cachedReadPosition);
+        if (free < length) {
+            cachedReadPosition = readPosition.get();
+            free = samples.length - (int) (write - cachedReadPosition);
+        }
+        int count = Math.min(length, free);
+        int start = (int) write & mask;
+        int first = Math.min(count, samples.length - start);
+        System.arraycopy(source, offset, samples, start, first);
+        System.arraycopy(source, offset + first, samples, 0, count - first);
+        writePosition.lazySet(write + count);
+        return count;
+    }
+
+    // --- Consumer ---
+
+    /**
+     * Removes up to {@code length} samples.
+     *
+     * @return Number of samples read.
+     */
+    public int read(short[] target, int offset, int length) {
+        long read = readPosition.get();
+        int available = (int) (cachedWritePosition - read);
+        if (available < length) {
+            cachedWritePosition = writePosition.get();
+            available = (int) (cachedWritePosition - read);
+        }
+        int count = Math.min(length, available);
+        int start = (int) read & mask;
+        int first = Math.min(count, samples.length - start);
+        System.arraycopy(samples, start, target, offset, first);
+        System.arraycopy(samples, 0, target, offset + first, count - first);
+        readPosition.lazySet(read + count);
+        return count;
+    }
+
+    /**
+     * @return Number of samples waiting to be read (a snapshot when called from the producer).
+     */
+    public int available() {
+        return (int) (writePosition.get() - readPosition.get());
+    }
+
+    public int getCapacity() {
+        return samples.length;
+    }
+}
@@ -0,0 +1,173 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.audio;
+
+import java.util.Arrays;
+
+/**
+ * Band-limited synthesis of square-edged waveforms (BLEP style).
+ * <p>
+ * Sound sources don't produce samples; they report amplitude changes with the clock cycle they
+ * happen at ({@link #addDelta}). Each change adds a band-limited impulse, taken from a table of
+ * windowed-sinc kernels at {@link #PHASES} sub-sample offsets, into a difference buffer. Reading
+ * integrates that buffer, which turns every impulse into a clean step without aliasing, then removes
+ * the DC offset with a one-pole high-pass. The cost is proportional to the number of amplitude
+ * changes, not to the clock rate.
+ * <p>
+ * Usage per batch: {@link #addDelta} for every change, {@link #endFrame} with the batch's end time,
+ * then {@link #readSamples} until empty.
+ */
+public class BandLimitedBuffer {
+
+    /** Taps per kernel; samples are complete this many samples after the last change. */
+    public static final int KERNEL_WIDTH = 16;
+    private static final int PHASE_BITS = 5;
+    private static final int PHASES = 1 << PHASE_BITS;
+    /** Kernels sum to 1 << KERNEL_BITS. */
+    private static final int KERNEL_BITS = 15;
+    /** Cut-off of the kernels, as a fraction of the sample rate (Nyquist is 0.5). */
+    private static final double CUTOFF = 0.45;
+    /** High-pass time constant: about 14 Hz at 44.1 kHz. */
+    private static final int DC_SHIFT = 9;
+    private static final int FRACTION_BITS = 32;
+
+    private static final int[][] KERNELS = buildKernels();
+
+    private final int sampleRate;
+    /** Samples per clock cycle, fixed point with {@link #FRACTION_BITS} fraction bits. */
+    private final long samplesPerCycle;
+    private final long[] differences;
+    private final int capacity;
+
+    /** Clock cycle of the last {@link #endFrame} (or {@link #clear}). */
+    private long frameStartCycle;
+    /** Sample position of {@link #frameStartCycle} relative to differences[0], fixed point. */
+    private long frameStartPosition;
+    private int available;
+
+    private long integrator;
+    private long dcLevel;
+
+    /**
+     * @param clockRate  Rate of the cycles passed to {@link #addDelta}, in Hz.
+     * @param sampleRate Output rate in Hz.
+     * @param capacity   Maximum samples in one batch.
+     */
+    public BandLimitedBuffer(double clockRate, int sampleRate, int capacity) {
+        if (sampleRate <= 0 || clockRate <= sampleRate || capacity <= 0) {
+            throw new IllegalArgumentException("Invalid rates or capacity: clock " + clockRate
+                    + " Hz, sample rate " + sampleRate + " Hz, capacity " + capacity);
+        }
+        this.sampleRate = sampleRate;
+        this.samplesPerCycle = Math.round(sampleRate / clockRate * (1L << FRACTION_BITS));
+        this.capacity = capacity;
+        this.differences = new long[capacity + KERNEL_WIDTH + 1];
+    }
+
+    /**
+     * Windowed-sinc (Blackman) impulses, one per sub-sample phase, each centred between taps
+     * {@code KERNEL_WIDTH / 2 - 1} and {@code KERNEL_WIDTH / 2} and normalized to sum exactly to
+     * {@code 1 << KERNEL_BITS}.
+     */
+    private static int[][] buildKernels() {
+        int[][] kernels = new int[PHASES][KERNEL_WIDTH];
+        for (int phase = 0; phase < PHASES; phase++) {
+            double[] taps = new double[KERNEL_WIDTH];
+            double sum = 0;
+            for (int tap = 0; tap < KERNEL_WIDTH; tap++) {
+                double x = tap - (KERNEL_WIDTH / 2.0 - 1) - (double) phase / PHASES;
+                double sinc = x == 0 ? 1 : Math.sin(Math.PI * 2 * CUTOFF * x) / (Math.PI * 2 * CUTOFF * x);
+                double w = 2 * Math.PI * (x + KERNEL_WIDTH / 2.0) / KERNEL_WIDTH;
+                double window = 0.42 - 0.5 * Math.cos(w) + 0.08 * Math.cos(2 * w);
+                taps[tap] = sinc * window;
+                sum += taps[tap];
+            }
+            int total = 0;
+            int peak = 0;
+            for (int tap = 0; tap < KERNEL_WIDTH; tap++) {
+                kernels[phase][tap] = (int) Math.round(taps[tap] / sum * (1 << KERNEL_BITS));
+                total += kernels[phase][tap];
+                if (kernels[phase][tap] > kernels[phase][peak]) {
+                    peak = tap;
+                }
+            }
+            kernels[phase][peak] += (1 << KERNEL_BITS) - total; // Exact unit step after rounding
+        }
+        return kernels;
+    }
+
+    /**
+     * Drops everything and restarts at a clock cycle.
+     */
+    public void clear(long cycle) {
+        Arrays.fill(differences, 0);
+        frameStartCycle = cycle;
+        frameStartPosition = 0;
+        available = 0;
+        integrator = 0;
+        dcLevel = 0;
+    }
+
+    /**
+     * Adds an amplitude change. Changes within a batch may be added in any order.
+     *
+     * @param cycle Clock cycle of the change, not before the last {@link #endFrame}.
+     * @param delta Change in amplitude, in output units.
+     */
+    public void addDelta(long cycle, int delta) {
+        long position = (cycle - frameStartCycle) * samplesPerCycle + frameStartPosition;
+        int index = (int) (position >>> FRACTION_BITS);
+        int[] kernel = KERNELS[(int) (position >>> (FRACTION_BITS - PHASE_BITS)) & (PHASES - 1)];
+        for (int tap = 0; tap < KERNEL_WIDTH; tap++) {
+            differences[index + tap] += (long) delta * kernel[tap];
+        }
+    }
+
+    /**
+     * Ends a batch: samples before this cycle become readable.
+     *
+     * @param cycle End of the batch; at most {@link #getCapacity()} samples after the previous one.
+     */
+    public void endFrame(long cycle) {
+        frameStartPosition += (cycle - frameStartCycle) * samplesPerCycle;
+        frameStartCycle = cycle;
+        available = (int) (frameStartPosition >>> FRACTION_BITS);
+        if (available > capacity) {
+            throw new IllegalStateException("Batch of " + available + " samples exceeds capacity " + capacity);
+        }
+    }
+
+    /**
+     * Reads completed samples.
+     *
+     * @return Number of samples read.
+     */
+    public int readSamples(short[] out, int offset, int count) {
+        int n = Math.min(count, available);
+        for (int i = 0; i < n; i++) {
+            integrator += differences[i];
+            long level = integrator >> KERNEL_BITS;
+            long sample = level - (dcLevel >> DC_SHIFT);
+            dcLevel += sample;
+            out[offset + i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+        }
+        // Shift the pending tail (up to one kernel past the batch end) to the front
+        int keep = available - n + KERNEL_WIDTH + 1;
+        System.arraycopy(differences, n, differences, 0, keep);
+        Arrays.fill(differences, keep, Math.min(differences.length, keep + n), 0);
+        available -= n;
+        frameStartPosition -= (long) n << FRACTION_BITS;
+        return n;
+    }
+
+    /** Samples ready to be read. */
+    public int samplesAvailable() {
+        return available;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,52 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.audio;
+
+/**
+ * Dynamic rate control: keeps an output ring about half full by nudging the resampling ratio.
+ * <p>
+ * The emulator runs frames off the video clock, so it produces audio slightly faster or slower than
+ * the sound card consumes it. Instead of dropping or repeating samples (or frames), the resampler
+ * makes a little less audio when the ring fills up and a little more when it drains. The change is
+ * at most {@link #MAX_ADJUSTMENT} (a pitch shift far below what the ear notices), and the fill level
+ * is smoothed first, since the consumer reads in bursts.
+ */
+public class RateController {
+
+    /** Largest relative change of the ratio, reached with an empty or full ring. */
+    public static final double MAX_ADJUSTMENT = 0.005;
+    /** Weight of each new fill reading in the running average. */
+    private static final double SMOOTHING = 0.125;
+
+    private double averageFill = 0.5;
+    private double adjustment = 1;
+
+    /**
+     * Adjusts a resampling step for the current fill level.
+     *
+     * @param baseStep Input samples per output sample at the nominal rates, 32.32 fixed point.
+     * @param fill     Samples currently in the output ring.
+     * @param capacity Capacity of the output ring.
+     * @return The step to use for the next block.
+     */
+    public long adjust(long baseStep, int fill, int capacity) {
+        double level = Math.min(1, Math.max(0, (double) fill / capacity));
+        averageFill += (level - averageFill) * SMOOTHING;
+        // A fuller ring means a bigger step through the input, hence fewer output samples
+        adjustment = 1 + MAX_ADJUSTMENT * (2 * averageFill - 1);
+        return Math.round(baseStep * adjustment);
+    }
+
+    /**
+     * Forgets the fill history.
+     */
+    public void reset() {
+        averageFill = 0.5;
+        adjustment = 1;
+    }
+
+    /**
+     * @return The last factor applied to the step: 1 at half fill, {@code 1 +- MAX_ADJUSTMENT} at the ends.
+     */
+    public double getAdjustment() {
+        return adjustment;
+    }
+}
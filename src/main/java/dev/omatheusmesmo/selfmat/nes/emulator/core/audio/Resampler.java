@@ -0,0 +1,168 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.audio;
+
+import java.util.Objects;
+
+/**
+ * Polyphase FIR sample rate converter, e.g. from the APU's 44.1 kHz to a 48 kHz sound card.
+ * <p>
+ * The filter is a Blackman-windowed sinc precomputed at {@link #PHASES} fractional offsets of
+ * {@link #TAPS} taps each, so every output sample is one short dot product with the phase nearest
+ * to its position. The position advances by a 32.32 fixed-point step per output sample, which an
+ * optional {@link RateController} adjusts once per block.
+ * <p>
+ * Input is processed in blocks of at most {@link #BLOCK_SIZE} samples through buffers allocated
+ * once; only the last {@code TAPS - 1} input samples are kept between calls.
+ */
+public class Resampler {
+
+    public static final int TAPS = 16;
+    public static final int BLOCK_SIZE = 1024;
+    private static final int PHASE_BITS = 8;
+    private static final int PHASES = 1 << PHASE_BITS;
+    /** Each phase sums to 1 << COEFFICIENT_BITS. */
+    private static final int COEFFICIENT_BITS = 14;
+    /** Cut-off as a fraction of the lower of the two rates (Nyquist is 0.5). */
+    private static final double CUTOFF = 0.45;
+    private static final int FRACTION_BITS = 32;
+
+    private final int inputRate;
+    private final int outputRate;
+    private final RateController rateController;
+    /** {@link #PHASES} rows of {@link #TAPS} coefficients. */
+    private final short[] coefficients;
+    private final long baseStep;
+    private long step;
+
+    /** Unconsumed input: the filter history followed by the current block. */
+    private final short[] history = new short[TAPS + BLOCK_SIZE];
+    private int buffered;
+    /** Position of the next output sample in {@link #history}, fixed point. */
+    private long position;
+    private final short[] block;
+
+    /**
+     * @param inputRate      Rate of the samples passed to {@link #process}, in Hz.
+     * @param outputRate     Rate of the samples written to the ring, in Hz.
+     * @param rateController Adjusts the ratio to the ring's fill level, or null for a fixed ratio.
+     */
+    public Resampler(int inputRate, int outputRate, RateController rateController) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("Invalid rates: " + inputRate + " Hz to " + outputRate + " Hz");
+        }
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+        this.rateController = rateController;
+        this.coefficients = buildCoefficients(CUTOFF * Math.min(1.0, (double) outputRate / inputRate));
+        this.baseStep = Math.round((double) inputRate / outputRate * (1L << FRACTION_BITS));
+        this.step = baseStep;
+        long minStep = (long) Math.floor(baseStep * (1 - RateController.MAX_ADJUSTMENT));
+        this.block = new short[(int) (((long) history.length << FRACTION_BITS) / minStep) + 1];
+    }
+
+    /**
+     * @param cutoff Cut-off frequency as a fraction of the input rate.
+     */
+    private static short[] buildCoefficients(double cutoff) {
+        short[] table = new short[PHASES * TAPS];
+        double[] taps = new double[TAPS];
+        for (int phase = 0; phase < PHASES; phase++) {
+            double sum = 0;
+            for (int tap = 0; tap < TAPS; tap++) {
+                double x = tap - (TAPS / 2.0 - 1) - (double) phase / PHASES;
+                double sinc = x == 0 ? 1 : Math.sin(Math.PI * 2 * cutoff * x) / (Math.PI * 2 * cutoff * x);
+                double w = 2 * Math.PI * (x + TAPS / 2.0) / TAPS;
+                double window = 0.42 - 0.5 * Math.cos(w) + 0.08 * Math.cos(2 * w);
+                taps[tap] = sinc * window;
+                sum += taps[tap];
+            }
+            int total = 0;
+            int peak = 0;
+            for (int tap = 0; tap < TAPS; tap++) {
+                int coefficient = (int) Math.round(taps[tap] / sum * (1 << COEFFICIENT_BITS));
+                table[phase * TAPS + tap] = (short) coefficient;
+                total += coefficient;
+                if (coefficient > table[phase * TAPS + peak]) {
+                    peak = tap;
+                }
+            }
+            table[phase * TAPS + peak] += (short) ((1 << COEFFICIENT_BITS) - total); // Unity DC gain
+        }
+        return table;
+    }
+
+    /**
+     * Resamples a run of input samples and appends the result to a ring.
+     *
+     * @return Number of output samples dropped because the ring was full.
+     */
+    public int process(short[] input, int offset, int length, AudioRing output) {
+        Objects.requireNonNull(output, "Output cannot be null");
+        int dropped = 0;
+        while (length > 0) {
+            int count = Math.min(length, history.length - buffered);
+            System.arraycopy(input, offset, history, buffered, count);
+            buffered += count;
+            offset += count;
+            length -= count;
+            if (rateController != null) {
+                step = rateController.adjust(baseStep, output.available(), output.getCapacity());
+            }
+            int produced = filterBlock();
+            dropped += produced - output.write(block, 0, produced);
+        }
+        return dropped;
+    }
+
+    /**
+     * Produces every output sample whose taps are all buffered, then drops the consumed input.
+     */
+    private int filterBlock() {
+        int produced = 0;
+        long pos = position;
+        int index;
+        while ((index = (int) (pos >>> FRACTION_BITS)) + TAPS <= buffered) {
+            int row = ((int) (pos >>> (FRACTION_BITS - PHASE_BITS)) & (PHASES - 1)) * TAPS;
+            int sum = 0;
+            for (int tap = 0; tap < TAPS; tap++) {
+                sum += history[index + tap] * coefficients[row + tap];
+            }
+            sum >>= COEFFICIENT_BITS;
+            block[produced++] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sum));
+            pos += step;
+        }
+        int consumed = Math.min((int) (pos >>> FRACTION_BITS), buffered);
+        System.arraycopy(history, consumed, history, 0, buffered - consumed);
+        buffered -= consumed;
+        position = pos - ((long) consumed << FRACTION_BITS);
+        return produced;
+    }
+
+    /**
+     * Clears the filter history.
+     */
+    public void reset() {
+        buffered = 0;
+        position = 0;
+        step = baseStep;
+        if (rateController != null) {
+            rateController.reset();
+        }
+    }
+
+    // --- Getters ---
+
+    public int getInputRate() {
+        return inputRate;
+    }
+
+    public int getOutputRate() {
+        return outputRate;
+    }
+
+    /**
+     * @return The current output/input ratio, including any rate control adjustment.
+     */
+    public double getRatio() {
+        return (double) (1L << FRACTION_BITS) / step;
+    }
+}
@@ -0,0 +1,960 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.cpu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Emulates the Ricoh 2A03 CPU core (a MOS 6502 without decimal mode).
+ * <p>
+ * Instructions are dispatched through a single dense {@code switch} on the opcode, registers are
+ * plain {@code int} fields and nothing is allocated per instruction. Cycles are counted exactly,
+ * including the extra cycle for page crossings on indexed reads and for taken branches.
+ * All memory accesses go through the concrete {@link Bus} so the JIT can inline them.
+ */
+public class Cpu6502 implements StateSerializable {
+
+    // --- Constants: Status Flags ---
+    public static final int FLAG_CARRY = 0x01;
+    public static final int FLAG_ZERO = 0x02;
+    public static final int FLAG_INTERRUPT_DISABLE = 0x04;
+    public static final int FLAG_DECIMAL = 0x08;
+    public static final int FLAG_BREAK = 0x10;
+    public static final int FLAG_UNUSED = 0x20;
+    public static final int FLAG_OVERFLOW = 0x40;
+    public static final int FLAG_NEGATIVE = 0x80;
+
+    // --- Constants: Interrupt Vectors ---
+    private static final int NMI_VECTOR = 0xFFFA;
+    private static final int RESET_VECTOR = 0xFFFC;
+    private static final int IRQ_VECTOR = 0xFFFE;
+
+    private static final int STACK_BASE = 0x0100;
+    private static final int INTERRUPT_CYCLES = 7;
+
+    /** A, X, Y, SP, P (1 byte each), PC (2), cycles (8), NMI, IRQ sources, jammed (1 each). */
+    private static final int STATE_SIZE = 5 + 2 + 8 + 3;
+
+    // --- Constants: IRQ Sources (the IRQ line is the OR of all of them) ---
+    /** IRQ raised by the cartridge mapper (e.g. MMC3 scanline counter). */
+    public static final int IRQ_SOURCE_MAPPER = 0x01;
+    /** IRQ raised by the APU frame counter. */
+    public static final int IRQ_SOURCE_APU_FRAME = 0x02;
+    /** IRQ raised by the APU DMC channel. */
+    public static final int IRQ_SOURCE_DMC = 0x04;
+
+    /** Base cycle count of every opcode, page-cross and branch penalties are added on top. */
+    private static final byte[] CYCLES = {
+            //0 1  2  3  4  5  6  7  8  9  A  B  C  D  E  F
+            7, 6, 2, 8, 3, 3, 5, 5, 3, 2, 2, 2, 4, 4, 6, 6, // 0
+            2, 5, 2, 8, 4, 4, 6, 6, 2, 4, 2, 7, 4, 4, 7, 7, // 1
+            6, 6, 2, 8, 3, 3, 5, 5, 4, 2, 2, 2, 4, 4, 6, 6, // 2
+            2, 5, 2, 8, 4, 4, 6, 6, 2, 4, 2, 7, 4, 4, 7, 7, // 3
+            6, 6, 2, 8, 3, 3, 5, 5, 3, 2, 2, 2, 3, 4, 6, 6, // 4
+            2, 5, 2, 8, 4, 4, 6, 6, 2, 4, 2, 7, 4, 4, 7, 7, // 5
+            6, 6, 2, 8, 3, 3, 5, 5, 4, 2, 2, 2, 5, 4, 6, 6, // 6
+            2, 5, 2, 8, 4, 4, 6, 6, 2, 4, 2, 7, 4, 4, 7, 7, // 7
+            2, 6, 2, 6, 3, 3, 3, 3, 2, 2, 2, 2, 4, 4, 4, 4, // 8
+            2, 6, 2, 6, 4, 4, 4, 4, 2, 5, 2, 5, 5, 5, 5, 5, // 9
+            2, 6, 2, 6, 3, 3, 3, 3, 2, 2, 2, 2, 4, 4, 4, 4, // A
+            2, 5, 2, 5, 4, 4, 4, 4, 2, 4, 2, 4, 4, 4, 4, 4, // B
+            2, 6, 2, 8, 3, 3, 5, 5, 2, 2, 2, 2, 4, 4, 6, 6, // C
+            2, 5, 2, 8, 4, 4, 6, 6, 2, 4, 2, 7, 4, 4, 7, 7, // D
+            2, 6, 2, 8, 3, 3, 5, 5, 2, 2, 2, 2, 4, 4, 6, 6, // E
+            2, 5, 2, 8, 4, 4, 6, 6, 2, 4, 2, 7, 4, 4, 7, 7  // F
+    };
+
+    private final Bus bus;
+
+    // --- Registers ---
+    private int a;
+    private int x;
+    private int y;
+    private int sp;
+    private int pc;
+
+    // --- Status Flags (kept unpacked, packed only for PHP/interrupts) ---
+    private boolean carry;
+    private boolean zero;
+    private boolean interruptDisable;
+    private boolean decimal;
+    private boolean overflow;
+    private boolean negative;
+
+    // --- Timing and Interrupt State ---
+    private long cycles;
+    private boolean nmiPending;
+    private int irqSources;
+    private boolean jammed;
+    /** End of the burst being executed by {@link #runUntil(long)}. */
+    private long runTarget;
+
+    public Cpu6502(Bus bus) {
+        this.bus = java.util.Objects.requireNonNull(bus, "Bus cannot be null");
+        bus.connectCpu(this);
+        this.sp = 0xFD;
+        this.interruptDisable = true;
+    }
+
+    /**
+     * Performs the reset sequence: loads PC from the reset vector, sets the I flag and
+     * decrements SP by three, taking 7 cycles.
+     */
+    public void reset() {
+        sp = (sp - 3) & 0xFF;
+        interruptDisable = true;
+        nmiPending = false;
+        jammed = false;
+        pc = read16(RESET_VECTOR);
+        cycles += INTERRUPT_CYCLES;
+    }
+
+    // --- Execution ---
+
+    /**
+     * Executes a single instruction, or services a pending interrupt.
+     *
+     * @return The number of CPU cycles consumed.
+     */
+    public int step() {
+        long startCycles = cycles;
+
+        if (nmiPending) {
+            nmiPending = false;
+            interrupt(NMI_VECTOR);
+            return (int) (cycles - startCycles);
+        }
+        if (irqSources != 0 && !interruptDisable) {
+            interrupt(IRQ_VECTOR);
+            return (int) (cycles - startCycles);
+        }
+
+        int opcode = read(pc);
+        pc = (pc + 1) & 0xFFFF;
+        cycles += CYCLES[opcode];
+        execute(opcode);
+        return (int) (cycles - startCycles);
+    }
+
+    /**
+     * Runs instructions until at least {@code cycleBudget} cycles have elapsed.
+     * The last instruction may overshoot the budget; the overshoot is included in the result.
+     *
+     * @param cycleBudget Number of cycles to run.
+     * @return The number of cycles actually consumed.
+     */
+    public long runCycles(long cycleBudget) {
+        long startCycles = cycles;
+        runUntil(startCycles + cycleBudget);
+        return cycles - startCycles;
+    }
+
+    /**
+     * Runs instructions until the cycle counter reaches {@code targetCycle}.
+     *
+     * @param targetCycle Absolute cycle count to run to.
+     */
+    public void runUntil(long targetCycle) {
+        runTarget = targetCycle;
+        while (cycles < runTarget) {
+            step();
+        }
+    }
+
+    /**
+     * Moves the end of the current {@link #runUntil(long)} burst earlier, e.g. when an instruction
+     * made a component schedule an event before the old deadline. Later targets are ignored.
+     *
+     * @param targetCycle Absolute cycle count to stop at.
+     */
+    public void endRunAt(long targetCycle) {
+        if (targetCycle < runTarget) {
+            runTarget = targetCycle;
+        }
+    }
+
+    // --- Interrupt Lines ---
+
+    /**
+     * Signals a non-maskable interrupt (edge triggered); it is serviced before the next instruction.
+     */
+    public void triggerNmi() {
+        nmiPending = true;
+    }
+
+    /**
+     * Asserts or releases one of the sources driving the level-triggered IRQ line.
+     *
+     * @param source   One of the {@code IRQ_SOURCE_*} constants.
+     * @param asserted true to pull the line low for this source, false to release it.
+     */
+    public void setIrq(int source, boolean asserted) {
+        if (asserted) {
+            irqSources |= source;
+        } else {
+            irqSources &= ~source;
+        }
+    }
+
+    /**
+     * Adds cycles during which the CPU is halted (e.g. by OAM DMA).
+     *
+     * @param stallCycles Number of cycles to stall.
+     */
+    public void addStallCycles(int stallCycles) {
+        cycles += stallCycles;
+    }
+
+    private void interrupt(int vector) {
+        push(pc >> 8);
+        push(pc & 0xFF);
+        push(getStatus() & ~FLAG_BREAK);
+        interruptDisable = true;
+        pc = read16(vector);
+        cycles += INTERRUPT_CYCLES;
+    }
+
+    // --- Instruction Dispatch ---
+
+    private void execute(int opcode) {
+        switch (opcode) {
+            // --- Loads ---
+            case 0xA9: lda(read(immediate())); break;
+            case 0xA5: lda(read(zeroPage())); break;
+            case 0xB5: lda(read(zeroPageX())); break;
+            case 0xAD: lda(read(absolute())); break;
+            case 0xBD: lda(read(absoluteXRead())); break;
+            case 0xB9: lda(read(absoluteYRead())); break;
+            case 0xA1: lda(read(indirectX())); break;
+            case 0xB1: lda(read(indirectYRead())); break;
+
+            case 0xA2: ldx(read(immediate())); break;
+            case 0xA6: ldx(read(zeroPage())); break;
+            case 0xB6: ldx(read(zeroPageY())); break;
+            case 0xAE: ldx(read(absolute())); break;
+            case 0xBE: ldx(read(absoluteYRead())); break;
+
+            case 0xA0: ldy(read(immediate())); break;
+            case 0xA4: ldy(read(zeroPage())); break;
+            case 0xB4: ldy(read(zeroPageX())); break;
+            case 0xAC: ldy(read(absolute())); break;
+            case 0xBC: ldy(read(absoluteXRead())); break;
+
+            // --- Stores ---
+            case 0x85: write(zeroPage(), a); break;
+            case 0x95: write(zeroPageX(), a); break;
+            case 0x8D: write(absolute(), a); break;
+            case 0x9D: write(absoluteX(), a); break;
+            case 0x99: write(absoluteY(), a); break;
+            case 0x81: write(indirectX(), a); break;
+            case 0x91: write(indirectY(), a); break;
+
+            case 0x86: write(zeroPage(), x); break;
+            case 0x96: write(zeroPageY(), x); break;
+            case 0x8E: write(absolute(), x); break;
+
+            case 0x84: write(zeroPage(), y); break;
+            case 0x94: write(zeroPageX(), y); break;
+            case 0x8C: write(absolute(), y); break;
+
+            // --- Register Transfers ---
+            case 0xAA: x = a; setZn(x); break; // TAX
+            case 0xA8: y = a; setZn(y); break; // TAY
+            case 0x8A: a = x; setZn(a); break; // TXA
+            case 0x98: a = y; setZn(a); break; // TYA
+            case 0xBA: x = sp; setZn(x); break; // TSX
+            case 0x9A: sp = x; break; // TXS
+
+            // --- Stack ---
+            case 0x48: push(a); break; // PHA
+            case 0x08: push(getStatus() | FLAG_BREAK); break; // PHP
+            case 0x68: a = pull(); setZn(a); break; // PLA
+            case 0x28: setStatus(pull()); break; // PLP
+
+            // --- Logical ---
+            case 0x29: and(read(immediate())); break;
+            case 0x25: and(read(zeroPage())); break;
+            case 0x35: and(read(zeroPageX())); break;
+            case 0x2D: and(read(absolute())); break;
+            case 0x3D: and(read(absoluteXRead())); break;
+            case 0x39: and(read(absoluteYRead())); break;
+            case 0x21: and(read(indirectX())); break;
+            case 0x31: and(read(indirectYRead())); break;
+
+            case 0x09: ora(read(immediate())); break;
+            case 0x05: ora(read(zeroPage())); break;
+            case 0x15: ora(read(zeroPageX())); break;
+            case 0x0D: ora(read(absolute())); break;
+            case 0x1D: ora(read(absoluteXRead())); break;
+            case 0x19: ora(read(absoluteYRead())); break;
+            case 0x01: ora(read(indirectX())); break;
+            case 0x11: ora(read(indirectYRead())); break;
+
+            case 0x49: eor(read(immediate())); break;
+            case 0x45: eor(read(zeroPage())); break;
+            case 0x55: eor(read(zeroPageX())); break;
+            case 0x4D: eor(read(absolute())); break;
+            case 0x5D: eor(read(absoluteXRead())); break;
+            case 0x59: eor(read(absoluteYRead())); break;
+            case 0x41: eor(read(indirectX())); break;
+            case 0x51: eor(read(indirectYRead())); break;
+
+            case 0x24: bit(read(zeroPage())); break;
+            case 0x2C: bit(read(absolute())); break;
+
+            // --- Arithmetic ---
+            case 0x69: adc(read(immediate())); break;
+            case 0x65: adc(read(zeroPage())); break;
+            case 0x75: adc(read(zeroPageX())); break;
+            case 0x6D: adc(read(absolute())); break;
+            case 0x7D: adc(read(absoluteXRead())); break;
+            case 0x79: adc(read(absoluteYRead())); break;
+            case 0x61: adc(read(indirectX())); break;
+            case 0x71: adc(read(indirectYRead())); break;
+
+            case 0xE9: case 0xEB: sbc(read(immediate())); break; // 0xEB is the unofficial duplicate
+            case 0xE5: sbc(read(zeroPage())); break;
+            case 0xF5: sbc(read(zeroPageX())); break;
+            case 0xED: sbc(read(absolute())); break;
+            case 0xFD: sbc(read(absoluteXRead())); break;
+            case 0xF9: sbc(read(absoluteYRead())); break;
+            case 0xE1: sbc(read(indirectX())); break;
+            case 0xF1: sbc(read(indirectYRead())); break;
+
+            case 0xC9: compare(a, read(immediate())); break;
+            case 0xC5: compare(a, read(zeroPage())); break;
+            case 0xD5: compare(a, read(zeroPageX())); break;
+            case 0xCD: compare(a, read(absolute())); break;
+            case 0xDD: compare(a, read(absoluteXRead())); break;
+            case 0xD9: compare(a, read(absoluteYRead())); break;
+            case 0xC1: compare(a, read(indirectX())); break;
+            case 0xD1: compare(a, read(indirectYRead())); break;
+
+            case 0xE0: compare(x, read(immediate())); break;
+            case 0xE4: compare(x, read(zeroPage())); break;
+            case 0xEC: compare(x, read(absolute())); break;
+
+            case 0xC0: compare(y, read(immediate())); break;
+            case 0xC4: compare(y, read(zeroPage())); break;
+            case 0xCC: compare(y, read(absolute())); break;
+
+            // --- Increments & Decrements ---
+            case 0xE6: inc(zeroPage()); break;
+            case 0xF6: inc(zeroPageX()); break;
+            case 0xEE: inc(absolute()); break;
+            case 0xFE: inc(absoluteX()); break;
+            case 0xE8: x = (x + 1) & 0xFF; setZn(x); break; // INX
+            case 0xC8: y = (y + 1) & 0xFF; setZn(y); break; // INY
+
+            case 0xC6: dec(zeroPage()); break;
+            case 0xD6: dec(zeroPageX()); break;
+            case 0xCE: dec(absolute()); break;
+            case 0xDE: dec(absoluteX()); break;
+            case 0xCA: x = (x - 1) & 0xFF; setZn(x); break; // DEX
+            case 0x88: y = (y - 1) & 0xFF; setZn(y); break; // DEY
+
+            // --- Shifts ---
+            case 0x0A: a = asl(a); break;
+            case 0x06: { int addr = zeroPage(); write(addr, asl(read(addr))); break; }
+            case 0x16: { int addr = zeroPageX(); write(addr, asl(read(addr))); break; }
+            case 0x0E: { int addr = absolute(); write(addr, asl(read(addr))); break; }
+            case 0x1E: { int addr = absoluteX(); write(addr, asl(read(addr))); break; }
+
+            case 0x4A: a = lsr(a); break;
+            case 0x46: { int addr = zeroPage(); write(addr, lsr(read(addr))); break; }
+            case 0x56: { int addr = zeroPageX(); write(addr, lsr(read(addr))); break; }
+            case 0x4E: { int addr = absolute(); write(addr, lsr(read(addr))); break; }
+            case 0x5E: { int addr = absoluteX(); write(addr, lsr(read(addr))); break; }
+
+            case 0x2A: a = rol(a); break;
+            case 0x26: { int addr = zeroPage(); write(addr, rol(read(addr))); break; }
+            case 0x36: { int addr = zeroPageX(); write(addr, rol(read(addr))); break; }
+            case 0x2E: { int addr = absolute(); write(addr, rol(read(addr))); break; }
+            case 0x3E: { int addr = absoluteX(); write(addr, rol(read(addr))); break; }
+
+            case 0x6A: a = ror(a); break;
+            case 0x66: { int addr = zeroPage(); write(addr, ror(read(addr))); break; }
+            case 0x76: { int addr = zeroPageX(); write(addr, ror(read(addr))); break; }
+            case 0x6E: { int addr = absolute(); write(addr, ror(read(addr))); break; }
+            case 0x7E: { int addr = absoluteX(); write(addr, ror(read(addr))); break; }
+
+            // --- Jumps & Calls ---
+            case 0x4C: pc = absolute(); break; // JMP abs
+            case 0x6C: pc = indirect(); break; // JMP (ind)
+            case 0x20: { // JSR
+                int target = absolute();
+                int returnAddress = (pc - 1) & 0xFFFF;
+                push(returnAddress >> 8);
+                push(returnAddress & 0xFF);
+                pc = target;
+                break;
+            }
+            case 0x60: { // RTS
+                int low = pull();
+                int high = pull();
+                pc = (((high << 8) | low) + 1) & 0xFFFF;
+                break;
+            }
+            case 0x40: { // RTI
+                setStatus(pull());
+                int low = pull();
+                int high = pull();
+                pc = (high << 8) | low;
+                break;
+            }
+            case 0x00: { // BRK
+                int returnAddress = (pc + 1) & 0xFFFF; // Skip the padding byte
+                push(returnAddress >> 8);
+                push(returnAddress & 0xFF);
+                push(getStatus() | FLAG_BREAK);
+                interruptDisable = true;
+                pc = read16(IRQ_VECTOR);
+                break;
+            }
+
+            // --- Branches ---
+            case 0x10: branch(!negative); break; // BPL
+            case 0x30: branch(negative); break; // BMI
+            case 0x50: branch(!overflow); break; // BVC
+            case 0x70: branch(overflow); break; // BVS
+            case 0x90: branch(!carry); break; // BCC
+            case 0xB0: branch(carry); break; // BCS
+            case 0xD0: branch(!zero); break; // BNE
+            case 0xF0: branch(zero); break; // BEQ
+
+            // --- Status Flag Changes ---
+            case 0x18: carry = false; break; // CLC
+            case 0x38: carry = true; break; // SEC
+            case 0x58: interruptDisable = false; break; // CLI
+            case 0x78: interruptDisable = true; break; // SEI
+            case 0xB8: overflow = false; break; // CLV
+            case 0xD8: decimal = false; break; // CLD
+            case 0xF8: decimal = true; break; // SED
+
+            // --- NOPs (official and unofficial) ---
+            case 0xEA: case 0x1A: case 0x3A: case 0x5A: case 0x7A: case 0xDA: case 0xFA:
+                break;
+            case 0x80: case 0x82: case 0x89: case 0xC2: case 0xE2:
+                immediate();
+                break;
+            case 0x04: case 0x44: case 0x64:
+                read(zeroPage());
+                break;
+            case 0x14: case 0x34: case 0x54: case 0x74: case 0xD4: case 0xF4:
+                read(zeroPageX());
+                break;
+            case 0x0C:
+                read(absolute());
+                break;
+            case 0x1C: case 0x3C: case 0x5C: case 0x7C: case 0xDC: case 0xFC:
+                read(absoluteXRead());
+                break;
+
+            // --- Unofficial: Combined Load/Store ---
+            case 0xA7: lax(read(zeroPage())); break;
+            case 0xB7: lax(read(zeroPageY())); break;
+            case 0xAF: lax(read(absolute())); break;
+            case 0xBF: lax(read(absoluteYRead())); break;
+            case 0xA3: lax(read(indirectX())); break;
+            case 0xB3: lax(read(indirectYRead())); break;
+
+            case 0x87: write(zeroPage(), a & x); break; // SAX
+            case 0x97: write(zeroPageY(), a & x); break;
+            case 0x8F: write(absolute(), a & x); break;
+            case 0x83: write(indirectX(), a & x); break;
+
+            // --- Unofficial: Read-Modify-Write Combos ---
+            case 0x07: slo(zeroPage()); break;
+            case 0x17: slo(zeroPageX()); break;
+            case 0x0F: slo(absolute()); break;
+            case 0x1F: slo(absoluteX()); break;
+            case 0x1B: slo(absoluteY()); break;
+            case 0x03: slo(indirectX()); break;
+            case 0x13: slo(indirectY()); break;
+
+            case 0x27: rla(zeroPage()); break;
+            case 0x37: rla(zeroPageX()); break;
+            case 0x2F: rla(absolute()); break;
+            case 0x3F: rla(absoluteX()); break;
+            case 0x3B: rla(absoluteY()); break;
+            case 0x23: rla(indirectX()); break;
+            case 0x33: rla(indirectY()); break;
+
+            case 0x47: sre(zeroPage()); break;
+            case 0x57: sre(zeroPageX()); break;
+            case 0x4F: sre(absolute()); break;
+            case 0x5F: sre(absoluteX()); break;
+            case 0x5B: sre(absoluteY()); break;
+            case 0x43: sre(indirectX()); break;
+            case 0x53: sre(indirectY()); break;
+
+            case 0x67: rra(zeroPage()); break;
+            case 0x77: rra(zeroPageX()); break;
+            case 0x6F: rra(absolute()); break;
+            case 0x7F: rra(absoluteX()); break;
+            case 0x7B: rra(absoluteY()); break;
+            case 0x63: rra(indirectX()); break;
+            case 0x73: rra(indirectY()); break;
+
+            case 0xC7: dcp(zeroPage()); break;
+            case 0xD7: dcp(zeroPageX()); break;
+            case 0xCF: dcp(absolute()); break;
+            case 0xDF: dcp(absoluteX()); break;
+            case 0xDB: dcp(absoluteY()); break;
+            case 0xC3: dcp(indirectX()); break;
+            case 0xD3: dcp(indirectY()); break;
+
+            case 0xE7: isc(zeroPage()); break;
+            case 0xF7: isc(zeroPageX()); break;
+            case 0xEF: isc(absolute()); break;
+            case 0xFF: isc(absoluteX()); break;
+            case 0xFB: isc(absoluteY()); break;
+            case 0xE3: isc(indirectX()); break;
+            case 0xF3: isc(indirectY()); break;
+
+            // --- Unofficial: Immediate Combos ---
+            case 0x0B: case 0x2B: // ANC
+                and(read(immediate()));
+                carry = negative;
+                break;
+            case 0x4B: // ALR
+                and(read(immediate()));
+                a = lsr(a);
+                break;
+            case 0x6B: { // ARR
+                int value = a & read(immediate());
+                a = ((value >> 1) | (carry ? 0x80 : 0)) & 0xFF;
+                setZn(a);
+                carry = (a & 0x40) != 0;
+                overflow = (((a >> 6) ^ (a >> 5)) & 1) != 0;
+                break;
+            }
+            case 0xCB: { // AXS
+                int value = (a & x) - read(immediate());
+                carry = value >= 0;
+                x = value & 0xFF;
+                setZn(x);
+                break;
+            }
+            case 0x8B: // XAA (unstable, uses the common magic constant)
+                a = (a | 0xEE) & x & read(immediate());
+                setZn(a);
+                break;
+            case 0xAB: // LXA (unstable, uses the common magic constant)
+                a = (a | 0xEE) & read(immediate());
+                x = a;
+                setZn(a);
+                break;
+            case 0xBB: { // LAS
+                int value = read(absoluteYRead()) & sp;
+                a = value;
+                x = value;
+                sp = value;
+                setZn(value);
+                break;
+            }
+
+            // --- Unofficial: Unstable High-Byte Stores ---
+            case 0x93: { int addr = indirectY(); write(addr, a & x & ((addr >> 8) + 1)); break; } // SHA
+            case 0x9F: { int addr = absoluteY(); write(addr, a & x & ((addr >> 8) + 1)); break; } // SHA
+            case 0x9E: { int addr = absoluteY(); write(addr, x & ((addr >> 8) + 1)); break; } // SHX
+            case 0x9C: { int addr = absoluteX(); write(addr, y & ((addr >> 8) + 1)); break; } // SHY
+            case 0x9B: { // TAS
+                int addr = absoluteY();
+                sp = a & x;
+                write(addr, sp & ((addr >> 8) + 1));
+                break;
+            }
+
+            // --- JAM: the CPU locks up until reset ---
+            default:
+                jammed = true;
+                pc = (pc - 1) & 0xFFFF;
+                break;
+        }
+    }
+
+    // --- Addressing Modes (return the effective address, advancing PC past the operand) ---
+
+    private int immediate() {
+        int address = pc;
+        pc = (pc + 1) & 0xFFFF;
+        return address;
+    }
+
+    private int zeroPage() {
+        return fetch();
+    }
+
+    private int zeroPageX() {
+        return (fetch() + x) & 0xFF;
+    }
+
+    private int zeroPageY() {
+        return (fetch() + y) & 0xFF;
+    }
+
+    private int absolute() {
+        int low = fetch();
+        int high = fetch();
+        return (high << 8) | low;
+    }
+
+    /** abs,X for writes and read-modify-write: the page-cross cycle is already in the base count. */
+    private int absoluteX() {
+        return (absolute() + x) & 0xFFFF;
+    }
+
+    /** abs,X for reads: one extra cycle when indexing crosses a page. */
+    private int absoluteXRead() {
+        int base = absolute();
+        int address = (base + x) & 0xFFFF;
+        addPageCrossCycle(base, address);
+        return address;
+    }
+
+    private int absoluteY() {
+        return (absolute() + y) & 0xFFFF;
+    }
+
+    private int absoluteYRead() {
+        int base = absolute();
+        int address = (base + y) & 0xFFFF;
+        addPageCrossCycle(base, address);
+        return address;
+    }
+
+    private int indirectX() {
+        int pointer = (fetch() + x) & 0xFF;
+        return read(pointer) | (read((pointer + 1) & 0xFF) << 8);
+    }
+
+    private int indirectYBase() {
+        int pointer = fetch();
+        return read(pointer) | (read((pointer + 1) & 0xFF) << 8);
+    }
+
+    private int indirectY() {
+        return (indirectYBase() + y) & 0xFFFF;
+    }
+
+    private int indirectYRead() {
+        int base = indirectYBase();
+        int address = (base + y) & 0xFFFF;
+        addPageCrossCycle(base, address);
+        return address;
+    }
+
+    /** JMP (ind) with the original 6502 bug: the high byte never crosses a page. */
+    private int indirect() {
+        int pointer = absolute();
+        int highPointer = (pointer & 0xFF00) | ((pointer + 1) & 0x00FF);
+        return read(pointer) | (read(highPointer) << 8);
+    }
+
+    private void addPageCrossCycle(int base, int address) {
+        if (((base ^ address) & 0xFF00) != 0) {
+            cycles++;
+        }
+    }
+
+    // --- Operations ---
+
+    private void lda(int value) {
+        a = value;
+        setZn(a);
+    }
+
+    private void ldx(int value) {
+        x = value;
+        setZn(x);
+    }
+
+    private void ldy(int value) {
+        y = value;
+        setZn(y);
+    }
+
+    private void lax(int value) {
+        a = value;
+        x = value;
+        setZn(value);
+    }
+
+    private void and(int value) {
+        a &= value;
+        setZn(a);
+    }
+
+    private void ora(int value) {
+        a |= value;
+        setZn(a);
+    }
+
+    private void eor(int value) {
+        a ^= value;
+        setZn(a);
+    }
+
+    private void bit(int value) {
+        zero = (a & value) == 0;
+        overflow = (value & 0x40) != 0;
+        negative = (value & 0x80) != 0;
+    }
+
+    /** ADC without decimal mode (the 2A03 has no BCD support). */
+    private void adc(int value) {
+        int sum = a + value + (carry ? 1 : 0);
+        overflow = ((~(a ^ value) & (a ^ sum)) & 0x80) != 0;
+        carry = sum > 0xFF;
+        a = sum & 0xFF;
+        setZn(a);
+    }
+
+    private void sbc(int value) {
+        adc(value ^ 0xFF);
+    }
+
+    private void compare(int register, int value) {
+        int result = register - value;
+        carry = result >= 0;
+        setZn(result & 0xFF);
+    }
+
+    private void inc(int address) {
+        int value = (read(address) + 1) & 0xFF;
+        write(address, value);
+        setZn(value);
+    }
+
+    private void dec(int address) {
+        int value = (read(address) - 1) & 0xFF;
+        write(address, value);
+        setZn(value);
+    }
+
+    private int asl(int value) {
+        carry = (value & 0x80) != 0;
+        value = (value << 1) & 0xFF;
+        setZn(value);
+        return value;
+    }
+
+    private int lsr(int value) {
+        carry = (value & 0x01) != 0;
+        value >>= 1;
+        setZn(value);
+        return value;
+    }
+
+    private int rol(int value) {
+        int result = ((value << 1) | (carry ? 1 : 0)) & 0xFF;
+        carry = (value & 0x80) != 0;
+        setZn(result);
+        return result;
+    }
+
+    private int ror(int value) {
+        int result = (value >> 1) | (carry ? 0x80 : 0);
+        carry = (value & 0x01) != 0;
+        setZn(result);
+        return result;
+    }
+
+    private void slo(int address) {
+        int value = asl(read(address));
+        write(address, value);
+        ora(value);
+    }
+
+    private void rla(int address) {
+        int value = rol(read(address));
+        write(address, value);
+        and(value);
+    }
+
+    private void sre(int address) {
+        int value = lsr(read(address));
+        write(address, value);
+        eor(value);
+    }
+
+    private void rra(int address) {
+        int value = ror(read(address));
+        write(address, value);
+        adc(value);
+    }
+
+    private void dcp(int address) {
+        int value = (read(address) - 1) & 0xFF;
+        write(address, value);
+        compare(a, value);
+    }
+
+    private void isc(int address) {
+        int value = (read(address) + 1) & 0xFF;
+        write(address, value);
+        sbc(value);
+    }
+
+    private void branch(boolean condition) {
+        int offset = (byte) fetch(); // Sign-extend the relative offset
+        if (condition) {
+            int target = (pc + offset) & 0xFFFF;
+            cycles++;
+            addPageCrossCycle(pc, target);
+            pc = target;
+        }
+    }
+
+    private void setZn(int value) {
+        zero = value == 0;
+        negative = (value & 0x80) != 0;
+    }
+
+    // --- Memory & Stack Helpers ---
+
+    private int read(int address) {
+        return bus.read(address) & 0xFF;
+    }
+
+    private void write(int address, int value) {
+        bus.write(address, (byte) value);
+    }
+
+    private int read16(int address) {
+        return read(address) | (read((address + 1) & 0xFFFF) << 8);
+    }
+
+    private int fetch() {
+        int value = read(pc);
+        pc = (pc + 1) & 0xFFFF;
+        return value;
+    }
+
+    private void push(int value) {
+        write(STACK_BASE | sp, value);
+        sp = (sp - 1) & 0xFF;
+    }
+
+    private int pull() {
+        sp = (sp + 1) & 0xFF;
+        return read(STACK_BASE | sp);
+    }
+
+    // --- Status Register ---
+
+    /**
+     * Packs the status flags into the P register layout (bit 5 always set, B clear).
+     */
+    public int getStatus() {
+        int status = FLAG_UNUSED;
+        if (carry) status |= FLAG_CARRY;
+        if (zero) status |= FLAG_ZERO;
+        if (interruptDisable) status |= FLAG_INTERRUPT_DISABLE;
+        if (decimal) status |= FLAG_DECIMAL;
+        if (overflow) status |= FLAG_OVERFLOW;
+        if (negative) status |= FLAG_NEGATIVE;
+        return status;
+    }
+
+    /**
+     * Unpacks a P register value into the status flags (B and bit 5 are ignored).
+     */
+    public void setStatus(int status) {
+        carry = (status & FLAG_CARRY) != 0;
+        zero = (status & FLAG_ZERO) != 0;
+        interruptDisable = (status & FLAG_INTERRUPT_DISABLE) != 0;
+        decimal = (status & FLAG_DECIMAL) != 0;
+        overflow = (status & FLAG_OVERFLOW) != 0;
+        negative = (status & FLAG_NEGATIVE) != 0;
+    }
+
+    // --- Basic Getters & Setters ---
+
+    public int getA() {
+        return a;
+    }
+
+    public void setA(int a) {
+        this.a = a & 0xFF;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x & 0xFF;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y & 0xFF;
+    }
+
+    public int getSp() {
+        return sp;
+    }
+
+    public void setSp(int sp) {
+        this.sp = sp & 0xFF;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public void setPc(int pc) {
+        this.pc = pc & 0xFFFF;
+    }
+
+    /** Total number of CPU cycles executed since power-on. */
+    public long getCycles() {
+        return cycles;
+    }
+
+    /** Returns true if a JAM/KIL opcode locked the CPU. Only {@link #reset()} recovers. */
+    public boolean isJammed() {
+        return jammed;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) a);
+        buffer.put((byte) x);
+        buffer.put((byte) y);
+        buffer.put((byte) sp);
+        buffer.put((byte) getStatus());
+        buffer.putShort((short) pc);
+        buffer.putLong(cycles);
+        buffer.put((byte) (nmiPending ? 1 : 0));
+        buffer.put((byte) irqSources);
+        buffer.put((byte) (jammed ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        a = buffer.get() & 0xFF;
+        x = buffer.get() & 0xFF;
+        y = buffer.get() & 0xFF;
+        sp = buffer.get() & 0xFF;
+        setStatus(buffer.get() & 0xFF);
+        pc = buffer.getShort() & 0xFFFF;
+        cycles = buffer.getLong();
+        nmiPending = buffer.get() != 0;
+        irqSources = buffer.get() & 0xFF;
+        jammed = buffer.get() != 0;
+    }
+}
@@ -0,0 +1,14 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.cpu;
+
+/**
+ * One source driving the CPU's level-triggered IRQ line, e.g. a mapper or the APU.
+ * Typically bound to {@link Cpu6502#setIrq(int, boolean)} with the source's {@code IRQ_SOURCE_*} bit.
+ */
+@FunctionalInterface
+public interface IrqLine {
+
+    /**
+     * @param asserted true to pull the line low, false to release it.
+     */
+    void set(boolean asserted);
+}
@@ -0,0 +1,64 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event with one frame's bus and mapper counters, committed by {@link BusMonitor#endFrame()}.
+ * <p>
+ * Record with e.g. {@code -XX:StartFlightRecording:settings=profile} and look for
+ * {@code dev.omatheusmesmo.selfmat.nes.BusFrame} in JDK Mission Control.
+ */
+@Name("dev.omatheusmesmo.selfmat.nes.BusFrame")
+@Label("NES Bus Frame")
+@Category({"SelfMat NES", "Emulation"})
+@Description("CPU bus accesses per region, bank switches and mapper IRQs during one frame")
+@StackTrace(false)
+class BusFrameEvent extends jdk.jfr.Event {
+
+    @Label("Frame")
+    long frame;
+
+    @Label("RAM Reads")
+    long ramReads;
+
+    @Label("RAM Writes")
+    long ramWrites;
+
+    @Label("PPU Register Reads")
+    long ppuReads;
+
+    @Label("PPU Register Writes")
+    long ppuWrites;
+
+    @Label("APU/IO Reads")
+    long apuIoReads;
+
+    @Label("APU/IO Writes")
+    long apuIoWrites;
+
+    @Label("Expansion Accesses")
+    long expansionAccesses;
+
+    @Label("PRG RAM Reads")
+    long prgRamReads;
+
+    @Label("PRG RAM Writes")
+    long prgRamWrites;
+
+    @Label("PRG ROM Reads")
+    long prgRomReads;
+
+    @Label("Mapper Register Writes")
+    @Description("CPU writes to $8000-$FFFF")
+    long mapperWrites;
+
+    @Label("Bank Switches")
+    long bankSwitches;
+
+    @Label("Mapper IRQs")
+    long mapperIrqs;
+}
@@ -0,0 +1,114 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.BusRegion;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.InstrumentedBus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MapperEventListener;
+
+/**
+ * Collects bus and mapper counters and turns them into per-frame summaries and JFR events.
+ * <p>
+ * Only exists when instrumentation is enabled: the emulator builds an {@link InstrumentedBus}
+ * and a monitor instead of a plain Bus, and calls {@link #endFrame()} once per frame.
+ */
+public class BusMonitor implements MapperEventListener {
+
+    private final InstrumentedBus bus;
+    private final Mapper mapper;
+
+    private long frame;
+    private long bankSwitches;
+    private long mapperIrqs;
+
+    // --- Counters at the end of the previous frame ---
+    private final long[] previousReads = new long[InstrumentedBus.REGION_COUNT];
+    private final long[] previousWrites = new long[InstrumentedBus.REGION_COUNT];
+    private long previousBankSwitches;
+    private long previousMapperIrqs;
+
+    /**
+     * @param bus    The instrumented bus to read counters from.
+     * @param mapper The cartridge mapper (may be null); the monitor registers itself as its listener.
+     */
+    public BusMonitor(InstrumentedBus bus, Mapper mapper) {
+        this.bus = java.util.Objects.requireNonNull(bus, "Bus cannot be null");
+        this.mapper = mapper;
+        if (mapper != null) {
+            mapper.setEventListener(this);
+        }
+    }
+
+    @Override
+    public void onBankSwitch(Mapper mapper) {
+        bankSwitches++;
+    }
+
+    @Override
+    public void onIrq(Mapper mapper) {
+        mapperIrqs++;
+    }
+
+    /**
+     * Closes the current frame: computes its counters, commits a {@link BusFrameEvent} if JFR is
+     * recording it, and starts the next frame.
+     *
+     * @return The statistics of the frame that just ended.
+     */
+    public FrameStatistics endFrame() {
+        long[] reads = new long[InstrumentedBus.REGION_COUNT];
+        long[] writes = new long[InstrumentedBus.REGION_COUNT];
+        bus.copyCounters(reads, writes);
+        for (int region = 0; region < reads.length; region++) {
+            long totalReads = reads[region];
+            long totalWrites = writes[region];
+            reads[region] -= previousReads[region];
+            writes[region] -= previousWrites[region];
+            previousReads[region] = totalReads;
+            previousWrites[region] = totalWrites;
+        }
+
+        FrameStatistics statistics = new FrameStatistics(frame++, reads, writes,
+                bankSwitches - previousBankSwitches, mapperIrqs - previousMapperIrqs);
+        previousBankSwitches = bankSwitches;
+        previousMapperIrqs = mapperIrqs;
+
+        BusFrameEvent event = new BusFrameEvent();
+        if (event.shouldCommit()) {
+            event.frame = statistics.frame();
+            event.ramReads = statistics.getReads(BusRegion.RAM);
+            event.ramWrites = statistics.getWrites(BusRegion.RAM);
+            event.ppuReads = statistics.getReads(BusRegion.PPU_REGISTERS);
+            event.ppuWrites = statistics.getWrites(BusRegion.PPU_REGISTERS);
+            event.apuIoReads = statistics.getReads(BusRegion.APU_IO);
+            event.apuIoWrites = statistics.getWrites(BusRegion.APU_IO);
+            event.expansionAccesses = statistics.getReads(BusRegion.EXPANSION) + statistics.getWrites(BusRegion.EXPANSION);
+            event.prgRamReads = statistics.getReads(BusRegion.PRG_RAM);
+            event.prgRamWrites = statistics.getWrites(BusRegion.PRG_RAM);
+            event.prgRomReads = statistics.getReads(BusRegion.PRG_ROM);
+            event.mapperWrites = statistics.getWrites(BusRegion.PRG_ROM);
+            event.bankSwitches = statistics.bankSwitches();
+            event.mapperIrqs = statistics.mapperIrqs();
+            event.commit();
+        }
+        return statistics;
+    }
+
+    /**
+     * Detaches the monitor from the mapper.
+     */
+    public void close() {
+        if (mapper != null) {
+            mapper.setEventListener(null);
+        }
+    }
+
+    /** Total bank switches since the monitor was created. */
+    public long getBankSwitches() {
+        return bankSwitches;
+    }
+
+    /** Total mapper IRQs since the monitor was created. */
+    public long getMapperIrqs() {
+        return mapperIrqs;
+    }
+}
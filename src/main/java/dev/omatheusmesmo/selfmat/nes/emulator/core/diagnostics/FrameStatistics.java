@@ -0,0 +1,37 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.BusRegion;
+
+/**
+ * Bus and mapper activity during a single frame.
+ *
+ * @param frame        Frame number.
+ * @param reads        Reads per region, indexed by {@link BusRegion#ordinal()}.
+ * @param writes       Writes per region, indexed by {@link BusRegion#ordinal()}.
+ * @param bankSwitches Mapper bank switches.
+ * @param mapperIrqs   IRQs raised by the mapper.
+ */
+public record FrameStatistics(long frame, long[] reads, long[] writes, long bankSwitches, long mapperIrqs) {
+
+    public long getReads(BusRegion region) {
+        return reads[region.ordinal()];
+    }
+
+    public long getWrites(BusRegion region) {
+        return writes[region.ordinal()];
+    }
+
+    /**
+     * @return A one-line summary, e.g. for a debug overlay or log.
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder("Frame ").append(frame).append(':');
+        for (BusRegion region : BusRegion.values()) {
+            summary.append(' ').append(region).append(" r=").append(getReads(region))
+                    .append(" w=").append(getWrites(region));
+        }
+        return summary.append(" bankSwitches=").append(bankSwitches)
+                .append(" mapperIrqs=").append(mapperIrqs).toString();
+    }
+}
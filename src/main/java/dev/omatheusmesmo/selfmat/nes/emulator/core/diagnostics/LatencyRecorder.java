@@ -0,0 +1,131 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent latency samples and reports percentiles over them.
+ * <p>
+ * Samples are recorded by a single thread, the emulation thread, into a ring and published by a
+ * volatile count, so recording never blocks. Readers copy the window without locking and drop any
+ * slot the writer may have overwritten while they copied; sorting happens only when a
+ * {@link #snapshot()} is taken.
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    /** Samples ever recorded; written only by the recording thread, after the slot. */
+    private volatile long recorded;
+    /** Samples the recording thread has started writing; one ahead of {@link #recorded} mid-write. */
+    private volatile long claimed;
+    /** Value of {@link #recorded} at the last reset; samples before it are ignored. */
+    private volatile long resetAt;
+
+    /**
+     * @param window Number of most recent samples percentiles are computed over.
+     */
+    public LatencyRecorder(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive, got " + window);
+        }
+        this.samples = new long[window];
+    }
+
+    /**
+     * Must only be called from one thread at a time.
+     *
+     * @param nanos Latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long index = recorded;
+        claimed = index + 1;
+        VarHandle.releaseFence(); // The claim is visible before the slot changes
+        samples[(int) (index % samples.length)] = nanos;
+        recorded = index + 1;
+    }
+
+    /**
+     * Copies and sorts the current window. Safe to call from any thread while samples are recorded.
+     *
+     * @return The samples still in the window, consistent with the count reported alongside them.
+     */
+    public Snapshot snapshot() {
+        long end = recorded;
+        long reset = Math.min(resetAt, end);
+        long start = Math.max(reset, end - samples.length);
+        long[] copy = new long[(int) (end - start)];
+        for (long i = start; i < end; i++) {
+            copy[(int) (i - start)] = samples[(int) (i % samples.length)];
+        }
+        // The writer may have lapped the oldest slots while we copied, or be writing over one now;
+        // keep only samples that are still in the window once every claimed write has landed.
+        VarHandle.acquireFence(); // The copy is done before the claim is read
+        long firstValid = claimed - samples.length;
+        int skip = (int) Math.max(0, Math.min(copy.length, firstValid - start));
+        long[] sorted = Arrays.copyOfRange(copy, skip, copy.length);
+        Arrays.sort(sorted);
+        return new Snapshot(end - reset, sorted);
+    }
+
+    /**
+     * @param percentile 0-100, e.g. 50 for the median or 99.
+     * @return Latency in nanoseconds at that percentile (nearest rank) of the window, or 0 without samples.
+     */
+    public long getPercentile(double percentile) {
+        return snapshot().getPercentile(percentile);
+    }
+
+    /**
+     * @return Samples recorded since the last reset, including those that left the window.
+     */
+    public long getCount() {
+        long end = recorded;
+        return end - Math.min(resetAt, end);
+    }
+
+    /**
+     * Forgets the recorded samples. Callable from any thread; the writer's count is left alone.
+     */
+    public void reset() {
+        resetAt = recorded;
+    }
+
+    /**
+     * @return A one-line summary in milliseconds, e.g. for a debug overlay or log.
+     */
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * One consistent view of the window.
+     *
+     * @param count  Samples recorded since the last reset, including those that left the window.
+     * @param sorted The samples in the window, in ascending order.
+     */
+    public record Snapshot(long count, long[] sorted) {
+
+        /**
+         * @param percentile 0-100, e.g. 50 for the median or 99.
+         * @return Latency in nanoseconds at that percentile (nearest rank), or 0 without samples.
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile);
+            }
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms", count,
+                    getPercentile(50) / 1e6, getPercentile(90) / 1e6, getPercentile(99) / 1e6,
+                    getPercentile(100) / 1e6);
+        }
+    }
+}
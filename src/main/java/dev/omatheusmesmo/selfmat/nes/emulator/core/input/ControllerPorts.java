@@ -0,0 +1,148 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.input;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics.LatencyRecorder;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The two controller ports behind $4016 and $4017, fed from an {@link InputQueue}.
+ * <p>
+ * Queued input is applied when the game raises the strobe, i.e. at the last moment before it reads
+ * the buttons, so a press waits for at most one poll. The receive time of every applied event is
+ * kept until {@link #endFrame}, which records the input-to-frame latency of the frame that first
+ * saw it.
+ */
+public class ControllerPorts implements StateSerializable {
+
+    public static final int PORT_COUNT = 2;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final int LATENCY_WINDOW = 1024;
+
+    /** strobe, then buttons and shift register per port. */
+    private static final int STATE_SIZE = 1 + 2 * PORT_COUNT;
+
+    private final StandardController[] controllers = {new StandardController(), new StandardController()};
+    private final InputQueue inputQueue = new InputQueue(QUEUE_CAPACITY);
+    private final LatencyRecorder latency = new LatencyRecorder(LATENCY_WINDOW);
+    private final InputQueue.Consumer applyEvent = this::apply;
+    private boolean strobe;
+    private boolean pollOnStrobe = true;
+
+    /** Receive times of the events applied during the current frame. */
+    private final long[] pendingTimestamps = new long[QUEUE_CAPACITY];
+    private int pendingCount;
+
+    // --- CPU Access ---
+
+    /**
+     * Handles a write to $4016: bit 0 drives the strobe of both ports.
+     */
+    public void writeStrobe(int value) {
+        boolean high = (value & 1) != 0;
+        if (high && !strobe && pollOnStrobe) {
+            pollInput();
+        }
+        strobe = high;
+        for (StandardController controller : controllers) {
+            controller.setStrobe(high);
+        }
+    }
+
+    /**
+     * Handles a read of $4016 (port 0) or $4017 (port 1).
+     *
+     * @return The next button bit in bit 0; the other data lines are not connected.
+     */
+    public int read(int port) {
+        return controllers[port].read();
+    }
+
+    // --- Input ---
+
+    /**
+     * Applies all queued input now. Called on the strobe; callers running a game that never strobes
+     * may call it themselves.
+     */
+    public void pollInput() {
+        inputQueue.drain(applyEvent);
+    }
+
+    private void apply(int port, int buttons, long timestamp) {
+        controllers[port].setButtons(buttons);
+        if (pendingCount < pendingTimestamps.length) {
+            pendingTimestamps[pendingCount++] = timestamp;
+        }
+    }
+
+    /**
+     * Chooses whether the strobe applies queued input. Movie recording and playback turn it off and
+     * set the buttons once per frame, so that input can only change on frame boundaries.
+     */
+    public void setPollOnStrobe(boolean pollOnStrobe) {
+        this.pollOnStrobe = pollOnStrobe;
+    }
+
+    /**
+     * Sets a port's buttons directly, bypassing the queue (e.g. for movie playback).
+     */
+    public void setButtons(int port, int buttons) {
+        controllers[port].setButtons(buttons);
+    }
+
+    public int getButtons(int port) {
+        return controllers[port].getButtons();
+    }
+
+    /**
+     * Records the latency of the input applied during the frame that just completed.
+     *
+     * @param now {@link System#nanoTime()} the frame was completed at.
+     */
+    public void endFrame(long now) {
+        for (int i = 0; i < pendingCount; i++) {
+            latency.record(now - pendingTimestamps[i]);
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * The queue the input thread offers controller states to.
+     */
+    public InputQueue getInputQueue() {
+        return inputQueue;
+    }
+
+    /**
+     * Input-to-frame latency: from an event's timestamp to the end of the frame that applied it.
+     */
+    public LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return STATE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) (strobe ? 1 : 0));
+        for (StandardController controller : controllers) {
+            buffer.put((byte) controller.getButtons());
+            buffer.put((byte) controller.getShiftRegister());
+        }
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        strobe = buffer.get() != 0;
+        for (StandardController controller : controllers) {
+            int buttons = buffer.get() & 0xFF;
+            controller.restore(buttons, buffer.get() & 0xFF, strobe);
+        }
+        pendingCount = 0;
+    }
+}
@@ -0,0 +1,95 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer queue of controller state changes.
+ * <p>
+ * The input thread (window events, a network session) offers the new button mask of a port with the
+ * {@link System#nanoTime()} it was received at; the emulation thread drains the queue when the game
+ * strobes the controllers. Events are kept in parallel arrays indexed by ever-increasing positions,
+ * each side publishing its own position with an ordered store, as in the audio ring; nothing is
+ * allocated per event.
+ */
+public class InputQueue {
+
+    /**
+     * Receives drained events, oldest first.
+     */
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(int port, int buttons, long timestamp);
+    }
+
+    private final byte[] ports;
+    private final byte[] buttons;
+    private final long[] timestamps;
+    private final int mask;
+
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * @param capacity Number of events; must be a power of two.
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, got " + capacity);
+        }
+        this.ports = new byte[capacity];
+        this.buttons = new byte[capacity];
+        this.timestamps = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Queues a controller state. Called from the input thread only.
+     *
+     * @param port      Controller port, 0 or 1.
+     * @param buttons   Mask of {@code StandardController.BUTTON_*} bits.
+     * @param timestamp {@link System#nanoTime()} the input was received at.
+     * @return false if the queue is full and the event was dropped.
+     */
+    public boolean offer(int port, int buttons, long timestamp) {
+        if (port < 0 || port >= ControllerPorts.PORT_COUNT) {
+            throw new IllegalArgumentException("Invalid controller port: " + port);
+        }
+        long write = writePosition.get();
+        if (write - readPosition.get() == timestamps.length) {
+            return false;
+        }
+        int index = (int) write & mask;
+        ports[index] = (byte) port;
+        this.buttons[index] = (byte) buttons;
+        timestamps[index] = timestamp;
+        writePosition.lazySet(write + 1);
+        return true;
+    }
+
+    /**
+     * Hands every queued event to {@code consumer}. Called from the emulation thread only.
+     *
+     * @return Number of events drained.
+     */
+    public int drain(Consumer consumer) {
+        long read = readPosition.get();
+        long write = writePosition.get();
+        for (long position = read; position < write; position++) {
+            int index = (int) position & mask;
+            consumer.accept(ports[index], buttons[index] & 0xFF, timestamps[index]);
+        }
+        readPosition.lazySet(write);
+        return (int) (write - read);
+    }
+
+    /**
+     * @return Number of queued events (a snapshot).
+     */
+    public int size() {
+        return (int) (writePosition.get() - readPosition.get());
+    }
+
+    public int getCapacity() {
+        return timestamps.length;
+    }
+}
@@ -0,0 +1,77 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.input;
+
+/**
+ * The standard NES controller: a 4021 shift register loaded with the eight button states.
+ * <p>
+ * While the strobe ($4016 bit 0) is high the register keeps reloading, so reads return button A.
+ * Once it is low each read returns the next button, in the order of the {@code BUTTON_*} bits, and
+ * after the eighth read an official controller returns 1.
+ *
+ * @see <a href="https://www.nesdev.org/wiki/Standard_controller">Standard controller</a>
+ */
+public class StandardController {
+
+    public static final int BUTTON_A = 0x01;
+    public static final int BUTTON_B = 0x02;
+    public static final int BUTTON_SELECT = 0x04;
+    public static final int BUTTON_START = 0x08;
+    public static final int BUTTON_UP = 0x10;
+    public static final int BUTTON_DOWN = 0x20;
+    public static final int BUTTON_LEFT = 0x40;
+    public static final int BUTTON_RIGHT = 0x80;
+
+    /** Shifted in behind the buttons. */
+    private static final int FILL_BIT = 0x80;
+
+    private int buttons;
+    private int shiftRegister;
+    private boolean strobe;
+
+    /**
+     * Sets the pressed buttons (a mask of {@code BUTTON_*} bits).
+     */
+    public void setButtons(int buttons) {
+        this.buttons = buttons & 0xFF;
+        if (strobe) {
+            shiftRegister = this.buttons;
+        }
+    }
+
+    public int getButtons() {
+        return buttons;
+    }
+
+    /**
+     * Sets the strobe line; the register is loaded while it is high.
+     */
+    public void setStrobe(boolean strobe) {
+        this.strobe = strobe;
+        if (strobe) {
+            shiftRegister = buttons;
+        }
+    }
+
+    /**
+     * @return The next button bit (bit 0).
+     */
+    public int read() {
+        if (strobe) {
+            return buttons & 1;
+        }
+        int bit = shiftRegister & 1;
+        shiftRegister = (shiftRegister >> 1) | FILL_BIT;
+        return bit;
+    }
+
+    // --- Save States (packed by ControllerPorts) ---
+
+    int getShiftRegister() {
+        return shiftRegister;
+    }
+
+    void restore(int buttons, int shiftRegister, boolean strobe) {
+        this.buttons = buttons & 0xFF;
+        this.shiftRegister = shiftRegister & 0xFF;
+        this.strobe = strobe;
+    }
+}
@@ -1,12 +1,25 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.memory;
 
+import dev.omatheusmesmo.selfmat.nes.emulator.core.apu.Apu2A03;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.Cpu6502;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.input.ControllerPorts;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.ObjectAttributeMemory;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.Ppu2C02;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+
+import java.nio.ByteBuffer;
 
 /**
  * The Bus connects all components of the NES (CPU, RAM, PPU, APU, Cartridge).
  * It handles the memory mapping logic.
+ * <p>
+ * CPU accesses are dispatched through a {@link CpuPageTable}: pages backed by plain memory
+ * (RAM and the PRG banks the mapper currently has selected) are accessed directly, and only
+ * register pages go through the handlers below.
  */
-public class Bus {
+public class Bus implements StateSerializable {
 
     // --- Constants for Memory Mapping ---
     private static final int RAM_START_ADDRESS = 0x0000;
@@ -14,8 +27,6 @@ public class Bus {
     private static final int RAM_SIZE = 2048; // 2KB
     private static final int RAM_MIRROR_MASK = 0x07FF; // Mask to extract lowest 11 bits, mapping mirrored addresses to 2KB RAM
     private static final int ADDRESS_MASK_16BIT = 0xFFFF;
-    private static final int ADDRESS_HIGH_BITS_MASK = 0xF000; // Mask to get the highest 4 bits (for switch cases)
-    private static final int BLOCK_4KB_SIZE = 0x1000; // 4KB block size for switch cases
 
     private static final int PPU_REGISTERS_START = 0x2000;
     private static final int PPU_REGISTERS_END = 0x3FFF; // 8 PPU registers mirrored every 8 bytes
@@ -26,94 +37,318 @@ public class Bus {
     private static final int APU_IO_END_ADDRESS = 0x401F;
     private static final int APU_IO_SIZE = 32;
     private static final int APU_OAM_DMA_ADDRESS = 0x4014;
+    private static final int APU_STATUS_ADDRESS = 0x4015;
     private static final int APU_CONTROLLER_1_ADDRESS = 0x4016;
     private static final int APU_CONTROLLER_2_ADDRESS = 0x4017;
 
-    private static final int CARTRIDGE_END_ADDRESS = 0xFFFF; // End of CPU address space (0xFFFF)
+    // --- OAM DMA ---
+    /** CPU cycles the CPU is halted for by OAM DMA, plus one when it starts on an odd cycle. */
+    private static final int OAM_DMA_STALL_CYCLES = 513;
+    /** CPU cycles stolen by one DMC sample fetch. */
+    private static final int DMC_STALL_CYCLES = 4;
+
+    // --- Page Handlers (used when a page has no direct backing array) ---
+    private static final byte HANDLER_PPU = 0;
+    private static final byte HANDLER_APU_IO = 1;
+    private static final byte HANDLER_CARTRIDGE = 2;
 
     private final byte[] cpuRam = new byte[RAM_SIZE];
     private final byte[] ppuRegisters = new byte[PPU_REGISTERS_SIZE];
     private final byte[] apuRegisters = new byte[APU_IO_SIZE];
     private final ICartridge cartridge; // Now uses the interface
+    private final ObjectAttributeMemory oam = new ObjectAttributeMemory();
+    private final ControllerPorts controllers = new ControllerPorts();
+    private final byte[] dmaBuffer = new byte[ObjectAttributeMemory.SIZE];
+    private Cpu6502 cpu; // Stalled by OAM DMA, null until a CPU is connected
+    private Ppu2C02 ppu; // Null until connected; the registers are then plain latches
+    private Apu2A03 apu; // Null until connected; the APU registers are then plain latches
+
+    // --- Page Table Dispatch ---
+    private final CpuPageTable pageTable = new CpuPageTable();
+    private final byte[][] readPages = pageTable.readPages;
+    private final int[] readOffsets = pageTable.readOffsets;
+    private final byte[][] writePages = pageTable.writePages;
+    private final int[] writeOffsets = pageTable.writeOffsets;
+    private final byte[] pageHandlers = new byte[CpuPageTable.PAGE_COUNT];
 
     public Bus(ICartridge cartridge) {
         this.cartridge = java.util.Objects.requireNonNull(cartridge, "Cartridge cannot be null");
+        initializePageTable();
+
+        // Let the mapper point its PRG banks straight into the page table
+        Mapper mapper = cartridge.getMapper();
+        if (mapper != null) {
+            mapper.attachCpuPageTable(pageTable);
+        }
+    }
+
+    /**
+     * Sets up the fixed part of the page table: internal RAM (with its mirrors) is mapped directly,
+     * everything else is routed to a handler until a mapper claims it.
+     */
+    private void initializePageTable() {
+        // 0x0000 - 0x1FFF: 2KB RAM mirrored 4 times, each mirror points to the same array
+        for (int mirror = RAM_START_ADDRESS; mirror <= RAM_END_ADDRESS; mirror += RAM_SIZE) {
+            pageTable.mapInternal(mirror, RAM_SIZE, cpuRam, 0);
+        }
+
+        for (int page = 0; page < CpuPageTable.PAGE_COUNT; page++) {
+            int pageAddress = page << CpuPageTable.PAGE_SHIFT;
+            if (pageAddress >= PPU_REGISTERS_START && pageAddress <= PPU_REGISTERS_END) {
+                pageHandlers[page] = HANDLER_PPU;
+            } else if (pageAddress == APU_IO_START_ADDRESS) {
+                pageHandlers[page] = HANDLER_APU_IO; // 0x4000 - 0x40FF: APU/IO, then cartridge from 0x4020
+            } else {
+                pageHandlers[page] = HANDLER_CARTRIDGE;
+            }
+        }
     }
 
     /**
      * Reads a byte from the bus at the specified 16-bit address.
+     * Directly mapped pages (RAM, PRG ROM/RAM banks) are served by a single array load;
+     * everything else goes through the page's handler.
      */
     public byte read(int address) {
         address &= ADDRESS_MASK_16BIT; // Ensure 16-bit address
 
-        // Use a switch on the high bits of the address for block routing
-        // This is a common way to simplify memory mapping logic.
-        // The cases are based on 4KB blocks (0x1000) for finer grain.
-        switch (address & ADDRESS_HIGH_BITS_MASK) { // Check the highest 4 bits (e.g., 0x0000, 0x1000, 0x2000, etc.)
-            case RAM_START_ADDRESS: // 0x0000 - 0x0FFF: CPU RAM and its mirror
-            case RAM_START_ADDRESS + BLOCK_4KB_SIZE: // 0x1000 - 0x1FFF: CPU RAM mirror
-                return cpuRam[address & RAM_MIRROR_MASK];
-            case PPU_REGISTERS_START: // 0x2000 - 0x2FFF: PPU registers and its mirror
-            case PPU_REGISTERS_START + BLOCK_4KB_SIZE: // 0x3000 - 0x3FFF: PPU mirror
+        int page = address >>> CpuPageTable.PAGE_SHIFT;
+        byte[] memory = readPages[page];
+        if (memory != null) {
+            return memory[readOffsets[page] + (address & CpuPageTable.PAGE_OFFSET_MASK)];
+        }
+        return readHandler(page, address);
+    }
+
+    /**
+     * Writes a byte to the bus at the specified 16-bit address.
+     */
+    public void write(int address, byte data) {
+        address &= ADDRESS_MASK_16BIT; // Ensure 16-bit address
+
+        int page = address >>> CpuPageTable.PAGE_SHIFT;
+        byte[] memory = writePages[page];
+        if (memory != null) {
+            memory[writeOffsets[page] + (address & CpuPageTable.PAGE_OFFSET_MASK)] = data;
+            return;
+        }
+        writeHandler(page, address, data);
+    }
+
+    /**
+     * Connects the CPU so bus-driven DMA can stall it. Called by the {@link Cpu6502} constructor.
+     */
+    public void connectCpu(Cpu6502 cpu) {
+        this.cpu = cpu;
+    }
+
+    /**
+     * Connects the PPU: accesses to $2000-$3FFF then go to its registers, which catch it up
+     * to the current time first. Without a PPU they are stored in plain latches.
+     */
+    public void connectPpu(Ppu2C02 ppu) {
+        this.ppu = ppu;
+    }
+
+    public Ppu2C02 getPpu() {
+        return ppu;
+    }
+
+    /**
+     * Connects the APU: writes to $4000-$4013, $4015 and $4017 and reads of $4015 then go to it.
+     * The other APU/IO addresses, apart from the controller ports, keep reading back the last value
+     * written.
+     */
+    public void connectApu(Apu2A03 apu) {
+        this.apu = apu;
+    }
+
+    public Apu2A03 getApu() {
+        return apu;
+    }
+
+    /**
+     * The controllers read through $4016/$4017; input is offered to their queue.
+     */
+    public ControllerPorts getControllers() {
+        return controllers;
+    }
+
+    /**
+     * Reads a byte for the APU's DMC sample reader and stalls the CPU for the stolen cycles.
+     *
+     * @param address Sample address ($8000-$FFFF).
+     * @return The byte read (0-255).
+     */
+    public int dmcRead(int address) {
+        int value = read(address) & 0xFF;
+        if (cpu != null) {
+            cpu.addStallCycles(DMC_STALL_CYCLES);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the sprite memory filled by OAM DMA.
+     */
+    public ObjectAttributeMemory getOam() {
+        return oam;
+    }
+
+    /**
+     * Returns the page table so components that copy whole pages (e.g. DMA) can resolve them directly.
+     */
+    public CpuPageTable getPageTable() {
+        return pageTable;
+    }
+
+    private byte readHandler(int page, int address) {
+        switch (pageHandlers[page]) {
+            case HANDLER_PPU: // 0x2000 - 0x3FFF: PPU registers and its mirror
                 // Need to normalize to 0x2000-0x2007 for PPU logic, then apply mirror mask
                 int ppuReadIndex = (address - PPU_REGISTERS_START) & PPU_REGISTERS_MIRROR_MASK;
+                if (ppu != null) {
+                    return ppu.readRegister(ppuReadIndex);
+                }
                 return ppuRegisters[ppuReadIndex];
-            case APU_IO_START_ADDRESS: // 0x4000 - 0x4FFF: APU/IO and Cartridge
-                // Now, check specific sub-ranges within this 4K block
+            case HANDLER_APU_IO: // 0x4000 - 0x40FF: APU/IO and Cartridge
                 if (address <= APU_IO_END_ADDRESS) {
                     // APU/IO Registers (0x4000 - 0x401F)
-                    if (address == APU_CONTROLLER_1_ADDRESS) {
-                        return apuRegisters[APU_CONTROLLER_1_ADDRESS - APU_IO_START_ADDRESS]; // Stub value
+                    if (address == APU_STATUS_ADDRESS && apu != null) {
+                        return (byte) apu.readStatus();
+                    } else if (address == APU_CONTROLLER_1_ADDRESS) {
+                        return (byte) controllers.read(0);
                     } else if (address == APU_CONTROLLER_2_ADDRESS) {
-                        return apuRegisters[APU_CONTROLLER_2_ADDRESS - APU_IO_START_ADDRESS]; // Stub value
+                        return (byte) controllers.read(1);
                     } else {
                         return apuRegisters[address - APU_IO_START_ADDRESS];
                     }
                 }
-                // Addresses 0x4020-0x4FFF fall through to cartridge
-            default: // Catches 0x4020 - 0xFFFF (mostly Cartridge space)
-                // Delegate to cartridge for read
+                // Addresses 0x4020-0x40FF fall through to cartridge
+            default: // Unmapped cartridge space (registers, disabled PRG RAM, open bus)
                 return cartridge.cpuRead(address);
         }
     }
 
-    /**
-     * Writes a byte to the bus at the specified 16-bit address.
-     */
-    public void write(int address, byte data) {
-        address &= ADDRESS_MASK_16BIT; // Ensure 16-bit address
-
-        switch (address & ADDRESS_HIGH_BITS_MASK) { // Check the highest 4 bits
-            case RAM_START_ADDRESS: // 0x0000 - 0x0FFF: CPU RAM and its mirror
-            case RAM_START_ADDRESS + BLOCK_4KB_SIZE: // 0x1000 - 0x1FFF: CPU RAM mirror
-                cpuRam[address & RAM_MIRROR_MASK] = data;
-                break;
-            case PPU_REGISTERS_START: // 0x2000 - 0x2FFF: PPU registers and its mirror
-            case PPU_REGISTERS_START + BLOCK_4KB_SIZE: // 0x3000 - 0x3FFF: PPU mirror
+    private void writeHandler(int page, int address, byte data) {
+        switch (pageHandlers[page]) {
+            case HANDLER_PPU: // 0x2000 - 0x3FFF: PPU registers and its mirror
                 int ppuWriteIndex = (address - PPU_REGISTERS_START) & PPU_REGISTERS_MIRROR_MASK;
-                ppuRegisters[ppuWriteIndex] = data;
+                if (ppu != null) {
+                    ppu.writeRegister(ppuWriteIndex, data);
+                } else {
+                    ppuRegisters[ppuWriteIndex] = data;
+                }
                 break;
-            case APU_IO_START_ADDRESS: // 0x4000 - 0x4FFF: APU/IO and Cartridge
+            case HANDLER_APU_IO: // 0x4000 - 0x40FF: APU/IO and Cartridge
                 if (address <= APU_IO_END_ADDRESS) {
                     // APU/IO Registers (0x4000 - 0x401F)
                     if (address == APU_OAM_DMA_ADDRESS) {
-                        System.out.println("OAM DMA triggered with data: " + (data & 0xFF));
-                    } else if (address == APU_CONTROLLER_1_ADDRESS) {
-                        System.out.println("Controller 1 write with data: " + (data & 0xFF));
+                        oamDma(data);
                     } else if (address == APU_CONTROLLER_2_ADDRESS) {
-                        System.out.println("Controller 2 write with data: " + (data & 0xFF));
+                        if (apu != null) {
+                            apu.writeRegister(address, data); // Frame counter
+                        }
+                    } else if (address == APU_CONTROLLER_1_ADDRESS) {
+                        controllers.writeStrobe(data); // Both ports share the strobe line
                     } else {
                         apuRegisters[address - APU_IO_START_ADDRESS] = data;
+                        if (apu != null) {
+                            apu.writeRegister(address, data);
+                        }
                     }
                 } else {
-                    // Fallthrough to Cartridge if not APU/IO (within 0x4000 block)
+                    // Fallthrough to Cartridge if not APU/IO (within 0x4000 page)
                     cartridge.cpuWrite(address, data);
                 }
                 break;
-            default: // Catches 0x5000 - 0xFFFF (mostly Cartridge space)
-                // Delegate to cartridge for write
+            default: // Cartridge space: mapper registers, PRG RAM not mapped directly
                 cartridge.cpuWrite(address, data);
                 break;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Performs OAM DMA: copies the 256-byte CPU page {@code page << 8} into OAM and stalls the CPU.
+     * Pages backed by an array in the page table (RAM, PRG ROM/RAM banks) are copied with a single
+     * {@code System.arraycopy}, other cartridge pages with one block read; only register pages fall
+     * back to byte-by-byte reads.
+     *
+     * @param page High byte of the source address.
+     */
+    private void oamDma(byte page) {
+        if (ppu != null) {
+            ppu.synchronize(); // Lines up to now are rendered with the old sprites
+        }
+        int sourcePage = page & 0xFF;
+        byte[] memory = readPages[sourcePage];
+        if (memory != null) {
+            oam.dmaCopy(memory, readOffsets[sourcePage]);
+        } else if (pageHandlers[sourcePage] == HANDLER_CARTRIDGE) {
+            // Not direct-mapped (e.g. disabled PRG RAM): still one call, resolved per bank by the mapper
+            cartridge.cpuReadBlock(sourcePage << CpuPageTable.PAGE_SHIFT, dmaBuffer, 0, ObjectAttributeMemory.SIZE);
+            oam.dmaCopy(dmaBuffer, 0);
+        } else {
+            int base = sourcePage << CpuPageTable.PAGE_SHIFT;
+            for (int i = 0; i < ObjectAttributeMemory.SIZE; i++) {
+                dmaBuffer[i] = read(base + i);
+            }
+            oam.dmaCopy(dmaBuffer, 0);
+        }
+
+        if (cpu != null) {
+            // One extra alignment cycle when the DMA starts on an odd CPU cycle
+            cpu.addStallCycles(OAM_DMA_STALL_CYCLES + (int) (cpu.getCycles() & 1));
+        }
+    }
+
+    // --- Save States ---
+
+    /**
+     * The Bus owns CPU RAM, the PPU (or its register latches when none is connected), the APU/IO
+     * register latches, the APU when connected, OAM and the controller ports; cartridge memory is
+     * saved by the mapper.
+     */
+    @Override
+    public int getStateSize() {
+        int ppuSize = ppu != null ? ppu.getStateSize() : PPU_REGISTERS_SIZE;
+        int apuSize = apu != null ? apu.getStateSize() : 0;
+        return RAM_SIZE + ppuSize + APU_IO_SIZE + apuSize + ObjectAttributeMemory.SIZE + 1
+                + controllers.getStateSize();
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put(cpuRam);
+        if (ppu != null) {
+            ppu.saveState(buffer);
+        } else {
+            buffer.put(ppuRegisters);
+        }
+        buffer.put(apuRegisters);
+        if (apu != null) {
+            apu.saveState(buffer);
+        }
+        buffer.put(oam.getData());
+        buffer.put((byte) oam.getAddress());
+        controllers.saveState(buffer);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        buffer.get(cpuRam);
+        if (ppu != null) {
+            ppu.loadState(buffer);
+        } else {
+            buffer.get(ppuRegisters);
+        }
+        buffer.get(apuRegisters);
+        if (apu != null) {
+            apu.loadState(buffer);
+        }
+        buffer.get(oam.getData());
+        oam.setAddress(buffer.get() & 0xFF);
+        oam.rebuildLineMasks();
+        controllers.loadState(buffer);
+    }
+}
@@ -0,0 +1,44 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.memory;
+
+/**
+ * Regions of the CPU address space, as counted by the {@link InstrumentedBus}.
+ */
+public enum BusRegion {
+    /** $0000-$1FFF: 2KB internal RAM and its mirrors. */
+    RAM,
+    /** $2000-$3FFF: PPU registers and their mirrors. */
+    PPU_REGISTERS,
+    /** $4000-$401F: APU and I/O registers. */
+    APU_IO,
+    /** $4020-$5FFF: cartridge expansion area (rarely used). */
+    EXPANSION,
+    /** $6000-$7FFF: PRG RAM. */
+    PRG_RAM,
+    /** $8000-$FFFF: PRG ROM reads and mapper register writes. */
+    PRG_ROM;
+
+    private static final BusRegion[] VALUES = values();
+
+    /**
+     * Classifies a CPU address.
+     *
+     * @param address 16-bit CPU address.
+     * @return The region containing it.
+     */
+    public static BusRegion of(int address) {
+        return VALUES[ordinalOf(address)];
+    }
+
+    /**
+     * Same as {@link #of(int)} but returns the ordinal, so counters can index arrays without touching enums.
+     */
+    static int ordinalOf(int address) {
+        address &= 0xFFFF;
+        if (address < 0x2000) return RAM.ordinal();
+        if (address < 0x4000) return PPU_REGISTERS.ordinal();
+        if (address < 0x4020) return APU_IO.ordinal();
+        if (address < 0x6000) return EXPANSION.ordinal();
+        if (address < 0x8000) return PRG_RAM.ordinal();
+        return PRG_ROM.ordinal();
+    }
+}
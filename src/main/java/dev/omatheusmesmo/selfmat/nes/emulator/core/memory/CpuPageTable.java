@@ -0,0 +1,137 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.memory;
+
+/**
+ * Page table used by the {@link Bus} to dispatch CPU accesses.
+ * <p>
+ * The 64KB CPU address space is split into 256 pages of 256 bytes. Each page can point
+ * directly into a backing {@code byte[]} (plus an offset), in which case the Bus serves the
+ * access with a single array load/store. A page without a backing array falls back to the
+ * Bus register handlers (PPU, APU/IO or the cartridge's {@code cpuRead}/{@code cpuWrite}).
+ * <p>
+ * Mappers own the cartridge part of the table and refresh it whenever they switch banks.
+ */
+public final class CpuPageTable {
+
+    // --- Constants ---
+    /** Number of bits used for the offset inside a page. */
+    public static final int PAGE_SHIFT = 8;
+    /** Size of a page in bytes (256). */
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    /** Mask to extract the offset inside a page. */
+    public static final int PAGE_OFFSET_MASK = PAGE_SIZE - 1;
+    /** Number of pages covering the 16-bit CPU address space. */
+    public static final int PAGE_COUNT = 0x10000 >> PAGE_SHIFT;
+
+    /** First address cartridges are allowed to map ($4100, the first page not shared with APU/IO). */
+    private static final int CARTRIDGE_MAPPABLE_START = 0x4100;
+
+    // --- Tables (package-private so the Bus can read them without indirection) ---
+    final byte[][] readPages = new byte[PAGE_COUNT][];
+    final int[] readOffsets = new int[PAGE_COUNT];
+    final byte[][] writePages = new byte[PAGE_COUNT][];
+    final int[] writeOffsets = new int[PAGE_COUNT];
+
+    /**
+     * Maps a CPU address range for reads directly onto a backing array.
+     *
+     * @param startAddress First CPU address of the range (must be page aligned).
+     * @param length       Length of the range in bytes (must be a multiple of the page size).
+     * @param data         The backing array.
+     * @param offset       Index in {@code data} that corresponds to {@code startAddress}.
+     */
+    public void mapRead(int startAddress, int length, byte[] data, int offset) {
+        fill(readPages, readOffsets, startAddress, length, data, offset);
+    }
+
+    /**
+     * Maps a CPU address range for writes directly onto a backing array.
+     *
+     * @param startAddress First CPU address of the range (must be page aligned).
+     * @param length       Length of the range in bytes (must be a multiple of the page size).
+     * @param data         The backing array.
+     * @param offset       Index in {@code data} that corresponds to {@code startAddress}.
+     */
+    public void mapWrite(int startAddress, int length, byte[] data, int offset) {
+        fill(writePages, writeOffsets, startAddress, length, data, offset);
+    }
+
+    /**
+     * Maps a CPU address range for both reads and writes onto a backing array.
+     */
+    public void mapReadWrite(int startAddress, int length, byte[] data, int offset) {
+        mapRead(startAddress, length, data, offset);
+        mapWrite(startAddress, length, data, offset);
+    }
+
+    /**
+     * Routes reads in the given range back to the Bus handlers.
+     */
+    public void unmapRead(int startAddress, int length) {
+        fill(readPages, readOffsets, startAddress, length, null, 0);
+    }
+
+    /**
+     * Routes writes in the given range back to the Bus handlers.
+     */
+    public void unmapWrite(int startAddress, int length) {
+        fill(writePages, writeOffsets, startAddress, length, null, 0);
+    }
+
+    /**
+     * Routes both reads and writes in the given range back to the Bus handlers.
+     */
+    public void unmap(int startAddress, int length) {
+        unmapRead(startAddress, length);
+        unmapWrite(startAddress, length);
+    }
+
+    /**
+     * Returns the array backing reads of the page containing {@code address}, or null if the page
+     * is served by a handler.
+     */
+    public byte[] getReadPage(int address) {
+        return readPages[(address & 0xFFFF) >>> PAGE_SHIFT];
+    }
+
+    /**
+     * Returns the index in {@link #getReadPage(int)} where the page containing {@code address} starts.
+     */
+    public int getReadPageOffset(int address) {
+        return readOffsets[(address & 0xFFFF) >>> PAGE_SHIFT];
+    }
+
+    /**
+     * Maps a range without the cartridge-range restriction. Used by the Bus for internal RAM.
+     */
+    void mapInternal(int startAddress, int length, byte[] data, int offset) {
+        fillPages(readPages, readOffsets, startAddress, length, data, offset);
+        fillPages(writePages, writeOffsets, startAddress, length, data, offset);
+    }
+
+    private static void fill(byte[][] pages, int[] offsets, int startAddress, int length, byte[] data, int offset) {
+        if (startAddress < CARTRIDGE_MAPPABLE_START) {
+            throw new IllegalArgumentException(String.format(
+                    "Cartridge page mappings must start at or above $%04X (got $%04X)", CARTRIDGE_MAPPABLE_START, startAddress));
+        }
+        fillPages(pages, offsets, startAddress, length, data, offset);
+    }
+
+    private static void fillPages(byte[][] pages, int[] offsets, int startAddress, int length, byte[] data, int offset) {
+        if ((startAddress & PAGE_OFFSET_MASK) != 0 || (length & PAGE_OFFSET_MASK) != 0
+                || startAddress + length > 0x10000) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid page range $%04X (+%d bytes)", startAddress, length));
+        }
+        if (data != null && (offset < 0 || offset + length > data.length)) {
+            throw new IllegalArgumentException(String.format(
+                    "Backing array too small for range $%04X (+%d bytes) at offset %d", startAddress, length, offset));
+        }
+
+        int firstPage = startAddress >>> PAGE_SHIFT;
+        int pageCount = length >>> PAGE_SHIFT;
+        for (int i = 0; i < pageCount; i++) {
+            pages[firstPage + i] = data;
+            offsets[firstPage + i] = data == null ? 0 : offset + (i << PAGE_SHIFT);
+        }
+    }
+}
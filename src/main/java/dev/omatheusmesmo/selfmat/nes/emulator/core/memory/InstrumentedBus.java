@@ -0,0 +1,76 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.memory;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Bus} that counts reads and writes per {@link BusRegion}.
+ * <p>
+ * Instrumentation is enabled by constructing this class instead of a plain Bus, so the plain
+ * Bus keeps its uninstrumented read/write paths and pays nothing when monitoring is off.
+ * Counters are cumulative; take differences between two {@link #copyCounters} calls for per-frame figures.
+ */
+public class InstrumentedBus extends Bus {
+
+    /** Number of counted regions. */
+    public static final int REGION_COUNT = BusRegion.values().length;
+
+    /** Region ordinal of every address (64KB table, so classification is one load). */
+    private static final byte[] ADDRESS_REGIONS = new byte[0x10000];
+
+    static {
+        for (int address = 0; address < ADDRESS_REGIONS.length; address++) {
+            ADDRESS_REGIONS[address] = (byte) BusRegion.ordinalOf(address);
+        }
+    }
+
+    private final long[] reads = new long[REGION_COUNT];
+    private final long[] writes = new long[REGION_COUNT];
+
+    public InstrumentedBus(ICartridge cartridge) {
+        super(cartridge);
+    }
+
+    @Override
+    public byte read(int address) {
+        reads[ADDRESS_REGIONS[address & 0xFFFF]]++;
+        return super.read(address);
+    }
+
+    @Override
+    public void write(int address, byte data) {
+        writes[ADDRESS_REGIONS[address & 0xFFFF]]++;
+        super.write(address, data);
+    }
+
+    /**
+     * @return Total reads from the region since creation or the last {@link #resetCounters()}.
+     */
+    public long getReads(BusRegion region) {
+        return reads[region.ordinal()];
+    }
+
+    /**
+     * @return Total writes to the region since creation or the last {@link #resetCounters()}.
+     */
+    public long getWrites(BusRegion region) {
+        return writes[region.ordinal()];
+    }
+
+    /**
+     * Copies the cumulative counters, indexed by {@link BusRegion#ordinal()}, without allocating.
+     *
+     * @param readCounts  Destination for the read counters ({@link #REGION_COUNT} entries).
+     * @param writeCounts Destination for the write counters ({@link #REGION_COUNT} entries).
+     */
+    public void copyCounters(long[] readCounts, long[] writeCounts) {
+        System.arraycopy(reads, 0, readCounts, 0, REGION_COUNT);
+        System.arraycopy(writes, 0, writeCounts, 0, REGION_COUNT);
+    }
+
+    public void resetCounters() {
+        Arrays.fill(reads, 0);
+        Arrays.fill(writes, 0);
+    }
+}
@@ -0,0 +1,242 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.Console;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.input.ControllerPorts;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A deterministic input movie: the buttons of both controllers for every frame, plus save-state
+ * keyframes so playback can start anywhere.
+ * <p>
+ * Layout (buffer byte order): magic {@code "SNMV"}, format version (u16), port count (u8), reserved (u8),
+ * ROM hash ({@link RomHash#SIZE} bytes), keyframe interval, frame count and keyframe count (u32
+ * each), then the keyframe index (offset and length of every keyframe, u32 each), the input bytes
+ * (one per port per frame, a mask of {@code StandardController.BUTTON_*} bits) and the keyframes
+ * themselves ({@link Console#saveState} format, always big-endian).
+ * <p>
+ * Keyframe {@code k} is the console state at the start of frame {@code k * keyframeInterval}, so
+ * seeking restores one keyframe and emulates fewer than {@code keyframeInterval} frames. A movie
+ * read with {@link #readFrom} keeps its keyframes as slices of the source buffer; reading a
+ * memory-mapped file therefore only touches the keyframe a seek actually loads.
+ */
+public class InputMovie {
+
+    /** "SNMV" */
+    public static final int MAGIC = 0x534E4D56;
+    public static final int FORMAT_VERSION = 1;
+    public static final int PORTS = ControllerPorts.PORT_COUNT;
+    /** Size of the fixed header preceding the keyframe index. */
+    public static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + 2 + RomHash.SIZE + 3 * Integer.BYTES;
+    private static final int INDEX_ENTRY_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_FRAMES = 3600;
+
+    private final RomHash romHash;
+    private final int keyframeInterval;
+    private byte[] inputs;
+    private int frameCount;
+    private final List<ByteBuffer> keyframes = new ArrayList<>();
+
+    /**
+     * Creates an empty movie.
+     *
+     * @param romHash          Hash of the ROM the movie is played on.
+     * @param keyframeInterval Frames between two keyframes.
+     */
+    public InputMovie(RomHash romHash, int keyframeInterval) {
+        this.romHash = Objects.requireNonNull(romHash, "ROM hash cannot be null");
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframe interval must be positive, got " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.inputs = new byte[INITIAL_FRAMES * PORTS];
+    }
+
+    // --- Recording ---
+
+    /**
+     * Appends the input of the next frame.
+     */
+    public void appendFrame(int port0, int port1) {
+        int offset = frameCount * PORTS;
+        if (offset + PORTS > inputs.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        }
+        inputs[offset] = (byte) port0;
+        inputs[offset + 1] = (byte) port1;
+        frameCount++;
+    }
+
+    /**
+     * @return true if a keyframe is due before the next frame is appended.
+     */
+    public boolean needsKeyframe() {
+        return frameCount == keyframes.size() * keyframeInterval;
+    }
+
+    /**
+     * Stores the state at the start of the next frame; only valid when {@link #needsKeyframe()}.
+     *
+     * @param state Buffer holding the state between position and limit; it is copied, not consumed.
+     */
+    public void addKeyframe(ByteBuffer state) {
+        if (!needsKeyframe()) {
+            throw new IllegalStateException("No keyframe is due at frame " + frameCount);
+        }
+        ByteBuffer copy = ByteBuffer.allocate(state.remaining());
+        copy.put(state.duplicate()).flip();
+        keyframes.add(copy.asReadOnlyBuffer());
+    }
+
+    // --- Playback ---
+
+    /**
+     * @return The buttons pressed on a port during a frame.
+     */
+    public int getInput(int frame, int port) {
+        Objects.checkIndex(frame, frameCount);
+        Objects.checkIndex(port, PORTS);
+        return inputs[frame * PORTS + port] & 0xFF;
+    }
+
+    /**
+     * @return The index of the last keyframe at or before {@code frame}, or -1 if there is none.
+     */
+    public int keyframeBefore(int frame) {
+        return Math.min(frame / keyframeInterval, keyframes.size() - 1);
+    }
+
+    /**
+     * @return The frame keyframe {@code index} was taken at.
+     */
+    public int getKeyframeFrame(int index) {
+        Objects.checkIndex(index, keyframes.size());
+        return index * keyframeInterval;
+    }
+
+    /**
+     * @return A read-only view of a keyframe, positioned at its start.
+     */
+    public ByteBuffer getKeyframe(int index) {
+        return keyframes.get(index).duplicate();
+    }
+
+    // --- Serialization ---
+
+    /**
+     * @return The number of bytes {@link #writeTo} writes.
+     */
+    public int getSerializedSize() {
+        long size = HEADER_SIZE + (long) keyframes.size() * INDEX_ENTRY_SIZE + (long) frameCount * PORTS;
+        for (ByteBuffer keyframe : keyframes) {
+            size += keyframe.remaining();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Movie is too large to serialize: " + size + " bytes");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Writes the movie at the buffer's position.
+     *
+     * @param buffer Destination; must have at least {@link #getSerializedSize()} bytes remaining.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) FORMAT_VERSION);
+        buffer.put((byte) PORTS);
+        buffer.put((byte) 0);
+        romHash.writeTo(buffer);
+        buffer.putInt(keyframeInterval);
+        buffer.putInt(frameCount);
+        buffer.putInt(keyframes.size());
+
+        int offset = HEADER_SIZE + keyframes.size() * INDEX_ENTRY_SIZE + frameCount * PORTS;
+        for (ByteBuffer keyframe : keyframes) {
+            buffer.putInt(offset);
+            buffer.putInt(keyframe.remaining());
+            offset += keyframe.remaining();
+        }
+        buffer.put(inputs, 0, frameCount * PORTS);
+        for (ByteBuffer keyframe : keyframes) {
+            buffer.put(keyframe.duplicate());
+        }
+    }
+
+    /**
+     * Reads a movie written by {@link #writeTo}, starting at the buffer's position. The input bytes
+     * are copied; the keyframes stay slices of {@code buffer}.
+     *
+     * @throws IllegalArgumentException If the buffer does not hold a valid movie.
+     */
+    public static InputMovie readFrom(ByteBuffer buffer) {
+        ByteBuffer source = buffer.slice().order(buffer.order());
+        if (source.remaining() < HEADER_SIZE || source.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not an input movie.");
+        }
+        int version = source.getShort() & 0xFFFF;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported movie version " + version + " (expected " + FORMAT_VERSION + ").");
+        }
+        int ports = source.get() & 0xFF;
+        if (ports != PORTS) {
+            throw new IllegalArgumentException("Unsupported port count " + ports + ".");
+        }
+        source.get(); // Reserved
+        RomHash romHash = RomHash.readFrom(source);
+        int keyframeInterval = source.getInt();
+        int frameCount = source.getInt();
+        int keyframeCount = source.getInt();
+        if (keyframeInterval <= 0 || frameCount < 0 || keyframeCount < 0
+                || keyframeCount > frameCount / keyframeInterval + 1
+                || (long) keyframeCount * INDEX_ENTRY_SIZE + (long) frameCount * PORTS > source.remaining()) {
+            throw new IllegalArgumentException("Corrupt movie header.");
+        }
+
+        InputMovie movie = new InputMovie(romHash, keyframeInterval);
+        int[] offsets = new int[keyframeCount];
+        int[] lengths = new int[keyframeCount];
+        for (int i = 0; i < keyframeCount; i++) {
+            offsets[i] = source.getInt();
+            lengths[i] = source.getInt();
+        }
+        movie.inputs = new byte[Math.max(frameCount * PORTS, PORTS)];
+        source.get(movie.inputs, 0, frameCount * PORTS);
+        movie.frameCount = frameCount;
+        int end = source.position();
+        for (int i = 0; i < keyframeCount; i++) {
+            if (offsets[i] < source.position() || lengths[i] < 0 || offsets[i] > source.limit() - lengths[i]) {
+                throw new IllegalArgumentException("Keyframe " + i + " lies outside the movie.");
+            }
+            movie.keyframes.add(source.duplicate().position(offsets[i]).limit(offsets[i] + lengths[i])
+                    .slice().asReadOnlyBuffer());
+            end = Math.max(end, offsets[i] + lengths[i]);
+        }
+        buffer.position(buffer.position() + end);
+        return movie;
+    }
+
+    // --- Getters ---
+
+    public RomHash getRomHash() {
+        return romHash;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getKeyframeCount() {
+        return keyframes.size();
+    }
+}
@@ -0,0 +1,98 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.Console;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.input.ControllerPorts;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+
+import java.util.Objects;
+
+/**
+ * Plays an {@link InputMovie} back on a console, with random access through its keyframes.
+ * <p>
+ * {@link #seek} restores the nearest keyframe at or before the target frame and fast-forwards with
+ * the recorded input, so the cost of a seek is bounded by the keyframe interval instead of the
+ * movie's length.
+ */
+public class MoviePlayer {
+
+    private final Console console;
+    private final InputMovie movie;
+    private final ControllerPorts controllers;
+    private int position;
+    private int lastSeekFrames;
+
+    /**
+     * Prepares playback and seeks to the first frame.
+     *
+     * @param console Console with the movie's ROM loaded.
+     * @param romHash Hash of the ROM loaded in the console (see {@link RomHash#of(ICartridge)}).
+     * @throws IllegalArgumentException If the movie has no keyframe or was recorded with another ROM.
+     */
+    public MoviePlayer(Console console, RomHash romHash, InputMovie movie) {
+        this.console = Objects.requireNonNull(console, "Console cannot be null");
+        this.movie = Objects.requireNonNull(movie, "Movie cannot be null");
+        if (!movie.getRomHash().equals(romHash)) {
+            throw new IllegalArgumentException("Movie was recorded with a different ROM (" + movie.getRomHash() + ").");
+        }
+        if (movie.getKeyframeCount() == 0) {
+            throw new IllegalArgumentException("Movie has no keyframe to start from.");
+        }
+        this.controllers = console.getBus().getControllers();
+        controllers.setPollOnStrobe(false);
+        seek(0);
+    }
+
+    /**
+     * Moves playback to the start of a frame.
+     *
+     * @param frame 0 to {@link InputMovie#getFrameCount()} (the end of the movie).
+     */
+    public void seek(int frame) {
+        if (frame < 0 || frame > movie.getFrameCount()) {
+            throw new IllegalArgumentException("Frame " + frame + " is outside the movie (0-"
+                    + movie.getFrameCount() + ")");
+        }
+        int keyframe = movie.keyframeBefore(frame);
+        console.loadState(movie.getKeyframe(keyframe), movie.getRomHash());
+        position = movie.getKeyframeFrame(keyframe);
+        lastSeekFrames = frame - position;
+        while (position < frame) {
+            runFrame();
+        }
+    }
+
+    /**
+     * Plays the next frame.
+     *
+     * @return false if the movie has ended (nothing is run).
+     */
+    public boolean runFrame() {
+        if (position >= movie.getFrameCount()) {
+            return false;
+        }
+        controllers.setButtons(0, movie.getInput(position, 0));
+        controllers.setButtons(1, movie.getInput(position, 1));
+        console.runFrame();
+        position++;
+        return true;
+    }
+
+    /**
+     * @return The frame that plays next.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return Frames emulated to reach the target of the last {@link #seek}.
+     */
+    public int getLastSeekFrames() {
+        return lastSeekFrames;
+    }
+
+    public InputMovie getMovie() {
+        return movie;
+    }
+}
@@ -0,0 +1,64 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.Console;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.input.ControllerPorts;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Runs a console frame by frame while recording its input into an {@link InputMovie}.
+ * <p>
+ * The buttons are set once at the start of every frame instead of on the game's strobe, so that
+ * playback feeding the same bytes sees exactly the same input. The movie starts from the console's
+ * current state (usually right after a reset), which becomes its first keyframe.
+ */
+public class MovieRecorder {
+
+    private final Console console;
+    private final InputMovie movie;
+    private final ControllerPorts controllers;
+    private final ByteBuffer stateBuffer;
+
+    /**
+     * @param console Console to run, with the movie's ROM loaded.
+     * @param movie   Movie to append to; normally empty.
+     */
+    public MovieRecorder(Console console, InputMovie movie) {
+        this.console = Objects.requireNonNull(console, "Console cannot be null");
+        this.movie = Objects.requireNonNull(movie, "Movie cannot be null");
+        this.controllers = console.getBus().getControllers();
+        this.stateBuffer = ByteBuffer.allocate(console.getStateSize());
+        controllers.setPollOnStrobe(false);
+    }
+
+    /**
+     * Records one frame: stores a keyframe when one is due, applies the buttons and runs the frame.
+     *
+     * @param port0 Buttons of controller 1 (a mask of {@code StandardController.BUTTON_*} bits).
+     * @param port1 Buttons of controller 2.
+     */
+    public void recordFrame(int port0, int port1) {
+        if (movie.needsKeyframe()) {
+            stateBuffer.clear();
+            console.saveState(stateBuffer, movie.getRomHash());
+            movie.addKeyframe(stateBuffer.flip());
+        }
+        controllers.setButtons(0, port0);
+        controllers.setButtons(1, port1);
+        movie.appendFrame(port0, port1);
+        console.runFrame();
+    }
+
+    /**
+     * Records a frame with whatever the input queue holds at its start, for live sessions.
+     */
+    public void recordFrame() {
+        controllers.pollInput();
+        recordFrame(controllers.getButtons(0), controllers.getButtons(1));
+    }
+
+    public InputMovie getMovie() {
+        return movie;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import java.util.List;
+
+/**
+ * Result of verifying a movie with {@link ReplayVerifier}.
+ *
+ * @param segments The verified segments, in movie order.
+ */
+public record ReplayReport(List<SegmentResult> segments) {
+
+    public ReplayReport {
+        segments = List.copyOf(segments);
+    }
+
+    /**
+     * @return true if every segment reproduced its recorded end state.
+     */
+    public boolean isDeterministic() {
+        return getFirstDivergence() == null;
+    }
+
+    /**
+     * @return The earliest segment that did not reach its recorded end state, or null.
+     */
+    public SegmentResult getFirstDivergence() {
+        for (SegmentResult segment : segments) {
+            if (!segment.matches()) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The state is only known at keyframes, so this is the first keyframe the replay did not
+     * reproduce; the actual divergence happened in the segment's frames before it.
+     *
+     * @return The first frame whose starting state differs from the recording, or -1.
+     */
+    public int getFirstDivergentFrame() {
+        SegmentResult divergence = getFirstDivergence();
+        return divergence != null ? divergence.endFrame() : -1;
+    }
+
+    /**
+     * @return Frames replayed across all segments.
+     */
+    public long getFramesVerified() {
+        long frames = 0;
+        for (SegmentResult segment : segments) {
+            frames += segment.endFrame() - segment.startFrame();
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,121 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.Console;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Checks that a movie still replays exactly as recorded, using every core.
+ * <p>
+ * The movie is split at its keyframes. Each segment is replayed on its own console, from its
+ * keyframe up to the next one, and the state reached is compared with the recorded keyframe. The
+ * segments don't depend on each other, so they run as independent tasks on a fork-join pool and the
+ * result is the same as a sequential replay, only faster. The frames after the last keyframe have
+ * nothing to be compared with and are not replayed.
+ */
+public class ReplayVerifier {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a verifier that runs on the common fork-join pool.
+     */
+    public ReplayVerifier() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to replay segments on.
+     */
+    public ReplayVerifier(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "Pool cannot be null");
+    }
+
+    /**
+     * Replays all segments of a movie.
+     *
+     * @param movie          Movie with at least two keyframes to compare anything.
+     * @param romHash        Hash of the ROM the consoles are created with.
+     * @param consoleFactory Creates a fresh console with the movie's ROM loaded; called once per
+     *                       segment, from pool threads.
+     * @return One result per segment, in movie order.
+     * @throws IllegalArgumentException If the movie was recorded with another ROM.
+     */
+    public ReplayReport verify(InputMovie movie, RomHash romHash, Supplier<Console> consoleFactory) {
+        Objects.requireNonNull(consoleFactory, "Console factory cannot be null");
+        if (!movie.getRomHash().equals(romHash)) {
+            throw new IllegalArgumentException("Movie was recorded with a different ROM (" + movie.getRomHash() + ").");
+        }
+        int segmentCount = Math.max(movie.getKeyframeCount() - 1, 0);
+        return new ReplayReport(pool.invoke(new SegmentTask(movie, romHash, consoleFactory, 0, segmentCount)));
+    }
+
+    /**
+     * Verifies a range of segments: forks one half, replays the other, down to single segments.
+     */
+    private static final class SegmentTask extends RecursiveTask<List<SegmentResult>> {
+        private static final long serialVersionUID = 1L;
+
+        private final InputMovie movie;
+        private final RomHash romHash;
+        private final Supplier<Console> consoleFactory;
+        private final int from;
+        private final int to;
+
+        SegmentTask(InputMovie movie, RomHash romHash, Supplier<Console> consoleFactory, int from, int to) {
+            this.movie = movie;
+            this.romHash = romHash;
+            this.consoleFactory = consoleFactory;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<SegmentResult> compute() {
+            if (to - from <= 1) {
+                List<SegmentResult> results = new ArrayList<>(1);
+                if (to > from) {
+                    results.add(replaySegment(from));
+                }
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            SegmentTask second = new SegmentTask(movie, romHash, consoleFactory, middle, to);
+            second.fork();
+            List<SegmentResult> results = new SegmentTask(movie, romHash, consoleFactory, from, middle).compute();
+            results.addAll(second.join());
+            return results;
+        }
+
+        private SegmentResult replaySegment(int keyframe) {
+            Console console = consoleFactory.get();
+            MoviePlayer player = new MoviePlayer(console, romHash, movie);
+            int startFrame = movie.getKeyframeFrame(keyframe);
+            int endFrame = movie.getKeyframeFrame(keyframe + 1);
+            player.seek(startFrame);
+            while (player.getPosition() < endFrame) {
+                player.runFrame();
+            }
+
+            ByteBuffer actual = ByteBuffer.allocate(console.getStateSize());
+            console.saveState(actual, romHash);
+            actual.flip();
+            ByteBuffer expected = movie.getKeyframe(keyframe + 1);
+            return new SegmentResult(startFrame, endFrame, crc32(expected), crc32(actual), actual.mismatch(expected));
+        }
+
+        private static int crc32(ByteBuffer state) {
+            CRC32 crc = new CRC32();
+            crc.update(state.duplicate());
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+/**
+ * Outcome of replaying one keyframe-to-keyframe segment of a movie.
+ *
+ * @param startFrame         Frame of the keyframe the segment was started from.
+ * @param endFrame           Frame of the keyframe its end state was compared with.
+ * @param expectedCrc32      CRC32 of the recorded keyframe at {@code endFrame}.
+ * @param actualCrc32        CRC32 of the state the replay reached.
+ * @param firstDifferentByte Offset of the first byte that differs between the two states, or -1.
+ */
+public record SegmentResult(int startFrame, int endFrame, int expectedCrc32, int actualCrc32, int firstDifferentByte) {
+
+    /**
+     * @return true if the replay reached exactly the recorded state.
+     */
+    public boolean matches() {
+        return firstDifferentByte < 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Frames %d-%d: %s (expected crc32=%08X, got %08X)", startFrame, endFrame,
+                matches() ? "ok" : "diverged at state byte " + firstDifferentByte, expectedCrc32, actualCrc32);
+    }
+}
@@ -0,0 +1,159 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import java.util.Arrays;
+
+/**
+ * The PPU's 256-byte Object Attribute Memory (64 sprites x 4 bytes) and its OAMADDR pointer.
+ * <p>
+ * Filled either one byte at a time through OAMDATA ($2004) or, far more commonly, by OAM DMA
+ * ($4014), which copies a whole CPU page in one go.
+ * <p>
+ * OAM also keeps, for each of the 240 visible scanlines, a 64-bit mask of the sprites that cover
+ * it (bit n = sprite n). The masks are updated when a sprite's Y byte changes, so the renderer
+ * never scans all 64 entries per line; sprites in OAM order are the set bits from lowest up.
+ */
+public class ObjectAttributeMemory {
+
+    /** Size of OAM in bytes. */
+    public static final int SIZE = 256;
+    /** Number of sprites. */
+    public static final int SPRITE_COUNT = 64;
+    /** Number of scanlines with a sprite mask. */
+    public static final int VISIBLE_SCANLINES = 240;
+    private static final int ADDRESS_MASK = SIZE - 1;
+
+    private final byte[] data = new byte[SIZE];
+    private int address;
+
+    // --- Per-Scanline Sprite Masks ---
+    private final long[] lineMasks = new long[VISIBLE_SCANLINES];
+    /** Y byte each sprite's mask bits were set from. */
+    private final int[] maskedY = new int[SPRITE_COUNT];
+    private int spriteHeight = 8;
+
+    public ObjectAttributeMemory() {
+        rebuildLineMasks();
+    }
+
+    /**
+     * Copies 256 bytes into OAM as OAM DMA does: starting at OAMADDR and wrapping around.
+     * OAMADDR is unchanged afterwards, as on hardware.
+     *
+     * @param source Source array.
+     * @param offset Index of the first byte to copy.
+     */
+    public void dmaCopy(byte[] source, int offset) {
+        int firstPart = SIZE - address;
+        System.arraycopy(source, offset, data, address, firstPart);
+        if (address != 0) {
+            System.arraycopy(source, offset + firstPart, data, 0, address);
+        }
+        for (int sprite = 0; sprite < SPRITE_COUNT; sprite++) {
+            updateSprite(sprite);
+        }
+    }
+
+    /**
+     * OAMADDR ($2003) write.
+     */
+    public void setAddress(int address) {
+        this.address = address & ADDRESS_MASK;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    /**
+     * OAMDATA ($2004) write: stores the byte and increments OAMADDR.
+     */
+    public void write(byte value) {
+        data[address] = value;
+        if ((address & 0x03) == 0) {
+            updateSprite(address >> 2);
+        }
+        address = (address + 1) & ADDRESS_MASK;
+    }
+
+    /**
+     * OAMDATA ($2004) read: returns the byte at OAMADDR without incrementing it.
+     */
+    public byte read() {
+        return data[address];
+    }
+
+    /**
+     * Reads an OAM byte directly, e.g. for sprite evaluation.
+     */
+    public byte get(int index) {
+        return data[index & ADDRESS_MASK];
+    }
+
+    /**
+     * Returns the backing array. Callers that write to it directly must call
+     * {@link #rebuildLineMasks()} afterwards.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    // --- Per-Scanline Sprite Masks ---
+
+    /**
+     * Sets the sprite height from PPUCTRL; the masks are rebuilt if it changes.
+     *
+     * @param height 8 or 16.
+     */
+    public void setSpriteHeight(int height) {
+        if (height != spriteHeight) {
+            spriteHeight = height;
+            rebuildLineMasks();
+        }
+    }
+
+    /**
+     * @return The sprites covering a visible scanline (bit n = sprite n).
+     */
+    public long getLineMask(int scanline) {
+        return lineMasks[scanline];
+    }
+
+    /**
+     * Recomputes every scanline mask from the Y bytes, e.g. after a save state was loaded.
+     */
+    public void rebuildLineMasks() {
+        Arrays.fill(lineMasks, 0L);
+        for (int sprite = 0; sprite < SPRITE_COUNT; sprite++) {
+            maskedY[sprite] = data[sprite * 4] & 0xFF;
+            setLines(maskedY[sprite], 1L << sprite);
+        }
+    }
+
+    /**
+     * Moves a sprite's mask bits if its Y byte changed.
+     */
+    private void updateSprite(int sprite) {
+        int y = data[sprite * 4] & 0xFF;
+        if (y != maskedY[sprite]) {
+            long bit = 1L << sprite;
+            clearLines(maskedY[sprite], ~bit);
+            setLines(y, bit);
+            maskedY[sprite] = y;
+        }
+    }
+
+    /** Sprites are drawn on the lines below their Y byte: Y + 1 to Y + height. */
+    private void setLines(int y, long bit) {
+        int end = Math.min(y + 1 + spriteHeight, VISIBLE_SCANLINES);
+        for (int line = y + 1; line < end; line++) {
+            lineMasks[line] |= bit;
+        }
+    }
+
+    private void clearLines(int y, long keep) {
+        int end = Math.min(y + 1 + spriteHeight, VISIBLE_SCANLINES);
+        for (int line = y + 1; line < end; line++) {
+            lineMasks[line] &= keep;
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.video.FrameBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * The NES picture processing unit (2C02), synchronized lazily.
+ * <p>
+ * The PPU is never ticked alongside the CPU. It remembers the master clock time it has been
+ * emulated up to and only catches up when something can observe it: a CPU access to $2000-$3FFF,
+ * a mapper about to change CHR banks or mirroring, or a console event (vblank, scanline end,
+ * frame end). Catching up does not walk every dot either; it jumps from one timing point to the
+ * next (vblank start, flag clear, the scroll register updates of rendered lines), so the cost
+ * grows with the number of scanlines crossed rather than the number of dots.
+ * <p>
+ * Visible scanlines are drawn by a {@link ScanlineRenderer} when catch-up passes their dot 256,
+ * into a frame of 256x240 palette colour indices ({@link #getFrameBuffer()}). At the start of vblank
+ * the completed frame is published to the connected {@link FrameBuffer}, if any.
+ * <p>
+ * Register side effects are applied at the exact time of the access: the $2002 read clears the
+ * vblank flag and the write toggle, $2007 reads go through the internal read buffer (except for
+ * palette reads), and enabling NMI in $2000 during vblank raises an NMI immediately.
+ *
+ * @see <a href="https://www.nesdev.org/wiki/PPU_registers">PPU registers</a>
+ * @see <a href="https://www.nesdev.org/wiki/PPU_scrolling">PPU scrolling</a>
+ */
+public class Ppu2C02 implements StateSerializable {
+
+    // --- Constants: NTSC Video Timing ---
+    public static final int DOTS_PER_SCANLINE = 341;
+    public static final int SCANLINES_PER_FRAME = 262;
+    /** Number of visible scanlines (0-239). */
+    public static final int VISIBLE_SCANLINES = 240;
+    /** Scanline on which vblank starts (at dot 1). */
+    public static final int VBLANK_SCANLINE = 241;
+    /** Last scanline of the frame, where vblank ends and the PPU prefetches for scanline 0. */
+    public static final int PRE_RENDER_SCANLINE = 261;
+    public static final int DOTS_PER_FRAME = DOTS_PER_SCANLINE * SCANLINES_PER_FRAME;
+
+    public static final long MASTER_CYCLES_PER_SCANLINE = (long) DOTS_PER_SCANLINE * Scheduler.MASTER_CYCLES_PER_PPU_DOT;
+    public static final long MASTER_CYCLES_PER_FRAME = MASTER_CYCLES_PER_SCANLINE * SCANLINES_PER_FRAME;
+
+    // --- Constants: Register Indices ($2000-$2007) ---
+    private static final int REG_CTRL = 0;
+    private static final int REG_MASK = 1;
+    private static final int REG_STATUS = 2;
+    private static final int REG_OAM_ADDR = 3;
+    private static final int REG_OAM_DATA = 4;
+    private static final int REG_SCROLL = 5;
+    private static final int REG_ADDR = 6;
+    private static final int REG_DATA = 7;
+
+    // --- Constants: Register Bits ---
+    private static final int CTRL_NAMETABLE_MASK = 0x03;
+    private static final int CTRL_INCREMENT_32 = 0x04;
+    private static final int CTRL_SPRITE_8X16 = 0x20;
+    private static final int CTRL_NMI_ENABLE = 0x80;
+    private static final int MASK_RENDERING = 0x18; // Background or sprites enabled
+    private static final int MASK_EMPHASIS_SHIFT = 5;
+    private static final int STATUS_SPRITE_OVERFLOW = 0x20;
+    private static final int STATUS_SPRITE_ZERO_HIT = 0x40;
+    private static final int STATUS_VBLANK = 0x80;
+    /** PPUSTATUS bits driven by the PPU; the low five come from the open bus latch. */
+    private static final int STATUS_FLAGS = 0xE0;
+
+    // --- Constants: Scroll Register (v/t) Layout ---
+    private static final int COARSE_X_MASK = 0x001F;
+    private static final int COARSE_Y_MASK = 0x03E0;
+    private static final int NAMETABLE_X = 0x0400;
+    private static final int NAMETABLE_Y = 0x0800;
+    private static final int FINE_Y_MASK = 0x7000;
+    private static final int HORIZONTAL_BITS = NAMETABLE_X | COARSE_X_MASK;
+    private static final int VERTICAL_BITS = FINE_Y_MASK | NAMETABLE_Y | COARSE_Y_MASK;
+
+    // --- Constants: PPU Memory Map ---
+    private static final int PPU_ADDRESS_MASK = 0x3FFF;
+    private static final int NAMETABLE_START = 0x2000;
+    private static final int PALETTE_START = 0x3F00;
+    private static final int PALETTE_SIZE = 32;
+
+    // --- Constants: Timing Points (dots within a scanline) ---
+    private static final int DOT_FLAGS = 1;
+    private static final int DOT_INCREMENT_Y = 256;
+    private static final int DOT_COPY_X = 257;
+    private static final int DOT_COPY_Y = 304;
+    private static final int DOT_PREFETCH_1 = 328;
+    private static final int DOT_PREFETCH_2 = 336;
+
+    /** ctrl, mask, status, latch, read buffer, fine X, toggle (1 each), v, t (2 each), two times (8 each). */
+    private static final int REGISTER_STATE_SIZE = 7 + 2 * Short.BYTES + 2 * Long.BYTES;
+
+    private final Mapper mapper;
+    private final ObjectAttributeMemory oam;
+    private final byte[] paletteRam = new byte[PALETTE_SIZE];
+    /** Colour indices (0-63) of the current frame, row-major. */
+    private final byte[] frame = new byte[ScanlineRenderer.WIDTH * ScanlineRenderer.HEIGHT];
+    /** PPUMASK emphasis bits (0-7) each visible line was drawn with. */
+    private final byte[] lineEmphasis = new byte[VISIBLE_SCANLINES];
+    private final ScanlineRenderer renderer;
+
+    private LongSupplier clock = () -> 0;
+    private Runnable nmiOutput;
+    private FrameBuffer output;
+
+    // --- Registers ---
+    private int ctrl;
+    private int mask;
+    private int status;
+    /** Last value driven on the PPU data bus; returned for write-only registers. */
+    private int ioLatch;
+    /** $2007 read buffer. */
+    private int readBuffer;
+
+    // --- Scroll Registers (loopy v/t/x/w) ---
+    private int v;
+    private int t;
+    private int fineX;
+    private boolean writeToggle;
+
+    // --- Synchronization ---
+    /** Master clock time of dot 0 of scanline 0 of the current frame. */
+    private long frameStartTime;
+    /** Master clock time the PPU has been emulated up to. */
+    private long syncedTime;
+    /** Dot of the current frame (scanline * 341 + dot) of the next timing point, or {@link #DOTS_PER_FRAME}. */
+    private int nextEventDot;
+    private long frameCount;
+
+    /**
+     * @param mapper The cartridge's mapper providing CHR and nametable VRAM (may be null).
+     * @param oam    Sprite memory, shared with the Bus for OAM DMA.
+     */
+    public Ppu2C02(Mapper mapper, ObjectAttributeMemory oam) {
+        this.mapper = mapper;
+        this.oam = Objects.requireNonNull(oam, "OAM cannot be null");
+        this.renderer = new ScanlineRenderer(mapper, oam, paletteRam, frame);
+        if (mapper != null) {
+            mapper.connectRenderStateListener(this::synchronize);
+        }
+    }
+
+    // --- Wiring ---
+
+    /**
+     * Sets the source of the current master clock time, usually {@link Scheduler#now()}.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * Connects the NMI output, raised at the start of vblank when enabled.
+     *
+     * @param nmiOutput Called once per NMI edge, or null to disconnect.
+     */
+    public void connectNmi(Runnable nmiOutput) {
+        this.nmiOutput = nmiOutput;
+    }
+
+    /**
+     * Connects the video output, which receives every completed frame at the start of vblank.
+     *
+     * @param output The frame buffer to publish to, or null to disconnect.
+     */
+    public void connectOutput(FrameBuffer output) {
+        this.output = output;
+    }
+
+    /**
+     * Restarts video timing at the top of a frame and clears the registers that a reset clears.
+     *
+     * @param time Master clock time of the new frame's first dot.
+     */
+    public void reset(long time) {
+        ctrl = 0;
+        oam.setSpriteHeight(8);
+        mask = 0;
+        readBuffer = 0;
+        fineX = 0;
+        t = 0;
+        writeToggle = false;
+        frameStartTime = time;
+        syncedTime = time;
+        frameCount = 0;
+        nextEventDot = findNextEvent(0);
+    }
+
+    /**
+     * Enables or disables the hardware limit of eight sprites per scanline (on by default).
+     * The sprite overflow flag behaves like the hardware's either way.
+     */
+    public void setSpriteLimit(boolean enabled) {
+        synchronize();
+        renderer.setSpriteLimit(enabled);
+    }
+
+    // --- Synchronization ---
+
+    /**
+     * Catches up to the current clock time.
+     */
+    public void synchronize() {
+        catchUp(clock.getAsLong());
+    }
+
+    /**
+     * Emulates the PPU up to the given master clock time. Times in the past are ignored.
+     *
+     * @param time Master clock time.
+     */
+    public void catchUp(long time) {
+        if (time <= syncedTime) {
+            return;
+        }
+        while (true) {
+            long eventTime = frameStartTime + (long) nextEventDot * Scheduler.MASTER_CYCLES_PER_PPU_DOT;
+            if (eventTime > time) {
+                break;
+            }
+            syncedTime = eventTime;
+            runEvent(nextEventDot);
+            nextEventDot = findNextEvent(nextEventDot == DOTS_PER_FRAME ? 0 : nextEventDot + 1);
+        }
+        syncedTime = time;
+    }
+
+    /**
+     * Finds the first timing point at or after {@code fromDot}, given the current rendering state.
+     *
+     * @return Its dot within the frame, or {@link #DOTS_PER_FRAME} for the end of the frame.
+     */
+    private int findNextEvent(int fromDot) {
+        boolean rendering = isRenderingEnabled();
+        for (int scanline = fromDot / DOTS_PER_SCANLINE; scanline < SCANLINES_PER_FRAME; scanline++) {
+            int lineStart = scanline * DOTS_PER_SCANLINE;
+            int fromLineDot = Math.max(0, fromDot - lineStart);
+            int dot = nextEventOnLine(scanline, fromLineDot, rendering);
+            if (dot >= 0) {
+                return lineStart + dot;
+            }
+        }
+        return DOTS_PER_FRAME;
+    }
+
+    /**
+     * @return The first timing point of a scanline at or after {@code fromDot}, or -1.
+     */
+    private static int nextEventOnLine(int scanline, int fromDot, boolean rendering) {
+        if (scanline == VBLANK_SCANLINE || scanline == PRE_RENDER_SCANLINE) {
+            if (fromDot <= DOT_FLAGS) {
+                return DOT_FLAGS;
+            }
+        }
+        if (fromDot <= DOT_INCREMENT_Y && scanline < VISIBLE_SCANLINES) {
+            return DOT_INCREMENT_Y; // Visible lines are drawn here, even with rendering disabled
+        }
+        if (!rendering || (scanline >= VISIBLE_SCANLINES && scanline != PRE_RENDER_SCANLINE)) {
+            return -1;
+        }
+        if (fromDot <= DOT_INCREMENT_Y) {
+            return DOT_INCREMENT_Y;
+        }
+        if (fromDot <= DOT_COPY_X) {
+            return DOT_COPY_X;
+        }
+        if (scanline == PRE_RENDER_SCANLINE && fromDot <= DOT_COPY_Y) {
+            return DOT_COPY_Y;
+        }
+        if (fromDot <= DOT_PREFETCH_1) {
+            return DOT_PREFETCH_1;
+        }
+        if (fromDot <= DOT_PREFETCH_2) {
+            return DOT_PREFETCH_2;
+        }
+        return -1;
+    }
+
+    private void runEvent(int frameDot) {
+        if (frameDot == DOTS_PER_FRAME) {
+            frameStartTime += MASTER_CYCLES_PER_FRAME;
+            frameCount++;
+            return;
+        }
+        int scanline = frameDot / DOTS_PER_SCANLINE;
+        int dot = frameDot - scanline * DOTS_PER_SCANLINE;
+        switch (dot) {
+            case DOT_FLAGS:
+                if (scanline == VBLANK_SCANLINE) {
+                    if (output != null) {
+                        output.publish(frame, lineEmphasis, frameCount);
+                    }
+                    status |= STATUS_VBLANK;
+                    if ((ctrl & CTRL_NMI_ENABLE) != 0) {
+                        raiseNmi();
+                    }
+                } else {
+                    status &= ~(STATUS_VBLANK | STATUS_SPRITE_ZERO_HIT | STATUS_SPRITE_OVERFLOW);
+                }
+                break;
+            case DOT_INCREMENT_Y:
+                if (scanline < VISIBLE_SCANLINES) {
+                    status |= renderer.render(scanline, v, fineX, ctrl, mask);
+                    lineEmphasis[scanline] = (byte) (mask >> MASK_EMPHASIS_SHIFT);
+                }
+                if (isRenderingEnabled()) {
+                    incrementY();
+                }
+                break;
+            case DOT_COPY_X:
+                v = (v & ~HORIZONTAL_BITS) | (t & HORIZONTAL_BITS);
+                break;
+            case DOT_COPY_Y:
+                v = (v & ~VERTICAL_BITS) | (t & VERTICAL_BITS);
+                break;
+            case DOT_PREFETCH_1:
+            case DOT_PREFETCH_2:
+                incrementCoarseX();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void raiseNmi() {
+        if (nmiOutput != null) {
+            nmiOutput.run();
+        }
+    }
+
+    private void incrementCoarseX() {
+        if ((v & COARSE_X_MASK) == COARSE_X_MASK) {
+            v = (v & ~COARSE_X_MASK) ^ NAMETABLE_X;
+        } else {
+            v++;
+        }
+    }
+
+    private void incrementY() {
+        if ((v & FINE_Y_MASK) != FINE_Y_MASK) {
+            v += 0x1000;
+            return;
+        }
+        v &= ~FINE_Y_MASK;
+        int coarseY = (v & COARSE_Y_MASK) >> 5;
+        if (coarseY == 29) {
+            coarseY = 0;
+            v ^= NAMETABLE_Y;
+        } else if (coarseY == 31) {
+            coarseY = 0; // Attribute rows: wraps without switching nametables
+        } else {
+            coarseY++;
+        }
+        v = (v & ~COARSE_Y_MASK) | (coarseY << 5);
+    }
+
+    // --- CPU Register Access ---
+
+    /**
+     * Reads a PPU register on behalf of the CPU, after catching up to the current time.
+     *
+     * @param index Register index (address & 7).
+     */
+    public byte readRegister(int index) {
+        synchronize();
+        switch (index & 7) {
+            case REG_STATUS:
+                ioLatch = (status & STATUS_FLAGS) | (ioLatch & ~STATUS_FLAGS & 0xFF);
+                status &= ~STATUS_VBLANK;
+                writeToggle = false;
+                break;
+            case REG_OAM_DATA:
+                ioLatch = oam.read() & 0xFF;
+                break;
+            case REG_DATA:
+                int address = v & PPU_ADDRESS_MASK;
+                if (address >= PALETTE_START) {
+                    // Palette reads are not buffered; the buffer gets the nametable byte underneath
+                    ioLatch = (paletteRam[paletteIndex(address)] & 0x3F) | (ioLatch & 0xC0);
+                    readBuffer = readVram(address - 0x1000);
+                } else {
+                    ioLatch = readBuffer;
+                    readBuffer = readVram(address);
+                }
+                incrementAddress();
+                break;
+            default: // Write-only registers return the open bus latch
+                break;
+        }
+        return (byte) ioLatch;
+    }
+
+    /**
+     * Writes a PPU register on behalf of the CPU, after catching up to the current time.
+     *
+     * @param index Register index (address & 7).
+     * @param data  The byte written.
+     */
+    public void writeRegister(int index, byte data) {
+        synchronize();
+        int value = data & 0xFF;
+        ioLatch = value;
+        switch (index & 7) {
+            case REG_CTRL:
+                boolean nmiWasEnabled = (ctrl & CTRL_NMI_ENABLE) != 0;
+                ctrl = value;
+                oam.setSpriteHeight((value & CTRL_SPRITE_8X16) != 0 ? 16 : 8);
+                t = (t & ~(NAMETABLE_X | NAMETABLE_Y)) | ((value & CTRL_NAMETABLE_MASK) << 10);
+                if (!nmiWasEnabled && (value & CTRL_NMI_ENABLE) != 0 && (status & STATUS_VBLANK) != 0) {
+                    raiseNmi();
+                }
+                break;
+            case REG_MASK:
+                mask = value;
+                // Rendering may have been switched on or off: the pending timing points change
+                nextEventDot = findNextEvent(currentFrameDot() + 1);
+                break;
+            case REG_OAM_ADDR:
+                oam.setAddress(value);
+                break;
+            case REG_OAM_DATA:
+                oam.write(data);
+                break;
+            case REG_SCROLL:
+                if (!writeToggle) {
+                    t = (t & ~COARSE_X_MASK) | (value >> 3);
+                    fineX = value & 0x07;
+                } else {
+                    t = (t & ~(FINE_Y_MASK | COARSE_Y_MASK)) | ((value & 0x07) << 12) | ((value & 0xF8) << 2);
+                }
+                writeToggle = !writeToggle;
+                break;
+            case REG_ADDR:
+                if (!writeToggle) {
+                    t = (t & 0x00FF) | ((value & 0x3F) << 8);
+                } else {
+                    t = (t & 0x7F00) | value;
+                    v = t;
+                }
+                writeToggle = !writeToggle;
+                break;
+            case REG_DATA:
+                writeVram(v & PPU_ADDRESS_MASK, data);
+                incrementAddress();
+                break;
+            default: // PPUSTATUS is read-only
+                break;
+        }
+    }
+
+    private int currentFrameDot() {
+        return (int) ((syncedTime - frameStartTime) / Scheduler.MASTER_CYCLES_PER_PPU_DOT);
+    }
+
+    private void incrementAddress() {
+        v = (v + ((ctrl & CTRL_INCREMENT_32) != 0 ? 32 : 1)) & 0x7FFF;
+    }
+
+    // --- PPU Memory ---
+
+    private int readVram(int address) {
+        address &= PPU_ADDRESS_MASK;
+        if (address < NAMETABLE_START) {
+            return mapper != null ? mapper.ppuRead(address) & 0xFF : 0;
+        } else if (address < PALETTE_START) {
+            return mapper != null ? mapper.readNametable(address) & 0xFF : 0;
+        }
+        return paletteRam[paletteIndex(address)] & 0xFF;
+    }
+
+    private void writeVram(int address, byte data) {
+        if (address < NAMETABLE_START) {
+            if (mapper != null) {
+                mapper.ppuWrite(address, data);
+            }
+        } else if (address < PALETTE_START) {
+            if (mapper != null) {
+                mapper.writeNametable(address, data);
+            }
+        } else {
+            paletteRam[paletteIndex(address)] = data;
+        }
+    }
+
+    /**
+     * $3F10/$3F14/$3F18/$3F1C mirror the background entries $3F00/$3F04/$3F08/$3F0C.
+     */
+    private static int paletteIndex(int address) {
+        int index = address & (PALETTE_SIZE - 1);
+        return (index & 0x13) == 0x10 ? index & ~0x10 : index;
+    }
+
+    // --- Getters ---
+
+    /**
+     * The frame being drawn: 256x240 colour indices (0-63) into the NES master palette, row-major.
+     * Rows above the current scanline are complete.
+     */
+    public byte[] getFrameBuffer() {
+        return frame;
+    }
+
+    /**
+     * @return true if background or sprite rendering is enabled in PPUMASK.
+     */
+    public boolean isRenderingEnabled() {
+        return (mask & MASK_RENDERING) != 0;
+    }
+
+    /** Scanline (0-261) at the time the PPU was last synchronized to. */
+    public int getScanline() {
+        return currentFrameDot() / DOTS_PER_SCANLINE;
+    }
+
+    /** Dot (0-340) at the time the PPU was last synchronized to. */
+    public int getDot() {
+        return currentFrameDot() % DOTS_PER_SCANLINE;
+    }
+
+    /** Number of frames completed. */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /** Master clock time of the current frame's first dot. */
+    public long getFrameStartTime() {
+        return frameStartTime;
+    }
+
+    /** The current VRAM address (loopy v). */
+    public int getVramAddress() {
+        return v;
+    }
+
+    /** The temporary VRAM address (loopy t). */
+    public int getTempVramAddress() {
+        return t;
+    }
+
+    public int getFineX() {
+        return fineX;
+    }
+
+    public int getCtrl() {
+        return ctrl;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    // --- Save States ---
+
+    @Override
+    public int getStateSize() {
+        return REGISTER_STATE_SIZE + PALETTE_SIZE;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put((byte) ctrl);
+        buffer.put((byte) mask);
+        buffer.put((byte) status);
+        buffer.put((byte) ioLatch);
+        buffer.put((byte) readBuffer);
+        buffer.put((byte) fineX);
+        buffer.put((byte) (writeToggle ? 1 : 0));
+        buffer.putShort((short) v);
+        buffer.putShort((short) t);
+        buffer.putLong(frameStartTime);
+        buffer.putLong(syncedTime);
+        buffer.put(paletteRam);
+    }
+
+    @Override
+    public void loadState(ByteBuffer buffer) {
+        ctrl = buffer.get() & 0xFF;
+        oam.setSpriteHeight((ctrl & CTRL_SPRITE_8X16) != 0 ? 16 : 8);
+        mask = buffer.get() & 0xFF;
+        status = buffer.get() & 0xFF;
+        ioLatch = buffer.get() & 0xFF;
+        readBuffer = buffer.get() & 0xFF;
+        fineX = buffer.get() & 0x07;
+        writeToggle = buffer.get() != 0;
+        v = buffer.getShort() & 0x7FFF;
+        t = buffer.getShort() & 0x7FFF;
+        frameStartTime = buffer.getLong();
+        syncedTime = buffer.getLong();
+        buffer.get(paletteRam);
+        nextEventDot = findNextEvent(currentFrameDot() + 1);
+    }
+}
@@ -0,0 +1,237 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+
+import java.util.Arrays;
+
+/**
+ * Draws one scanline at a time from decoded tiles.
+ * <p>
+ * Pattern data comes from the mapper's {@link TileCache}: each background tile and sprite row is
+ * one cache lookup followed by a copy of eight 2-bit pixels, instead of two CHR reads and per-pixel
+ * bit extraction. The background row is built 33 tiles wide and shifted by fine X when composed.
+ */
+final class ScanlineRenderer {
+
+    static final int WIDTH = 256;
+    static final int HEIGHT = 240;
+
+    // --- Constants: PPUCTRL / PPUMASK / PPUSTATUS Bits ---
+    private static final int CTRL_SPRITE_TABLE = 0x08;
+    private static final int CTRL_BACKGROUND_TABLE = 0x10;
+    private static final int CTRL_SPRITE_8X16 = 0x20;
+    private static final int MASK_GREYSCALE = 0x01;
+    private static final int MASK_BACKGROUND_LEFT = 0x02;
+    private static final int MASK_SPRITES_LEFT = 0x04;
+    private static final int MASK_BACKGROUND = 0x08;
+    private static final int MASK_SPRITES = 0x10;
+    static final int STATUS_SPRITE_OVERFLOW = 0x20;
+    static final int STATUS_SPRITE_ZERO_HIT = 0x40;
+
+    // --- Constants: Sprites ---
+    private static final int SPRITES_PER_LINE = 8;
+    private static final int ATTR_PALETTE = 0x03;
+    private static final int ATTR_BEHIND_BACKGROUND = 0x20;
+    private static final int ATTR_FLIP_H = 0x40;
+    private static final int ATTR_FLIP_V = 0x80;
+    /** Sprite line flags: the pixel belongs to sprite 0 / is drawn behind the background. */
+    private static final int PIXEL_SPRITE_ZERO = 0x40;
+    private static final int PIXEL_BEHIND = 0x80;
+    private static final int PIXEL_COLOUR = 0x1F;
+    private static final int SPRITE_PALETTE_BASE = 0x10;
+
+    private static final int TILES_PER_LINE = 33; // 32 visible plus one for fine X scrolling
+    private static final int BYTES_PER_TILE = TileCache.TILE_BYTES;
+
+    private final Mapper mapper;
+    private final ObjectAttributeMemory oam;
+    private final byte[] paletteRam;
+    private final byte[] frame;
+
+    /** Background palette indices (0-15, 0 = transparent) of the 33 fetched tiles. */
+    private final byte[] backgroundLine = new byte[TILES_PER_LINE * 8];
+    /** Sprite palette indices (16-31) plus {@code PIXEL_*} flags, 0 = transparent. */
+    private final byte[] spriteLine = new byte[WIDTH];
+    /** Draw at most eight sprites per line, as the hardware does. */
+    private boolean spriteLimit = true;
+
+    ScanlineRenderer(Mapper mapper, ObjectAttributeMemory oam, byte[] paletteRam, byte[] frame) {
+        this.mapper = mapper;
+        this.oam = oam;
+        this.paletteRam = paletteRam;
+        this.frame = frame;
+    }
+
+    /**
+     * Renders a visible scanline into the frame.
+     *
+     * @param scanline Scanline 0-239.
+     * @param v        The VRAM address (loopy v) at the end of the line's fetches.
+     * @param fineX    Fine X scroll.
+     * @param ctrl     PPUCTRL.
+     * @param mask     PPUMASK.
+     * @return PPUSTATUS bits raised by this line (sprite 0 hit, sprite overflow).
+     */
+    int render(int scanline, int v, int fineX, int ctrl, int mask) {
+        int base = scanline * WIDTH;
+        int greyscale = (mask & MASK_GREYSCALE) != 0 ? 0x30 : 0x3F;
+        if ((mask & (MASK_BACKGROUND | MASK_SPRITES)) == 0 || mapper == null) {
+            Arrays.fill(frame, base, base + WIDTH, (byte) (paletteRam[0] & greyscale));
+            return 0;
+        }
+
+        boolean background = (mask & MASK_BACKGROUND) != 0;
+        boolean sprites = (mask & MASK_SPRITES) != 0;
+        if (background) {
+            fetchBackground(v, ctrl);
+        }
+        int status = 0;
+        if (sprites) {
+            status = evaluateSprites(scanline, ctrl);
+        }
+
+        int backgroundStart = (mask & MASK_BACKGROUND_LEFT) != 0 ? 0 : 8;
+        int spriteStart = (mask & MASK_SPRITES_LEFT) != 0 ? 0 : 8;
+        for (int x = 0; x < WIDTH; x++) {
+            int pixel = background && x >= backgroundStart ? backgroundLine[x + fineX] : 0;
+            int sprite = sprites && x >= spriteStart ? spriteLine[x] & 0xFF : 0;
+            if (sprite != 0) {
+                if (pixel != 0 && (sprite & PIXEL_SPRITE_ZERO) != 0 && x != WIDTH - 1) {
+                    status |= STATUS_SPRITE_ZERO_HIT;
+                }
+                if (pixel == 0 || (sprite & PIXEL_BEHIND) == 0) {
+                    pixel = sprite & PIXEL_COLOUR;
+                }
+            }
+            // Transparent pixels of every palette show the backdrop colour
+            int paletteIndex = (pixel & 0x03) == 0 ? 0 : pixel;
+            frame[base + x] = (byte) (paletteRam[paletteIndex] & greyscale);
+        }
+        return status;
+    }
+
+    /**
+     * Fills {@link #backgroundLine} with the 33 tiles starting two tiles before {@code v}
+     * (the two tiles the PPU prefetched at the end of the previous line).
+     */
+    private void fetchBackground(int v, int ctrl) {
+        TileCache cache = mapper.getTileCache();
+        byte[] pixels = cache.getPixels();
+        byte[][] nametables = mapper.getNametablePages();
+        int patternTable = (ctrl & CTRL_BACKGROUND_TABLE) != 0 ? 0x1000 : 0;
+        int address = decrementCoarseX(decrementCoarseX(v));
+        int fineY = (address >> 12) & 0x07;
+
+        for (int tile = 0, x = 0; tile < TILES_PER_LINE; tile++, x += 8) {
+            byte[] nametable = nametables[(address >> 10) & 0x03];
+            int tileIndex = nametable[address & 0x03FF] & 0xFF;
+            int attribute = nametable[0x03C0 | ((address >> 4) & 0x38) | ((address >> 2) & 0x07)] & 0xFF;
+            int palette = ((attribute >> (((address >> 4) & 0x04) | (address & 0x02))) & 0x03) << 2;
+            int row = cache.row(mapper.getChrOffset(patternTable + tileIndex * BYTES_PER_TILE + fineY));
+            for (int i = 0; i < 8; i++) {
+                int colour = pixels[row + i];
+                backgroundLine[x + i] = (byte) (colour == 0 ? 0 : palette | colour);
+            }
+            address = incrementCoarseX(address);
+        }
+    }
+
+    /**
+     * Draws the sprites on this line into {@link #spriteLine}. The candidates come from the
+     * precomputed scanline mask in OAM, lowest OAM index first.
+     *
+     * @return {@link #STATUS_SPRITE_OVERFLOW} if the hardware would set the overflow flag.
+     */
+    private int evaluateSprites(int scanline, int ctrl) {
+        Arrays.fill(spriteLine, (byte) 0);
+        long candidates = oam.getLineMask(scanline);
+        if (candidates == 0) {
+            return 0;
+        }
+        int height = (ctrl & CTRL_SPRITE_8X16) != 0 ? 16 : 8;
+        int count = 0;
+        int status = 0;
+        while (candidates != 0) {
+            int sprite = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            if (count == SPRITES_PER_LINE) {
+                status = overflowAfter(sprite, scanline, height);
+                if (spriteLimit) {
+                    break;
+                }
+            }
+            count++;
+            drawSprite(sprite, scanline - 1 - (oam.get(sprite * 4) & 0xFF), height, ctrl);
+        }
+        return status;
+    }
+
+    /**
+     * Reproduces the hardware's buggy overflow check, which only runs once eight sprites were found:
+     * after each miss it advances to the next sprite but also to the next byte within it, so it
+     * compares tile, attribute or X bytes against the scanline as if they were Y coordinates.
+     *
+     * @param ninth The first in-range sprite after the eighth (the check starts there at byte 0).
+     */
+    private int overflowAfter(int ninth, int scanline, int height) {
+        int byteIndex = 0;
+        for (int sprite = ninth; sprite < ObjectAttributeMemory.SPRITE_COUNT; sprite++) {
+            int row = scanline - 1 - (oam.get(sprite * 4 + byteIndex) & 0xFF);
+            if (row >= 0 && row < height) {
+                return STATUS_SPRITE_OVERFLOW;
+            }
+            byteIndex = (byteIndex + 1) & 0x03;
+        }
+        return 0;
+    }
+
+    /**
+     * Enables or disables the eight-sprites-per-line limit. Disabling it removes flicker in games
+     * that multiplex sprites; the overflow flag is reported either way.
+     */
+    void setSpriteLimit(boolean spriteLimit) {
+        this.spriteLimit = spriteLimit;
+    }
+
+    private void drawSprite(int sprite, int row, int height, int ctrl) {
+        int tileIndex = oam.get(sprite * 4 + 1) & 0xFF;
+        int attributes = oam.get(sprite * 4 + 2) & 0xFF;
+        int spriteX = oam.get(sprite * 4 + 3) & 0xFF;
+        if ((attributes & ATTR_FLIP_V) != 0) {
+            row = height - 1 - row;
+        }
+
+        int address;
+        if (height == 8) {
+            address = ((ctrl & CTRL_SPRITE_TABLE) != 0 ? 0x1000 : 0) + tileIndex * BYTES_PER_TILE + row;
+        } else { // 8x16: bit 0 of the tile index selects the pattern table
+            address = ((tileIndex & 0x01) << 12) + ((tileIndex & 0xFE) + (row >> 3)) * BYTES_PER_TILE + (row & 0x07);
+        }
+        TileCache cache = mapper.getTileCache();
+        byte[] pixels = cache.getPixels();
+        int rowOffset = cache.row(mapper.getChrOffset(address));
+
+        int flags = SPRITE_PALETTE_BASE | ((attributes & ATTR_PALETTE) << 2)
+                | ((attributes & ATTR_BEHIND_BACKGROUND) != 0 ? PIXEL_BEHIND : 0)
+                | (sprite == 0 ? PIXEL_SPRITE_ZERO : 0);
+        boolean flipH = (attributes & ATTR_FLIP_H) != 0;
+        for (int i = 0; i < 8; i++) {
+            int x = spriteX + i;
+            if (x >= WIDTH) {
+                break;
+            }
+            int colour = pixels[rowOffset + (flipH ? 7 - i : i)];
+            if (colour != 0 && spriteLine[x] == 0) { // Lower OAM indices win
+                spriteLine[x] = (byte) (flags | colour);
+            }
+        }
+    }
+
+    private static int incrementCoarseX(int v) {
+        return (v & 0x1F) == 0x1F ? (v & ~0x1F) ^ 0x0400 : v + 1;
+    }
+
+    private static int decrementCoarseX(int v) {
+        return (v & 0x1F) == 0 ? (v | 0x1F) ^ 0x0400 : v - 1;
+    }
+}
@@ -0,0 +1,99 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import java.util.Arrays;
+
+/**
+ * Decoded 8x8 pattern tiles for one CHR ROM/RAM array.
+ * <p>
+ * A tile is 16 bytes of CHR data: eight bytes of low bit plane followed by eight bytes of high
+ * bit plane. Decoding merges the planes into 64 pixels of 2-bit palette indices (one byte each,
+ * row-major), so renderers copy or look up whole rows instead of shifting bits per pixel.
+ * <p>
+ * Tiles are keyed by their offset in the CHR data, which is exactly what the mapper's bank offset
+ * tables produce, so bank switching never invalidates anything. Tiles are decoded on first use;
+ * CHR RAM writes mark just the written tile stale in a bitset.
+ */
+public class TileCache {
+
+    /** Bytes of CHR data per tile. */
+    public static final int TILE_BYTES = 16;
+    /** Decoded pixels per tile. */
+    public static final int TILE_PIXELS = 64;
+    private static final int TILE_SHIFT = 4;
+    private static final int PLANE_OFFSET = 8;
+
+    private final byte[] chrData;
+    private final byte[] pixels;
+    /** One bit per tile, set when the tile must be (re)decoded. */
+    private final long[] stale;
+
+    /**
+     * @param chrData The CHR ROM/RAM array the mapper reads from. It is not copied.
+     */
+    public TileCache(byte[] chrData) {
+        this.chrData = chrData;
+        int tiles = chrData.length >> TILE_SHIFT;
+        this.pixels = new byte[tiles * TILE_PIXELS];
+        this.stale = new long[(tiles + 63) >> 6];
+        invalidateAll();
+    }
+
+    /**
+     * Returns the offset in {@link #getPixels()} of the decoded tile containing a CHR byte,
+     * decoding it first if needed.
+     *
+     * @param chrOffset Offset of any byte of the tile in the CHR data.
+     */
+    public int tile(int chrOffset) {
+        int tile = chrOffset >>> TILE_SHIFT;
+        long bit = 1L << tile;
+        if ((stale[tile >> 6] & bit) != 0) {
+            decode(tile);
+            stale[tile >> 6] &= ~bit;
+        }
+        return tile * TILE_PIXELS;
+    }
+
+    /**
+     * Returns the offset in {@link #getPixels()} of one decoded row (8 pixels).
+     *
+     * @param chrOffset Offset in the CHR data of the row's low plane byte (tile offset + fine Y).
+     */
+    public int row(int chrOffset) {
+        return tile(chrOffset) + ((chrOffset & (PLANE_OFFSET - 1)) << 3);
+    }
+
+    /**
+     * Marks the tile containing a written CHR RAM byte for re-decoding.
+     */
+    public void markDirty(int chrOffset) {
+        int tile = chrOffset >>> TILE_SHIFT;
+        stale[tile >> 6] |= 1L << tile;
+    }
+
+    /**
+     * Marks every tile for re-decoding, e.g. after CHR RAM was restored from a save state.
+     */
+    public void invalidateAll() {
+        Arrays.fill(stale, -1L);
+    }
+
+    /**
+     * The decoded pixels, 2-bit palette indices, {@link #TILE_PIXELS} per tile.
+     */
+    public byte[] getPixels() {
+        return pixels;
+    }
+
+    private void decode(int tile) {
+        int source = tile << TILE_SHIFT;
+        int destination = tile * TILE_PIXELS;
+        for (int row = 0; row < 8; row++) {
+            int low = chrData[source + row] & 0xFF;
+            int high = chrData[source + row + PLANE_OFFSET] & 0xFF;
+            for (int bit = 7; bit >= 0; bit--) {
+                pixels[destination++] = (byte) (((low >> bit) & 1) | (((high >> bit) & 1) << 1));
+            }
+        }
+    }
+}
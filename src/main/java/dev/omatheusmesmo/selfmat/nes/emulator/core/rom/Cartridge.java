@@ -6,15 +6,26 @@ import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
  * Represents a NES game cartridge, holding its ROM data and the Mapper logic.
  * This record acts as a facade for the Mapper, delegating CPU read/write operations.
  * Implements ICartridge interface for abstraction.
+ * <p>
+ * {@code prgRomData} and {@code chrRomData} are the arrays of {@code romImage}, which may be
+ * shared with other cartridges through a {@link RomCache}; {@link #close()} returns the lease.
  */
 public record Cartridge(
         NESFileHeader NESFileHeader,
         byte[] prgRomData,
         byte[] chrRomData,
         byte[] trainerData,
-        Mapper mapper
+        Mapper mapper,
+        RomImage romImage
 ) implements ICartridge {
 
+    /**
+     * Creates a cartridge whose ROM data is not tracked by a {@link RomImage}.
+     */
+    public Cartridge(NESFileHeader NESFileHeader, byte[] prgRomData, byte[] chrRomData, byte[] trainerData, Mapper mapper) {
+        this(NESFileHeader, prgRomData, chrRomData, trainerData, mapper, null);
+    }
+
     @Override
     public byte cpuRead(int address){
         return mapper.cpuRead(address);
@@ -25,11 +36,31 @@ public record Cartridge(
         mapper.cpuWrite(address, data);
     }
 
+    @Override
+    public void cpuReadBlock(int address, byte[] destination, int offset, int length) {
+        mapper.cpuReadBlock(address, destination, offset, length);
+    }
+
+    @Override
+    public void ppuReadBlock(int address, byte[] destination, int offset, int length) {
+        mapper.ppuReadBlock(address, destination, offset, length);
+    }
+
     @Override
     public Mapper getMapper() {
         return mapper;
     }
 
+    /**
+     * Releases the ROM image lease so a shared cache may evict it. Closing again has no effect.
+     */
+    @Override
+    public void close() {
+        if (romImage != null) {
+            romImage.release();
+        }
+    }
+
     /**
      * Deprecated: Mapper ROM data is already loaded during cartridge creation.
      * <p>
@@ -2,12 +2,15 @@ package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
 
 import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 /**
  * Interface for a NES Cartridge, defining methods for CPU access.
  * This abstraction allows for easier mocking and testing of components
  * that interact with the Cartridge, such as the Bus.
  */
-public interface ICartridge {
+public interface ICartridge extends AutoCloseable {
     NESFileHeader NESFileHeader();
     byte[] prgRomData();
     byte[] chrRomData();
@@ -16,8 +19,63 @@ public interface ICartridge {
     byte cpuRead(int address);
     void cpuWrite(int address, byte data);
 
+    /**
+     * Reads a run of CPU bytes in one call, e.g. for DMA or disassembly.
+     * Default implementation delegates to the mapper, or loops over {@link #cpuRead(int)} without one.
+     *
+     * @param address     First 16-bit CPU address.
+     * @param destination Destination array.
+     * @param offset      Index of the first destination byte.
+     * @param length      Number of bytes to read.
+     */
+    default void cpuReadBlock(int address, byte[] destination, int offset, int length) {
+        Mapper mapper = getMapper();
+        if (mapper != null) {
+            mapper.cpuReadBlock(address, destination, offset, length);
+            return;
+        }
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = cpuRead((address + i) & 0xFFFF);
+        }
+    }
+
+    /**
+     * Reads a run of CHR bytes in one call, e.g. for tile caching.
+     * Default implementation delegates to the mapper, or reads zeros without one.
+     *
+     * @param address     First PPU address in $0000-$1FFF.
+     * @param destination Destination array.
+     * @param offset      Index of the first destination byte.
+     * @param length      Number of bytes to read.
+     */
+    default void ppuReadBlock(int address, byte[] destination, int offset, int length) {
+        Mapper mapper = getMapper();
+        if (mapper != null) {
+            mapper.ppuReadBlock(address, destination, offset, length);
+            return;
+        }
+        Arrays.fill(destination, offset, offset + length, (byte) 0);
+    }
+
     // Methods for the Mapper that RomLoader will load.
     // Although Mapper is abstract, the concrete Cartridge will have an instance.
     Mapper getMapper();
     void loadMapperData(byte[] prgRomData, byte[] chrRomData);
+
+    /**
+     * Returns the (possibly shared) ROM image holding this cartridge's PRG/CHR ROM and its content hash.
+     * @return The ROM image, or null if the cartridge was not created by the RomLoader.
+     */
+    default RomImage romImage() {
+        return null;
+    }
+
+    /**
+     * Releases resources held by the cartridge, such as its lease on a shared ROM image.
+     */
+    @Override
+    default void close() {
+        // Nothing to release by default
+    }
 }
@@ -1,49 +1,279 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
 
-import java.util.List;
+import java.nio.ByteBuffer;
 
+/**
+ * Decoded iNES / NES 2.0 file header.
+ * <p>
+ * All fields are decoded once into primitives when a 16-byte header is passed to
+ * {@link #decode(byte[])} or {@link #decode(ByteBuffer)}; getters do no work. An instance can be
+ * reused as a flyweight to scan many files without allocating.
+ *
+ * @see <a href="https://www.nesdev.org/wiki/INES">iNES</a>
+ * @see <a href="https://www.nesdev.org/wiki/NES_2.0">NES 2.0</a>
+ */
 public class NESFileHeader {
-    private final List<Byte> header;
+    /** Size of the iNES header in bytes. */
+    public static final int SIZE = 16;
 
-    public NESFileHeader(List<Byte> header) {
-        this.header = header;
+    // --- Constants: Header Layout ---
+    private static final int PRG_ROM_UNIT_BYTES = 16 * 1024;
+    private static final int CHR_ROM_UNIT_BYTES = 8 * 1024;
+    private static final int INES1_PRG_RAM_UNIT_BYTES = 8 * 1024;
+    private static final int INES1_CHR_RAM_BYTES = 8 * 1024;
+
+    private static final int FLAG6_VERTICAL_MIRRORING = 0x01;
+    private static final int FLAG6_BATTERY = 0x02;
+    private static final int FLAG6_TRAINER = 0x04;
+    private static final int FLAG6_FOUR_SCREEN = 0x08;
+    private static final int FLAG7_CONSOLE_TYPE_MASK = 0x03;
+    private static final int FLAG7_NES2_MASK = 0x0C;
+    private static final int FLAG7_NES2_ID = 0x08;
+    /** NES 2.0 size MSB nibble value that switches to exponent-multiplier notation. */
+    private static final int EXPONENT_NOTATION = 0x0F;
+
+    /**
+     * Console timing (NES 2.0 byte 12). iNES 1.0 files are assumed NTSC.
+     */
+    public enum Timing {
+        NTSC, PAL, MULTI_REGION, DENDY
+    }
+
+    // --- Decoded Fields ---
+    private boolean valid;
+    private boolean ines2;
+    private int prgRomSizeBytes;
+    private int chrRomSizeBytes;
+    private int mapperNumber;
+    private int submapperNumber;
+    private boolean verticalMirroring;
+    private boolean fourScreen;
+    private boolean battery;
+    private boolean trainer;
+    private int consoleType;
+    private int prgRamSizeBytes;
+    private int prgNvramSizeBytes;
+    private int chrRamSizeBytes;
+    private int chrNvramSizeBytes;
+    private Timing timing = Timing.NTSC;
+
+    /**
+     * Creates an empty header to be filled with {@link #decode(ByteBuffer)}.
+     */
+    public NESFileHeader() {
+    }
+
+    public NESFileHeader(byte[] header) {
+        decode(header);
+    }
+
+    public NESFileHeader(ByteBuffer header) {
+        decode(header);
+    }
+
+    /**
+     * Decodes the first 16 bytes of the array.
+     *
+     * @param header The raw header.
+     * @return this, for chaining.
+     */
+    public NESFileHeader decode(byte[] header) {
+        if (header.length < SIZE) {
+            throw new IllegalArgumentException("NES file header must be " + SIZE + " bytes, got " + header.length);
+        }
+        return decode(ByteBuffer.wrap(header));
+    }
+
+    /**
+     * Decodes 16 bytes starting at the buffer's position, without moving it.
+     *
+     * @param header The buffer holding the raw header.
+     * @return this, for chaining.
+     */
+    public NESFileHeader decode(ByteBuffer header) {
+        if (header.remaining() < SIZE) {
+            throw new IllegalArgumentException("NES file header must be " + SIZE + " bytes, got " + header.remaining());
+        }
+        int base = header.position();
+        int flag6 = u8(header, base + 6);
+        int flag7 = u8(header, base + 7);
+
+        valid = header.get(base) == (byte) 0x4E && header.get(base + 1) == (byte) 0x45
+                && header.get(base + 2) == (byte) 0x53 && header.get(base + 3) == (byte) 0x1A;
+        ines2 = (flag7 & FLAG7_NES2_MASK) == FLAG7_NES2_ID;
+
+        verticalMirroring = (flag6 & FLAG6_VERTICAL_MIRRORING) != 0;
+        battery = (flag6 & FLAG6_BATTERY) != 0;
+        trainer = (flag6 & FLAG6_TRAINER) != 0;
+        fourScreen = (flag6 & FLAG6_FOUR_SCREEN) != 0;
+        consoleType = flag7 & FLAG7_CONSOLE_TYPE_MASK;
+
+        if (ines2) {
+            decodeNes2(header, base, flag6, flag7);
+        } else {
+            decodeInes1(header, base, flag6, flag7);
+        }
+        return this;
+    }
+
+    private void decodeInes1(ByteBuffer header, int base, int flag6, int flag7) {
+        // Old dumps ("DiskDude!") put garbage in bytes 12-15; their flag 7 can't be trusted
+        boolean archaic = u8(header, base + 12) != 0 || u8(header, base + 13) != 0
+                || u8(header, base + 14) != 0 || u8(header, base + 15) != 0;
+        mapperNumber = (flag6 >> 4) | (archaic ? 0 : flag7 & 0xF0);
+        submapperNumber = 0;
+
+        prgRomSizeBytes = u8(header, base + 4) * PRG_ROM_UNIT_BYTES;
+        chrRomSizeBytes = u8(header, base + 5) * CHR_ROM_UNIT_BYTES;
+
+        // Byte 8 is rarely set correctly; 0 means the traditional 8KB
+        int prgRamUnits = archaic ? 0 : u8(header, base + 8);
+        int prgRam = Math.max(1, prgRamUnits) * INES1_PRG_RAM_UNIT_BYTES;
+        prgRamSizeBytes = battery ? 0 : prgRam;
+        prgNvramSizeBytes = battery ? prgRam : 0;
+        chrRamSizeBytes = chrRomSizeBytes == 0 ? INES1_CHR_RAM_BYTES : 0;
+        chrNvramSizeBytes = 0;
+        timing = Timing.NTSC;
+    }
+
+    private void decodeNes2(ByteBuffer header, int base, int flag6, int flag7) {
+        int byte8 = u8(header, base + 8);
+        int romMsb = u8(header, base + 9);
+        int prgRam = u8(header, base + 10);
+        int chrRam = u8(header, base + 11);
+
+        mapperNumber = (flag6 >> 4) | (flag7 & 0xF0) | ((byte8 & 0x0F) << 8);
+        submapperNumber = byte8 >> 4;
+
+        prgRomSizeBytes = romSize(u8(header, base + 4), romMsb & 0x0F, PRG_ROM_UNIT_BYTES);
+        chrRomSizeBytes = romSize(u8(header, base + 5), romMsb >> 4, CHR_ROM_UNIT_BYTES);
+
+        prgRamSizeBytes = shiftSize(prgRam & 0x0F);
+        prgNvramSizeBytes = shiftSize(prgRam >> 4);
+        chrRamSizeBytes = shiftSize(chrRam & 0x0F);
+        chrNvramSizeBytes = shiftSize(chrRam >> 4);
+
+        timing = Timing.values()[u8(header, base + 12) & 0x03];
+    }
+
+    /**
+     * Decodes a NES 2.0 ROM size: either LSB + MSB nibble in units, or, when the MSB nibble is $F,
+     * the exponent-multiplier form {@code 2^E * (MM * 2 + 1)} bytes.
+     */
+    private static int romSize(int lsb, int msbNibble, int unitBytes) {
+        if (msbNibble == EXPONENT_NOTATION) {
+            int exponent = lsb >> 2;
+            int multiplier = (lsb & 0x03) * 2 + 1;
+            long size = (1L << exponent) * multiplier;
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("ROM size too large: " + size + " bytes");
+            }
+            return (int) size;
+        }
+        return ((msbNibble << 8) | lsb) * unitBytes;
+    }
+
+    /** Decodes a NES 2.0 RAM shift count: 0 means none, otherwise {@code 64 << shift} bytes. */
+    private static int shiftSize(int shift) {
+        return shift == 0 ? 0 : 64 << shift;
     }
 
+    private static int u8(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xFF;
+    }
+
+    // --- Getters ---
+
     public boolean isValid() {
-        return header.get(0) == (byte) 0x4E && header.get(1) == (byte) 0x45 &&
-               header.get(2) == (byte) 0x53 && header.get(3) == (byte) 0x1A;
+        return valid;
+    }
+
+    public boolean isInes2() {
+        return ines2;
     }
 
+    /** PRG ROM size in KB. */
     public int getPrgRomSize() {
-        return header.get(4) * 16; // Size in KB
+        return prgRomSizeBytes / 1024;
     }
 
+    /** CHR ROM size in KB (0 when the cartridge uses CHR RAM). */
     public int getChrRomSize() {
-        return header.get(5) == 0 ? 8 : header.get(5) * 8; // Size in KB
+        return chrRomSizeBytes / 1024;
+    }
+
+    public int getPrgRomSizeBytes() {
+        return prgRomSizeBytes;
+    }
+
+    public int getChrRomSizeBytes() {
+        return chrRomSizeBytes;
+    }
+
+    /**
+     * @return true if the cartridge has no CHR ROM and uses CHR RAM instead.
+     */
+    public boolean usesChrRam() {
+        return chrRomSizeBytes == 0;
     }
 
     public int getMapperNumber() {
-        byte flag6 = header.get(6);
-        byte flag7 = header.get(7);
-        return ((flag7 >> 4) & 0x0F) | ((flag6 & 0xF0) << 4);
+        return mapperNumber;
+    }
+
+    /** NES 2.0 submapper number (0 for iNES 1.0). */
+    public int getSubmapperNumber() {
+        return submapperNumber;
     }
 
     public boolean isVerticalMirroring() {
-        byte flag6 = header.get(6);
-        return ((flag6 >> 7) & 1) == 0; // 0 = horizontal, 1 = vertical
+        return verticalMirroring;
+    }
+
+    /** True if the cartridge provides its own VRAM for four independent nametables. */
+    public boolean isFourScreen() {
+        return fourScreen;
     }
 
     public boolean usesBattery() {
-        byte flag6 = header.get(6);
-        return ((flag6 >> 6) & 2) == 1;
+        return battery;
     }
 
     public boolean hasTrainer() {
-        byte flag6 = header.get(6);
-        return ((flag6 >> 5) & 3) == 1;
+        return trainer;
     }
 
-    public boolean isInes2() {
-        return header.get(7) == (byte) 0x08;
+    /** Console type from flag 7 (0 = NES/Famicom, 1 = Vs. System, 2 = PlayChoice-10, 3 = extended). */
+    public int getConsoleType() {
+        return consoleType;
+    }
+
+    /** Volatile PRG RAM size in bytes. */
+    public int getPrgRamSizeBytes() {
+        return prgRamSizeBytes;
+    }
+
+    /** Battery-backed PRG RAM (PRG NVRAM / EEPROM) size in bytes. */
+    public int getPrgNvramSizeBytes() {
+        return prgNvramSizeBytes;
+    }
+
+    /** Volatile CHR RAM size in bytes. */
+    public int getChrRamSizeBytes() {
+        return chrRamSizeBytes;
+    }
+
+    /** Battery-backed CHR RAM size in bytes. */
+    public int getChrNvramSizeBytes() {
+        return chrNvramSizeBytes;
+    }
+
+    /** Total CPU-visible PRG RAM (volatile + battery-backed) in bytes. */
+    public int getTotalPrgRamSizeBytes() {
+        return prgRamSizeBytes + prgNvramSizeBytes;
+    }
+
+    public Timing getTiming() {
+        return timing;
     }
 }
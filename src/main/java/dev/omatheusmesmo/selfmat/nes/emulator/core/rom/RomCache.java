@@ -0,0 +1,143 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed cache of ROM images shared across emulator instances.
+ * <p>
+ * Images are keyed by {@link RomHash} (CRC32 + SHA-1 of PRG and CHR ROM), so every session
+ * running the same game reads the same PRG/CHR arrays. Each cached image counts the leases handed
+ * out on it; once none is held it stays cached until the byte budget forces it out, least recently
+ * used first. Images still in use are never evicted, even when over budget.
+ * <p>
+ * Thread safe: hashing happens outside the lock, lookups and bookkeeping inside it.
+ */
+public final class RomCache {
+
+    private final long byteBudget;
+    private final LinkedHashMap<RomHash, Entry> images = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param byteBudget Maximum bytes of ROM data to keep once images are no longer referenced.
+     */
+    public RomCache(long byteBudget) {
+        if (byteBudget < 0) {
+            throw new IllegalArgumentException("Byte budget cannot be negative: " + byteBudget);
+        }
+        this.byteBudget = byteBudget;
+    }
+
+    /**
+     * Returns the shared image for the given contents, copying them only if no session holds
+     * the same game yet. The buffers' positions are not modified.
+     *
+     * @param prgRom PRG ROM contents.
+     * @param chrRom CHR ROM contents (empty for CHR RAM cartridges).
+     * @return A lease on the shared image; call {@link RomImage#release()} when done.
+     */
+    public RomImage acquire(ByteBuffer prgRom, ByteBuffer chrRom) {
+        RomHash hash = RomHash.of(prgRom, chrRom);
+
+        synchronized (this) {
+            Entry entry = images.get(hash);
+            if (entry != null) {
+                hits++;
+                return entry.lease(hash, this);
+            }
+            misses++;
+        }
+
+        // Copy outside the lock; if another thread raced us, keep the first copy
+        Entry created = new Entry(RomImage.toArray(prgRom), RomImage.toArray(chrRom));
+        synchronized (this) {
+            Entry existing = images.get(hash);
+            if (existing != null) {
+                return existing.lease(hash, this);
+            }
+            images.put(hash, created);
+            cachedBytes += created.sizeBytes();
+            RomImage lease = created.lease(hash, this);
+            evictUnreferenced();
+            return lease;
+        }
+    }
+
+    /**
+     * Returns a lease obtained from {@link #acquire(ByteBuffer, ByteBuffer)}. Called once per lease.
+     */
+    synchronized void release(RomImage image) {
+        Entry entry = images.get(image.getHash());
+        if (entry == null || entry.referenceCount <= 0) {
+            throw new IllegalStateException("ROM image released more times than acquired: " + image.getHash());
+        }
+        entry.referenceCount--;
+        evictUnreferenced();
+    }
+
+    /**
+     * Drops least recently used images nobody references until the cache fits its budget.
+     */
+    private void evictUnreferenced() {
+        Iterator<Map.Entry<RomHash, Entry>> iterator = images.entrySet().iterator();
+        while (cachedBytes > byteBudget && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.referenceCount == 0) {
+                iterator.remove();
+                cachedBytes -= entry.sizeBytes();
+            }
+        }
+    }
+
+    /**
+     * Shared contents of a cached game and the number of leases held on them (guarded by the cache).
+     */
+    private static final class Entry {
+        final byte[] prgRom;
+        final byte[] chrRom;
+        int referenceCount;
+
+        Entry(byte[] prgRom, byte[] chrRom) {
+            this.prgRom = prgRom;
+            this.chrRom = chrRom;
+        }
+
+        RomImage lease(RomHash hash, RomCache cache) {
+            referenceCount++;
+            return new RomImage(hash, prgRom, chrRom, cache);
+        }
+
+        long sizeBytes() {
+            return (long) prgRom.length + chrRom.length;
+        }
+    }
+
+    // --- Statistics ---
+
+    /** Number of images currently cached (in use or idle). */
+    public synchronized int size() {
+        return images.size();
+    }
+
+    /** Bytes of ROM data currently cached. */
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public long getByteBudget() {
+        return byteBudget;
+    }
+}
@@ -0,0 +1,138 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Content hash of a game's PRG and CHR ROM (CRC32 + SHA-1), used to identify a ROM
+ * independently of its file name or header.
+ * <p>
+ * The CRC32 covers the ROM bytes only, as in ROM databases. The SHA-1 also covers the PRG and
+ * CHR sizes, so two dumps with the same bytes split differently between PRG and CHR are told apart.
+ */
+public final class RomHash {
+
+    /** Size of the SHA-1 digest in bytes. */
+    public static final int SHA1_SIZE = 20;
+    /** Size of a serialized hash in bytes (CRC32 + SHA-1). */
+    public static final int SIZE = Integer.BYTES + SHA1_SIZE;
+
+    private final int crc32;
+    private final byte[] sha1;
+
+    private RomHash(int crc32, byte[] sha1) {
+        this.crc32 = crc32;
+        this.sha1 = sha1;
+    }
+
+    /**
+     * Hashes PRG ROM followed by CHR ROM, and their sizes. The buffers' positions are not modified.
+     *
+     * @param prgRom PRG ROM contents.
+     * @param chrRom CHR ROM contents (empty for CHR RAM cartridges).
+     * @return The content hash.
+     */
+    public static RomHash of(ByteBuffer prgRom, ByteBuffer chrRom) {
+        CRC32 crc = new CRC32();
+        MessageDigest digest = newSha1();
+
+        crc.update(prgRom.duplicate());
+        crc.update(chrRom.duplicate());
+        digest.update(prgRom.duplicate());
+        digest.update(chrRom.duplicate());
+        digest.update(ByteBuffer.allocate(2 * Integer.BYTES).putInt(prgRom.remaining()).putInt(chrRom.remaining()).flip());
+
+        return new RomHash((int) crc.getValue(), digest.digest());
+    }
+
+    /**
+     * Hashes PRG ROM followed by CHR ROM.
+     */
+    public static RomHash of(byte[] prgRom, byte[] chrRom) {
+        return of(ByteBuffer.wrap(prgRom), ByteBuffer.wrap(chrRom));
+    }
+
+    /**
+     * Identifies a loaded cartridge: the hash of its cached {@link RomImage} when it has one,
+     * otherwise the hash of its PRG and CHR ROM.
+     */
+    public static RomHash of(ICartridge cartridge) {
+        RomImage image = cartridge.romImage();
+        if (image != null) {
+            return image.getHash();
+        }
+        byte[] chrRom = cartridge.chrRomData();
+        return of(cartridge.prgRomData(), chrRom != null ? chrRom : new byte[0]);
+    }
+
+    /**
+     * Reads a hash previously written with {@link #writeTo(ByteBuffer)}.
+     */
+    public static RomHash readFrom(ByteBuffer buffer) {
+        int crc32 = buffer.getInt();
+        byte[] sha1 = new byte[SHA1_SIZE];
+        buffer.get(sha1);
+        return new RomHash(crc32, sha1);
+    }
+
+    /**
+     * Writes the hash as CRC32 followed by the 20 SHA-1 bytes ({@link #SIZE} bytes).
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(crc32);
+        buffer.put(sha1);
+    }
+
+    /**
+     * Checks whether the hash stored at the buffer's position equals this one, consuming it.
+     * Does not allocate.
+     */
+    public boolean matches(ByteBuffer buffer) {
+        boolean equal = buffer.getInt() == crc32;
+        for (int i = 0; i < SHA1_SIZE; i++) {
+            equal &= buffer.get() == sha1[i];
+        }
+        return equal;
+    }
+
+    public int getCrc32() {
+        return crc32;
+    }
+
+    public byte[] getSha1() {
+        return sha1.clone();
+    }
+
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is required by every Java platform", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RomHash)) return false;
+        RomHash other = (RomHash) o;
+        return crc32 == other.crc32 && Arrays.equals(sha1, other.sha1);
+    }
+
+    @Override
+    public int hashCode() {
+        return crc32;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("crc32=%08X sha1=", crc32));
+        for (byte b : sha1) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Immutable PRG/CHR ROM contents of a game, identified by its {@link RomHash}.
+ * <p>
+ * Images handed out by a {@link RomCache} are shared by every cartridge running the same game
+ * and must never be written to; mappers only write to their own PRG RAM and CHR RAM.
+ * Every {@link RomCache#acquire} returns a new lease on the shared arrays, which is returned with
+ * {@link #release()}; releasing the same lease again has no effect.
+ */
+public final class RomImage {
+
+    private final byte[] prgRom;
+    private final byte[] chrRom;
+    private final RomCache cache;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    /** Content hash; computed on first use for uncached images. */
+    private volatile RomHash hash;
+
+    RomImage(RomHash hash, byte[] prgRom, byte[] chrRom, RomCache cache) {
+        this.hash = hash;
+        this.prgRom = prgRom;
+        this.chrRom = chrRom;
+        this.cache = cache;
+    }
+
+    /**
+     * Creates an image that is not shared through any cache.
+     *
+     * @param prgRom PRG ROM contents, copied.
+     * @param chrRom CHR ROM contents, copied (empty for CHR RAM).
+     */
+    public static RomImage uncached(ByteBuffer prgRom, ByteBuffer chrRom) {
+        return new RomImage(null, toArray(prgRom), toArray(chrRom), null);
+    }
+
+    static byte[] toArray(ByteBuffer buffer) {
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(buffer.position(), data);
+        return data;
+    }
+
+    /**
+     * Returns this lease to its cache. No-op for uncached images and leases already released.
+     */
+    public void release() {
+        if (cache != null && released.compareAndSet(false, true)) {
+            cache.release(this);
+        }
+    }
+
+    public RomHash getHash() {
+        RomHash result = hash;
+        if (result == null) {
+            // Racing threads compute the same value
+            result = RomHash.of(prgRom, chrRom);
+            hash = result;
+        }
+        return result;
+    }
+
+    /** Shared PRG ROM contents. Must not be modified. */
+    public byte[] getPrgRom() {
+        return prgRom;
+    }
+
+    /** Shared CHR ROM contents (empty for CHR RAM cartridges). Must not be modified. */
+    public byte[] getChrRom() {
+        return chrRom;
+    }
+
+    /** Total ROM size in bytes, as accounted against the cache budget. */
+    public long sizeBytes() {
+        return (long) prgRom.length + chrRom.length;
+    }
+}
@@ -2,17 +2,50 @@ package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
 
 import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * RomLoader is responsible for loading a NES ROM file (.nes) from the filesystem,
  * parsing its header, extracting PRG and CHR ROM data, and creating a Cartridge object.
+ * <p>
+ * Files are memory-mapped and parsed straight from the mapped buffer: the header is read
+ * into a primitive array and PRG/CHR ROM are bulk-copied exactly once into the arrays the
+ * mapper reads from. Nothing is copied for CHR RAM cartridges.
+ * <p>
+ * When built with a {@link RomCache}, PRG/CHR ROM are looked up by content hash first and
+ * only copied if no other session already holds the same game.
  */
 public class RomLoader {
 
+    private static final int TRAINER_SIZE = 512;
+    /** Mappers bank PRG ROM in 16KB units and CHR ROM in 8KB units. */
+    private static final int PRG_ROM_UNIT = 16 * 1024;
+    private static final int CHR_ROM_UNIT = 8 * 1024;
+
+    /** Shared ROM cache, or null to give every cartridge its own copy. */
+    private final RomCache romCache;
+
+    /**
+     * Creates a loader that gives every cartridge its own copy of the ROM data.
+     */
+    public RomLoader() {
+        this(null);
+    }
+
+    /**
+     * Creates a loader that shares ROM data through the given cache.
+     *
+     * @param romCache The cache, or null to disable sharing.
+     */
+    public RomLoader(RomCache romCache) {
+        this.romCache = romCache;
+    }
+
     /**
      * Loads a NES ROM from the specified file path.
      *
@@ -22,55 +55,122 @@ public class RomLoader {
      * @throws IllegalArgumentException If the NES file header is invalid or data is incomplete.
      */
     public ICartridge loadRom(String filePath) throws IOException {
-        try (FileInputStream fis = new FileInputStream(filePath)) {
-            // Read header (first 16 bytes)
-            List<Byte> header = new ArrayList<>();
-            for (int i = 0; i < 16; i++) {
-                int byteValue = fis.read();
-                if (byteValue == -1) {
-                    throw new IOException("Unexpected end of file while reading header.");
-                }
-                header.add((byte) byteValue);
-            }
+        return loadRom(Path.of(filePath));
+    }
 
-            NESFileHeader NESFileHeader = new NESFileHeader(header);
-            if (!NESFileHeader.isValid()) {
-                throw new IllegalArgumentException("Invalid NES file header.");
-            }
+    /**
+     * Loads a NES ROM by memory-mapping the file.
+     *
+     * @param path The path to the .nes file.
+     * @return A fully loaded ICartridge object.
+     * @throws IOException If there's an error reading the file or it is truncated.
+     * @throws IllegalArgumentException If the NES file header is invalid.
+     */
+    public ICartridge loadRom(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer image = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return loadRom(image);
+        }
+    }
 
-            // Read Trainer (if present, 512 bytes)
-            byte[] trainerData = null;
-            if (NESFileHeader.hasTrainer()) {
-                trainerData = new byte[512];
-                if (fis.read(trainerData) != 512) {
-                    throw new IOException("Unexpected end of file while reading trainer.");
-                }
-            }
+    /**
+     * Loads a NES ROM from an in-memory image (header + trainer + PRG + CHR).
+     * The buffer's position and limit are not modified.
+     *
+     * @param image The complete .nes file contents.
+     * @return A fully loaded ICartridge object.
+     * @throws IOException If the image is truncated or its ROM sizes aren't whole 16KB PRG / 8KB CHR banks.
+     * @throws IllegalArgumentException If the NES file header is invalid.
+     */
+    public ICartridge loadRom(ByteBuffer image) throws IOException {
+        int offset = image.position();
+        int end = image.limit();
 
-            // Read PRG ROM (Program ROM)
-            int prgRomSize = NESFileHeader.getPrgRomSize() * 1024; // Size in bytes
-            byte[] prgRomData = new byte[prgRomSize];
-            if (fis.read(prgRomData) != prgRomSize) {
-                throw new IOException("Unexpected end of file while reading PRG ROM.");
-            }
+        // Read header (first 16 bytes)
+        byte[] header = new byte[NESFileHeader.SIZE];
+        offset = copy(image, offset, end, header, "header");
 
-            // Read CHR ROM (Character ROM or Pattern Tables)
-            int chrRomSize = NESFileHeader.getChrRomSize() * 1024; // Size in bytes
-            byte[] chrRomData = new byte[chrRomSize];
-            if (fis.read(chrRomData) != chrRomSize) {
-                throw new IOException("Unexpected end of file while reading CHR ROM.");
-            }
+        NESFileHeader NESFileHeader = new NESFileHeader(header);
+        if (!NESFileHeader.isValid()) {
+            throw new IllegalArgumentException("Invalid NES file header.");
+        }
+
+        // Read Trainer (if present, 512 bytes)
+        byte[] trainerData = null;
+        if (NESFileHeader.hasTrainer()) {
+            trainerData = new byte[TRAINER_SIZE];
+            offset = copy(image, offset, end, trainerData, "trainer");
+        }
+
+        // Locate PRG ROM (Program ROM) and CHR ROM (Character ROM or Pattern Tables)
+        int prgRomSize = NESFileHeader.getPrgRomSizeBytes();
+        int chrRomSize = NESFileHeader.getChrRomSizeBytes(); // 0 for CHR RAM, allocated by the mapper
+        // NES 2.0 exponent sizes can describe ROMs no mapper can bank
+        if (prgRomSize == 0 || prgRomSize % PRG_ROM_UNIT != 0) {
+            throw new IOException("Unsupported PRG ROM size " + prgRomSize + " bytes (must be a multiple of 16KB).");
+        }
+        if (chrRomSize % CHR_ROM_UNIT != 0) {
+            throw new IOException("Unsupported CHR ROM size " + chrRomSize + " bytes (must be a multiple of 8KB).");
+        }
+        ByteBuffer prgRom = slice(image, offset, end, prgRomSize, "PRG ROM");
+        ByteBuffer chrRom = slice(image, offset + prgRomSize, end, chrRomSize, "CHR ROM");
+
+        // Share the ROM contents with other sessions of the same game, or copy them once
+        RomImage romImage = romCache != null ? romCache.acquire(prgRom, chrRom) : RomImage.uncached(prgRom, chrRom);
+        try {
+            byte[] prgRomData = romImage.getPrgRom();
+            byte[] chrRomData = romImage.getChrRom();
 
             // Create the appropriate Mapper instance
             Mapper mapper = MapperManager.createMapper(
                     NESFileHeader.getMapperNumber(), prgRomSize, chrRomSize, NESFileHeader.isVerticalMirroring()
             );
 
+            // NES 2.0 declares the real PRG RAM size; iNES 1.0 keeps the mapper's default
+            if (NESFileHeader.isInes2()) {
+                mapper.configurePrgRam(NESFileHeader.getTotalPrgRamSizeBytes());
+            }
+
+            // Four-screen boards carry 2KB of extra nametable VRAM
+            if (NESFileHeader.isFourScreen()) {
+                mapper.configureFourScreen();
+            }
+
             // Load ROM data into the mapper
             mapper.loadRomData(prgRomData, chrRomData);
 
             // Return the fully constructed Cartridge
-            return new Cartridge(NESFileHeader, prgRomData, chrRomData, trainerData, mapper);
+            return new Cartridge(NESFileHeader, prgRomData, chrRomData, trainerData, mapper, romImage);
+        } catch (RuntimeException e) {
+            // Don't leak the lease on a shared image if the cartridge can't be built
+            romImage.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a read-only view of {@code length} bytes at an absolute offset of the image, without copying.
+     *
+     * @throws IOException If the image ends before the section does.
+     */
+    private static ByteBuffer slice(ByteBuffer image, int offset, int end, int length, String section) throws IOException {
+        if (end - offset < length) {
+            throw new IOException("Unexpected end of file while reading " + section + ".");
+        }
+        return image.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Bulk-copies {@code destination.length} bytes from an absolute offset of the image.
+     *
+     * @return The offset just past the copied section.
+     * @throws IOException If the image ends before the section does.
+     */
+    private static int copy(ByteBuffer image, int offset, int end, byte[] destination, String section) throws IOException {
+        if (end - offset < destination.length) {
+            throw new IOException("Unexpected end of file while reading " + section + ".");
         }
+        image.get(offset, destination);
+        return offset + destination.length;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.library;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+
+/**
+ * One ROM file in the library index: where it is, how to tell if it changed, and the header
+ * fields a front end needs to list it without opening the file.
+ *
+ * @param path               Absolute path of the .nes file.
+ * @param fileSize           File size in bytes.
+ * @param lastModifiedMillis File modification time, used for incremental updates.
+ * @param crc32              CRC32 of PRG ROM followed by CHR ROM (same as {@code RomHash.getCrc32()}).
+ * @param mapperNumber       iNES / NES 2.0 mapper number.
+ * @param submapperNumber    NES 2.0 submapper (0 for iNES 1.0).
+ * @param prgRomSizeBytes    PRG ROM size in bytes.
+ * @param chrRomSizeBytes    CHR ROM size in bytes (0 for CHR RAM).
+ * @param mirroring          Initial nametable mirroring from the header.
+ * @param battery            Whether the cartridge has battery-backed memory.
+ */
+public record RomIndexEntry(
+        String path,
+        long fileSize,
+        long lastModifiedMillis,
+        int crc32,
+        int mapperNumber,
+        int submapperNumber,
+        int prgRomSizeBytes,
+        int chrRomSizeBytes,
+        MirroringMode mirroring,
+        boolean battery
+) {
+
+    /**
+     * @return true if the file on disk still has the size and modification time recorded here.
+     */
+    public boolean isUpToDate(long currentFileSize, long currentLastModifiedMillis) {
+        return fileSize == currentFileSize && lastModifiedMillis == currentLastModifiedMillis;
+    }
+}
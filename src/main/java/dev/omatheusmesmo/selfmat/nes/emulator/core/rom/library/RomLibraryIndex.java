@@ -0,0 +1,147 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.library;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary index of a ROM library.
+ * <p>
+ * File layout (big-endian): magic {@code "SNIX"}, format version, entry count, then per entry:
+ * path (modified UTF-8), file size, modification time, CRC32, mapper (u16), submapper (u8),
+ * PRG size, CHR size, mirroring ordinal (u8) and flags (u8, bit 0 = battery).
+ * Loading 20k entries takes a single sequential read.
+ */
+public final class RomLibraryIndex {
+
+    private static final int MAGIC = 0x534E4958; // "SNIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLAG_BATTERY = 0x01;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final List<RomIndexEntry> entries;
+
+    public RomLibraryIndex(List<RomIndexEntry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    /** An index with no entries, used when no index file exists yet. */
+    public static RomLibraryIndex empty() {
+        return new RomLibraryIndex(List.of());
+    }
+
+    public List<RomIndexEntry> getEntries() {
+        return entries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The entries keyed by path, for incremental lookups.
+     */
+    public Map<String, RomIndexEntry> byPath() {
+        Map<String, RomIndexEntry> map = new HashMap<>(entries.size() * 2);
+        for (RomIndexEntry entry : entries) {
+            map.put(entry.path(), entry);
+        }
+        return map;
+    }
+
+    // --- Persistence ---
+
+    /**
+     * Reads an index file.
+     *
+     * @param file The index file.
+     * @return The index, or an empty index if the file does not exist.
+     * @throws IOException If the file is unreadable, corrupt or from another format version.
+     */
+    public static RomLibraryIndex read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a ROM library index: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported ROM library index version " + version + ": " + file);
+            }
+
+            MirroringMode[] mirroringModes = MirroringMode.values();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt ROM library index (entry count " + count + "): " + file);
+            }
+            List<RomIndexEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String path = in.readUTF();
+                long fileSize = in.readLong();
+                long lastModified = in.readLong();
+                int crc32 = in.readInt();
+                int mapper = in.readUnsignedShort();
+                int submapper = in.readUnsignedByte();
+                int prgSize = in.readInt();
+                int chrSize = in.readInt();
+                int mirroringOrdinal = in.readUnsignedByte();
+                if (mirroringOrdinal >= mirroringModes.length) {
+                    throw new IOException("Corrupt ROM library index (mirroring " + mirroringOrdinal + "): " + file);
+                }
+                MirroringMode mirroring = mirroringModes[mirroringOrdinal];
+                int flags = in.readUnsignedByte();
+                entries.add(new RomIndexEntry(path, fileSize, lastModified, crc32, mapper, submapper,
+                        prgSize, chrSize, mirroring, (flags & FLAG_BATTERY) != 0));
+            }
+            return new RomLibraryIndex(entries);
+        }
+    }
+
+    /**
+     * Writes the index atomically (to a temporary file that then replaces {@code file}).
+     *
+     * @param file The index file.
+     * @throws IOException If the file can't be written.
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), IO_BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(entries.size());
+                for (RomIndexEntry entry : entries) {
+                    out.writeUTF(entry.path());
+                    out.writeLong(entry.fileSize());
+                    out.writeLong(entry.lastModifiedMillis());
+                    out.writeInt(entry.crc32());
+                    out.writeShort(entry.mapperNumber());
+                    out.writeByte(entry.submapperNumber());
+                    out.writeInt(entry.prgRomSizeBytes());
+                    out.writeInt(entry.chrRomSizeBytes());
+                    out.writeByte(entry.mirroring().ordinal());
+                    out.writeByte(entry.battery() ? FLAG_BATTERY : 0);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.library;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.NESFileHeader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Builds and incrementally updates a {@link RomLibraryIndex} for a directory tree of .nes files.
+ * <p>
+ * Directories are walked in parallel on a fork-join pool, one task per directory. For each file
+ * only the 16-byte header is decoded and PRG/CHR ROM are streamed through a CRC32 in fixed-size
+ * chunks; nothing is loaded into a Cartridge. Files whose size and modification time match the
+ * previous index are reused without being opened at all.
+ */
+public class RomLibraryIndexer {
+
+    private static final String ROM_EXTENSION = ".nes";
+    private static final int TRAINER_SIZE = 512;
+    private static final int HASH_CHUNK_SIZE = 64 * 1024;
+
+    /** One read buffer per worker thread, reused for every file it hashes. */
+    private static final ThreadLocal<ByteBuffer> HASH_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_CHUNK_SIZE));
+
+    private final ForkJoinPool pool;
+
+    // --- Statistics of the last run ---
+    private final AtomicInteger scannedFiles = new AtomicInteger();
+    private final AtomicInteger reusedFiles = new AtomicInteger();
+    private final AtomicInteger failedFiles = new AtomicInteger();
+
+    /**
+     * Creates an indexer that runs on the common fork-join pool.
+     */
+    public RomLibraryIndexer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool The pool to walk and hash on.
+     */
+    public RomLibraryIndexer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Updates the index file for a library: reads the previous index (if any), rescans only files
+     * that are new or changed, drops files that disappeared, and writes the result back.
+     *
+     * @param libraryRoot Root directory of the ROM library.
+     * @param indexFile   Index file to read and rewrite.
+     * @return The updated index.
+     * @throws IOException If the index can't be read or written.
+     */
+    public RomLibraryIndex update(Path libraryRoot, Path indexFile) throws IOException {
+        RomLibraryIndex previous;
+        try {
+            previous = RomLibraryIndex.read(indexFile);
+        } catch (IOException e) {
+            System.err.println("RomLibraryIndexer: Ignoring unreadable index " + indexFile + ": " + e.getMessage());
+            previous = RomLibraryIndex.empty();
+        }
+        RomLibraryIndex updated = index(libraryRoot, previous);
+        updated.write(indexFile);
+        return updated;
+    }
+
+    /**
+     * Indexes a library, reusing entries of {@code previous} for unchanged files.
+     *
+     * @param libraryRoot Root directory of the ROM library.
+     * @param previous    Previous index (may be empty).
+     * @return The new index, sorted by path.
+     */
+    public RomLibraryIndex index(Path libraryRoot, RomLibraryIndex previous) {
+        scannedFiles.set(0);
+        reusedFiles.set(0);
+        failedFiles.set(0);
+
+        Map<String, RomIndexEntry> known = previous.byPath();
+        List<RomIndexEntry> entries = pool.invoke(new DirectoryTask(libraryRoot.toAbsolutePath(), known));
+        entries.sort(Comparator.comparing(RomIndexEntry::path));
+        return new RomLibraryIndex(entries);
+    }
+
+    /**
+     * Indexes one directory: forks a task per subdirectory and processes its files inline.
+     */
+    private final class DirectoryTask extends RecursiveTask<List<RomIndexEntry>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final Map<String, RomIndexEntry> known;
+
+        DirectoryTask(Path directory, Map<String, RomIndexEntry> known) {
+            this.directory = directory;
+            this.known = known;
+        }
+
+        @Override
+        protected List<RomIndexEntry> compute() {
+            List<RomIndexEntry> entries = new ArrayList<>();
+            List<DirectoryTask> subtasks = new ArrayList<>();
+
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    BasicFileAttributes attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        DirectoryTask subtask = new DirectoryTask(child, known);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    } else if (attributes.isRegularFile() && isRom(child)) {
+                        RomIndexEntry entry = indexFile(child, attributes);
+                        if (entry != null) {
+                            entries.add(entry);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("RomLibraryIndexer: Skipping unreadable directory " + directory + ": " + e.getMessage());
+            }
+
+            for (DirectoryTask subtask : subtasks) {
+                entries.addAll(subtask.join());
+            }
+            return entries;
+        }
+
+        private RomIndexEntry indexFile(Path file, BasicFileAttributes attributes) {
+            String path = file.toString();
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+
+            RomIndexEntry previous = known.get(path);
+            if (previous != null && previous.isUpToDate(size, lastModified)) {
+                reusedFiles.incrementAndGet();
+                return previous;
+            }
+
+            scannedFiles.incrementAndGet();
+            try {
+                return scan(file, size, lastModified);
+            } catch (IOException | IllegalArgumentException e) {
+                failedFiles.incrementAndGet();
+                System.err.println("RomLibraryIndexer: Skipping " + file + ": " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    private static boolean isRom(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(ROM_EXTENSION);
+    }
+
+    /**
+     * Decodes the header and streams PRG/CHR ROM through a CRC32 without loading the file.
+     */
+    private static RomIndexEntry scan(Path file, long size, long lastModified) throws IOException {
+        ByteBuffer buffer = HASH_BUFFER.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear().limit(NESFileHeader.SIZE);
+            readFully(channel, buffer, 0);
+            NESFileHeader header = new NESFileHeader(buffer.flip());
+            if (!header.isValid()) {
+                throw new IllegalArgumentException("Invalid NES file header.");
+            }
+
+            long romStart = NESFileHeader.SIZE + (header.hasTrainer() ? TRAINER_SIZE : 0);
+            long romLength = (long) header.getPrgRomSizeBytes() + header.getChrRomSizeBytes();
+            if (romStart + romLength > size) {
+                throw new IOException("Unexpected end of file while reading ROM data.");
+            }
+
+            CRC32 crc = new CRC32();
+            long position = romStart;
+            long end = romStart + romLength;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(HASH_CHUNK_SIZE, end - position));
+                readFully(channel, buffer, position);
+                position += buffer.flip().remaining();
+                crc.update(buffer);
+            }
+
+            MirroringMode mirroring = header.isFourScreen() ? MirroringMode.FOUR_SCREEN
+                    : header.isVerticalMirroring() ? MirroringMode.VERTICAL : MirroringMode.HORIZONTAL;
+            return new RomIndexEntry(file.toString(), size, lastModified, (int) crc.getValue(),
+                    header.getMapperNumber(), header.getSubmapperNumber(),
+                    header.getPrgRomSizeBytes(), header.getChrRomSizeBytes(), mirroring, header.usesBattery());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file.");
+            }
+            position += read;
+        }
+    }
+
+    // --- Statistics ---
+
+    /** Files opened and hashed during the last run. */
+    public int getScannedFiles() {
+        return scannedFiles.get();
+    }
+
+    /** Files reused from the previous index during the last run. */
+    public int getReusedFiles() {
+        return reusedFiles.get();
+    }
+
+    /** Files skipped because they were unreadable or invalid during the last run. */
+    public int getFailedFiles() {
+        return failedFiles.get();
+    }
+}
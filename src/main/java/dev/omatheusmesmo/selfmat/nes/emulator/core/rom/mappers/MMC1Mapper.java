@@ -1,7 +1,10 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
 
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.CpuPageTable;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implements Mapper 1 (MMC1).
  * <p>
@@ -16,6 +19,8 @@ public class MMC1Mapper extends Mapper {
     // --- Constants ---
     private static final int PRG_16K_BANK_SIZE_BYTES = 16 * 1024;
     private static final int CHR_4K_BANK_SIZE_BYTES = 4 * 1024;
+    /** Shift register, write count, four registers and the PRG RAM enable flag, one byte each. */
+    private static final int REGISTER_STATE_SIZE = 7;
 
     // --- Internal State ---
     private int shiftRegister;
@@ -27,18 +32,12 @@ public class MMC1Mapper extends Mapper {
     private int chrBank1Register;
     private int prgBankRegister;
 
-    // Calculated memory bank offsets
-    private int prgBankOffset0; // For the slot at $8000
-    private int prgBankOffset1; // For the slot at $C000
-    private int chrBankOffset0; // For the slot at $0000
-    private int chrBankOffset1; // For the slot at $1000
-
     private boolean prgRamEnabled;
 
     public MMC1Mapper(int mapperNumber, int prgRomSizeBytes, int chrDataSizeBytes, boolean isVerticalMirroring) {
         super(mapperNumber, prgRomSizeBytes, chrDataSizeBytes, isVerticalMirroring);
-        // MMC1 often has 8KB of PRG RAM, which can be enabled/disabled.
-        this.prgRamData = new byte[8 * 1024];
+        // MMC1 often has 8KB of PRG RAM, which can be enabled/disabled. NES 2.0 headers may resize it.
+        configurePrgRam(DEFAULT_PRG_RAM_SIZE_BYTES);
         reset();
     }
 
@@ -66,19 +65,13 @@ public class MMC1Mapper extends Mapper {
 
         if (address >= CPU_PRG_RAM_START && address <= CPU_PRG_RAM_END) {
             if (prgRamEnabled) {
-                return prgRamData[address - CPU_PRG_RAM_START];
+                return readPrgRam(address);
             }
             return 0; // Open bus behavior if PRG RAM is disabled
         }
 
         if (address >= CPU_PRG_ROM_START) {
-            if (address < 0xC000) { // Slot $8000 - $BFFF
-                int mappedAddress = prgBankOffset0 + (address - 0x8000);
-                return prgRomData[mappedAddress % prgRomData.length];
-            } else { // Slot $C000 - $FFFF
-                int mappedAddress = prgBankOffset1 + (address - 0xC000);
-                return prgRomData[mappedAddress % prgRomData.length];
-            }
+            return readPrgRom(address);
         }
         return 0;
     }
@@ -89,7 +82,7 @@ public class MMC1Mapper extends Mapper {
 
         if (address >= CPU_PRG_RAM_START && address <= CPU_PRG_RAM_END) {
             if (prgRamEnabled) {
-                prgRamData[address - CPU_PRG_RAM_START] = data;
+                writePrgRam(address, data);
             }
             return;
         }
@@ -124,37 +117,46 @@ public class MMC1Mapper extends Mapper {
         }
     }
 
+    /**
+     * Maps PRG RAM (while enabled) and the PRG ROM slots into the Bus page table.
+     * Writes to $8000-$FFFF always go through {@link #cpuWrite(int, byte)} to reach the shift register.
+     *
+     * @param pageTable The page table to update.
+     */
+    @Override
+    protected void mapCpuPages(CpuPageTable pageTable) {
+        mapPrgRam(pageTable, prgRamEnabled, prgRamEnabled);
+        super.mapCpuPages(pageTable);
+    }
+
     @Override
     public byte ppuRead(int address) {
-        address &= PPU_CHR_END;
-        if (chrData.length == 0) return 0;
-
-        if (address < 0x1000) { // Bank 0
-            int mappedAddress = chrBankOffset0 + address;
-            return chrData[mappedAddress % chrData.length];
-        } else { // Bank 1
-            int mappedAddress = chrBankOffset1 + (address - 0x1000);
-            return chrData[mappedAddress % chrData.length];
-        }
+        return readChr(address & PPU_CHR_END);
     }
 
+    /**
+     * Copies whole runs of the selected 8KB PRG banks (and PRG RAM while enabled) at once.
+     */
     @Override
-    public void ppuWrite(int address, byte data) {
-        if (!isChrRam) return;
+    public void cpuReadBlock(int address, byte[] destination, int offset, int length) {
+        readCartridgeBlock(address, destination, offset, length, prgRamEnabled);
+    }
 
-        address &= PPU_CHR_END;
-        if (chrData.length == 0) return;
+    /**
+     * Copies whole runs of the selected 1KB CHR banks at once.
+     */
+    @Override
+    public void ppuReadBlock(int address, byte[] destination, int offset, int length) {
+        readChrBlock(address, destination, offset, length);
+    }
 
-        if (address < 0x1000) { // Bank 0
-            int mappedAddress = chrBankOffset0 + address;
-            chrData[mappedAddress % chrData.length] = data;
-        } else { // Bank 1
-            int mappedAddress = chrBankOffset1 + (address - 0x1000);
-            chrData[mappedAddress % chrData.length] = data;
-        }
+    @Override
+    public void ppuWrite(int address, byte data) {
+        writeChr(address & PPU_CHR_END, data);
     }
 
-    private void updateBankOffsets() {
+    @Override
+    protected void updateBankOffsets() {
         // --- Mirroring Control (Control Register bits 0-1) ---
         switch (controlRegister & 0b11) {
             case 0: setMirroringMode(MirroringMode.SINGLE_SCREEN_LOWER); break;
@@ -165,7 +167,9 @@ public class MMC1Mapper extends Mapper {
 
         // --- PRG Bank Mode (Control Register bits 2-3) ---
         int prgMode = (controlRegister >> 2) & 0b11;
-        int lastBankOffset = prgRomData.length - PRG_16K_BANK_SIZE_BYTES;
+        int lastBankOffset = (prgBanks - 1) * PRG_16K_BANK_SIZE_BYTES;
+        int prgBankOffset0 = 0; // For the slot at $8000
+        int prgBankOffset1 = 0; // For the slot at $C000
 
         switch (prgMode) {
             case 0:
@@ -183,8 +187,16 @@ public class MMC1Mapper extends Mapper {
                 break;
         }
 
+        // Each 16KB slot covers two 8KB table entries
+        setPrgBank8k(0, prgBankOffset0);
+        setPrgBank8k(1, prgBankOffset0 + PRG_SLOT_SIZE);
+        setPrgBank8k(2, prgBankOffset1);
+        setPrgBank8k(3, prgBankOffset1 + PRG_SLOT_SIZE);
+
         // --- CHR Bank Mode (Control Register bit 4) ---
         int chrMode = (controlRegister >> 4) & 0b1;
+        int chrBankOffset0; // For the slot at $0000
+        int chrBankOffset1; // For the slot at $1000
         if (chrMode == 0) { // 8KB switchable mode
             chrBankOffset0 = ((chrBank0Register & 0x1E) * CHR_4K_BANK_SIZE_BYTES);
             chrBankOffset1 = chrBankOffset0 + CHR_4K_BANK_SIZE_BYTES;
@@ -192,5 +204,42 @@ public class MMC1Mapper extends Mapper {
             chrBankOffset0 = (chrBank0Register * CHR_4K_BANK_SIZE_BYTES);
             chrBankOffset1 = (chrBank1Register * CHR_4K_BANK_SIZE_BYTES);
         }
+
+        // Each 4KB slot covers four 1KB table entries
+        for (int i = 0; i < 4; i++) {
+            setChrBank1k(i, chrBankOffset0 + i * CHR_SLOT_SIZE);
+            setChrBank1k(i + 4, chrBankOffset1 + i * CHR_SLOT_SIZE);
+        }
+
+        refreshCpuPageTable();
+    }
+
+    // --- Save States ---
+
+    @Override
+    protected int getRegisterStateSize() {
+        return REGISTER_STATE_SIZE;
+    }
+
+    @Override
+    protected void saveRegisters(ByteBuffer buffer) {
+        buffer.put((byte) shiftRegister);
+        buffer.put((byte) writeCount);
+        buffer.put((byte) controlRegister);
+        buffer.put((byte) chrBank0Register);
+        buffer.put((byte) chrBank1Register);
+        buffer.put((byte) prgBankRegister);
+        buffer.put((byte) (prgRamEnabled ? 1 : 0));
+    }
+
+    @Override
+    protected void loadRegisters(ByteBuffer buffer) {
+        shiftRegister = buffer.get() & 0x1F;
+        writeCount = buffer.get() & 0xFF;
+        controlRegister = buffer.get() & 0x1F;
+        chrBank0Register = buffer.get() & 0x1F;
+        chrBank1Register = buffer.get() & 0x1F;
+        prgBankRegister = buffer.get() & 0x1F;
+        prgRamEnabled = buffer.get() != 0;
     }
-}
\ No newline at end of file
+}
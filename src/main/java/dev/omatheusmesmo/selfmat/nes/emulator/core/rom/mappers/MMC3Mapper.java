@@ -1,7 +1,10 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
 
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.CpuPageTable;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
 
+import java.nio.ByteBuffer;
+
 /**
  * Implements Mapper 4 (MMC3).
  * <p>
@@ -13,6 +16,9 @@ import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
  */
 public class MMC3Mapper extends Mapper {
 
+    /** 8 bank registers, bank select and mode flags (3), IRQ state (5), PRG RAM flags (2), one byte each. */
+    private static final int REGISTER_STATE_SIZE = 18;
+
     // --- Bank Switching Registers ---
     private final int[] chrBankRegisters = new int[6];
     private final int[] prgBankRegisters = new int[2];
@@ -22,10 +28,6 @@ public class MMC3Mapper extends Mapper {
     private boolean prgBankMode; // false: $8000 swappable, $C000 fixed; true: $C000 swappable, $8000 fixed
     private boolean chrInversionMode; // false: 2k+2k+1k+1k+1k+1k; true: 1k*4 + 2k*2
 
-    // --- Calculated Memory Bank Offsets ---
-    private final int[] prgBankOffsets = new int[4]; // For $8000, $A000, $C000, $E000
-    private final int[] chrBankOffsets = new int[8]; // For 8x 1KB CHR banks
-
     // --- IRQ (Interrupt Request) State ---
     private int irqCounter;
     private int irqLatchValue;
@@ -39,7 +41,7 @@ public class MMC3Mapper extends Mapper {
 
     public MMC3Mapper(int mapperNumber, int prgRomSizeBytes, int chrDataSizeBytes, boolean isVerticalMirroring) {
         super(mapperNumber, prgRomSizeBytes, chrDataSizeBytes, isVerticalMirroring);
-        this.prgRamData = new byte[8 * 1024]; // MMC3 typically has 8KB PRG RAM
+        configurePrgRam(DEFAULT_PRG_RAM_SIZE_BYTES); // MMC3 typically has 8KB PRG RAM, NES 2.0 headers may resize it
         reset();
     }
 
@@ -57,6 +59,7 @@ public class MMC3Mapper extends Mapper {
         irqEnabled = false;
         irqPending = false;
         irqReloadFlag = false;
+        setIrqLine(false);
 
         prgRamEnabled = true;
         prgRamWriteProtect = false;
@@ -71,15 +74,13 @@ public class MMC3Mapper extends Mapper {
 
         if (address >= CPU_PRG_RAM_START && address <= CPU_PRG_RAM_END) {
             if (prgRamEnabled) {
-                return prgRamData[address - CPU_PRG_RAM_START];
+                return readPrgRam(address);
             }
             return 0; // Open bus
         }
 
         if (address >= CPU_PRG_ROM_START) {
-            int bankIndex = (address - CPU_PRG_ROM_START) / 0x2000; // 8KB bank index
-            int offset = address & 0x1FFF;
-            return prgRomData[prgBankOffsets[bankIndex] + offset];
+            return readPrgRom(address);
         }
         return 0;
     }
@@ -90,7 +91,7 @@ public class MMC3Mapper extends Mapper {
 
         if (address >= CPU_PRG_RAM_START && address <= CPU_PRG_RAM_END) {
             if (prgRamEnabled && !prgRamWriteProtect) {
-                prgRamData[address - CPU_PRG_RAM_START] = data;
+                writePrgRam(address, data);
             }
             return;
         }
@@ -104,6 +105,7 @@ public class MMC3Mapper extends Mapper {
                     bankSelectRegister = data & 0x07;
                     prgBankMode = (data & 0x40) != 0;
                     chrInversionMode = (data & 0x80) != 0;
+                    updateBankOffsets();
                 } else { // $8001-$9FFF, odd: Bank Data
                     updateBankData(data);
                 }
@@ -113,10 +115,11 @@ public class MMC3Mapper extends Mapper {
                 } else { // $A001-$BFFF, odd: PRG RAM Protect
                     prgRamEnabled = (data & 0x80) != 0;
                     prgRamWriteProtect = (data & 0x40) != 0;
+                    refreshCpuPageTable();
                 }
             } else if (address <= 0xDFFF) { // IRQ Control
                 if (!isOdd) { // $C000-$DFFE, even: IRQ Latch
-                    irqLatchValue = data;
+                    irqLatchValue = data & 0xFF;
                 } else { // $C001-$DFFF, odd: IRQ Reload
                     irqCounter = 0;
                     irqReloadFlag = true;
@@ -125,6 +128,7 @@ public class MMC3Mapper extends Mapper {
                 if (!isOdd) { // $E000-$FFFE, even: IRQ Disable
                     irqEnabled = false;
                     irqPending = false; // Acknowledge any pending IRQ
+                    setIrqLine(false);
                 } else { // $E001-$FFFF, odd: IRQ Enable
                     irqEnabled = true;
                 }
@@ -136,78 +140,106 @@ public class MMC3Mapper extends Mapper {
         switch (bankSelectRegister) {
             // CHR Banks
             case 0: case 1: case 2: case 3: case 4: case 5:
-                chrBankRegisters[bankSelectRegister] = data;
+                chrBankRegisters[bankSelectRegister] = data & 0xFF;
                 break;
             // PRG Banks
             case 6: case 7:
-                prgBankRegisters[bankSelectRegister - 6] = data;
+                prgBankRegisters[bankSelectRegister - 6] = data & 0xFF;
                 break;
         }
         updateBankOffsets();
     }
 
-    private void updateBankOffsets() {
-        // --- PRG ROM Bank Mapping (4 x 8KB banks) ---
-        int prgBankCount = prgRomData.length / 0x2000; // Number of 8KB banks
+    @Override
+    protected void updateBankOffsets() {
+        // --- PRG ROM Bank Mapping (4 x 8KB banks, offsets wrapped by the base class) ---
+        int prgBankCount = prgBanks * 2; // Number of 8KB banks
+        int secondLastBank = (prgBankCount - 2) * 0x2000;
         int fixedBank = (prgBankCount - 1) * 0x2000; // Last 8KB bank is always fixed at $E000
 
         if (!prgBankMode) {
             // $8000 is swappable, $C000 is fixed to the second-to-last bank
-            prgBankOffsets[0] = (prgBankRegisters[0] & 0x3F) * 0x2000;
-            prgBankOffsets[1] = (prgBankRegisters[1] & 0x3F) * 0x2000;
-            prgBankOffsets[2] = (prgBankCount - 2) * 0x2000;
-            prgBankOffsets[3] = fixedBank;
+            setPrgBank8k(0, (prgBankRegisters[0] & 0x3F) * 0x2000);
+            setPrgBank8k(1, (prgBankRegisters[1] & 0x3F) * 0x2000);
+            setPrgBank8k(2, secondLastBank);
+            setPrgBank8k(3, fixedBank);
         } else {
             // $C000 is swappable, $8000 is fixed to the second-to-last bank
-            prgBankOffsets[0] = (prgBankCount - 2) * 0x2000;
-            prgBankOffsets[1] = (prgBankRegisters[1] & 0x3F) * 0x2000;
-            prgBankOffsets[2] = (prgBankRegisters[0] & 0x3F) * 0x2000;
-            prgBankOffsets[3] = fixedBank;
+            setPrgBank8k(0, secondLastBank);
+            setPrgBank8k(1, (prgBankRegisters[1] & 0x3F) * 0x2000);
+            setPrgBank8k(2, (prgBankRegisters[0] & 0x3F) * 0x2000);
+            setPrgBank8k(3, fixedBank);
         }
 
         // --- CHR ROM/RAM Bank Mapping (8 x 1KB banks) ---
+        int r0 = (chrBankRegisters[0] & 0xFE) * 0x0400;
+        int r1 = (chrBankRegisters[1] & 0xFE) * 0x0400;
         if (!chrInversionMode) {
             // R0, R1 are 2KB banks; R2-R5 are 1KB banks
-            chrBankOffsets[0] = (chrBankRegisters[0] & 0xFE) * 0x0400;
-            chrBankOffsets[1] = chrBankOffsets[0] + 0x0400;
-            chrBankOffsets[2] = (chrBankRegisters[1] & 0xFE) * 0x0400;
-            chrBankOffsets[3] = chrBankOffsets[2] + 0x0400;
-            chrBankOffsets[4] = chrBankRegisters[2] * 0x0400;
-            chrBankOffsets[5] = chrBankRegisters[3] * 0x0400;
-            chrBankOffsets[6] = chrBankRegisters[4] * 0x0400;
-            chrBankOffsets[7] = chrBankRegisters[5] * 0x0400;
+            setChrBank1k(0, r0);
+            setChrBank1k(1, r0 + 0x0400);
+            setChrBank1k(2, r1);
+            setChrBank1k(3, r1 + 0x0400);
+            setChrBank1k(4, chrBankRegisters[2] * 0x0400);
+            setChrBank1k(5, chrBankRegisters[3] * 0x0400);
+            setChrBank1k(6, chrBankRegisters[4] * 0x0400);
+            setChrBank1k(7, chrBankRegisters[5] * 0x0400);
         } else {
-            // R0, R1 are 1KB banks; R2-R5 are 1KB banks; R6, R7 are 2KB banks
-            chrBankOffsets[0] = chrBankRegisters[2] * 0x0400;
-            chrBankOffsets[1] = chrBankRegisters[3] * 0x0400;
-            chrBankOffsets[2] = chrBankRegisters[4] * 0x0400;
-            chrBankOffsets[3] = chrBankRegisters[5] * 0x0400;
-            chrBankOffsets[4] = (chrBankRegisters[0] & 0xFE) * 0x0400;
-            chrBankOffsets[5] = chrBankOffsets[4] + 0x0400;
-            chrBankOffsets[6] = (chrBankRegisters[1] & 0xFE) * 0x0400;
-            chrBankOffsets[7] = chrBankOffsets[6] + 0x0400;
+            // R2-R5 are 1KB banks at $0000; R0, R1 are 2KB banks at $1000
+            setChrBank1k(0, chrBankRegisters[2] * 0x0400);
+            setChrBank1k(1, chrBankRegisters[3] * 0x0400);
+            setChrBank1k(2, chrBankRegisters[4] * 0x0400);
+            setChrBank1k(3, chrBankRegisters[5] * 0x0400);
+            setChrBank1k(4, r0);
+            setChrBank1k(5, r0 + 0x0400);
+            setChrBank1k(6, r1);
+            setChrBank1k(7, r1 + 0x0400);
         }
+
+        refreshCpuPageTable();
+    }
+
+    /**
+     * Maps PRG RAM (honouring enable/write-protect) and the four 8KB PRG ROM slots into the Bus page table.
+     * Writes to $8000-$FFFF always go through {@link #cpuWrite(int, byte)} to reach the bank registers.
+     *
+     * @param pageTable The page table to update.
+     */
+    @Override
+    protected void mapCpuPages(CpuPageTable pageTable) {
+        mapPrgRam(pageTable, prgRamEnabled, prgRamEnabled && !prgRamWriteProtect);
+        super.mapCpuPages(pageTable);
     }
 
     @Override
     public byte ppuRead(int address) {
-        address &= PPU_CHR_END;
-        if (chrData.length == 0) return 0;
+        return readChr(address & PPU_CHR_END);
+    }
+
+    /**
+     * Copies whole runs of the selected 8KB PRG banks (and PRG RAM while enabled) at once.
+     */
+    @Override
+    public void cpuReadBlock(int address, byte[] destination, int offset, int length) {
+        readCartridgeBlock(address, destination, offset, length, prgRamEnabled);
+    }
 
-        int bankIndex = address / 0x0400; // 1KB bank index
-        int offset = address & 0x03FF;
-        return chrData[(chrBankOffsets[bankIndex] + offset) % chrData.length];
+    /**
+     * Copies whole runs of the selected 1KB CHR banks at once.
+     */
+    @Override
+    public void ppuReadBlock(int address, byte[] destination, int offset, int length) {
+        readChrBlock(address, destination, offset, length);
     }
 
     @Override
     public void ppuWrite(int address, byte data) {
-        if (!isChrRam) return;
-        address &= PPU_CHR_END;
-        if (chrData.length == 0) return;
+        writeChr(address & PPU_CHR_END, data);
+    }
 
-        int bankIndex = address / 0x0400; // 1KB bank index
-        int offset = address & 0x03FF;
-        chrData[(chrBankOffsets[bankIndex] + offset) % chrData.length] = data;
+    @Override
+    public boolean hasScanlineCounter() {
+        return true;
     }
 
     /**
@@ -217,16 +249,71 @@ public class MMC3Mapper extends Mapper {
      */
     @Override
     public boolean onScanline() {
-        if (irqReloadFlag) {
+        // The counter reloads from the latch when it is zero or a reload was requested
+        if (irqCounter == 0 || irqReloadFlag) {
             irqCounter = irqLatchValue;
             irqReloadFlag = false;
-        } else if (irqCounter > 0) {
+        } else {
             irqCounter--;
         }
 
-        if (irqCounter == 0 && irqEnabled) {
+        if (irqCounter == 0 && irqEnabled && !irqPending) {
             irqPending = true;
+            setIrqLine(true);
+            notifyIrq();
         }
         return irqPending;
     }
-}
\ No newline at end of file
+
+    // --- Save States ---
+
+    @Override
+    protected int getRegisterStateSize() {
+        return REGISTER_STATE_SIZE;
+    }
+
+    @Override
+    protected void saveRegisters(ByteBuffer buffer) {
+        for (int register : chrBankRegisters) {
+            buffer.put((byte) register);
+        }
+        for (int register : prgBankRegisters) {
+            buffer.put((byte) register);
+        }
+        buffer.put((byte) bankSelectRegister);
+        buffer.put((byte) (prgBankMode ? 1 : 0));
+        buffer.put((byte) (chrInversionMode ? 1 : 0));
+
+        buffer.put((byte) irqCounter);
+        buffer.put((byte) irqLatchValue);
+        buffer.put((byte) (irqEnabled ? 1 : 0));
+        buffer.put((byte) (irqPending ? 1 : 0));
+        buffer.put((byte) (irqReloadFlag ? 1 : 0));
+
+        buffer.put((byte) (prgRamEnabled ? 1 : 0));
+        buffer.put((byte) (prgRamWriteProtect ? 1 : 0));
+    }
+
+    @Override
+    protected void loadRegisters(ByteBuffer buffer) {
+        for (int i = 0; i < chrBankRegisters.length; i++) {
+            chrBankRegisters[i] = buffer.get() & 0xFF;
+        }
+        for (int i = 0; i < prgBankRegisters.length; i++) {
+            prgBankRegisters[i] = buffer.get() & 0xFF;
+        }
+        bankSelectRegister = buffer.get() & 0x07;
+        prgBankMode = buffer.get() != 0;
+        chrInversionMode = buffer.get() != 0;
+
+        irqCounter = buffer.get() & 0xFF;
+        irqLatchValue = buffer.get() & 0xFF;
+        irqEnabled = buffer.get() != 0;
+        irqPending = buffer.get() != 0;
+        irqReloadFlag = buffer.get() != 0;
+
+        prgRamEnabled = buffer.get() != 0;
+        prgRamWriteProtect = buffer.get() != 0;
+        setIrqLine(irqPending);
+    }
+}
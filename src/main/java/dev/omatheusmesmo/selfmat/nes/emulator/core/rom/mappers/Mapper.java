@@ -1,24 +1,37 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
 
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.IrqLine;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.CpuPageTable;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.TileCache;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.StateSerializable;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Abstract base class for all NES memory mappers.
  * Controls how CPU and PPU access cartridge's PRG and CHR memory.
  */
-public abstract class Mapper {
+public abstract class Mapper implements StateSerializable {
 
     // --- Constants: Bank Sizes ---
     /** Standard size of a PRG ROM bank in bytes (16 KiB). */
     protected static final int PRG_BANK_SIZE_BYTES = 16 * 1024; // 16384
     /** Standard size of a CHR ROM/RAM bank in bytes (8 KiB). */
     protected static final int CHR_BANK_SIZE_BYTES = 8 * 1024;  // 8192
+    /** PRG RAM size assumed when the header doesn't declare one (iNES 1.0). */
+    protected static final int DEFAULT_PRG_RAM_SIZE_BYTES = 8 * 1024;
 
     // --- Constants: Standard NES Address Ranges ---
     /** Start address of the common CPU-mapped PRG RAM range. */
     protected static final int CPU_PRG_RAM_START = 0x6000;
     /** End address of the common CPU-mapped PRG RAM range. */
     protected static final int CPU_PRG_RAM_END = 0x7FFF;
+    /** Size of the CPU window onto PRG RAM ($6000-$7FFF). */
+    protected static final int CPU_PRG_RAM_WINDOW_SIZE = CPU_PRG_RAM_END - CPU_PRG_RAM_START + 1;
     /** Start address of the standard CPU-mapped PRG ROM range. */
     protected static final int CPU_PRG_ROM_START = 0x8000;
     /** End address of the standard CPU-mapped PRG ROM range. */
@@ -28,6 +41,27 @@ public abstract class Mapper {
     /** End address of the PPU-mapped CHR ROM/RAM range (also serves as mask). */
     protected static final int PPU_CHR_END = 0x1FFF;
 
+    // --- Constants: Bank Offset Tables ---
+    /** Granularity of the PRG bank offset table (8 KiB slots at $8000, $A000, $C000, $E000). */
+    protected static final int PRG_SLOT_SIZE = 0x2000;
+    /** Shift converting a CPU address to its PRG slot. */
+    protected static final int PRG_SLOT_SHIFT = 13;
+    /** Number of PRG slots covering $8000-$FFFF. */
+    protected static final int PRG_SLOT_COUNT = 4;
+    /** Granularity of the CHR bank offset table (1 KiB slots). */
+    protected static final int CHR_SLOT_SIZE = 0x0400;
+    /** Shift converting a PPU address to its CHR slot. */
+    protected static final int CHR_SLOT_SHIFT = 10;
+    /** Number of CHR slots covering $0000-$1FFF. */
+    protected static final int CHR_SLOT_COUNT = 8;
+
+    // --- Constants: Nametables ---
+    /** Size of one nametable page (1 KiB). */
+    public static final int NAMETABLE_PAGE_SIZE = 0x0400;
+    /** Number of nametable slots in the PPU address space ($2000, $2400, $2800, $2C00). */
+    public static final int NAMETABLE_SLOT_COUNT = 4;
+    private static final int NAMETABLE_SLOT_SHIFT = 10;
+
 
     // --- Fields ---
     /** The iNES mapper number. */
@@ -54,6 +88,53 @@ public abstract class Mapper {
     /** The current nametable mirroring mode. */
     private MirroringMode mirroringMode;
 
+    /**
+     * Offset in {@link #prgRomData} of each 8KB PRG slot, already wrapped to the ROM size.
+     * Filled by {@link #updateBankOffsets()} so reads are a shift, a mask and an array load.
+     */
+    protected final int[] prgBankOffsets = new int[PRG_SLOT_COUNT];
+
+    /** Offset in {@link #chrData} of each 1KB CHR slot, already wrapped to the CHR size. */
+    protected final int[] chrBankOffsets = new int[CHR_SLOT_COUNT];
+
+    /** Size of the PRG ROM in bytes, used to wrap bank offsets. */
+    private int prgRomSize;
+
+    /** Size of the CHR ROM/RAM in bytes, used to wrap bank offsets. */
+    private int chrSize;
+
+    /** Set when a bank offset changes, reported as one bank switch by {@link #refreshCpuPageTable()}. */
+    private boolean bankTablesChanged;
+
+    /** The Bus page table this mapper keeps up to date, or null if not attached to a Bus. */
+    private CpuPageTable cpuPageTable;
+
+    /** Optional listener for bank switches and IRQs, null when nobody is watching. */
+    private MapperEventListener eventListener;
+
+    /** The CPU IRQ line driven by this mapper, or null if not connected to a CPU. */
+    private IrqLine irqLine;
+
+    /** The console's event scheduler, or null if the mapper isn't running inside a console. */
+    private Scheduler scheduler;
+
+    // --- Nametables ---
+    /** The console's 2KB of nametable VRAM (CIRAM), as two 1KB pages. */
+    private final byte[][] consoleNametables = {new byte[NAMETABLE_PAGE_SIZE], new byte[NAMETABLE_PAGE_SIZE]};
+    /** Two extra 1KB pages on four-screen cartridges, null otherwise. */
+    private byte[][] cartridgeNametables;
+    /**
+     * The page each nametable slot ($2000/$2400/$2800/$2C00) reads and writes.
+     * Rebuilt only when the mirroring changes, never on an access.
+     */
+    private final byte[][] nametablePages = new byte[NAMETABLE_SLOT_COUNT][];
+
+    /** Decoded CHR tiles, created on first use by the renderer. */
+    private TileCache tileCache;
+
+    /** Told before CHR banks or mirroring change, null when no PPU is attached. */
+    private RenderStateListener renderStateListener;
+
     /**
      * Constructs a new Mapper instance.
      * Initializes metadata based on header info. Actual ROM data must be loaded separately.
@@ -80,6 +161,11 @@ public abstract class Mapper {
 
         // Set initial mirroring mode based on header info
         this.mirroringMode = isVerticalMirroring ? MirroringMode.VERTICAL : MirroringMode.HORIZONTAL;
+        mapNametablesForMirroring();
+
+        // Sizes from the header until the real data is loaded
+        this.prgRomSize = prgRomSizeBytes;
+        this.chrSize = this.isChrRam ? CHR_BANK_SIZE_BYTES : chrDataSizeBytes;
     }
 
     /**
@@ -87,14 +173,235 @@ public abstract class Mapper {
      * Should be called after construction and after data is read from the file.
      *
      * @param prgRomData The byte array containing the PRG ROM data.
-     * @param chrRomData The byte array containing the CHR ROM data (used only if chrBanks > 0).
+     * @param chrRomData The byte array containing the CHR ROM data (ignored for CHR RAM cartridges).
      */
     public void loadRomData(byte[] prgRomData, byte[] chrRomData) {
         this.prgRomData = prgRomData;
-        // Only assign chrRomData if the cartridge uses CHR ROM.
-        if (this.chrBanks > 0) {
+        // Only assign chrRomData if the cartridge uses CHR ROM, even one smaller than a bank.
+        if (!this.isChrRam) {
             this.chrData = chrRomData;
         }
+        this.prgRomSize = this.prgRomData.length;
+        this.chrSize = this.chrData.length;
+        this.tileCache = null; // Decoded from the old CHR data
+        updateBankOffsets();
+    }
+
+    // --- Bank Offset Tables ---
+
+    /**
+     * Recomputes {@link #prgBankOffsets} and {@link #chrBankOffsets} from the mapper's registers and
+     * refreshes the CPU page table. Default implementation maps PRG and CHR linearly (no bank switching),
+     * mirroring smaller ROMs across the whole window.
+     * Subclasses with bank registers override this and must end by calling {@link #refreshCpuPageTable()}.
+     */
+    protected void updateBankOffsets() {
+        for (int slot = 0; slot < PRG_SLOT_COUNT; slot++) {
+            setPrgBank8k(slot, slot * PRG_SLOT_SIZE);
+        }
+        for (int slot = 0; slot < CHR_SLOT_COUNT; slot++) {
+            setChrBank1k(slot, slot * CHR_SLOT_SIZE);
+        }
+        refreshCpuPageTable();
+    }
+
+    /**
+     * Points an 8KB PRG slot at the given byte offset of PRG ROM, wrapping it to the ROM size.
+     *
+     * @param slot       PRG slot (0 = $8000, 1 = $A000, 2 = $C000, 3 = $E000).
+     * @param byteOffset Unwrapped byte offset into PRG ROM.
+     */
+    protected final void setPrgBank8k(int slot, int byteOffset) {
+        int offset = wrapOffset(byteOffset, prgRomSize);
+        if (offset != prgBankOffsets[slot]) {
+            prgBankOffsets[slot] = offset;
+            bankTablesChanged = true;
+        }
+    }
+
+    /**
+     * Points a 1KB CHR slot at the given byte offset of CHR ROM/RAM, wrapping it to the CHR size.
+     *
+     * @param slot       CHR slot (0 = $0000 ... 7 = $1C00).
+     * @param byteOffset Unwrapped byte offset into CHR data.
+     */
+    protected final void setChrBank1k(int slot, int byteOffset) {
+        int offset = wrapOffset(byteOffset, chrSize);
+        if (offset != chrBankOffsets[slot]) {
+            beforeRenderStateChange();
+            chrBankOffsets[slot] = offset;
+            bankTablesChanged = true;
+        }
+    }
+
+    /**
+     * Wraps an offset to the data size, using a mask for power-of-two sizes (the common case)
+     * and a modulo otherwise. Only runs on bank switches, never on reads.
+     */
+    private static int wrapOffset(int offset, int size) {
+        if (size <= 0) {
+            return 0;
+        }
+        if ((size & (size - 1)) == 0) {
+            return offset & (size - 1);
+        }
+        return Math.floorMod(offset, size);
+    }
+
+    /**
+     * Reads PRG ROM through the bank offset table.
+     * @param address CPU address in $8000-$FFFF.
+     * @return The byte at the mapped location.
+     */
+    protected final byte readPrgRom(int address) {
+        return prgRomData[prgBankOffsets[(address >> PRG_SLOT_SHIFT) & (PRG_SLOT_COUNT - 1)] + (address & (PRG_SLOT_SIZE - 1))];
+    }
+
+    /**
+     * Reads CHR ROM/RAM through the bank offset table.
+     * @param address PPU address in $0000-$1FFF.
+     * @return The byte at the mapped location.
+     */
+    protected final byte readChr(int address) {
+        return chrData[chrBankOffsets[(address >> CHR_SLOT_SHIFT) & (CHR_SLOT_COUNT - 1)] + (address & (CHR_SLOT_SIZE - 1))];
+    }
+
+    /**
+     * Writes CHR RAM through the bank offset table. Ignored for CHR ROM.
+     * @param address PPU address in $0000-$1FFF.
+     * @param data    The byte to write.
+     */
+    protected final void writeChr(int address, byte data) {
+        if (isChrRam) {
+            int offset = getChrOffset(address);
+            chrData[offset] = data;
+            if (tileCache != null) {
+                tileCache.markDirty(offset);
+            }
+        }
+    }
+
+    /**
+     * Resolves a pattern table address to an offset in the CHR data through the bank offset table.
+     * This is the key of the tile in {@link #getTileCache()}.
+     *
+     * @param address PPU address in $0000-$1FFF.
+     */
+    public final int getChrOffset(int address) {
+        return chrBankOffsets[(address >> CHR_SLOT_SHIFT) & (CHR_SLOT_COUNT - 1)] + (address & (CHR_SLOT_SIZE - 1));
+    }
+
+    /**
+     * Returns the decoded tiles of the CHR data, creating the cache on first use.
+     * CHR RAM writes through {@link #writeChr} keep it up to date.
+     */
+    public final TileCache getTileCache() {
+        if (tileCache == null) {
+            tileCache = new TileCache(chrData);
+        }
+        return tileCache;
+    }
+
+    // --- PRG RAM ---
+
+    /**
+     * Allocates PRG RAM of the given size, replacing any previous allocation.
+     * The RomLoader calls this with the size declared by a NES 2.0 header.
+     *
+     * @param sizeBytes PRG RAM size in bytes (0 for none).
+     */
+    public void configurePrgRam(int sizeBytes) {
+        this.prgRamData = sizeBytes > 0 ? new byte[sizeBytes] : null;
+        refreshCpuPageTable();
+    }
+
+    /**
+     * Reads PRG RAM through the $6000-$7FFF window, mirroring RAM smaller than 8KB.
+     * @param address CPU address in $6000-$7FFF.
+     * @return The byte read, or 0 (open bus) if there is no PRG RAM.
+     */
+    protected final byte readPrgRam(int address) {
+        if (prgRamData == null) {
+            return 0;
+        }
+        return prgRamData[(address - CPU_PRG_RAM_START) % prgRamData.length];
+    }
+
+    /**
+     * Writes PRG RAM through the $6000-$7FFF window. Ignored if there is no PRG RAM.
+     * @param address CPU address in $6000-$7FFF.
+     * @param data    The byte to write.
+     */
+    protected final void writePrgRam(int address, byte data) {
+        if (prgRamData != null) {
+            prgRamData[(address - CPU_PRG_RAM_START) % prgRamData.length] = data;
+        }
+    }
+
+    /**
+     * Maps the first 8KB of PRG RAM into the page table for reads and/or writes.
+     * PRG RAM smaller than the window stays on the {@link #cpuRead(int)} path so it can mirror.
+     *
+     * @param pageTable The page table to update.
+     * @param readable  true to map reads directly.
+     * @param writable  true to map writes directly.
+     */
+    protected final void mapPrgRam(CpuPageTable pageTable, boolean readable, boolean writable) {
+        boolean fitsWindow = prgRamData != null && prgRamData.length >= CPU_PRG_RAM_WINDOW_SIZE;
+        if (readable && fitsWindow) {
+            pageTable.mapRead(CPU_PRG_RAM_START, CPU_PRG_RAM_WINDOW_SIZE, prgRamData, 0);
+        } else {
+            pageTable.unmapRead(CPU_PRG_RAM_START, CPU_PRG_RAM_WINDOW_SIZE);
+        }
+        if (writable && fitsWindow) {
+            pageTable.mapWrite(CPU_PRG_RAM_START, CPU_PRG_RAM_WINDOW_SIZE, prgRamData, 0);
+        } else {
+            pageTable.unmapWrite(CPU_PRG_RAM_START, CPU_PRG_RAM_WINDOW_SIZE);
+        }
+    }
+
+    // --- CPU Page Table ---
+
+    /**
+     * Attaches the Bus page table so this mapper can map its PRG banks directly into it.
+     * Called by the Bus when the cartridge is connected.
+     *
+     * @param pageTable The Bus page table.
+     */
+    public final void attachCpuPageTable(CpuPageTable pageTable) {
+        this.cpuPageTable = pageTable;
+        refreshCpuPageTable();
+    }
+
+    /**
+     * Rebuilds the cartridge part of the attached page table, and reports a bank switch if any
+     * PRG or CHR bank offset changed since the last call.
+     * Subclasses must call this whenever a bank switch or a PRG RAM enable/protect change
+     * alters what the CPU sees.
+     */
+    protected final void refreshCpuPageTable() {
+        if (cpuPageTable != null && prgRomData != null) {
+            mapCpuPages(cpuPageTable);
+        }
+        if (bankTablesChanged) {
+            bankTablesChanged = false;
+            notifyBankSwitch();
+        }
+    }
+
+    /**
+     * Maps the currently selected PRG ROM/RAM banks into the page table.
+     * Ranges left unmapped fall back to {@link #cpuRead(int)} / {@link #cpuWrite(int, byte)},
+     * so writes to mapper registers must never be mapped directly.
+     * Default implementation maps the four PRG ROM slots from {@link #prgBankOffsets} for reads;
+     * subclasses add PRG RAM as needed.
+     *
+     * @param pageTable The page table to update.
+     */
+    protected void mapCpuPages(CpuPageTable pageTable) {
+        for (int slot = 0; slot < PRG_SLOT_COUNT; slot++) {
+            pageTable.mapRead(CPU_PRG_ROM_START + slot * PRG_SLOT_SIZE, PRG_SLOT_SIZE, prgRomData, prgBankOffsets[slot]);
+        }
     }
 
     // --- Abstract Core I/O Methods ---
@@ -132,6 +439,108 @@ public abstract class Mapper {
     public abstract void ppuWrite(int address, byte data);
 
 
+    // --- Block Reads ---
+
+    /**
+     * Reads {@code length} consecutive CPU bytes starting at {@code address} (wrapping at $FFFF),
+     * with the same result as calling {@link #cpuRead(int)} for each address but without its side effects.
+     * Default implementation loops over {@link #cpuRead(int)}; mappers override it to copy whole banks.
+     *
+     * @param address     First 16-bit CPU address.
+     * @param destination Destination array.
+     * @param offset      Index of the first destination byte.
+     * @param length      Number of bytes to read.
+     */
+    public void cpuReadBlock(int address, byte[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = cpuRead((address + i) & 0xFFFF);
+        }
+    }
+
+    /**
+     * Reads {@code length} consecutive CHR bytes starting at {@code address} (wrapping at $1FFF).
+     * Default implementation loops over {@link #ppuRead(int)}; mappers override it to copy whole banks.
+     *
+     * @param address     First PPU address in $0000-$1FFF.
+     * @param destination Destination array.
+     * @param offset      Index of the first destination byte.
+     * @param length      Number of bytes to read.
+     */
+    public void ppuReadBlock(int address, byte[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = ppuRead((address + i) & PPU_CHR_END);
+        }
+    }
+
+    /**
+     * Block read of the standard cartridge layout through the bank offset tables: open bus (0)
+     * below $6000, PRG RAM at $6000-$7FFF and PRG ROM at $8000-$FFFF. Each contiguous run inside
+     * one bank is a single {@code System.arraycopy}.
+     *
+     * @param prgRamReadable false to read PRG RAM as open bus (disabled RAM).
+     */
+    protected final void readCartridgeBlock(int address, byte[] destination, int offset, int length, boolean prgRamReadable) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        while (length > 0) {
+            address &= 0xFFFF;
+            int chunk;
+            if (address < CPU_PRG_RAM_START) {
+                chunk = Math.min(length, CPU_PRG_RAM_START - address);
+                Arrays.fill(destination, offset, offset + chunk, (byte) 0);
+            } else if (address < CPU_PRG_ROM_START) {
+                chunk = Math.min(length, CPU_PRG_ROM_START - address);
+                if (prgRamReadable) {
+                    readPrgRamBlock(address, destination, offset, chunk);
+                } else {
+                    Arrays.fill(destination, offset, offset + chunk, (byte) 0);
+                }
+            } else {
+                chunk = Math.min(length, PRG_SLOT_SIZE - (address & (PRG_SLOT_SIZE - 1)));
+                System.arraycopy(prgRomData, prgBankOffsets[(address >> PRG_SLOT_SHIFT) & (PRG_SLOT_COUNT - 1)]
+                        + (address & (PRG_SLOT_SIZE - 1)), destination, offset, chunk);
+            }
+            address += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Block read of PRG RAM inside $6000-$7FFF, mirroring RAM smaller than 8KB (0 if there is none).
+     */
+    private void readPrgRamBlock(int address, byte[] destination, int offset, int length) {
+        if (prgRamData == null) {
+            Arrays.fill(destination, offset, offset + length, (byte) 0);
+            return;
+        }
+        while (length > 0) {
+            int ramOffset = (address - CPU_PRG_RAM_START) % prgRamData.length;
+            int chunk = Math.min(length, prgRamData.length - ramOffset);
+            System.arraycopy(prgRamData, ramOffset, destination, offset, chunk);
+            address += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Block read of CHR through the 1KB bank offset table, wrapping at $1FFF.
+     */
+    protected final void readChrBlock(int address, byte[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        while (length > 0) {
+            address &= PPU_CHR_END;
+            int chunk = Math.min(length, CHR_SLOT_SIZE - (address & (CHR_SLOT_SIZE - 1)));
+            System.arraycopy(chrData, chrBankOffsets[address >> CHR_SLOT_SHIFT] + (address & (CHR_SLOT_SIZE - 1)),
+                    destination, offset, chunk);
+            address += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
     // --- Optional Methods for Advanced Mappers ---
 
     /**
@@ -144,16 +553,132 @@ public abstract class Mapper {
     }
 
     /**
-     * Sets the mirroring mode. Called by concrete mapper implementations (e.g., MMC1, MMC3).
+     * Sets the mirroring mode and rebuilds the nametable page table. Called by concrete mapper
+     * implementations (e.g., MMC1, MMC3). Ignored on four-screen cartridges, whose nametables are
+     * hard-wired to their own VRAM.
      * @param mode The new mirroring mode to set.
      */
     protected final void setMirroringMode(MirroringMode mode) {
-        this.mirroringMode = mode;
+        if (mode != this.mirroringMode && cartridgeNametables == null) {
+            beforeRenderStateChange();
+            this.mirroringMode = mode;
+            updateNametablePages();
+        }
+    }
+
+    // --- Nametables ---
+
+    /**
+     * Gives the cartridge 2KB of extra VRAM and maps all four nametables to distinct pages.
+     * The RomLoader calls this for headers with the four-screen flag.
+     */
+    public void configureFourScreen() {
+        beforeRenderStateChange();
+        cartridgeNametables = new byte[][]{new byte[NAMETABLE_PAGE_SIZE], new byte[NAMETABLE_PAGE_SIZE]};
+        mirroringMode = MirroringMode.FOUR_SCREEN;
+        updateNametablePages();
+    }
+
+    /**
+     * Rebuilds {@link #nametablePages} for the current mirroring mode. Mappers with their own
+     * nametable RAM (or ROM) override this and point slots at their pages with
+     * {@link #setNametablePage}; they don't need to call super, and should set up their pages in
+     * their constructor (the base constructor only maps the console VRAM).
+     */
+    protected void updateNametablePages() {
+        mapNametablesForMirroring();
+    }
+
+    private void mapNametablesForMirroring() {
+        byte[] a = consoleNametables[0];
+        byte[] b = consoleNametables[1];
+        switch (mirroringMode) {
+            case VERTICAL:
+                setNametablePages(a, b, a, b);
+                break;
+            case SINGLE_SCREEN_LOWER:
+                setNametablePages(a, a, a, a);
+                break;
+            case SINGLE_SCREEN_UPPER:
+                setNametablePages(b, b, b, b);
+                break;
+            case FOUR_SCREEN:
+                if (cartridgeNametables != null) {
+                    setNametablePages(a, b, cartridgeNametables[0], cartridgeNametables[1]);
+                } else { // Four-screen requested without cartridge VRAM: best effort
+                    setNametablePages(a, b, a, b);
+                }
+                break;
+            case HORIZONTAL:
+            default:
+                setNametablePages(a, a, b, b);
+                break;
+        }
+    }
+
+    private void setNametablePages(byte[] slot0, byte[] slot1, byte[] slot2, byte[] slot3) {
+        nametablePages[0] = slot0;
+        nametablePages[1] = slot1;
+        nametablePages[2] = slot2;
+        nametablePages[3] = slot3;
+    }
+
+    /**
+     * Points one nametable slot at a 1KB page.
+     *
+     * @param slot Nametable slot (0 = $2000 ... 3 = $2C00).
+     * @param page A {@link #NAMETABLE_PAGE_SIZE}-byte array.
+     */
+    protected final void setNametablePage(int slot, byte[] page) {
+        if (page.length != NAMETABLE_PAGE_SIZE) {
+            throw new IllegalArgumentException("Nametable pages must be " + NAMETABLE_PAGE_SIZE + " bytes, got " + page.length);
+        }
+        if (nametablePages[slot] != page) {
+            beforeRenderStateChange();
+            nametablePages[slot] = page;
+        }
+    }
+
+    /**
+     * @return The console's two 1KB nametable pages, for mappers that remap them in {@link #updateNametablePages()}.
+     */
+    protected final byte[][] getConsoleNametables() {
+        return consoleNametables;
+    }
+
+    /**
+     * Reads a nametable byte through the page table.
+     *
+     * @param address PPU address in $2000-$3EFF.
+     */
+    public final byte readNametable(int address) {
+        return nametablePages[(address >> NAMETABLE_SLOT_SHIFT) & (NAMETABLE_SLOT_COUNT - 1)][address & (NAMETABLE_PAGE_SIZE - 1)];
+    }
+
+    /**
+     * Writes a nametable byte through the page table.
+     *
+     * @param address PPU address in $2000-$3EFF.
+     * @param data    The byte to write.
+     */
+    public final void writeNametable(int address, byte data) {
+        nametablePages[(address >> NAMETABLE_SLOT_SHIFT) & (NAMETABLE_SLOT_COUNT - 1)][address & (NAMETABLE_PAGE_SIZE - 1)] = data;
+    }
+
+    /**
+     * Returns the live nametable page table (one 1KB array per slot) so renderers can fetch
+     * without a call per byte. Slots change when the mirroring does.
+     */
+    public final byte[][] getNametablePages() {
+        return nametablePages;
     }
 
     /**
      * Signals a CPU clock cycle. Useful for cycle-counting mappers.
      * Default implementation does nothing.
+     * <p>
+     * The console does not tick mappers every cycle; cycle-counting mappers should compute when
+     * their counter expires and schedule {@link Scheduler#EVENT_MAPPER_IRQ} instead.
      */
     public void clock() {
         // Override in specific mappers if needed
@@ -161,6 +686,7 @@ public abstract class Mapper {
 
     /**
      * Signals the end of a PPU scanline. Useful for scanline-counting mappers (e.g., MMC3 IRQ).
+     * Called from the console's {@link Scheduler#EVENT_SCANLINE_END} event, not from the CPU loop.
      * @return true if the mapper generated an IRQ, false otherwise.
      */
     public boolean onScanline() {
@@ -168,6 +694,15 @@ public abstract class Mapper {
         return false; // Default: no IRQ
     }
 
+    /**
+     * Tells the console whether {@link #onScanline()} does anything. Only then does it catch the PPU
+     * up on every rendered scanline to clock the mapper; other mappers leave the PPU fully lazy.
+     * @return true for scanline-counting mappers; false by default.
+     */
+    public boolean hasScanlineCounter() {
+        return false;
+    }
+
     /**
      * Resets the mapper's internal state to its default (power-on) state.
      * Subclasses should override to reset bank registers, counters, etc.
@@ -176,6 +711,217 @@ public abstract class Mapper {
         // Override in specific mappers if needed
     }
 
+    // --- Timing and Interrupts ---
+
+    /**
+     * Connects the line this mapper drives to raise CPU IRQs.
+     *
+     * @param irqLine The IRQ line, or null to disconnect.
+     */
+    public final void connectIrqLine(IrqLine irqLine) {
+        this.irqLine = irqLine;
+    }
+
+    /**
+     * Asserts or releases the mapper's IRQ line, if connected.
+     */
+    protected final void setIrqLine(boolean asserted) {
+        if (irqLine != null) {
+            irqLine.set(asserted);
+        }
+    }
+
+    /**
+     * Attaches the console's scheduler so the mapper can schedule and cancel its own events
+     * (typically {@link Scheduler#EVENT_MAPPER_IRQ}). Subclasses may override to schedule their
+     * first event, but must call super.
+     *
+     * @param scheduler The scheduler, or null to detach.
+     */
+    public void attachScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Called when an event scheduled by this mapper ({@link Scheduler#EVENT_MAPPER_IRQ}) is due.
+     * Default implementation does nothing.
+     *
+     * @param time Master clock time the event was scheduled for.
+     */
+    public void onMapperEvent(long time) {
+        // Override in cycle-counting mappers
+    }
+
+    /**
+     * @return The attached scheduler, or null.
+     */
+    protected final Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    // --- PPU Synchronization ---
+
+    /**
+     * Connects the listener told before CHR banks or mirroring change, so a lazily synchronized
+     * PPU can finish the pixels it owes with the old state. Bank offsets and mirroring only change
+     * through {@link #setChrBank1k} and {@link #setMirroringMode}, so subclasses need not call it.
+     *
+     * @param listener The listener, or null to disconnect.
+     */
+    public final void connectRenderStateListener(RenderStateListener listener) {
+        this.renderStateListener = listener;
+    }
+
+    private void beforeRenderStateChange() {
+        if (renderStateListener != null) {
+            renderStateListener.beforeRenderStateChange();
+        }
+    }
+
+    // --- Instrumentation ---
+
+    /**
+     * Attaches a listener for bank switches and IRQs, or detaches it with null.
+     *
+     * @param listener The listener.
+     */
+    public final void setEventListener(MapperEventListener listener) {
+        this.eventListener = listener;
+    }
+
+    /**
+     * Reports a bank switch to the listener, if any. Called by {@link #refreshCpuPageTable()} when
+     * the bank tables changed; mappers that switch anything else call it after the new banks are in place.
+     */
+    protected final void notifyBankSwitch() {
+        if (eventListener != null) {
+            eventListener.onBankSwitch(this);
+        }
+    }
+
+    /**
+     * Reports a raised IRQ to the listener, if any.
+     */
+    protected final void notifyIrq() {
+        if (eventListener != null) {
+            eventListener.onIrq(this);
+        }
+    }
+
+    // --- Save States ---
+
+    /**
+     * Size of the state written by {@link #saveState(ByteBuffer)}: mirroring, nametable VRAM,
+     * PRG RAM, CHR RAM (each RAM array but the console VRAM prefixed by its length) and the
+     * subclass registers.
+     */
+    @Override
+    public final int getStateSize() {
+        int prgRamSize = prgRamData == null ? 0 : prgRamData.length;
+        int chrRamSize = isChrRam ? chrData.length : 0;
+        int extraNametableSize = cartridgeNametables == null ? 0 : 2 * NAMETABLE_PAGE_SIZE;
+        return 1 + 2 * NAMETABLE_PAGE_SIZE + Integer.BYTES + extraNametableSize
+                + Integer.BYTES + prgRamSize + Integer.BYTES + chrRamSize + getRegisterStateSize();
+    }
+
+    /**
+     * Writes mirroring, nametable VRAM, PRG RAM and CHR RAM (never ROM), then the subclass registers.
+     */
+    @Override
+    public final void saveState(ByteBuffer buffer) {
+        buffer.put((byte) mirroringMode.ordinal());
+        buffer.put(consoleNametables[0]);
+        buffer.put(consoleNametables[1]);
+        if (cartridgeNametables == null) {
+            buffer.putInt(0);
+        } else {
+            buffer.putInt(2 * NAMETABLE_PAGE_SIZE);
+            buffer.put(cartridgeNametables[0]);
+            buffer.put(cartridgeNametables[1]);
+        }
+        if (prgRamData == null) {
+            buffer.putInt(0);
+        } else {
+            buffer.putInt(prgRamData.length);
+            buffer.put(prgRamData);
+        }
+        if (isChrRam) {
+            buffer.putInt(chrData.length);
+            buffer.put(chrData);
+        } else {
+            buffer.putInt(0);
+        }
+        saveRegisters(buffer);
+    }
+
+    /**
+     * Restores the state written by {@link #saveState(ByteBuffer)} and rebuilds the bank offset
+     * tables and page table from the restored registers.
+     */
+    @Override
+    public final void loadState(ByteBuffer buffer) {
+        MirroringMode[] modes = MirroringMode.values();
+        int mirroringOrdinal = buffer.get() & 0xFF;
+        if (mirroringOrdinal >= modes.length) {
+            throw new IllegalArgumentException("Invalid mirroring mode in save state: " + mirroringOrdinal);
+        }
+        buffer.get(consoleNametables[0]);
+        buffer.get(consoleNametables[1]);
+        int extraNametableSize = buffer.getInt();
+        int expectedNametableSize = cartridgeNametables == null ? 0 : 2 * NAMETABLE_PAGE_SIZE;
+        if (extraNametableSize != expectedNametableSize) {
+            throw new IllegalArgumentException("Cartridge VRAM size mismatch in save state: " + extraNametableSize
+                    + " bytes, expected " + expectedNametableSize);
+        }
+        if (cartridgeNametables != null) {
+            buffer.get(cartridgeNametables[0]);
+            buffer.get(cartridgeNametables[1]);
+        }
+        loadRamState(buffer, prgRamData, "PRG RAM");
+        loadRamState(buffer, isChrRam ? chrData : null, "CHR RAM");
+        if (isChrRam && tileCache != null) {
+            tileCache.invalidateAll();
+        }
+        mirroringMode = modes[mirroringOrdinal];
+        updateNametablePages();
+        loadRegisters(buffer);
+        updateBankOffsets();
+    }
+
+    private static void loadRamState(ByteBuffer buffer, byte[] ram, String name) {
+        int size = buffer.getInt();
+        int expected = ram == null ? 0 : ram.length;
+        if (size != expected) {
+            throw new IllegalArgumentException(name + " size mismatch in save state: " + size + " bytes, expected " + expected);
+        }
+        if (ram != null) {
+            buffer.get(ram);
+        }
+    }
+
+    /**
+     * @return Number of bytes {@link #saveRegisters(ByteBuffer)} writes. Default: none.
+     */
+    protected int getRegisterStateSize() {
+        return 0;
+    }
+
+    /**
+     * Writes the mapper's registers and counters. Must not allocate.
+     * Default implementation writes nothing.
+     */
+    protected void saveRegisters(ByteBuffer buffer) {
+        // Override in mappers with registers
+    }
+
+    /**
+     * Restores the registers written by {@link #saveRegisters(ByteBuffer)}. The bank offsets are
+     * recomputed afterwards, so implementations only need to assign fields.
+     */
+    protected void loadRegisters(ByteBuffer buffer) {
+        // Override in mappers with registers
+    }
+
     // --- Basic Getters ---
 
     public int getMapperNumber() {
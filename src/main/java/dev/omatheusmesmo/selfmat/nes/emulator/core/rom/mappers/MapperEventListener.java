@@ -0,0 +1,23 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
+
+/**
+ * Receives notifications about mapper activity, e.g. for instrumentation.
+ * Mappers only call the listener on bank switches and IRQs, never on plain reads or writes,
+ * so an attached listener doesn't slow down memory accesses.
+ */
+public interface MapperEventListener {
+
+    /**
+     * Called after a register write changed the selected PRG or CHR banks.
+     *
+     * @param mapper The mapper that switched banks.
+     */
+    void onBankSwitch(Mapper mapper);
+
+    /**
+     * Called when the mapper raises its IRQ line (e.g. the MMC3 scanline counter reached zero).
+     *
+     * @param mapper The mapper that raised the IRQ.
+     */
+    void onIrq(Mapper mapper);
+}
@@ -1,5 +1,9 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
 
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.CpuPageTable;
+
+import java.util.Objects;
+
 /**
  * Implements Mapper 0 (NROM).
  * Supports 16KB or 32KB PRG ROM and 8KB CHR ROM or RAM.
@@ -65,6 +69,49 @@ public class NRomMapper extends Mapper {
         // Writes to other ranges (like PRG ROM) are ignored by NROM.
     }
 
+    /**
+     * Maps PRG RAM (if present) and PRG ROM directly into the Bus page table.
+     * A 16KB ROM is mapped twice so $C000-$FFFF mirrors $8000-$BFFF.
+     *
+     * @param pageTable The page table to update.
+     */
+    @Override
+    protected void mapCpuPages(CpuPageTable pageTable) {
+        mapPrgRam(pageTable, true, true);
+
+        if (prgRomData.length >= PRG_ROM_32K_OFFSET) { // 32KB ROM: direct mapping
+            pageTable.mapRead(CPU_PRG_ROM_START, PRG_ROM_32K_OFFSET, prgRomData, 0);
+        } else if (prgRomData.length >= PRG_BANK_SIZE_BYTES) { // 16KB ROM: mirrored
+            pageTable.mapRead(CPU_PRG_ROM_START, PRG_BANK_SIZE_BYTES, prgRomData, 0);
+            pageTable.mapRead(CPU_PRG_ROM_START + PRG_BANK_SIZE_BYTES, PRG_BANK_SIZE_BYTES, prgRomData, 0);
+        }
+    }
+
+    /**
+     * Block read: PRG ROM is copied straight from the (possibly mirrored) 16KB/32KB image, so a
+     * whole 256-byte page is one {@code System.arraycopy}.
+     */
+    @Override
+    public void cpuReadBlock(int address, byte[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        address &= 0xFFFF;
+        if (address >= CPU_PRG_ROM_START && prgRomData != null && prgRomData.length > 0) {
+            int romLength = Math.min(length, CPU_PRG_ROM_END + 1 - address);
+            int copied = 0;
+            while (copied < romLength) {
+                int romOffset = mapPrgRomAddress(address + copied);
+                int chunk = Math.min(romLength - copied, prgRomData.length - romOffset);
+                System.arraycopy(prgRomData, romOffset, destination, offset + copied, chunk);
+                copied += chunk;
+            }
+            if (copied < length) { // Wrapped past $FFFF
+                readCartridgeBlock(0, destination, offset + copied, length - copied, true);
+            }
+            return;
+        }
+        readCartridgeBlock(address, destination, offset, length, true);
+    }
+
     // --- PPU Access ---
 
     /**
@@ -79,6 +126,26 @@ public class NRomMapper extends Mapper {
         return handlePpuChrRead(address);
     }
 
+    /**
+     * Block read of the unbanked 8KB CHR ROM/RAM, at most two copies (when wrapping at $1FFF).
+     */
+    @Override
+    public void ppuReadBlock(int address, byte[] destination, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, destination.length);
+        if (chrData == null || chrData.length < CHR_BANK_SIZE_BYTES) {
+            super.ppuReadBlock(address, destination, offset, length);
+            return;
+        }
+        while (length > 0) {
+            address &= PPU_CHR_END;
+            int chunk = Math.min(length, PPU_CHR_END + 1 - address);
+            System.arraycopy(chrData, address, destination, offset, chunk);
+            address += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
     /**
      * Handles a PPU write request to the CHR address range ($0000-$1FFF).
      * Writes only affect CHR RAM.
@@ -118,14 +185,7 @@ public class NRomMapper extends Mapper {
      * @return The byte read from PRG RAM, or 0 if unavailable/out of bounds.
      */
     private byte handleCpuPrgRamRead(int address) {
-        if (prgRamData != null) {
-            int index = address - CPU_PRG_RAM_START;
-            // No need for index >= 0 check if address >= CPU_PRG_RAM_START is guaranteed
-            if (index < prgRamData.length) {
-                return prgRamData[index];
-            }
-        }
-        return 0; // No PRG RAM or out of bounds
+        return readPrgRam(address); // 0 if there is no PRG RAM, mirrored if smaller than 8KB
     }
 
     /**
@@ -134,15 +194,7 @@ public class NRomMapper extends Mapper {
      * @param data    The byte to write.
      */
     private void handleCpuPrgRamWrite(int address, byte data) {
-        if (prgRamData != null) { // Check if PRG RAM exists
-            int index = address - CPU_PRG_RAM_START;
-            // No need for index >= 0 check if address >= CPU_PRG_RAM_START is guaranteed
-            if (index < prgRamData.length) { // Check upper bound
-                prgRamData[index] = data; // Perform to write
-            }
-            // else: Write is within range but outside allocated RAM size, ignore.
-        }
-        // else: Write to PRG RAM area, but no RAM exists, ignore.
+        writePrgRam(address, data); // Ignored if there is no PRG RAM
     }
 
     /**
@@ -204,14 +256,9 @@ public class NRomMapper extends Mapper {
      * @param data          The byte to write.
      */
     private void handlePpuChrWrite(int maskedAddress, byte data) {
-        if (chrBanks == 0) { // Only write if using CHR RAM
-            // No need for maskedAddress >= 0 check
-            if (chrData != null && maskedAddress < chrData.length) {
-                chrData[maskedAddress] = data;
-            }
-            // else: CHR RAM exists but address out of bounds (shouldn't happen with mask), ignore.
-        }
-        // else: Cartridge uses CHR ROM, ignore to write.
+        // CHR RAM is always 8KB and mapped linearly; writeChr also keeps the tile cache in sync.
+        // Writes to CHR ROM are ignored.
+        writeChr(maskedAddress, data);
     }
 
     /**
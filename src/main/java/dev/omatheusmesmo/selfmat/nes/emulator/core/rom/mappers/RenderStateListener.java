@@ -0,0 +1,14 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
+
+/**
+ * Notified right before a mapper changes state the PPU renders from (CHR banks, mirroring).
+ * A lazily synchronized PPU uses this to catch up with the old state still in place.
+ */
+@FunctionalInterface
+public interface RenderStateListener {
+
+    /**
+     * Called before the CHR bank offsets or the mirroring mode change.
+     */
+    void beforeRenderStateChange();
+}
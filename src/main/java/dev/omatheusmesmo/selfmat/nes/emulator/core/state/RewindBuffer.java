@@ -0,0 +1,353 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.state;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of recent save states for rewinding.
+ * <p>
+ * Every {@code keyframeInterval}-th snapshot is stored as a keyframe; the others are stored as the
+ * XOR of the snapshot against that keyframe. Both are compressed with a zero-run-length codec, so the
+ * unchanged bulk of RAM costs almost nothing. All storage is allocated up front: the compressed
+ * payloads live in one {@code byte[]} ring and the per-frame bookkeeping in parallel {@code int[]}s.
+ * When either fills up, the oldest keyframe is evicted together with all deltas that depend on it.
+ * <p>
+ * Usage: {@link #push(ByteBuffer)} the state at the start of every frame; each {@link #pop(ByteBuffer)}
+ * steps back one frame.
+ */
+public class RewindBuffer {
+
+    /** Zero runs shorter than this are kept inside the literal run they interrupt. */
+    private static final int MIN_ZERO_RUN = 4;
+    /** Maximum length of a varint encoding a 32-bit value. */
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private final int stateSize;
+    private final int keyframeInterval;
+
+    // --- Payload Ring ---
+    private final byte[] ring;
+    private int writePosition;
+
+    // --- Frame Index (oldest at frameHead, parallel arrays) ---
+    private final int[] frameOffsets;
+    private final int[] frameLengths;
+    private final boolean[] frameIsKeyframe;
+    private int frameHead;
+    private int frameCount;
+    private int framesSinceKeyframe;
+
+    // --- Scratch Buffers ---
+    /** Decoded state of the newest keyframe; deltas are XORed against it. */
+    private final byte[] keyframeState;
+    private final byte[] currentState;
+    private final byte[] encodeBuffer;
+
+    /**
+     * @param stateSize        Size of every snapshot in bytes (e.g. {@link SaveState#sizeOf}).
+     * @param maxFrames        Maximum number of snapshots kept (seconds of rewind x 60).
+     * @param capacityBytes    Size of the compressed payload ring.
+     * @param keyframeInterval Snapshots per keyframe (1 stores keyframes only).
+     */
+    public RewindBuffer(int stateSize, int maxFrames, int capacityBytes, int keyframeInterval) {
+        if (stateSize <= 0 || maxFrames <= 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("State size, frame count and keyframe interval must be positive");
+        }
+        int worstCaseRecord = worstCaseEncodedSize(stateSize);
+        if (capacityBytes < 2 * worstCaseRecord) {
+            throw new IllegalArgumentException("Rewind capacity must be at least " + 2 * worstCaseRecord
+                    + " bytes for " + stateSize + "-byte states, got " + capacityBytes);
+        }
+        this.stateSize = stateSize;
+        this.keyframeInterval = keyframeInterval;
+        this.ring = new byte[capacityBytes];
+        this.frameOffsets = new int[maxFrames];
+        this.frameLengths = new int[maxFrames];
+        this.frameIsKeyframe = new boolean[maxFrames];
+        this.keyframeState = new byte[stateSize];
+        this.currentState = new byte[stateSize];
+        this.encodeBuffer = new byte[worstCaseRecord];
+    }
+
+    /**
+     * Each token is a zero run and a literal run (two varints plus the literals). Every token but the
+     * first covers at least {@link #MIN_ZERO_RUN} zeros and one literal, which bounds the token count.
+     */
+    private static int worstCaseEncodedSize(int stateSize) {
+        int maxTokens = stateSize / (MIN_ZERO_RUN + 1) + 2;
+        return stateSize + maxTokens * 2 * MAX_VARINT_BYTES;
+    }
+
+    // --- Recording ---
+
+    /**
+     * Records a snapshot. Does not allocate.
+     *
+     * @param state Buffer holding exactly {@code stateSize} bytes between position and limit; it is consumed.
+     */
+    public void push(ByteBuffer state) {
+        if (state.remaining() != stateSize) {
+            throw new IllegalArgumentException("Expected a " + stateSize + "-byte state, got " + state.remaining());
+        }
+        state.get(currentState);
+
+        if (frameCount == frameOffsets.length) {
+            evictOldestGroup();
+        }
+
+        boolean keyframe = frameCount == 0 || framesSinceKeyframe + 1 >= keyframeInterval;
+        int length = encode(currentState, keyframe ? null : keyframeState, encodeBuffer);
+        if (!makeRoom(length) && !keyframe) {
+            // Everything, including the keyframe this delta refers to, had to go: start a new group
+            keyframe = true;
+            length = encode(currentState, null, encodeBuffer);
+            makeRoom(length);
+        }
+
+        int index = (frameHead + frameCount) % frameOffsets.length;
+        System.arraycopy(encodeBuffer, 0, ring, writePosition, length);
+        frameOffsets[index] = writePosition;
+        frameLengths[index] = length;
+        frameIsKeyframe[index] = keyframe;
+        frameCount++;
+        writePosition += length;
+
+        if (keyframe) {
+            System.arraycopy(currentState, 0, keyframeState, 0, stateSize);
+            framesSinceKeyframe = 0;
+        } else {
+            framesSinceKeyframe++;
+        }
+    }
+
+    /**
+     * Frees the ring bytes a record of {@code length} bytes will occupy at the write position,
+     * wrapping to the start of the ring when the tail is too short.
+     *
+     * @return false if the newest group had to be evicted as well (the buffer is now empty).
+     */
+    private boolean makeRoom(int length) {
+        boolean newestGroupKept = true;
+        if (writePosition + length > ring.length) {
+            // The records between the write position and the end of the ring are the oldest ones
+            while (frameCount > 0 && frameOffsets[frameHead] >= writePosition) {
+                newestGroupKept &= evictOldestGroup();
+            }
+            writePosition = 0;
+        }
+        while (frameCount > 0 && overlaps(frameHead, writePosition, length)) {
+            newestGroupKept &= evictOldestGroup();
+        }
+        if (frameCount == 0) {
+            writePosition = 0;
+        }
+        return newestGroupKept;
+    }
+
+    private boolean overlaps(int index, int start, int length) {
+        int offset = frameOffsets[index];
+        return offset < start + length && offset + frameLengths[index] > start;
+    }
+
+    /**
+     * Drops the oldest keyframe and every delta that depends on it.
+     *
+     * @return false if that group was the newest one.
+     */
+    private boolean evictOldestGroup() {
+        do {
+            frameHead = (frameHead + 1) % frameOffsets.length;
+            frameCount--;
+        } while (frameCount > 0 && !frameIsKeyframe[frameHead]);
+        return frameCount > 0;
+    }
+
+    // --- Rewinding ---
+
+    /**
+     * Removes the newest snapshot and writes it to {@code destination}.
+     *
+     * @param destination Buffer with at least {@code stateSize} bytes remaining.
+     * @return false if the buffer is empty (nothing is written).
+     */
+    public boolean pop(ByteBuffer destination) {
+        if (frameCount == 0) {
+            return false;
+        }
+        int newest = (frameHead + frameCount - 1) % frameOffsets.length;
+        if (frameIsKeyframe[newest]) {
+            decode(frameOffsets[newest], frameLengths[newest], null, currentState);
+        } else {
+            decode(frameOffsets[newest], frameLengths[newest], keyframeState, currentState);
+        }
+        destination.put(currentState);
+
+        frameCount--;
+        writePosition = frameOffsets[newest];
+        if (frameCount == 0) {
+            writePosition = 0;
+            framesSinceKeyframe = 0;
+        } else if (frameIsKeyframe[newest]) {
+            reloadNewestKeyframe();
+        } else {
+            framesSinceKeyframe--;
+        }
+        return true;
+    }
+
+    /**
+     * After popping a keyframe, makes the previous group current again.
+     */
+    private void reloadNewestKeyframe() {
+        int index = (frameHead + frameCount - 1) % frameOffsets.length;
+        int deltas = 0;
+        while (!frameIsKeyframe[index]) {
+            index = (index - 1 + frameOffsets.length) % frameOffsets.length;
+            deltas++;
+        }
+        decode(frameOffsets[index], frameLengths[index], null, keyframeState);
+        framesSinceKeyframe = deltas;
+    }
+
+    /**
+     * Discards all snapshots, e.g. after loading a save state or resetting.
+     */
+    public void clear() {
+        frameHead = 0;
+        frameCount = 0;
+        framesSinceKeyframe = 0;
+        writePosition = 0;
+    }
+
+    // --- Codec ---
+
+    /**
+     * Encodes {@code state XOR base} (or {@code state} if base is null) as tokens of
+     * {@code varint zeroRun, varint literalCount, literal bytes}.
+     *
+     * @return The encoded length.
+     */
+    private int encode(byte[] state, byte[] base, byte[] out) {
+        int length = state.length;
+        int outPosition = 0;
+        int i = 0;
+        while (i < length) {
+            int zeroStart = i;
+            while (i < length && diff(state, base, i) == 0) {
+                i++;
+            }
+            int zeroRun = i - zeroStart;
+
+            int literalStart = i;
+            int literalEnd = i;
+            while (i < length) {
+                if (diff(state, base, i) != 0) {
+                    i++;
+                    literalEnd = i;
+                    continue;
+                }
+                // Only a long enough zero run ends the literal
+                int runEnd = i;
+                while (runEnd < length && runEnd - i < MIN_ZERO_RUN && diff(state, base, runEnd) == 0) {
+                    runEnd++;
+                }
+                if (runEnd - i >= MIN_ZERO_RUN || runEnd == length) {
+                    break;
+                }
+                i = runEnd;
+            }
+
+            outPosition = writeVarint(out, outPosition, zeroRun);
+            outPosition = writeVarint(out, outPosition, literalEnd - literalStart);
+            for (int j = literalStart; j < literalEnd; j++) {
+                out[outPosition++] = diff(state, base, j);
+            }
+            i = literalEnd;
+            if (literalEnd == literalStart) {
+                break; // Only trailing zeros were left
+            }
+        }
+        return outPosition;
+    }
+
+    private static byte diff(byte[] state, byte[] base, int index) {
+        return base == null ? state[index] : (byte) (state[index] ^ base[index]);
+    }
+
+    /**
+     * Decodes a record from the ring into {@code out}, XORing literals onto {@code base} (zeros if null).
+     */
+    private void decode(int offset, int length, byte[] base, byte[] out) {
+        int position = offset;
+        int end = offset + length;
+        int i = 0;
+        while (position < end) {
+            int zeroRun = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = ring[position++];
+                zeroRun |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            int literals = 0;
+            shift = 0;
+            do {
+                b = ring[position++];
+                literals |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+
+            copyBase(base, out, i, zeroRun);
+            i += zeroRun;
+            for (int j = 0; j < literals; j++, i++) {
+                out[i] = base == null ? ring[position++] : (byte) (ring[position++] ^ base[i]);
+            }
+        }
+        copyBase(base, out, i, stateSize - i); // Trailing zeros
+    }
+
+    private static void copyBase(byte[] base, byte[] out, int from, int count) {
+        if (base == null) {
+            Arrays.fill(out, from, from + count, (byte) 0);
+        } else {
+            System.arraycopy(base, from, out, from, count);
+        }
+    }
+
+    private static int writeVarint(byte[] out, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    // --- Statistics ---
+
+    /** Number of snapshots currently available for rewinding. */
+    public int size() {
+        return frameCount;
+    }
+
+    public int getStateSize() {
+        return stateSize;
+    }
+
+    public int getCapacityBytes() {
+        return ring.length;
+    }
+
+    /**
+     * @return Compressed bytes held by the snapshots currently stored.
+     */
+    public long getStoredBytes() {
+        long total = 0;
+        for (int n = 0; n < frameCount; n++) {
+            total += frameLengths[(frameHead + n) % frameLengths.length];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,83 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.state;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.Cpu6502;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Versioned save-state container for a running machine.
+ * <p>
+ * Layout (buffer byte order): magic {@code "SNST"}, format version (u16), mapper number (u16),
+ * ROM hash ({@link RomHash#SIZE} bytes), then the CPU, Bus and Mapper sections in that order.
+ * The ROM itself is identified by its hash and never stored.
+ * <p>
+ * Saving and loading do not allocate, so a direct buffer sized with {@link #sizeOf} can be
+ * reused for a snapshot every frame.
+ */
+public final class SaveState {
+
+    /** "SNST" */
+    public static final int MAGIC = 0x534E5354;
+    /** Current format version; bump whenever any component's layout changes. */
+    public static final int FORMAT_VERSION = 6;
+    /** Size of the header preceding the component sections. */
+    public static final int HEADER_SIZE = Integer.BYTES + 2 * Short.BYTES + RomHash.SIZE;
+
+    private SaveState() {
+    }
+
+    /**
+     * @return The number of bytes {@link #save} writes for these components.
+     */
+    public static int sizeOf(Cpu6502 cpu, Bus bus, Mapper mapper) {
+        return HEADER_SIZE + cpu.getStateSize() + bus.getStateSize() + mapper.getStateSize();
+    }
+
+    /**
+     * Writes a complete save state at the buffer's position.
+     *
+     * @param buffer  Destination; must have at least {@link #sizeOf} bytes remaining.
+     * @param romHash Hash of the loaded ROM.
+     */
+    public static void save(ByteBuffer buffer, RomHash romHash, Cpu6502 cpu, Bus bus, Mapper mapper) {
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) FORMAT_VERSION);
+        buffer.putShort((short) mapper.getMapperNumber());
+        romHash.writeTo(buffer);
+        cpu.saveState(buffer);
+        bus.saveState(buffer);
+        mapper.saveState(buffer);
+    }
+
+    /**
+     * Restores a save state written by {@link #save}.
+     * The header is validated before any component is touched.
+     *
+     * @param buffer  Source buffer, positioned at the start of the state.
+     * @param romHash Hash of the currently loaded ROM; must match the one recorded in the state.
+     * @throws IllegalArgumentException If the state is not a save state, has another version,
+     *                                  or belongs to a different ROM or mapper.
+     */
+    public static void load(ByteBuffer buffer, RomHash romHash, Cpu6502 cpu, Bus bus, Mapper mapper) {
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a save state.");
+        }
+        int version = buffer.getShort() & 0xFFFF;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported save state version " + version + " (expected " + FORMAT_VERSION + ").");
+        }
+        int mapperNumber = buffer.getShort() & 0xFFFF;
+        if (mapperNumber != mapper.getMapperNumber()) {
+            throw new IllegalArgumentException("Save state is for mapper " + mapperNumber + ", not " + mapper.getMapperNumber() + ".");
+        }
+        if (!romHash.matches(buffer)) {
+            throw new IllegalArgumentException("Save state was taken with a different ROM.");
+        }
+        cpu.loadState(buffer);
+        bus.loadState(buffer);
+        mapper.loadState(buffer);
+    }
+}
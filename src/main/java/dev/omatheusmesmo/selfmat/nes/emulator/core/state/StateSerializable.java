@@ -0,0 +1,32 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.state;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A component whose mutable state can be written to and restored from a caller-supplied buffer.
+ * <p>
+ * Implementations write fixed-layout primitives and bulk-copy their arrays; they must not allocate,
+ * so a snapshot can be taken every frame into a reused buffer. ROM contents are never part of the state.
+ */
+public interface StateSerializable {
+
+    /**
+     * @return The exact number of bytes {@link #saveState(ByteBuffer)} writes.
+     */
+    int getStateSize();
+
+    /**
+     * Writes the component's state at the buffer's position, advancing it by {@link #getStateSize()}.
+     *
+     * @param buffer The destination buffer.
+     */
+    void saveState(ByteBuffer buffer);
+
+    /**
+     * Restores state previously written by {@link #saveState(ByteBuffer)}, advancing the buffer's position.
+     *
+     * @param buffer The source buffer.
+     * @throws IllegalArgumentException If the state doesn't fit this component (e.g. other PRG RAM size).
+     */
+    void loadState(ByteBuffer buffer);
+}
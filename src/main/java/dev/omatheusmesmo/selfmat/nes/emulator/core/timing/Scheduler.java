@@ -0,0 +1,257 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.timing;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Master-clock event scheduler.
+ * <p>
+ * Instead of ticking every component every cycle, components schedule the next moment they need
+ * attention (end of a scanline, vblank NMI, a mapper IRQ, the APU frame counter, a DMC fetch) and
+ * the CPU runs uninterrupted in bursts up to the earliest deadline.
+ * <p>
+ * Each event type has at most one pending occurrence. Pending events live in a binary min-heap of
+ * primitive arrays ordered by (time, type), with a per-type index so scheduling, rescheduling and
+ * cancelling are O(log n) and allocation-free.
+ * <p>
+ * Times are in NTSC master clock cycles (21.477 MHz): one CPU cycle is
+ * {@link #MASTER_CYCLES_PER_CPU_CYCLE} and one PPU dot is {@link #MASTER_CYCLES_PER_PPU_DOT}.
+ */
+public class Scheduler {
+
+    // --- Constants: Clock Ratios ---
+    /** Master clock cycles per CPU cycle (NTSC). */
+    public static final int MASTER_CYCLES_PER_CPU_CYCLE = 12;
+    /** Master clock cycles per PPU dot (NTSC). */
+    public static final int MASTER_CYCLES_PER_PPU_DOT = 4;
+
+    // --- Constants: Event Types ---
+    /** End of a PPU scanline (drives scanline-counting mappers such as MMC3). */
+    public static final int EVENT_SCANLINE_END = 0;
+    /** Start of vertical blank, where the PPU raises NMI if enabled. */
+    public static final int EVENT_VBLANK = 1;
+    /** A mapper-timed IRQ (cycle-counting mappers). */
+    public static final int EVENT_MAPPER_IRQ = 2;
+    /** APU frame counter step. */
+    public static final int EVENT_APU_FRAME = 3;
+    /** APU DMC sample fetch. */
+    public static final int EVENT_DMC_FETCH = 4;
+    /** End of the current video frame. */
+    public static final int EVENT_FRAME_END = 5;
+    /** Number of event types. */
+    public static final int EVENT_TYPE_COUNT = 6;
+
+    /** Time returned by {@link #nextEventTime()} when nothing is scheduled. */
+    public static final long NO_EVENT = Long.MAX_VALUE;
+
+    /**
+     * Callback run when an event becomes due.
+     */
+    @FunctionalInterface
+    public interface EventHandler {
+        /**
+         * @param type The event type.
+         * @param time The master clock time the event was scheduled for.
+         */
+        void onEvent(int type, long time);
+    }
+
+    // --- Heap (parallel primitive arrays) ---
+    private final long[] heapTimes = new long[EVENT_TYPE_COUNT];
+    private final int[] heapTypes = new int[EVENT_TYPE_COUNT];
+    /** Heap slot of each event type, or -1 when it is not scheduled. */
+    private final int[] heapIndex = new int[EVENT_TYPE_COUNT];
+    private int size;
+
+    private final EventHandler[] handlers = new EventHandler[EVENT_TYPE_COUNT];
+    private LongSupplier clock = () -> 0;
+    private LongConsumer deadlineListener;
+
+    public Scheduler() {
+        Arrays.fill(heapIndex, -1);
+    }
+
+    // --- Wiring ---
+
+    /**
+     * Sets the handler for an event type.
+     */
+    public void setHandler(int type, EventHandler handler) {
+        handlers[type] = handler;
+    }
+
+    /**
+     * Sets the source of the current master clock time, usually derived from the CPU cycle counter.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = Objects.requireNonNull(clock, "Clock cannot be null");
+    }
+
+    /**
+     * Sets a callback invoked when an event is scheduled earlier than the previous next deadline,
+     * so a running CPU burst can be cut short.
+     */
+    public void setDeadlineListener(LongConsumer deadlineListener) {
+        this.deadlineListener = deadlineListener;
+    }
+
+    /**
+     * @return The current master clock time.
+     */
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    // --- Scheduling ---
+
+    /**
+     * Schedules an event, replacing any pending occurrence of the same type.
+     *
+     * @param type One of the {@code EVENT_*} constants.
+     * @param time Absolute master clock time.
+     */
+    public void schedule(int type, long time) {
+        long previousDeadline = nextEventTime();
+        int index = heapIndex[type];
+        if (index < 0) {
+            index = size++;
+            heapTypes[index] = type;
+            heapIndex[type] = index;
+            heapTimes[index] = time;
+            siftUp(index);
+        } else {
+            long oldTime = heapTimes[index];
+            heapTimes[index] = time;
+            if (time < oldTime) {
+                siftUp(index);
+            } else {
+                siftDown(index);
+            }
+        }
+        if (time < previousDeadline && deadlineListener != null) {
+            deadlineListener.accept(time);
+        }
+    }
+
+    /**
+     * Schedules an event relative to {@link #now()}.
+     */
+    public void scheduleIn(int type, long delay) {
+        schedule(type, now() + delay);
+    }
+
+    /**
+     * Removes a pending event. Does nothing if it isn't scheduled.
+     */
+    public void cancel(int type) {
+        int index = heapIndex[type];
+        if (index < 0) {
+            return;
+        }
+        heapIndex[type] = -1;
+        size--;
+        if (index != size) {
+            move(size, index);
+            siftDown(index);
+            siftUp(index);
+        }
+    }
+
+    public boolean isScheduled(int type) {
+        return heapIndex[type] >= 0;
+    }
+
+    /**
+     * @return The time a pending event is scheduled for, or {@link #NO_EVENT}.
+     */
+    public long getEventTime(int type) {
+        int index = heapIndex[type];
+        return index < 0 ? NO_EVENT : heapTimes[index];
+    }
+
+    /**
+     * @return The time of the earliest pending event, or {@link #NO_EVENT}.
+     */
+    public long nextEventTime() {
+        return size == 0 ? NO_EVENT : heapTimes[0];
+    }
+
+    /**
+     * Runs the handlers of all events due at or before {@code time}, in time order.
+     * Handlers may schedule further events; those are run too if they are already due.
+     *
+     * @param time Current master clock time.
+     */
+    public void runDueEvents(long time) {
+        while (size > 0 && heapTimes[0] <= time) {
+            int type = heapTypes[0];
+            long eventTime = heapTimes[0];
+            cancel(type);
+            EventHandler handler = handlers[type];
+            if (handler != null) {
+                handler.onEvent(type, eventTime);
+            }
+        }
+    }
+
+    /**
+     * Drops all pending events.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heapIndex[heapTypes[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // --- Heap Maintenance ---
+
+    private boolean before(int a, int b) {
+        return heapTimes[a] < heapTimes[b] || (heapTimes[a] == heapTimes[b] && heapTypes[a] < heapTypes[b]);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >> 1;
+            if (!before(index, parent)) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                break;
+            }
+            int smallest = left + 1 < size && before(left + 1, left) ? left + 1 : left;
+            if (!before(smallest, index)) {
+                break;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long time = heapTimes[a];
+        int type = heapTypes[a];
+        heapTimes[a] = heapTimes[b];
+        heapTypes[a] = heapTypes[b];
+        heapTimes[b] = time;
+        heapTypes[b] = type;
+        heapIndex[heapTypes[a]] = a;
+        heapIndex[heapTypes[b]] = b;
+    }
+
+    private void move(int from, int to) {
+        heapTimes[to] = heapTimes[from];
+        heapTypes[to] = heapTypes[from];
+        heapIndex[heapTypes[to]] = to;
+    }
+}
@@ -0,0 +1,179 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.video;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completed video frames in off-heap memory, handed from the emulation thread to one consumer
+ * (encoder, network streamer, UI) without copying or locking.
+ * <p>
+ * Every {@link Frame} holds the picture twice, in direct buffers: the PPU's 6-bit colour indices
+ * (one byte per pixel) and the same pixels converted to ARGB (one native-order int per pixel) by a
+ * {@link PaletteConverter}, optionally scaled up.
+ * Consumers hand those buffers straight to native code, a socket channel or an image without copying.
+ * <p>
+ * The emulation thread fills the back frame and {@link #publish publishes} it at vblank by atomically
+ * swapping it with the ready frame; the consumer {@link #acquire acquires} the ready frame with a second
+ * swap. A third frame is what makes this lock-free: the consumer keeps reading its frame while the
+ * emulator already draws into another one, so neither side ever waits for or overwrites the other.
+ * If the consumer is slower than 60 fps it skips frames; it never sees a half-drawn one.
+ */
+public class FrameBuffer {
+
+    // --- Constants: Geometry ---
+    public static final int WIDTH = 256;
+    public static final int HEIGHT = 240;
+    public static final int PIXELS = WIDTH * HEIGHT;
+
+    private static final int FRAME_COUNT = 3;
+    private static final int INDEX_MASK = 0x03;
+    /** Set in {@link #ready} when the ready frame has not been acquired yet. */
+    private static final int FRESH = 0x04;
+
+    /**
+     * One video frame. Its buffers are allocated once and reused; a consumer may read them until its
+     * next {@link #acquire()}.
+     */
+    public static final class Frame {
+
+        private final ByteBuffer indices = ByteBuffer.allocateDirect(PIXELS);
+        private final IntBuffer argb;
+        private final ByteBuffer indicesView = indices.asReadOnlyBuffer();
+        private final IntBuffer argbView;
+        private final int argbWidth;
+        private final int argbHeight;
+        /** PPUMASK colour emphasis bits (5-7, shifted down to 0-2) of every scanline. */
+        private final byte[] emphasis = new byte[HEIGHT];
+        private long frameNumber = -1;
+
+        private Frame(int argbWidth, int argbHeight) {
+            this.argbWidth = argbWidth;
+            this.argbHeight = argbHeight;
+            this.argb = ByteBuffer.allocateDirect(argbWidth * argbHeight * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+            this.argbView = argb.asReadOnlyBuffer();
+        }
+
+        /**
+         * @return Read-only direct view of the 256x240 colour indices (0-63), row-major.
+         */
+        public ByteBuffer getIndices() {
+            return indicesView.duplicate();
+        }
+
+        /**
+         * @return Read-only direct view of the ARGB pixels ({@link #getArgbWidth()} x
+         * {@link #getArgbHeight()}), row-major, in native byte order.
+         */
+        public IntBuffer getArgb() {
+            return argbView.duplicate();
+        }
+
+        public int getArgbWidth() {
+            return argbWidth;
+        }
+
+        public int getArgbHeight() {
+            return argbHeight;
+        }
+
+        /**
+         * @param scanline Visible scanline 0-239.
+         * @return The red/green/blue emphasis bits (0-7) PPUMASK had when the line was drawn.
+         */
+        public int getEmphasis(int scanline) {
+            return emphasis[scanline];
+        }
+
+        /**
+         * @return Number of the PPU frame this picture came from, or -1 for a blank frame.
+         */
+        public long getFrameNumber() {
+            return frameNumber;
+        }
+    }
+
+    private final Frame[] frames = new Frame[FRAME_COUNT];
+    private final PaletteConverter converter;
+
+    /** Owned by the emulation thread. */
+    private int backIndex = 0;
+    /** Owned by the consumer thread. */
+    private int frontIndex = 1;
+    /** Index of the most recently published frame, plus {@link #FRESH}. */
+    private final AtomicInteger ready = new AtomicInteger(2);
+
+    /**
+     * Creates a frame buffer with unscaled ARGB output, converted by the fastest available converter.
+     */
+    public FrameBuffer() {
+        this(PaletteConverter.create(1));
+    }
+
+    /**
+     * @param converter Produces the ARGB form of each frame; it is only used on the emulation thread.
+     */
+    public FrameBuffer(PaletteConverter converter) {
+        this.converter = Objects.requireNonNull(converter, "Converter cannot be null");
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            frames[i] = new Frame(converter.getOutputWidth(), converter.getOutputHeight());
+        }
+    }
+
+    // --- Emulation Thread ---
+
+    /**
+     * Publishes a completed picture. The indices are copied into the back frame and converted to
+     * ARGB there, then the back frame becomes the ready one.
+     *
+     * @param indices     256x240 colour indices, row-major.
+     * @param emphasis    PPUMASK emphasis bits (0-7) of each of the 240 scanlines.
+     * @param frameNumber The PPU frame number.
+     */
+    public void publish(byte[] indices, byte[] emphasis, long frameNumber) {
+        if (indices.length != PIXELS || emphasis.length != HEIGHT) {
+            throw new IllegalArgumentException("Expected " + PIXELS + " pixels and " + HEIGHT + " scanlines");
+        }
+        Frame back = frames[backIndex];
+        back.indices.put(0, indices);
+        System.arraycopy(emphasis, 0, back.emphasis, 0, HEIGHT);
+        back.frameNumber = frameNumber;
+        converter.convertFrame(indices, emphasis, back.argb);
+        backIndex = ready.getAndSet(backIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Replaces the colour palette used for ARGB conversion from the next published frame on.
+     * Call from the emulation thread.
+     *
+     * @param argb {@link NesPalette#SIZE} ARGB colours.
+     */
+    public void setPalette(int[] argb) {
+        converter.setPalette(argb);
+    }
+
+    // --- Consumer Thread ---
+
+    /**
+     * Returns the most recently published frame. The previously acquired frame is given back to the
+     * emulator and must not be read any more. Call from a single consumer thread.
+     *
+     * @return The newest complete frame (the same one again if nothing new was published).
+     */
+    public Frame acquire() {
+        if ((ready.get() & FRESH) != 0) {
+            frontIndex = ready.getAndSet(frontIndex) & INDEX_MASK;
+        }
+        return frames[frontIndex];
+    }
+
+    /**
+     * @return true if a frame was published since the last {@link #acquire()}.
+     */
+    public boolean hasNewFrame() {
+        return (ready.get() & FRESH) != 0;
+    }
+}
@@ -0,0 +1,166 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.video;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+/**
+ * Output stage turning the PPU's 6-bit colour indices into ARGB pixels, optionally scaled up 2x or 3x
+ * (nearest neighbour).
+ * <p>
+ * Colour emphasis (PPUMASK bits 5-7) is applied per scanline: on NTSC each set bit keeps its channel
+ * while the other channels are attenuated. Rather than computing that per pixel, the palette is
+ * expanded once into eight 64-colour tables, one per emphasis combination, and each line simply looks
+ * up colours in its table.
+ * <p>
+ * {@link #create(int)} returns a SIMD implementation built on {@code jdk.incubator.vector} when it
+ * was compiled in (Maven profile {@code vector}) and the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise it falls back to the scalar loop.
+ */
+public abstract class PaletteConverter {
+
+    /** Number of emphasis combinations (three bits). */
+    public static final int EMPHASIS_LEVELS = 8;
+    /** Supported scale factors are 1 to this. */
+    public static final int MAX_SCALE = 3;
+
+    // --- Constants: NTSC Emphasis ---
+    private static final int EMPHASIS_RED = 0x01;
+    private static final int EMPHASIS_GREEN = 0x02;
+    private static final int EMPHASIS_BLUE = 0x04;
+    /** Level of a channel that another channel's emphasis darkens. */
+    private static final double ATTENUATION = 0.816;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_IMPLEMENTATION =
+            "dev.omatheusmesmo.selfmat.nes.emulator.core.video.VectorPaletteConverter";
+
+    /** {@link #EMPHASIS_LEVELS} palettes of 64 ARGB colours, indexed by (emphasis << 6) | colour. */
+    protected final int[] table = new int[EMPHASIS_LEVELS * NesPalette.SIZE];
+    protected final int scale;
+    private final int[] line;
+
+    /**
+     * @param scale Output pixels per NES pixel in each direction, 1 to {@link #MAX_SCALE}.
+     */
+    protected PaletteConverter(int scale) {
+        if (scale < 1 || scale > MAX_SCALE) {
+            throw new IllegalArgumentException("Scale must be between 1 and " + MAX_SCALE + ", got " + scale);
+        }
+        this.scale = scale;
+        this.line = new int[FrameBuffer.WIDTH * scale];
+        setPalette(NesPalette.defaultArgb());
+    }
+
+    // --- Factories ---
+
+    /**
+     * Creates the fastest converter available in this JVM.
+     *
+     * @param scale Output pixels per NES pixel in each direction, 1 to {@link #MAX_SCALE}.
+     */
+    public static PaletteConverter create(int scale) {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                Class<?> type = Class.forName(VECTOR_IMPLEMENTATION);
+                if (Boolean.TRUE.equals(type.getDeclaredMethod("isSupported").invoke(null))) {
+                    return (PaletteConverter) type.getDeclaredConstructor(int.class).newInstance(scale);
+                }
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    throw (IllegalArgumentException) e.getCause();
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Not compiled in: use the scalar loop
+            }
+        }
+        return scalar(scale);
+    }
+
+    /**
+     * Creates the portable scalar converter.
+     *
+     * @param scale Output pixels per NES pixel in each direction, 1 to {@link #MAX_SCALE}.
+     */
+    public static PaletteConverter scalar(int scale) {
+        return new ScalarPaletteConverter(scale);
+    }
+
+    // --- Palette ---
+
+    /**
+     * Replaces the base palette and rebuilds the emphasis tables.
+     *
+     * @param argb {@link NesPalette#SIZE} ARGB colours.
+     */
+    public final void setPalette(int[] argb) {
+        Objects.requireNonNull(argb, "Palette cannot be null");
+        if (argb.length != NesPalette.SIZE) {
+            throw new IllegalArgumentException("Palette must have " + NesPalette.SIZE + " colours, got " + argb.length);
+        }
+        for (int emphasis = 0; emphasis < EMPHASIS_LEVELS; emphasis++) {
+            for (int colour = 0; colour < NesPalette.SIZE; colour++) {
+                table[emphasis * NesPalette.SIZE + colour] = emphasize(argb[colour], emphasis);
+            }
+        }
+    }
+
+    private static int emphasize(int argb, int emphasis) {
+        if (emphasis == 0) {
+            return argb;
+        }
+        int red = attenuate((argb >> 16) & 0xFF, emphasis, EMPHASIS_RED);
+        int green = attenuate((argb >> 8) & 0xFF, emphasis, EMPHASIS_GREEN);
+        int blue = attenuate(argb & 0xFF, emphasis, EMPHASIS_BLUE);
+        return (argb & 0xFF000000) | (red << 16) | (green << 8) | blue;
+    }
+
+    private static int attenuate(int channel, int emphasis, int channelBit) {
+        return (emphasis & channelBit) != 0 ? channel : (int) Math.round(channel * ATTENUATION);
+    }
+
+    // --- Conversion ---
+
+    /**
+     * Converts one scanline into one output row of {@code 256 * scale} pixels.
+     *
+     * @param indices  Colour indices; only the low six bits of each are used.
+     * @param offset   Index of the line's first pixel in {@code indices}.
+     * @param emphasis The line's emphasis bits (0-7).
+     * @param out      Destination row.
+     */
+    public abstract void convertLine(byte[] indices, int offset, int emphasis, int[] out);
+
+    /**
+     * Converts a whole frame into {@code out}, writing every output row {@code scale} times.
+     *
+     * @param indices  256x240 colour indices, row-major.
+     * @param emphasis Emphasis bits of each of the 240 scanlines.
+     * @param out      Destination of at least {@link #getOutputWidth()} x {@link #getOutputHeight()} pixels.
+     */
+    public void convertFrame(byte[] indices, byte[] emphasis, IntBuffer out) {
+        int width = getOutputWidth();
+        int position = 0;
+        for (int y = 0; y < FrameBuffer.HEIGHT; y++) {
+            convertLine(indices, y * FrameBuffer.WIDTH, emphasis[y] & (EMPHASIS_LEVELS - 1), line);
+            for (int copy = 0; copy < scale; copy++) {
+                out.put(position, line);
+                position += width;
+            }
+        }
+    }
+
+    // --- Getters ---
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int getOutputWidth() {
+        return FrameBuffer.WIDTH * scale;
+    }
+
+    public int getOutputHeight() {
+        return FrameBuffer.HEIGHT * scale;
+    }
+}
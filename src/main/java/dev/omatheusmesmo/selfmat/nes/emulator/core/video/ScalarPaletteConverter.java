@@ -0,0 +1,23 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.video;
+
+/**
+ * Portable table-lookup {@link PaletteConverter}.
+ */
+final class ScalarPaletteConverter extends PaletteConverter {
+
+    ScalarPaletteConverter(int scale) {
+        super(scale);
+    }
+
+    @Override
+    public void convertLine(byte[] indices, int offset, int emphasis, int[] out) {
+        int base = emphasis * NesPalette.SIZE;
+        int position = 0;
+        for (int x = 0; x < FrameBuffer.WIDTH; x++) {
+            int argb = table[base + (indices[offset + x] & (NesPalette.SIZE - 1))];
+            for (int copy = 0; copy < scale; copy++) {
+                out[position++] = argb;
+            }
+        }
+    }
+}
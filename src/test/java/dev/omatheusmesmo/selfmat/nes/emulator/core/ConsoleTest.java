@@ -0,0 +1,106 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC3Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.video.FrameBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsoleTest {
+
+    /** PRG is 32KB; the last two 8KB banks are fixed at $C000-$FFFF, so the code lives there. */
+    private static final int CODE_START = 0xE000;
+    private static final int NMI_HANDLER = 0xE100;
+    private static final int IRQ_HANDLER = 0xE200;
+
+    private byte[] prgRom;
+
+    @BeforeEach
+    void setUp() {
+        prgRom = new byte[32 * 1024];
+        setVector(0xFFFA, NMI_HANDLER);
+        setVector(0xFFFC, CODE_START);
+        setVector(0xFFFE, IRQ_HANDLER);
+        // NMI: INC $10 ; RTI
+        put(NMI_HANDLER, 0xE6, 0x10, 0x40);
+        // IRQ: INC $11 ; STA $E000 (acknowledge) ; STA $E001 (re-enable) ; RTI
+        put(IRQ_HANDLER, 0xE6, 0x11, 0x8D, 0x00, 0xE0, 0x8D, 0x01, 0xE0, 0x40);
+    }
+
+    private void setVector(int vector, int target) {
+        put(vector, target & 0xFF, target >> 8);
+    }
+
+    private void put(int address, int... bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            prgRom[address - 0x8000 + i] = (byte) bytes[i];
+        }
+    }
+
+    private Console start() {
+        MMC3Mapper mapper = new MMC3Mapper(4, prgRom.length, 8 * 1024, false);
+        mapper.loadRomData(prgRom, new byte[8 * 1024]);
+        Console console = new Console(new Cartridge(null, prgRom, null, null, mapper));
+        console.reset();
+        return console;
+    }
+
+    @Test
+    @DisplayName("Should raise one vblank NMI per frame when enabled")
+    void shouldRaiseNmiEveryFrame() {
+        put(CODE_START,
+                0xA9, 0x80,       // LDA #$80
+                0x8D, 0x00, 0x20, // STA $2000 (NMI on vblank)
+                0x4C, 0x05, 0xE0); // JMP * (spin)
+        Console console = start();
+
+        for (int frame = 0; frame < 3; frame++) {
+            console.runFrame();
+        }
+
+        assertEquals(3, console.getFrameCount());
+        assertEquals(3, console.getBus().read(0x0010));
+        long expectedCycles = 3 * Console.MASTER_CYCLES_PER_FRAME / Scheduler.MASTER_CYCLES_PER_CPU_CYCLE;
+        assertTrue(Math.abs(console.getCpu().getCycles() - expectedCycles) < 20);
+    }
+
+    @Test
+    @DisplayName("Should deliver MMC3 scanline IRQs through the scheduler")
+    void shouldDeliverMmc3Irqs() {
+        put(CODE_START,
+                0xA9, 0x18,       // LDA #$18
+                0x8D, 0x01, 0x20, // STA $2001 (rendering on, so the scanline counter is clocked)
+                0xA9, 0x0A,       // LDA #10
+                0x8D, 0x00, 0xC0, // STA $C000 (latch)
+                0x8D, 0x01, 0xC0, // STA $C001 (reload)
+                0x8D, 0x01, 0xE0, // STA $E001 (enable)
+                0x58,             // CLI
+                0x4C, 0x11, 0xE0); // JMP * (spin)
+        Console console = start();
+
+        console.runFrame();
+
+        // 241 clocked scanlines per frame; the counter fires every 11th (reload to 10, then 10 decrements)
+        assertEquals(21, console.getBus().read(0x0011));
+    }
+
+    @Test
+    @DisplayName("Should stay headless until an output is connected")
+    void shouldPublishFramesOnlyWhenConnected() {
+        put(CODE_START, 0x4C, 0x00, 0xE0); // JMP * (spin)
+        Console console = start();
+        console.runFrame();
+        assertNull(console.getFrameBuffer());
+
+        FrameBuffer output = console.connectOutput();
+        console.runFrame();
+
+        assertSame(output, console.getFrameBuffer());
+        assertTrue(output.hasNewFrame());
+        assertEquals(1, output.acquire().getFrameNumber());
+    }
+}
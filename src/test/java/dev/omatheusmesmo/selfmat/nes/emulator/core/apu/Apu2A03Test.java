@@ -0,0 +1,91 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.apu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.audio.AudioRing;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Apu2A03Test {
+
+    private static final long MASTER_CYCLES_PER_FRAME = 357_366;
+
+    private Apu2A03 apu;
+    private Scheduler scheduler;
+    private long time;
+    private boolean frameIrq;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new Scheduler();
+        scheduler.setClock(() -> time);
+        apu = new Apu2A03(new AudioRing(16384), Apu2A03.DEFAULT_SAMPLE_RATE);
+        apu.setClock(() -> time);
+        apu.attachScheduler(scheduler);
+        apu.connectIrqLines(asserted -> frameIrq = asserted, asserted -> { });
+        scheduler.setHandler(Scheduler.EVENT_APU_FRAME, (type, eventTime) -> apu.onFrameCounterEvent(eventTime));
+        apu.reset(0);
+    }
+
+    private void runUntil(long target) {
+        scheduler.runDueEvents(target);
+        time = target;
+    }
+
+    @Test
+    @DisplayName("Should report loaded length counters through $4015 and count them down")
+    void shouldTrackLengthCounters() {
+        apu.writeRegister(0x4015, (byte) 0x01);
+        apu.writeRegister(0x4000, (byte) 0x00);
+        apu.writeRegister(0x4003, (byte) 0x18); // Length index 3: 2 half frames
+        apu.writeRegister(0x4007, (byte) 0x18); // Pulse 2 is disabled, so this is ignored
+        assertEquals(0x01, apu.readStatus() & 0x0F);
+
+        runUntil(20_000L * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE); // First half frame
+        assertEquals(0x01, apu.readStatus() & 0x0F);
+        runUntil(30_000L * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE);
+        assertEquals(0x00, apu.readStatus() & 0x0F);
+    }
+
+    @Test
+    @DisplayName("Should raise the frame IRQ in four-step mode and clear it on a $4015 read")
+    void shouldRaiseFrameIrq() {
+        runUntil(30_000L * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE);
+        assertTrue(frameIrq);
+        assertEquals(0x40, apu.readStatus() & 0x40);
+        assertFalse(frameIrq);
+
+        apu.writeRegister(0x4017, (byte) 0x40);
+        runUntil(time + 30_000L * Scheduler.MASTER_CYCLES_PER_CPU_CYCLE);
+        assertFalse(frameIrq, "The IRQ is inhibited");
+    }
+
+    @Test
+    @DisplayName("Should synthesize about one frame of samples for a square wave")
+    void shouldSynthesizeSquareWave() {
+        apu.writeRegister(0x4017, (byte) 0x40);
+        apu.writeRegister(0x4015, (byte) 0x01);
+        apu.writeRegister(0x4000, (byte) 0xBF); // 50% duty, halted, constant volume 15
+        apu.writeRegister(0x4002, (byte) 0xFD); // 440 Hz
+        apu.writeRegister(0x4003, (byte) 0x00);
+
+        runUntil(MASTER_CYCLES_PER_FRAME);
+        apu.endFrame(time);
+
+        AudioRing ring = apu.getOutput();
+        int available = ring.available();
+        assertTrue(Math.abs(available - 735) <= 2, "Samples per frame: " + available);
+        short[] samples = new short[available];
+        ring.read(samples, 0, available);
+        int min = Short.MAX_VALUE;
+        int max = Short.MIN_VALUE;
+        for (int i = 100; i < available; i++) {
+            min = Math.min(min, samples[i]);
+            max = Math.max(max, samples[i]);
+        }
+        assertTrue(max - min > 2000, "Amplitude: " + (max - min));
+        assertEquals(0, apu.getDroppedSamples());
+    }
+}
@@ -0,0 +1,47 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.audio;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioRingTest {
+
+    private static short[] sequence(int start, int length) {
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (short) (start + i);
+        }
+        return values;
+    }
+
+    @Test
+    @DisplayName("Should keep sample order across the wrap-around")
+    void shouldWrapAround() {
+        AudioRing ring = new AudioRing(8);
+        short[] out = new short[8];
+        assertEquals(6, ring.write(sequence(0, 6), 0, 6));
+        assertEquals(6, ring.read(out, 0, 8));
+
+        assertEquals(7, ring.write(sequence(100, 7), 0, 7));
+        assertEquals(7, ring.available());
+        assertEquals(7, ring.read(out, 0, 8));
+        assertArrayEquals(sequence(100, 7), Arrays.copyOf(out, 7));
+        assertEquals(0, ring.read(out, 0, 8));
+    }
+
+    @Test
+    @DisplayName("Should drop the samples that do not fit instead of blocking")
+    void shouldDropWhenFull() {
+        AudioRing ring = new AudioRing(4);
+        assertEquals(4, ring.write(sequence(0, 6), 0, 6));
+        assertEquals(0, ring.write(sequence(10, 1), 0, 1));
+
+        short[] out = new short[4];
+        assertEquals(4, ring.read(out, 0, 4));
+        assertArrayEquals(sequence(0, 4), out);
+        assertThrows(IllegalArgumentException.class, () -> new AudioRing(6));
+    }
+}
@@ -0,0 +1,62 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.audio;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResamplerTest {
+
+    private static short[] sine(int sampleRate, double frequency, int length) {
+        short[] samples = new short[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (short) Math.round(10_000 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return samples;
+    }
+
+    @Test
+    @DisplayName("Should convert 44.1 kHz to 48 kHz keeping the signal's level")
+    void shouldConvertRate() {
+        Resampler resampler = new Resampler(44_100, 48_000, null);
+        AudioRing ring = new AudioRing(65536);
+        short[] input = sine(44_100, 1000, 44_100);
+        for (int offset = 0; offset < input.length; offset += 735) {
+            assertEquals(0, resampler.process(input, offset, Math.min(735, input.length - offset), ring));
+        }
+
+        int produced = ring.available();
+        assertTrue(Math.abs(produced - 48_000) <= Resampler.TAPS, "Produced " + produced);
+        short[] output = new short[produced];
+        ring.read(output, 0, produced);
+        int peak = 0;
+        for (int i = 1000; i < produced - 1000; i++) {
+            peak = Math.max(peak, Math.abs(output[i]));
+        }
+        assertTrue(Math.abs(peak - 10_000) < 200, "Peak " + peak);
+    }
+
+    @Test
+    @DisplayName("Should make up to 0.5% less audio when the ring is full and more when it is empty")
+    void shouldAdjustRateToFillLevel() {
+        short[] input = new short[735];
+        short[] sink = new short[1024];
+
+        Resampler draining = new Resampler(44_100, 48_000, new RateController());
+        AudioRing empty = new AudioRing(8192);
+        for (int i = 0; i < 100; i++) {
+            draining.process(input, 0, input.length, empty);
+            empty.read(sink, 0, sink.length);
+        }
+        assertTrue(draining.getRatio() > 48_000.0 / 44_100 * 1.004, "Ratio " + draining.getRatio());
+
+        Resampler filling = new Resampler(44_100, 48_000, new RateController());
+        AudioRing full = new AudioRing(1024);
+        for (int i = 0; i < 100; i++) {
+            filling.process(input, 0, input.length, full);
+        }
+        double ratio = filling.getRatio();
+        assertTrue(ratio < 48_000.0 / 44_100 * 0.996, "Ratio " + ratio);
+        assertTrue(ratio >= 48_000.0 / 44_100 * (1 - RateController.MAX_ADJUSTMENT) - 1e-6, "Ratio " + ratio);
+    }
+}
@@ -0,0 +1,153 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.cpu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.NRomMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Cpu6502Test {
+
+    private static final int PROGRAM_START = 0x8000;
+    private static final int IRQ_HANDLER = 0x9000;
+    private static final int NMI_HANDLER = 0x9100;
+
+    private byte[] prgRom;
+    private Bus bus;
+    private Cpu6502 cpu;
+
+    @BeforeEach
+    void setUp() {
+        prgRom = new byte[32 * 1024];
+        setVector(0xFFFC, PROGRAM_START);
+        setVector(0xFFFE, IRQ_HANDLER);
+        setVector(0xFFFA, NMI_HANDLER);
+    }
+
+    /** Writes the program at $8000, builds the Bus/CPU and runs the reset sequence. */
+    private void load(int... program) {
+        for (int i = 0; i < program.length; i++) {
+            prgRom[i] = (byte) program[i];
+        }
+        NRomMapper mapper = new NRomMapper(0, prgRom.length, 8 * 1024, false);
+        mapper.loadRomData(prgRom, new byte[8 * 1024]);
+        bus = new Bus(new Cartridge(null, prgRom, null, null, mapper));
+        cpu = new Cpu6502(bus);
+        cpu.reset();
+    }
+
+    private void setVector(int vectorAddress, int target) {
+        prgRom[vectorAddress - PROGRAM_START] = (byte) target;
+        prgRom[vectorAddress - PROGRAM_START + 1] = (byte) (target >> 8);
+    }
+
+    @Test
+    @DisplayName("Should load PC from the reset vector and take 7 cycles")
+    void shouldResetFromVector() {
+        load(0xEA);
+
+        assertEquals(PROGRAM_START, cpu.getPc());
+        assertEquals(7, cpu.getCycles());
+        assertEquals(0xFA, cpu.getSp());
+        assertTrue((cpu.getStatus() & Cpu6502.FLAG_INTERRUPT_DISABLE) != 0);
+    }
+
+    @Test
+    @DisplayName("Should set carry and overflow flags on ADC")
+    void shouldSetFlagsOnAdc() {
+        load(0xA9, 0x50, // LDA #$50
+             0x69, 0x50, // ADC #$50 -> $A0, signed overflow
+             0x69, 0x70); // ADC #$70 -> $110, carry out
+
+        cpu.step();
+        cpu.step();
+        assertEquals(0xA0, cpu.getA());
+        assertTrue((cpu.getStatus() & Cpu6502.FLAG_OVERFLOW) != 0);
+        assertTrue((cpu.getStatus() & Cpu6502.FLAG_NEGATIVE) != 0);
+        assertFalse((cpu.getStatus() & Cpu6502.FLAG_CARRY) != 0);
+
+        cpu.step();
+        assertEquals(0x10, cpu.getA());
+        assertTrue((cpu.getStatus() & Cpu6502.FLAG_CARRY) != 0);
+    }
+
+    @Test
+    @DisplayName("Should add a cycle when an indexed read crosses a page")
+    void shouldAddPageCrossPenaltyOnIndexedRead() {
+        load(0xA2, 0x01,       // LDX #$01
+             0xBD, 0x00, 0x02, // LDA $0200,X (same page)
+             0xBD, 0xFF, 0x02, // LDA $02FF,X (crosses into $0300)
+             0x9D, 0xFF, 0x02); // STA $02FF,X (stores never pay the penalty)
+
+        cpu.step();
+        assertEquals(4, cpu.step());
+        assertEquals(5, cpu.step());
+        assertEquals(5, cpu.step());
+    }
+
+    @Test
+    @DisplayName("Should count branch cycles for not taken, taken and page-crossing branches")
+    void shouldCountBranchCycles() {
+        load(0xA9, 0x00,  // LDA #$00 (Z set)
+             0xD0, 0x10,  // BNE (not taken)
+             0xF0, 0xF7); // BEQ -9: $8006 - 9 = $7FFD, on the previous page
+
+        cpu.step();
+        assertEquals(2, cpu.step()); // Not taken
+        assertEquals(4, cpu.step()); // Taken across a page ($8006 -> $7FFD)
+        assertEquals(0x7FFD, cpu.getPc());
+    }
+
+    @Test
+    @DisplayName("Should push and pull the return address on JSR/RTS")
+    void shouldCallAndReturnFromSubroutine() {
+        prgRom[0x0100] = (byte) 0xA9; // $8100: LDA #$42
+        prgRom[0x0101] = (byte) 0x42;
+        prgRom[0x0102] = (byte) 0x60; // RTS
+        load(0x20, 0x00, 0x81, // JSR $8100
+             0xAA);            // TAX
+
+        assertEquals(6, cpu.step());
+        assertEquals(0x8100, cpu.getPc());
+        cpu.step();
+        assertEquals(6, cpu.step());
+        assertEquals(0x8003, cpu.getPc());
+        cpu.step();
+        assertEquals(0x42, cpu.getX());
+        assertEquals(0xFA, cpu.getSp());
+    }
+
+    @Test
+    @DisplayName("Should service NMI before IRQ and IRQ only when interrupts are enabled")
+    void shouldServiceInterrupts() {
+        load(0x58,  // CLI
+             0xEA); // NOP
+
+        cpu.setIrq(Cpu6502.IRQ_SOURCE_MAPPER, true);
+        cpu.triggerNmi();
+        assertEquals(7, cpu.step()); // NMI wins even though I is set
+        assertEquals(NMI_HANDLER, cpu.getPc());
+
+        cpu.setPc(PROGRAM_START);
+        cpu.step(); // CLI
+        assertEquals(7, cpu.step());
+        assertEquals(IRQ_HANDLER, cpu.getPc());
+        assertTrue((cpu.getStatus() & Cpu6502.FLAG_INTERRUPT_DISABLE) != 0);
+        // Pushed status must have B clear
+        assertEquals(0, bus.read(0x0100 | (cpu.getSp() + 1)) & Cpu6502.FLAG_BREAK);
+    }
+
+    @Test
+    @DisplayName("Should run at least the requested number of cycles")
+    void shouldRunRequestedCycles() {
+        load(0x4C, 0x00, 0x80); // JMP $8000 (3 cycles)
+
+        long consumed = cpu.runCycles(30_000);
+
+        assertTrue(consumed >= 30_000 && consumed < 30_003);
+        assertEquals(7 + consumed, cpu.getCycles());
+    }
+}
@@ -0,0 +1,89 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.BusRegion;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.InstrumentedBus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC1Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC3Mapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BusMonitorTest {
+
+    @Test
+    @DisplayName("Should report per-frame region accesses, bank switches and mapper IRQs")
+    void shouldReportPerFrameCounters() {
+        MMC3Mapper mapper = new MMC3Mapper(4, 64 * 1024, 8 * 1024, false);
+        mapper.loadRomData(new byte[64 * 1024], new byte[8 * 1024]);
+        InstrumentedBus bus = new InstrumentedBus(new Cartridge(null, null, null, null, mapper));
+        BusMonitor monitor = new BusMonitor(bus, mapper);
+
+        bus.read(0x0000);
+        bus.read(0x1800); // RAM mirror
+        bus.write(0x2000, (byte) 0);
+        bus.read(0x4015);
+        bus.write(0x6000, (byte) 1);
+        bus.read(0x8000);
+        bus.write(0x8000, (byte) 6); // Bank select: not a switch by itself
+        bus.write(0x8001, (byte) 3); // Bank data: switch
+        bus.write(0xC000, (byte) 0); // IRQ latch 0
+        bus.write(0xC001, (byte) 0); // Reload
+        bus.write(0xE001, (byte) 0); // Enable
+        mapper.onScanline();
+
+        FrameStatistics first = monitor.endFrame();
+        assertEquals(0, first.frame());
+        assertEquals(2, first.getReads(BusRegion.RAM));
+        assertEquals(1, first.getWrites(BusRegion.PPU_REGISTERS));
+        assertEquals(1, first.getReads(BusRegion.APU_IO));
+        assertEquals(1, first.getWrites(BusRegion.PRG_RAM));
+        assertEquals(1, first.getReads(BusRegion.PRG_ROM));
+        assertEquals(5, first.getWrites(BusRegion.PRG_ROM));
+        assertEquals(1, first.bankSwitches());
+        assertEquals(1, first.mapperIrqs());
+
+        bus.read(0x0000);
+        FrameStatistics second = monitor.endFrame();
+        assertEquals(1, second.frame());
+        assertEquals(1, second.getReads(BusRegion.RAM));
+        assertEquals(0, second.getWrites(BusRegion.PRG_ROM));
+        assertEquals(0, second.bankSwitches());
+    }
+
+    @Test
+    @DisplayName("Should count MMC3 PRG and CHR mode flips through bank select as bank switches")
+    void shouldCountMmc3ModeFlips() {
+        MMC3Mapper mapper = new MMC3Mapper(4, 64 * 1024, 8 * 1024, false);
+        mapper.loadRomData(new byte[64 * 1024], new byte[8 * 1024]);
+        InstrumentedBus bus = new InstrumentedBus(new Cartridge(null, null, null, null, mapper));
+        BusMonitor monitor = new BusMonitor(bus, mapper);
+
+        bus.write(0x8000, (byte) 0x40); // PRG mode 1: $8000 and $C000 swap
+        bus.write(0x8000, (byte) 0xC0); // CHR inversion
+        bus.write(0x8000, (byte) 0xC7); // Same modes, other register selected: no switch
+
+        assertEquals(2, monitor.endFrame().bankSwitches());
+    }
+
+    @Test
+    @DisplayName("Should count an MMC1 reset write that changes the PRG mode as a bank switch")
+    void shouldCountMmc1Reset() {
+        MMC1Mapper mapper = new MMC1Mapper(1, 128 * 1024, 8 * 1024, false);
+        mapper.loadRomData(new byte[128 * 1024], new byte[8 * 1024]);
+        InstrumentedBus bus = new InstrumentedBus(new Cartridge(null, null, null, null, mapper));
+        BusMonitor monitor = new BusMonitor(bus, mapper);
+
+        for (int i = 0; i < 5; i++) {
+            bus.write(0x8000, (byte) 0); // Control = 0: 32KB PRG mode
+        }
+        assertEquals(1, monitor.endFrame().bankSwitches());
+
+        bus.write(0x8000, (byte) 0x80); // Reset: back to PRG mode 3, last bank fixed at $C000
+        assertEquals(1, monitor.endFrame().bankSwitches());
+
+        bus.write(0x8000, (byte) 0x80); // Already in mode 3
+        assertEquals(0, monitor.endFrame().bankSwitches());
+    }
+}
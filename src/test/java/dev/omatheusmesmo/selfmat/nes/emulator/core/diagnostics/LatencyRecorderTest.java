@@ -0,0 +1,70 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.diagnostics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+
+    @Test
+    @DisplayName("Should compute percentiles over the most recent window only")
+    void shouldKeepMostRecentWindow() {
+        LatencyRecorder recorder = new LatencyRecorder(4);
+        for (long nanos = 1; nanos <= 6; nanos++) {
+            recorder.record(nanos);
+        }
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(6, snapshot.count());
+        assertArrayEquals(new long[]{3, 4, 5, 6}, snapshot.sorted());
+        assertEquals(4, recorder.getPercentile(50));
+        assertEquals(6, recorder.getPercentile(100));
+        assertEquals(3, recorder.getPercentile(0));
+    }
+
+    @Test
+    @DisplayName("Should forget samples recorded before a reset")
+    void shouldResetWithoutTouchingTheRing() {
+        LatencyRecorder recorder = new LatencyRecorder(4);
+        recorder.record(100);
+        recorder.record(200);
+        recorder.reset();
+
+        assertEquals(0, recorder.getCount());
+        assertEquals(0, recorder.getPercentile(99));
+        recorder.record(7);
+        assertArrayEquals(new long[]{7}, recorder.snapshot().sorted());
+        assertEquals("n=1 p50=0.00ms p90=0.00ms p99=0.00ms max=0.00ms", recorder.toString());
+    }
+
+    @Test
+    @DisplayName("Should only return samples from the window while the writer laps the ring")
+    void shouldSnapshotWhileRecording() throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder(16);
+        long total = 2_000_000;
+        Thread writer = new Thread(() -> {
+            for (long i = 0; i < total; i++) {
+                recorder.record(i);
+            }
+        });
+        writer.start();
+
+        while (writer.isAlive()) {
+            LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+            long[] sorted = snapshot.sorted();
+            assertTrue(sorted.length <= 16);
+            // Sample i was the (i + 1)th recorded, so a valid window is a run ending before count
+            for (int j = 1; j < sorted.length; j++) {
+                assertEquals(sorted[j - 1] + 1, sorted[j], "Overwritten slot in the snapshot");
+            }
+            if (sorted.length > 0) {
+                assertTrue(sorted[sorted.length - 1] < snapshot.count());
+            }
+        }
+        writer.join();
+
+        assertEquals(total, recorder.getCount());
+        assertEquals(total - 1, recorder.getPercentile(100));
+    }
+}
@@ -0,0 +1,55 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.input;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerPortsTest {
+
+    private static int readByte(ControllerPorts ports, int port) {
+        int value = 0;
+        for (int bit = 0; bit < 8; bit++) {
+            value |= ports.read(port) << bit;
+        }
+        return value;
+    }
+
+    @Test
+    @DisplayName("Should apply queued input on the strobe and shift it out button by button")
+    void shouldShiftOutQueuedButtons() {
+        ControllerPorts ports = new ControllerPorts();
+        int buttons = StandardController.BUTTON_A | StandardController.BUTTON_START | StandardController.BUTTON_RIGHT;
+        assertTrue(ports.getInputQueue().offer(0, buttons, System.nanoTime()));
+        assertEquals(0, ports.getButtons(0), "Not applied before the game polls");
+
+        ports.writeStrobe(1);
+        assertEquals(1, ports.read(0), "Button A while the strobe is high");
+        assertEquals(1, ports.read(0));
+        ports.writeStrobe(0);
+
+        assertEquals(buttons, readByte(ports, 0));
+        assertEquals(1, ports.read(0), "An official controller returns 1 after eight reads");
+        assertEquals(0, readByte(ports, 1));
+        assertEquals(0, ports.getInputQueue().size());
+    }
+
+    @Test
+    @DisplayName("Should record input-to-frame latency when the frame that applied the input ends")
+    void shouldRecordLatency() {
+        ControllerPorts ports = new ControllerPorts();
+        ports.getInputQueue().offer(0, StandardController.BUTTON_B, 1_000_000);
+        ports.getInputQueue().offer(1, StandardController.BUTTON_UP, 3_000_000);
+
+        ports.endFrame(4_000_000);
+        assertEquals(0, ports.getLatency().getCount(), "Nothing was polled in this frame");
+
+        ports.writeStrobe(1);
+        ports.writeStrobe(0);
+        ports.endFrame(21_000_000);
+        assertEquals(2, ports.getLatency().getCount());
+        assertEquals(18_000_000, ports.getLatency().getPercentile(50));
+        assertEquals(20_000_000, ports.getLatency().getPercentile(99));
+        assertEquals(StandardController.BUTTON_UP, readByte(ports, 1));
+    }
+}
@@ -1,8 +1,12 @@
 package dev.omatheusmesmo.selfmat.nes.emulator.core.memory;
 
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.Cpu6502;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.ObjectAttributeMemory;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.Ppu2C02;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.NESFileHeader;
 import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.NRomMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -20,6 +24,7 @@ class BusTest {
         private int lastCpuReadAddress = 0x0000;
         private byte lastCpuWriteValue = 0x00;
         private int lastCpuWriteAddress = 0x0000;
+        private Mapper mapper;
 
         @Override
         public byte cpuRead(int address) {
@@ -34,7 +39,7 @@ class BusTest {
         }
 
         @Override
-        public Mapper getMapper() { return null; } // Not needed for Bus tests
+        public Mapper getMapper() { return mapper; } // Null unless a test needs page-table dispatch
 
         @Override
         public void loadMapperData(byte[] prgRomData, byte[] chrRomData) { /* Not needed for Bus tests */ }
@@ -49,6 +54,10 @@ class BusTest {
         @Override
         public byte[] trainerData() { return null; }
 
+        public void setMapper(Mapper mapper) {
+            this.mapper = mapper;
+        }
+
         public void setCpuReadValue(byte value) {
             this.lastCpuReadValue = value;
         }
@@ -157,6 +166,55 @@ class BusTest {
         assertDoesNotThrow(() -> bus.write(oamDmaAddress, dataPageValue));
     }
 
+    @Test
+    @DisplayName("Should copy a RAM page into OAM on DMA and stall the CPU")
+    void shouldCopyRamPageIntoOamOnDma() {
+        for (int i = 0; i < ObjectAttributeMemory.SIZE; i++) {
+            bus.write(0x0200 + i, (byte) i);
+        }
+        Cpu6502 cpu = new Cpu6502(bus);
+        long cyclesBefore = cpu.getCycles();
+
+        bus.write(0x4014, (byte) 0x02);
+
+        byte[] oam = bus.getOam().getData();
+        for (int i = 0; i < ObjectAttributeMemory.SIZE; i++) {
+            assertEquals((byte) i, oam[i]);
+        }
+        assertEquals(513, cpu.getCycles() - cyclesBefore); // Even start cycle: no alignment cycle
+    }
+
+    @Test
+    @DisplayName("Should start OAM DMA at OAMADDR and read unmapped pages byte by byte")
+    void shouldDmaFromCartridgePageStartingAtOamAddress() {
+        mockCartridge.setCpuReadValue((byte) 0x5A); // $6000 page has no direct mapping without a mapper
+        bus.getOam().setAddress(0x10);
+
+        bus.write(0x4014, (byte) 0x60);
+
+        assertEquals(0x6000 + 0xFF, mockCartridge.getLastCpuReadAddress());
+        assertEquals((byte) 0x5A, bus.getOam().get(0x10));
+        assertEquals((byte) 0x5A, bus.getOam().get(0x0F)); // Wrapped around
+        assertEquals(0x10, bus.getOam().getAddress());
+    }
+
+    @Test
+    @DisplayName("Should catch the PPU up before OAM DMA replaces the sprites")
+    void shouldSynchronizePpuBeforeOamDma() {
+        NRomMapper mapper = new NRomMapper(0, 32 * 1024, 8 * 1024, false);
+        mapper.loadRomData(new byte[32 * 1024], new byte[8 * 1024]);
+        Ppu2C02 ppu = new Ppu2C02(mapper, bus.getOam());
+        long[] now = {0};
+        ppu.setClock(() -> now[0]);
+        ppu.reset(0);
+        bus.connectPpu(ppu);
+
+        now[0] = 10 * Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+        bus.write(0x4014, (byte) 0x02);
+
+        assertEquals(10, ppu.getScanline());
+    }
+
     @Test
     @DisplayName("Should handle writes to Controller 1 and 2 addresses without error")
     void shouldHandleControllerWrites() {
@@ -200,6 +258,27 @@ class BusTest {
         assertEquals(cartridgeWriteAddress, mockCartridge.getLastCpuWriteAddress());
     }
 
+    @Test
+    @DisplayName("Should read PRG ROM through the page table without delegating to the Cartridge")
+    void shouldReadPrgRomDirectlyThroughPageTable() {
+        byte[] prgRom = new byte[16 * 1024];
+        prgRom[0x0000] = (byte) 0x11;
+        prgRom[0x3FFF] = (byte) 0x22;
+        NRomMapper mapper = new NRomMapper(0, prgRom.length, 8 * 1024, false);
+        mapper.loadRomData(prgRom, new byte[8 * 1024]);
+        mockCartridge.setMapper(mapper);
+        mockCartridge.setCpuReadValue((byte) 0xEE);
+        bus = new Bus(mockCartridge);
+
+        assertEquals((byte) 0x11, bus.read(0x8000));
+        assertEquals((byte) 0x22, bus.read(0xBFFF));
+        // 16KB NROM mirrors $8000-$BFFF at $C000-$FFFF
+        assertEquals((byte) 0x11, bus.read(0xC000));
+        assertEquals((byte) 0x22, bus.read(0xFFFF));
+        // The cartridge facade was never consulted
+        assertEquals(0x0000, mockCartridge.getLastCpuReadAddress());
+    }
+
     // --- Boundary Condition Tests ---
 
     @Test
@@ -0,0 +1,86 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.Console;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.input.StandardController;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputMovieTest {
+
+    private static final int KEYFRAME_INTERVAL = 50;
+
+    private final byte[] prgRom = TestRoms.controllerCounter();
+
+    private ICartridge cartridge() {
+        return TestRoms.cartridge(prgRom);
+    }
+
+    private static int buttonsFor(int frame) {
+        return (frame % 3 == 0 ? StandardController.BUTTON_A : 0) | (frame % 5 == 0 ? StandardController.BUTTON_B : 0);
+    }
+
+    @Test
+    @DisplayName("Should seek through keyframes to exactly the state reached while recording")
+    void shouldSeekToRecordedState() {
+        ICartridge cartridge = cartridge();
+        RomHash romHash = RomHash.of(cartridge);
+        Console recording = TestRoms.start(cartridge);
+        MovieRecorder recorder = new MovieRecorder(recording, new InputMovie(romHash, KEYFRAME_INTERVAL));
+        byte[] stateAt137 = null;
+        for (int frame = 0; frame < 200; frame++) {
+            if (frame == 137) {
+                stateAt137 = TestRoms.stateOf(recording, romHash);
+            }
+            recorder.recordFrame(buttonsFor(frame), 0);
+        }
+        byte[] finalState = TestRoms.stateOf(recording, romHash);
+        assertEquals(67, recording.getBus().read(0x0010), "Frames with A pressed");
+        assertEquals(4, recorder.getMovie().getKeyframeCount());
+
+        InputMovie movie = recorder.getMovie();
+        ByteBuffer file = ByteBuffer.allocate(movie.getSerializedSize());
+        movie.writeTo(file);
+        assertFalse(file.hasRemaining());
+        InputMovie loaded = InputMovie.readFrom(file.flip());
+        assertEquals(200, loaded.getFrameCount());
+        assertEquals(romHash, loaded.getRomHash());
+
+        ICartridge playbackCartridge = cartridge();
+        Console playback = TestRoms.start(playbackCartridge);
+        MoviePlayer player = new MoviePlayer(playback, RomHash.of(playbackCartridge), loaded);
+        player.seek(137);
+        assertEquals(37, player.getLastSeekFrames());
+        assertArrayEquals(stateAt137, TestRoms.stateOf(playback, romHash));
+
+        player.seek(200);
+        assertFalse(player.runFrame());
+        assertArrayEquals(finalState, TestRoms.stateOf(playback, romHash));
+        assertEquals(40, playback.getBus().read(0x0012), "Frames with B pressed");
+    }
+
+    @Test
+    @DisplayName("Should refuse movies that are corrupt or belong to another ROM")
+    void shouldRejectForeignMovies() {
+        ICartridge cartridge = cartridge();
+        Console console = TestRoms.start(cartridge);
+        MovieRecorder recorder = new MovieRecorder(console, new InputMovie(RomHash.of(cartridge), KEYFRAME_INTERVAL));
+        recorder.recordFrame(0, 0);
+        ByteBuffer file = ByteBuffer.allocate(recorder.getMovie().getSerializedSize());
+        recorder.getMovie().writeTo(file);
+
+        byte[] otherRom = prgRom.clone();
+        otherRom[0] = 0x42; // Another ROM
+        ICartridge other = TestRoms.cartridge(otherRom);
+        InputMovie movie = InputMovie.readFrom(file.flip());
+        assertThrows(IllegalArgumentException.class, () -> new MoviePlayer(TestRoms.start(other), RomHash.of(other), movie));
+
+        file.put(0, (byte) 0);
+        assertThrows(IllegalArgumentException.class, () -> InputMovie.readFrom(file.rewind()));
+    }
+}
@@ -0,0 +1,76 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.input.StandardController;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.state.SaveState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayVerifierTest {
+
+    private static final int KEYFRAME_INTERVAL = 30;
+    private static final int FRAMES = 200;
+
+    private final byte[] prgRom = TestRoms.controllerCounter();
+    private RomHash romHash;
+    private InputMovie movie;
+
+    @BeforeEach
+    void setUp() {
+        ICartridge cartridge = cartridge();
+        romHash = RomHash.of(cartridge);
+        MovieRecorder recorder = new MovieRecorder(TestRoms.start(cartridge), new InputMovie(romHash, KEYFRAME_INTERVAL));
+        for (int frame = 0; frame < FRAMES; frame++) {
+            recorder.recordFrame(frame % 4 == 0 ? StandardController.BUTTON_A : 0, 0);
+        }
+        movie = recorder.getMovie();
+    }
+
+    private ICartridge cartridge() {
+        return TestRoms.cartridge(prgRom);
+    }
+
+    @Test
+    @DisplayName("Should replay every keyframe segment in parallel and find them all deterministic")
+    void shouldVerifyDeterministicMovie() {
+        ReplayReport report = new ReplayVerifier().verify(movie, romHash, () -> TestRoms.start(cartridge()));
+
+        assertTrue(report.isDeterministic(), () -> report.segments().toString());
+        assertEquals(6, report.segments().size());
+        assertEquals(180, report.getFramesVerified());
+        assertEquals(-1, report.getFirstDivergentFrame());
+        for (int i = 0; i < report.segments().size(); i++) {
+            assertEquals(i * KEYFRAME_INTERVAL, report.segments().get(i).startFrame(), "Segments in movie order");
+        }
+    }
+
+    @Test
+    @DisplayName("Should report the first keyframe the replay does not reproduce")
+    void shouldReportFirstDivergentFrame() {
+        ByteBuffer file = ByteBuffer.allocate(movie.getSerializedSize());
+        movie.writeTo(file);
+        // Change RAM byte $10 inside keyframe 3 (frame 90): segment 60-90 can no longer reach it
+        int ramOffset = SaveState.HEADER_SIZE + TestRoms.start(cartridge()).getCpu().getStateSize();
+        int keyframeSize = movie.getKeyframe(3).remaining(); // Keyframes are stored last, all the same size
+        int keyframeOffset = file.capacity() - (movie.getKeyframeCount() - 3) * keyframeSize;
+        int address = keyframeOffset + ramOffset + 0x10;
+        file.put(address, (byte) (file.get(address) + 1));
+        InputMovie tampered = InputMovie.readFrom(file.flip());
+
+        ReplayReport report = new ReplayVerifier().verify(tampered, romHash, () -> TestRoms.start(cartridge()));
+
+        assertFalse(report.isDeterministic());
+        assertEquals(90, report.getFirstDivergentFrame());
+        SegmentResult divergence = report.getFirstDivergence();
+        assertEquals(60, divergence.startFrame());
+        assertEquals(ramOffset + 0x10, divergence.firstDifferentByte());
+        assertNotEquals(divergence.expectedCrc32(), divergence.actualCrc32());
+        assertTrue(report.segments().get(1).matches());
+    }
+}
@@ -0,0 +1,80 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.movie;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.Console;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.ICartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC3Mapper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Test ROM shared by the movie tests: a program that reads controller 1 once per frame, so the
+ * console's state depends on every recorded input.
+ */
+final class TestRoms {
+
+    /** PRG is 32KB; the last two 8KB banks are fixed at $C000-$FFFF, so the code lives there. */
+    private static final int CODE_START = 0xE000;
+    private static final int NMI_HANDLER = 0xE100;
+    private static final int PRG_ROM_SIZE = 32 * 1024;
+    private static final int CHR_ROM_SIZE = 8 * 1024;
+
+    private TestRoms() {
+    }
+
+    /**
+     * PRG ROM that enables vblank NMIs and spins. The NMI strobes controller 1 and counts the
+     * frames with A held in $10, the frames with B held in $12 and all frames in $11.
+     */
+    static byte[] controllerCounter() {
+        byte[] prgRom = new byte[PRG_ROM_SIZE];
+        put(prgRom, 0xFFFA, NMI_HANDLER & 0xFF, NMI_HANDLER >> 8);
+        put(prgRom, 0xFFFC, CODE_START & 0xFF, CODE_START >> 8);
+        put(prgRom, CODE_START,
+                0xA9, 0x80,       // LDA #$80
+                0x8D, 0x00, 0x20, // STA $2000 (NMI on vblank)
+                0x4C, 0x05, 0xE0); // JMP * (spin)
+        put(prgRom, NMI_HANDLER,
+                0xA9, 0x01, 0x8D, 0x16, 0x40, // LDA #1 ; STA $4016
+                0xA9, 0x00, 0x8D, 0x16, 0x40, // LDA #0 ; STA $4016
+                0xAD, 0x16, 0x40,             // LDA $4016 (A)
+                0x29, 0x01, 0x18,             // AND #1 ; CLC
+                0x65, 0x10, 0x85, 0x10,       // ADC $10 ; STA $10
+                0xAD, 0x16, 0x40,             // LDA $4016 (B)
+                0x29, 0x01, 0x18,             // AND #1 ; CLC
+                0x65, 0x12, 0x85, 0x12,       // ADC $12 ; STA $12
+                0xE6, 0x11, 0x40);            // INC $11 ; RTI
+        return prgRom;
+    }
+
+    private static void put(byte[] prgRom, int address, int... bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            prgRom[address - 0x8000 + i] = (byte) bytes[i];
+        }
+    }
+
+    /**
+     * @return A new MMC3 cartridge running the given PRG ROM.
+     */
+    static ICartridge cartridge(byte[] prgRom) {
+        MMC3Mapper mapper = new MMC3Mapper(4, prgRom.length, CHR_ROM_SIZE, false);
+        mapper.loadRomData(prgRom, new byte[CHR_ROM_SIZE]);
+        return new Cartridge(null, prgRom, null, null, mapper);
+    }
+
+    /**
+     * @return A headless console with the cartridge inserted, just reset.
+     */
+    static Console start(ICartridge cartridge) {
+        Console console = new Console(cartridge);
+        console.reset();
+        return console;
+    }
+
+    static byte[] stateOf(Console console, RomHash romHash) {
+        ByteBuffer buffer = ByteBuffer.allocate(console.getStateSize());
+        console.saveState(buffer, romHash);
+        return buffer.array();
+    }
+}
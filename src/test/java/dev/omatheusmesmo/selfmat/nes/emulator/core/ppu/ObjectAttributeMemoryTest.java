@@ -0,0 +1,91 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.NRomMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectAttributeMemoryTest {
+
+    private static void assertMasksMatchScan(ObjectAttributeMemory oam, int height) {
+        for (int line = 0; line < ObjectAttributeMemory.VISIBLE_SCANLINES; line++) {
+            long expected = 0;
+            for (int sprite = 0; sprite < ObjectAttributeMemory.SPRITE_COUNT; sprite++) {
+                int row = line - 1 - (oam.get(sprite * 4) & 0xFF);
+                if (row >= 0 && row < height) {
+                    expected |= 1L << sprite;
+                }
+            }
+            assertEquals(expected, oam.getLineMask(line), "line " + line);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep per-scanline sprite masks in sync with $2004 writes, DMA and sprite height")
+    void shouldTrackLineMasksIncrementally() {
+        Random random = new Random(3);
+        ObjectAttributeMemory oam = new ObjectAttributeMemory();
+        byte[] page = new byte[ObjectAttributeMemory.SIZE];
+
+        for (int round = 0; round < 20; round++) {
+            random.nextBytes(page);
+            oam.setAddress(random.nextInt(256));
+            oam.dmaCopy(page, 0);
+            assertMasksMatchScan(oam, 8);
+
+            for (int i = 0; i < 100; i++) {
+                oam.setAddress(random.nextInt(256));
+                oam.write((byte) random.nextInt(256));
+            }
+            assertMasksMatchScan(oam, 8);
+        }
+
+        oam.setSpriteHeight(16);
+        assertMasksMatchScan(oam, 16);
+    }
+
+    @Test
+    @DisplayName("Should draw only eight sprites per line unless the limit is disabled, reporting overflow")
+    void shouldApplyOptionalSpriteLimit() {
+        NRomMapper mapper = new NRomMapper(0, 16 * 1024, 0, false);
+        mapper.loadRomData(new byte[16 * 1024], null);
+        for (int row = 0; row < 8; row++) {
+            mapper.ppuWrite(0x0010 + row, (byte) 0xFF); // Tile 1: solid colour 1
+        }
+        ObjectAttributeMemory oam = new ObjectAttributeMemory();
+        byte[] page = new byte[ObjectAttributeMemory.SIZE];
+        Arrays.fill(page, (byte) 0xFF); // Everything off-screen
+        for (int sprite = 0; sprite < 9; sprite++) { // Nine sprites side by side on lines 20-27
+            page[sprite * 4] = 19;
+            page[sprite * 4 + 1] = 1;
+            page[sprite * 4 + 2] = 0;
+            page[sprite * 4 + 3] = (byte) (sprite * 8);
+        }
+        oam.dmaCopy(page, 0);
+
+        long[] now = {0};
+        Ppu2C02 ppu = new Ppu2C02(mapper, oam);
+        ppu.setClock(() -> now[0]);
+        ppu.reset(0);
+        ppu.writeRegister(6, (byte) 0x3F);
+        ppu.writeRegister(6, (byte) 0x11);
+        ppu.writeRegister(7, (byte) 0x16);
+        ppu.writeRegister(1, (byte) 0x14); // Sprites only, including the left column
+
+        now[0] = 21 * Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+        ppu.synchronize();
+        byte[] frame = ppu.getFrameBuffer();
+        assertEquals(0x16, frame[20 * 256 + 63]);
+        assertNotEquals(0x16, frame[20 * 256 + 64], "The ninth sprite is dropped");
+        assertEquals(0x20, ppu.readRegister(2) & 0x20);
+
+        ppu.setSpriteLimit(false);
+        now[0] = 22 * Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+        ppu.synchronize();
+        assertEquals(0x16, frame[21 * 256 + 64]);
+    }
+}
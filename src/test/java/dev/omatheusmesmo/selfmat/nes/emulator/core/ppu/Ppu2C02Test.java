@@ -0,0 +1,142 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC3Mapper;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.timing.Scheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Ppu2C02Test {
+
+    private static final long VBLANK_TIME = Ppu2C02.VBLANK_SCANLINE * Ppu2C02.MASTER_CYCLES_PER_SCANLINE
+            + Scheduler.MASTER_CYCLES_PER_PPU_DOT;
+
+    private MMC3Mapper mapper;
+    private ObjectAttributeMemory oam;
+    private Ppu2C02 ppu;
+    private long now;
+    private int nmiCount;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new MMC3Mapper(4, 32 * 1024, 0, true); // CHR RAM, vertical mirroring
+        mapper.loadRomData(new byte[32 * 1024], null);
+        oam = new ObjectAttributeMemory();
+        ppu = new Ppu2C02(mapper, oam);
+        ppu.setClock(() -> now);
+        ppu.connectNmi(() -> nmiCount++);
+        ppu.reset(0);
+    }
+
+    private void writeAddress(int address) {
+        ppu.writeRegister(6, (byte) (address >> 8));
+        ppu.writeRegister(6, (byte) address);
+    }
+
+    @Test
+    @DisplayName("Should set vblank exactly at scanline 241 dot 1 and clear it on a $2002 read")
+    void shouldHandleVblankFlagAndNmi() {
+        now = VBLANK_TIME - 1;
+        assertEquals(0, ppu.readRegister(2) & 0x80);
+
+        now = VBLANK_TIME;
+        ppu.writeRegister(1, (byte) 0x1F); // Low bits end up in the open bus latch
+        assertEquals(0x9F, ppu.readRegister(2) & 0xFF);
+        assertEquals(0x1F, ppu.readRegister(2) & 0xFF, "The read clears vblank");
+        assertEquals(0, nmiCount);
+
+        // Vblank is over by now but the flag was read; enabling NMI must not fire
+        ppu.writeRegister(0, (byte) 0x80);
+        assertEquals(0, nmiCount);
+
+        now += Ppu2C02.MASTER_CYCLES_PER_FRAME; // Crosses the pre-render clear and the next vblank
+        ppu.synchronize();
+        assertEquals(1, nmiCount);
+        assertEquals(1, ppu.getFrameCount());
+        assertEquals(Ppu2C02.VBLANK_SCANLINE, ppu.getScanline());
+
+        // Enabling NMI while the flag is still set raises one immediately
+        ppu.writeRegister(0, (byte) 0x00);
+        ppu.writeRegister(0, (byte) 0x80);
+        assertEquals(2, nmiCount);
+    }
+
+    @Test
+    @DisplayName("Should buffer $2007 reads except palette reads and follow the mapper's mirroring")
+    void shouldBufferDataReads() {
+        writeAddress(0x2005);
+        ppu.writeRegister(7, (byte) 0x11);
+        ppu.writeRegister(7, (byte) 0x22);
+        writeAddress(0x3F01);
+        ppu.writeRegister(7, (byte) 0x2A);
+
+        writeAddress(0x2805); // Vertical mirroring: $2800 mirrors $2000
+        ppu.readRegister(7); // Stale buffer
+        assertEquals(0x11, ppu.readRegister(7));
+        assertEquals(0x22, ppu.readRegister(7));
+
+        writeAddress(0x3F01);
+        assertEquals(0x2A, ppu.readRegister(7), "Palette reads are not delayed");
+
+        ppu.writeRegister(0, (byte) 0x04); // Increment by 32
+        writeAddress(0x0000);
+        ppu.writeRegister(7, (byte) 0x55);
+        ppu.writeRegister(7, (byte) 0x66);
+        assertEquals(0x66, mapper.ppuRead(0x0020));
+    }
+
+    @Test
+    @DisplayName("Should catch up before the mapper changes mirroring or CHR banks")
+    void shouldSynchronizeBeforeMapperChanges() {
+        now = VBLANK_TIME + 10 * Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+        assertEquals(0, ppu.getScanline());
+
+        mapper.cpuWrite(0xA000, (byte) 1); // Horizontal mirroring
+        assertEquals(Ppu2C02.VBLANK_SCANLINE + 10, ppu.getScanline());
+
+        now += Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+        mapper.cpuWrite(0x8000, (byte) 0); // Select R0
+        mapper.cpuWrite(0x8001, (byte) 4); // CHR bank switch
+        assertEquals(Ppu2C02.VBLANK_SCANLINE + 11, ppu.getScanline());
+    }
+
+    @Test
+    @DisplayName("Should draw background tiles and sprites from decoded CHR and report sprite 0 hits")
+    void shouldRenderScanlines() {
+        // Tile 1: solid colour 1; tile 2: solid colour 3
+        for (int row = 0; row < 8; row++) {
+            mapper.ppuWrite(0x0010 + row, (byte) 0xFF);
+            mapper.ppuWrite(0x0020 + row, (byte) 0xFF);
+            mapper.ppuWrite(0x0028 + row, (byte) 0xFF);
+        }
+        writeAddress(0x2000);
+        ppu.writeRegister(7, (byte) 0x01); // Top-left background tile
+        writeAddress(0x3F00);
+        for (int colour : new int[]{0x0F, 0x11, 0x12, 0x13}) {
+            ppu.writeRegister(7, (byte) colour);
+        }
+        writeAddress(0x3F13);
+        ppu.writeRegister(7, (byte) 0x25);
+        ppu.writeRegister(3, (byte) 0);
+        for (int value : new int[]{3, 2, 0, 4}) { // Sprite 0: tile 2 at (4, 4)
+            ppu.writeRegister(4, (byte) value);
+        }
+        now = VBLANK_TIME; // Set the scroll during vblank, as games do
+        writeAddress(0x0000);
+        ppu.writeRegister(1, (byte) 0x1E); // Background and sprites, including the left column
+
+        now = Ppu2C02.MASTER_CYCLES_PER_FRAME + Ppu2C02.VISIBLE_SCANLINES * Ppu2C02.MASTER_CYCLES_PER_SCANLINE;
+        ppu.synchronize();
+
+        byte[] frame = ppu.getFrameBuffer();
+        assertEquals(0x11, frame[0], "Background tile 1 uses colour 1");
+        assertEquals(0x0F, frame[8], "Tile 0 is transparent: backdrop");
+        assertEquals(0x11, frame[3 * 256 + 4], "The sprite starts one line below its Y");
+        assertEquals(0x25, frame[4 * 256 + 4]);
+        assertEquals(0x25, frame[4 * 256 + 11]);
+        assertEquals(0x0F, frame[4 * 256 + 12]);
+        assertNotEquals(0, ppu.readRegister(2) & 0x40, "Sprite 0 overlapped an opaque background pixel");
+    }
+}
@@ -0,0 +1,40 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.ppu;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.NRomMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileCacheTest {
+
+    @Test
+    @DisplayName("Should merge both bit planes into 2-bit pixels, row by row")
+    void shouldDecodeTiles() {
+        byte[] chr = new byte[32];
+        chr[16 + 3] = (byte) 0b1010_0000; // Tile 1, row 3, low plane
+        chr[16 + 8 + 3] = (byte) 0b1100_0001; // Tile 1, row 3, high plane
+        TileCache cache = new TileCache(chr);
+
+        int row = cache.row(16 + 3);
+        byte[] expected = {3, 2, 1, 0, 0, 0, 0, 2};
+        for (int i = 0; i < 8; i++) {
+            assertEquals(expected[i], cache.getPixels()[row + i], "pixel " + i);
+        }
+        assertEquals(TileCache.TILE_PIXELS, cache.tile(16));
+    }
+
+    @Test
+    @DisplayName("Should re-decode only tiles written through CHR RAM")
+    void shouldRedecodeDirtyChrRamTiles() {
+        NRomMapper mapper = new NRomMapper(0, 16 * 1024, 0, false); // CHR RAM
+        mapper.loadRomData(new byte[16 * 1024], null);
+        TileCache cache = mapper.getTileCache();
+        assertEquals(0, cache.getPixels()[cache.row(0x0105)]);
+
+        mapper.ppuWrite(0x0105, (byte) 0x80);
+        mapper.ppuWrite(0x010D, (byte) 0x80);
+
+        assertEquals(3, cache.getPixels()[cache.row(0x0105)]);
+    }
+}
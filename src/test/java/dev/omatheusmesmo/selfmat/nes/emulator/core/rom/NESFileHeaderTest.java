@@ -0,0 +1,98 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NESFileHeaderTest {
+
+    private static byte[] header(int... bytes) {
+        byte[] header = new byte[NESFileHeader.SIZE];
+        header[0] = 'N';
+        header[1] = 'E';
+        header[2] = 'S';
+        header[3] = 0x1A;
+        for (int i = 0; i < bytes.length; i++) {
+            header[4 + i] = (byte) bytes[i];
+        }
+        return header;
+    }
+
+    @Test
+    @DisplayName("Should decode iNES 1.0 flags, mapper number and unsigned ROM sizes")
+    void shouldDecodeInes1Header() {
+        // 128 x 16KB PRG (byte >= 0x80), CHR RAM, mapper 4, vertical, battery, trainer
+        NESFileHeader header = new NESFileHeader(header(0x80, 0x00, 0x47, 0x00));
+
+        assertTrue(header.isValid());
+        assertFalse(header.isInes2());
+        assertEquals(2 * 1024 * 1024, header.getPrgRomSizeBytes());
+        assertEquals(0, header.getChrRomSizeBytes());
+        assertTrue(header.usesChrRam());
+        assertEquals(8 * 1024, header.getChrRamSizeBytes());
+        assertEquals(4, header.getMapperNumber());
+        assertTrue(header.isVerticalMirroring());
+        assertTrue(header.usesBattery());
+        assertTrue(header.hasTrainer());
+        assertEquals(8 * 1024, header.getPrgNvramSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Should ignore flag 7 in archaic iNES headers with garbage in bytes 12-15")
+    void shouldIgnoreFlag7InArchaicHeaders() {
+        byte[] raw = header(2, 1, 0x10, 0x40);
+        raw[12] = 'D';
+        raw[13] = 'i';
+
+        assertEquals(1, new NESFileHeader(raw).getMapperNumber());
+    }
+
+    @Test
+    @DisplayName("Should decode NES 2.0 mapper, submapper, RAM sizes and timing")
+    void shouldDecodeNes2Header() {
+        NESFileHeader header = new NESFileHeader(header(
+                0x10, 0x20,   // PRG/CHR ROM LSB
+                0x41, 0x18,   // Mapper low nibble 4, vertical; mapper high nibble 1, NES 2.0
+                0x52,         // Submapper 5, mapper bits 8-11 = 2
+                0x00,         // ROM size MSB nibbles
+                0x97,         // PRG NVRAM 64<<9 = 32KB, PRG RAM 64<<7 = 8KB
+                0x07,         // CHR RAM 8KB
+                0x01));       // PAL
+
+        assertTrue(header.isInes2());
+        assertEquals(0x214, header.getMapperNumber());
+        assertEquals(5, header.getSubmapperNumber());
+        assertEquals(0x10 * 16 * 1024, header.getPrgRomSizeBytes());
+        assertEquals(0x20 * 8 * 1024, header.getChrRomSizeBytes());
+        assertEquals(8 * 1024, header.getPrgRamSizeBytes());
+        assertEquals(32 * 1024, header.getPrgNvramSizeBytes());
+        assertEquals(8 * 1024, header.getChrRamSizeBytes());
+        assertEquals(NESFileHeader.Timing.PAL, header.getTiming());
+    }
+
+    @Test
+    @DisplayName("Should decode the NES 2.0 exponent-multiplier ROM size notation")
+    void shouldDecodeExponentMultiplierSize() {
+        // PRG: E=14, MM=1 -> 2^14 * 3 = 48KB
+        NESFileHeader header = new NESFileHeader(header(14 << 2 | 1, 0x01, 0x00, 0x08, 0x00, 0x0F));
+
+        assertEquals(48 * 1024, header.getPrgRomSizeBytes());
+        assertEquals(8 * 1024, header.getChrRomSizeBytes());
+    }
+
+    @Test
+    @DisplayName("Should decode from a buffer position and be reusable as a flyweight")
+    void shouldDecodeFromBufferAndReuse() {
+        ByteBuffer buffer = ByteBuffer.allocate(3 + NESFileHeader.SIZE);
+        buffer.position(3);
+        buffer.put(header(2, 1, 0x01)).position(3);
+
+        NESFileHeader header = new NESFileHeader();
+        assertEquals(32, header.decode(buffer).getPrgRomSize());
+        assertEquals(3, buffer.position());
+        assertFalse(header.decode(new byte[NESFileHeader.SIZE]).isValid());
+    }
+}
@@ -0,0 +1,157 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RomCacheTest {
+
+    private static ByteBuffer filled(int size, int seed) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    @Test
+    @DisplayName("Should share one image between sessions of the same game")
+    void shouldShareImageBetweenSessions() {
+        RomCache cache = new RomCache(0);
+        RomImage first = cache.acquire(filled(0x4000, 1), filled(0x2000, 2));
+        RomImage second = cache.acquire(filled(0x4000, 1), filled(0x2000, 2));
+
+        assertSame(first.getPrgRom(), second.getPrgRom());
+        assertSame(first.getChrRom(), second.getChrRom());
+        assertEquals(first.getHash(), second.getHash());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0x6000, cache.getCachedBytes());
+    }
+
+    @Test
+    @DisplayName("Should tell apart dumps with the same bytes split differently between PRG and CHR")
+    void shouldKeyImagesBySplit() {
+        byte[] contents = filled(0x6000, 7).array();
+        RomCache cache = new RomCache(Long.MAX_VALUE);
+
+        RomImage a = cache.acquire(ByteBuffer.wrap(contents, 0, 0x4000), ByteBuffer.wrap(contents, 0x4000, 0x2000));
+        RomImage b = cache.acquire(ByteBuffer.wrap(contents, 0, 0x2000), ByteBuffer.wrap(contents, 0x2000, 0x4000));
+
+        assertNotEquals(a.getHash(), b.getHash());
+        assertEquals(a.getHash().getCrc32(), b.getHash().getCrc32(), "CRC32 covers the ROM bytes only");
+        assertEquals(0x4000, a.getPrgRom().length);
+        assertEquals(0x2000, b.getPrgRom().length);
+        assertEquals(0x4000, b.getChrRom().length);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should ignore a second release of the same lease")
+    void shouldReleaseEachLeaseOnce() {
+        RomCache cache = new RomCache(0);
+        RomImage session1 = cache.acquire(filled(0x4000, 1), filled(0, 0));
+        RomImage session2 = cache.acquire(filled(0x4000, 1), filled(0, 0));
+
+        session1.release();
+        session1.release();
+        assertEquals(1, cache.size(), "Still leased by the second session");
+
+        session2.release();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    @DisplayName("Should evict idle images least recently used first, only when over budget")
+    void shouldEvictIdleImagesWithinBudget() {
+        RomCache cache = new RomCache(0x8000);
+        RomImage a = cache.acquire(filled(0x4000, 1), filled(0, 0));
+        RomImage b = cache.acquire(filled(0x4000, 2), filled(0, 0));
+        a.release();
+        b.release();
+        assertEquals(2, cache.size(), "Idle images stay cached within budget");
+
+        // Touch A so B becomes the least recently used
+        cache.acquire(filled(0x4000, 1), filled(0, 0)).release();
+        RomImage c = cache.acquire(filled(0x4000, 3), filled(0, 0));
+
+        assertEquals(2, cache.size());
+        assertEquals(0x8000, cache.getCachedBytes());
+        RomImage again = cache.acquire(filled(0x4000, 2), filled(0, 0));
+        assertEquals(4, cache.getMisses(), "B was evicted and had to be copied again");
+        c.release();
+        again.release();
+    }
+
+    @Test
+    @DisplayName("Should keep images in use even when over budget")
+    void shouldNotEvictImagesInUse() {
+        RomCache cache = new RomCache(0x1000);
+        RomImage a = cache.acquire(filled(0x4000, 1), filled(0x2000, 1));
+        RomImage b = cache.acquire(filled(0x4000, 2), filled(0x2000, 2));
+
+        assertEquals(2, cache.size());
+        assertEquals(0xC000, cache.getCachedBytes());
+        a.release();
+        assertEquals(1, cache.size());
+        b.release();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should return the lease when the loader fails to build the cartridge")
+    void shouldReleaseLeaseOnLoadFailure() {
+        RomCache cache = new RomCache(0);
+        byte[] image = new byte[NESFileHeader.SIZE + 0x4000];
+        image[0] = 'N';
+        image[1] = 'E';
+        image[2] = 'S';
+        image[3] = 0x1A;
+        image[4] = 1;
+        image[6] = (byte) 0xF0; // Mapper 255, not supported
+        image[7] = (byte) 0xF0;
+
+        assertThrows(UnsupportedOperationException.class, () -> new RomLoader(cache).loadRom(ByteBuffer.wrap(image)));
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should release a cartridge's lease once however often it is closed")
+    void shouldCloseCartridgeOnce() throws Exception {
+        RomCache cache = new RomCache(0);
+        byte[] image = new byte[NESFileHeader.SIZE + 0x4000 + 0x2000];
+        image[0] = 'N';
+        image[1] = 'E';
+        image[2] = 'S';
+        image[3] = 0x1A;
+        image[4] = 1;
+        image[5] = 1;
+        RomLoader loader = new RomLoader(cache);
+        ICartridge first = loader.loadRom(ByteBuffer.wrap(image));
+        ICartridge second = loader.loadRom(ByteBuffer.wrap(image));
+
+        first.close();
+        first.close();
+        assertEquals(1, cache.size());
+        assertSame(first.romImage().getPrgRom(), second.romImage().getPrgRom());
+
+        second.close();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should hash uncached images on first use and match the cached hash")
+    void shouldHashUncachedImagesLazily() {
+        RomImage uncached = RomImage.uncached(filled(0x4000, 5), filled(0x2000, 6));
+        RomImage cached = new RomCache(0).acquire(filled(0x4000, 5), filled(0x2000, 6));
+
+        assertEquals(cached.getHash(), uncached.getHash());
+        assertSame(uncached.getHash(), uncached.getHash());
+        uncached.release(); // No-op without a cache
+    }
+}
@@ -0,0 +1,157 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RomLoaderTest {
+
+    private static final int PRG_BANK = 16 * 1024;
+    private static final int CHR_BANK = 8 * 1024;
+    private static final int TRAINER_SIZE = 512;
+
+    private final RomLoader loader = new RomLoader();
+
+    /**
+     * Builds a .nes image: header, optional trainer (filled with 0x7E), PRG ROM (0x10 + bank number)
+     * and CHR ROM (0x20 + bank number).
+     */
+    private static byte[] image(int prgBanks, int chrBanks, boolean trainer, int... extraHeader) {
+        int size = NESFileHeader.SIZE + (trainer ? TRAINER_SIZE : 0) + prgBanks * PRG_BANK + chrBanks * CHR_BANK;
+        ByteBuffer image = ByteBuffer.allocate(size);
+        image.put(new byte[]{'N', 'E', 'S', 0x1A, (byte) prgBanks, (byte) chrBanks, (byte) (trainer ? 0x04 : 0x00)});
+        for (int i = 0; i < extraHeader.length; i++) {
+            image.put(7 + i, (byte) extraHeader[i]);
+        }
+        image.position(NESFileHeader.SIZE);
+        for (int i = 0; trainer && i < TRAINER_SIZE; i++) {
+            image.put((byte) 0x7E);
+        }
+        for (int bank = 0; bank < prgBanks; bank++) {
+            image.put(filled(PRG_BANK, 0x10 + bank));
+        }
+        for (int bank = 0; bank < chrBanks; bank++) {
+            image.put(filled(CHR_BANK, 0x20 + bank));
+        }
+        return image.array();
+    }
+
+    private static byte[] filled(int size, int value) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+
+    @Test
+    @DisplayName("Should load a memory-mapped file into the mapper")
+    void shouldLoadMappedFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("game.nes");
+        Files.write(file, image(2, 1, false));
+
+        ICartridge cartridge = loader.loadRom(file);
+
+        assertEquals(2 * PRG_BANK, cartridge.prgRomData().length);
+        assertEquals((byte) 0x10, cartridge.cpuRead(0x8000));
+        assertEquals((byte) 0x11, cartridge.cpuRead(0xC000));
+        assertEquals((byte) 0x20, cartridge.getMapper().ppuRead(0x0000));
+        assertNull(cartridge.trainerData());
+    }
+
+    @Test
+    @DisplayName("Should load from a buffer position without moving it")
+    void shouldLoadFromBufferPosition() throws IOException {
+        byte[] rom = image(1, 1, false);
+        ByteBuffer buffer = ByteBuffer.allocate(5 + rom.length + 3);
+        buffer.position(5);
+        buffer.put(rom).position(5).limit(5 + rom.length);
+
+        ICartridge cartridge = loader.loadRom(buffer);
+
+        assertEquals(5, buffer.position());
+        assertEquals(5 + rom.length, buffer.limit());
+        assertEquals((byte) 0x10, cartridge.cpuRead(0xC000), "16KB PRG mirrored at $C000");
+        assertEquals(CHR_BANK, cartridge.chrRomData().length);
+    }
+
+    @Test
+    @DisplayName("Should copy the trainer and start PRG ROM after it")
+    void shouldSkipTrainer() throws IOException {
+        ICartridge cartridge = loader.loadRom(ByteBuffer.wrap(image(1, 1, true)));
+
+        assertEquals(TRAINER_SIZE, cartridge.trainerData().length);
+        assertEquals((byte) 0x7E, cartridge.trainerData()[TRAINER_SIZE - 1]);
+        assertEquals((byte) 0x10, cartridge.prgRomData()[0]);
+        assertEquals((byte) 0x20, cartridge.chrRomData()[0]);
+    }
+
+    @Test
+    @DisplayName("Should give CHR RAM cartridges writable pattern tables and no CHR ROM")
+    void shouldLoadChrRamCartridge() throws IOException {
+        ICartridge cartridge = loader.loadRom(ByteBuffer.wrap(image(1, 0, false)));
+
+        assertEquals(0, cartridge.chrRomData().length);
+        cartridge.getMapper().ppuWrite(0x1234, (byte) 0x5A);
+        assertEquals((byte) 0x5A, cartridge.getMapper().ppuRead(0x1234));
+    }
+
+    @Test
+    @DisplayName("Should report which section a truncated file ends in")
+    void shouldRejectTruncatedImages() {
+        byte[] rom = image(2, 1, false);
+        ByteBuffer truncatedPrg = ByteBuffer.wrap(rom, 0, NESFileHeader.SIZE + PRG_BANK).slice();
+        ByteBuffer truncatedChr = ByteBuffer.wrap(rom, 0, rom.length - 1).slice();
+        ByteBuffer truncatedHeader = ByteBuffer.wrap(rom, 0, 10).slice();
+
+        assertTrue(assertThrows(IOException.class, () -> loader.loadRom(truncatedPrg)).getMessage().contains("PRG ROM"));
+        assertTrue(assertThrows(IOException.class, () -> loader.loadRom(truncatedChr)).getMessage().contains("CHR ROM"));
+        assertTrue(assertThrows(IOException.class, () -> loader.loadRom(truncatedHeader)).getMessage().contains("header"));
+    }
+
+    @Test
+    @DisplayName("Should size PRG RAM from a NES 2.0 header and keep the mapper default for iNES 1.0")
+    void shouldSizePrgRamFromNes2Header() throws IOException {
+        // Byte 7 = 0x08 (NES 2.0), byte 10 = 0x05: 64 << 5 = 2KB of PRG RAM
+        ICartridge nes2 = loader.loadRom(ByteBuffer.wrap(image(1, 1, false, 0x08, 0x00, 0x00, 0x05)));
+        nes2.cpuWrite(0x6000, (byte) 0x42);
+        assertEquals((byte) 0x42, nes2.cpuRead(0x6800), "2KB mirrored across $6000-$7FFF");
+
+        // iNES 1.0 keeps the mapper's default: none for NROM
+        ICartridge ines1 = loader.loadRom(ByteBuffer.wrap(image(1, 1, false)));
+        ines1.cpuWrite(0x6000, (byte) 0x42);
+        assertEquals((byte) 0x00, ines1.cpuRead(0x6000));
+
+        // Byte 10 = 0x07: 64 << 7 = 8KB, the whole window
+        ICartridge full = loader.loadRom(ByteBuffer.wrap(image(1, 1, false, 0x08, 0x00, 0x00, 0x07)));
+        full.cpuWrite(0x6000, (byte) 0x42);
+        assertEquals((byte) 0x00, full.cpuRead(0x6800));
+        assertEquals((byte) 0x42, full.cpuRead(0x6000));
+    }
+
+    @Test
+    @DisplayName("Should reject NES 2.0 exponent sizes smaller than a PRG or CHR bank")
+    void shouldRejectSizesSmallerThanABank() {
+        byte[] rom = image(1, 1, false, 0x08);
+        // Byte 9 = 0xF0, byte 5 = 12 << 2: CHR ROM 2^12 = 4KB
+        rom[5] = 12 << 2;
+        rom[9] = (byte) 0xF0;
+        NESFileHeader header = new NESFileHeader(Arrays.copyOf(rom, NESFileHeader.SIZE));
+        assertEquals(4 * 1024, header.getChrRomSizeBytes());
+        IOException chr = assertThrows(IOException.class, () -> loader.loadRom(ByteBuffer.wrap(rom)));
+        assertTrue(chr.getMessage().contains("CHR ROM"));
+
+        // Byte 9 = 0x0F, byte 4 = 13 << 2: PRG ROM 2^13 = 8KB
+        byte[] smallPrg = image(1, 1, false, 0x08, 0x00, 0x0F);
+        smallPrg[4] = 13 << 2;
+        assertEquals(8 * 1024, new NESFileHeader(Arrays.copyOf(smallPrg, NESFileHeader.SIZE)).getPrgRomSizeBytes());
+        IOException prg = assertThrows(IOException.class, () -> loader.loadRom(ByteBuffer.wrap(smallPrg)));
+        assertTrue(prg.getMessage().contains("PRG ROM"));
+    }
+}
@@ -0,0 +1,118 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.library;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RomLibraryIndexerTest {
+
+    @TempDir
+    Path library;
+
+    /** Writes a 16KB PRG / 8KB CHR iNES image filled with {@code fill}. */
+    private static Path writeRom(Path file, int mapper, int flag6Bits, byte fill) throws IOException {
+        byte[] image = new byte[16 + 16 * 1024 + 8 * 1024];
+        image[0] = 'N';
+        image[1] = 'E';
+        image[2] = 'S';
+        image[3] = 0x1A;
+        image[4] = 1;
+        image[5] = 1;
+        image[6] = (byte) (((mapper & 0x0F) << 4) | flag6Bits);
+        image[7] = (byte) (mapper & 0xF0);
+        Arrays.fill(image, 16, image.length, fill);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, image);
+    }
+
+    @Test
+    @DisplayName("Should index ROMs in nested directories and round-trip the index file")
+    void shouldIndexAndPersistLibrary() throws IOException {
+        Path smb = writeRom(library.resolve("a/smb.nes"), 0, 0x01, (byte) 0x11);
+        writeRom(library.resolve("b/c/zelda.NES"), 1, 0x02, (byte) 0x22);
+        Files.writeString(library.resolve("b/readme.txt"), "not a rom");
+        Files.writeString(library.resolve("b/broken.nes"), "garbage");
+        Path indexFile = library.resolve("library.idx");
+
+        RomLibraryIndexer indexer = new RomLibraryIndexer();
+        RomLibraryIndex index = indexer.update(library, indexFile);
+
+        assertEquals(2, index.size());
+        assertEquals(1, indexer.getFailedFiles());
+
+        RomIndexEntry entry = index.getEntries().get(0);
+        assertEquals(smb.toAbsolutePath().toString(), entry.path());
+        assertEquals(0, entry.mapperNumber());
+        assertEquals(MirroringMode.VERTICAL, entry.mirroring());
+        assertEquals(16 * 1024, entry.prgRomSizeBytes());
+        byte[] prg = new byte[16 * 1024];
+        byte[] chr = new byte[8 * 1024];
+        Arrays.fill(prg, (byte) 0x11);
+        Arrays.fill(chr, (byte) 0x11);
+        assertEquals(RomHash.of(prg, chr).getCrc32(), entry.crc32());
+
+        RomIndexEntry zelda = index.getEntries().get(1);
+        assertEquals(1, zelda.mapperNumber());
+        assertTrue(zelda.battery());
+
+        assertEquals(index.getEntries(), RomLibraryIndex.read(indexFile).getEntries());
+    }
+
+    @Test
+    @DisplayName("Should rescan only new or changed files on update")
+    void shouldUpdateIncrementally() throws IOException {
+        writeRom(library.resolve("smb.nes"), 0, 0, (byte) 0x11);
+        Path zelda = writeRom(library.resolve("zelda.nes"), 1, 0, (byte) 0x22);
+        Path indexFile = library.resolve("library.idx");
+        RomLibraryIndexer indexer = new RomLibraryIndexer();
+        indexer.update(library, indexFile);
+
+        writeRom(library.resolve("mm.nes"), 4, 0, (byte) 0x33);
+        Files.delete(zelda);
+        RomLibraryIndex index = indexer.update(library, indexFile);
+
+        assertEquals(1, indexer.getScannedFiles());
+        assertEquals(1, indexer.getReusedFiles());
+        List<RomIndexEntry> entries = index.getEntries();
+        assertEquals(2, entries.size());
+        assertTrue(entries.get(0).path().endsWith("mm.nes"));
+        assertEquals(4, entries.get(0).mapperNumber());
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index when the index file is corrupt")
+    void shouldRebuildCorruptIndex() throws IOException {
+        writeRom(library.resolve("smb.nes"), 0, 0, (byte) 0x11);
+        Path indexFile = library.resolve("library.idx");
+        RomLibraryIndexer indexer = new RomLibraryIndexer();
+        indexer.update(library, indexFile);
+        byte[] valid = Files.readAllBytes(indexFile);
+
+        byte[] negativeCount = valid.clone();
+        Arrays.fill(negativeCount, 8, 12, (byte) 0xFF); // Entry count after magic and version
+        byte[] badMirroring = valid.clone();
+        badMirroring[badMirroring.length - 2] = (byte) 0x7F; // Mirroring byte of the last entry, before its flags
+        byte[] truncated = Arrays.copyOf(valid, valid.length - 5);
+
+        for (byte[] corrupt : List.of(negativeCount, badMirroring, truncated)) {
+            Files.write(indexFile, corrupt);
+            assertThrows(IOException.class, () -> RomLibraryIndex.read(indexFile));
+
+            RomLibraryIndex index = indexer.update(library, indexFile);
+
+            assertEquals(1, index.size());
+            assertEquals(1, indexer.getScannedFiles(), "Nothing reused from the corrupt index");
+            assertEquals(index.getEntries(), RomLibraryIndex.read(indexFile).getEntries());
+        }
+    }
+}
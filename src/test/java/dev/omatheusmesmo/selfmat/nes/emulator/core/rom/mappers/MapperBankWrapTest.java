@@ -0,0 +1,92 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MapperTestSupport.writeMmc1;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapperBankWrapTest {
+
+    private static final int PRG_BANK_8K = 8 * 1024;
+    private static final int CHR_BANK_1K = 1024;
+
+    /** Fills every bank of {@code bankSize} bytes with its bank number. */
+    private static byte[] numberedBanks(int size, int bankSize) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i / bankSize);
+        }
+        return data;
+    }
+
+    private static MMC3Mapper mmc3(int prgSize, int chrSize) {
+        MMC3Mapper mapper = new MMC3Mapper(4, prgSize, chrSize, false);
+        mapper.loadRomData(numberedBanks(prgSize, PRG_BANK_8K), numberedBanks(chrSize, CHR_BANK_1K));
+        return mapper;
+    }
+
+    private static MMC1Mapper mmc1(int prgSize, int chrSize) {
+        MMC1Mapper mapper = new MMC1Mapper(1, prgSize, chrSize, false);
+        mapper.loadRomData(numberedBanks(prgSize, PRG_BANK_8K), numberedBanks(chrSize, CHR_BANK_1K));
+        return mapper;
+    }
+
+    private static void selectMmc3Bank(MMC3Mapper mapper, int register, int bank) {
+        mapper.cpuWrite(0x8000, (byte) register);
+        mapper.cpuWrite(0x8001, (byte) bank);
+    }
+
+    @Test
+    @DisplayName("Should wrap MMC3 PRG banks modulo a non-power-of-two ROM size")
+    void shouldWrapMmc3PrgBanksOnNonPowerOfTwoRom() {
+        MMC3Mapper mapper = mmc3(48 * 1024, 8 * 1024); // Six 8KB banks
+
+        assertEquals(5, mapper.cpuRead(0xE000), "Last bank fixed at $E000");
+        assertEquals(4, mapper.cpuRead(0xC000), "Second-to-last bank at $C000");
+
+        selectMmc3Bank(mapper, 6, 7);
+        assertEquals(1, mapper.cpuRead(0x8000), "Bank 7 of 6 wraps to bank 1");
+        selectMmc3Bank(mapper, 7, 0x3F);
+        assertEquals(63 % 6, mapper.cpuRead(0xBFFF));
+    }
+
+    @Test
+    @DisplayName("Should wrap MMC3 CHR bank values beyond the CHR size")
+    void shouldWrapMmc3ChrBanks() {
+        MMC3Mapper mapper = mmc3(32 * 1024, 8 * 1024); // Eight 1KB CHR banks
+
+        selectMmc3Bank(mapper, 2, 0xFF);
+        assertEquals(7, mapper.ppuRead(0x1000));
+        selectMmc3Bank(mapper, 0, 0x0A); // 2KB bank: 10 & 0xFE = 10 -> 2, 3
+        assertEquals(2, mapper.ppuRead(0x0000));
+        assertEquals(3, mapper.ppuRead(0x07FF));
+    }
+
+    @Test
+    @DisplayName("Should wrap MMC1 PRG and CHR bank values beyond the ROM size")
+    void shouldWrapMmc1Banks() {
+        MMC1Mapper mapper = mmc1(128 * 1024, 8 * 1024); // Eight 16KB PRG banks, two 4KB CHR banks
+
+        writeMmc1(mapper, 0xE000, 0x0A); // PRG bank 10 of 8 wraps to 2
+        assertEquals(2 * 2, mapper.cpuRead(0x8000));
+        assertEquals(7 * 2, mapper.cpuRead(0xC000), "Last 16KB bank stays fixed");
+
+        writeMmc1(mapper, 0x8000, 0x1C); // 4KB CHR mode, PRG mode 3
+        writeMmc1(mapper, 0xA000, 0x1F); // CHR bank 31 of 2
+        writeMmc1(mapper, 0xC000, 0x02); // CHR bank 2 of 2
+        assertEquals(4, mapper.ppuRead(0x0000));
+        assertEquals(0, mapper.ppuRead(0x1000));
+    }
+
+    @Test
+    @DisplayName("Should wrap MMC1 PRG banks modulo a non-power-of-two ROM size")
+    void shouldWrapMmc1PrgBanksOnNonPowerOfTwoRom() {
+        MMC1Mapper mapper = mmc1(48 * 1024, 8 * 1024); // Three 16KB banks
+
+        assertEquals(4, mapper.cpuRead(0xC000), "Last 16KB bank fixed at $C000");
+        writeMmc1(mapper, 0xE000, 0x04); // Bank 4 of 3 wraps to 1
+        assertEquals(2, mapper.cpuRead(0x8000));
+        assertEquals(3, mapper.cpuRead(0xBFFF));
+    }
+}
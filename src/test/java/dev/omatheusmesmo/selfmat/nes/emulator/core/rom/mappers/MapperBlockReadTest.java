@@ -0,0 +1,110 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MapperTestSupport.writeMmc1;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapperBlockReadTest {
+
+    private static final Random RANDOM = new Random(42);
+
+    private static Mapper loaded(Mapper mapper, int prgSize, int chrSize) {
+        byte[] prg = new byte[prgSize];
+        byte[] chr = new byte[chrSize];
+        RANDOM.nextBytes(prg);
+        RANDOM.nextBytes(chr);
+        mapper.loadRomData(prg, chr);
+        for (int address = 0x6000; address < 0x8000; address++) {
+            mapper.cpuWrite(address, (byte) address);
+        }
+        return mapper;
+    }
+
+    /** Lengths that stay inside a slot, end on its boundary and span more than one slot. */
+    private static final int[] LENGTHS = {1, 0x100, 0x2001};
+    private static final int RANDOM_RUNS = 8;
+
+    /**
+     * Compares block reads against byte-by-byte reads starting just before, on and just after every
+     * 8KB CPU slot and 1KB CHR slot boundary (including the wrap-around at the end of the address
+     * space), plus a few random ranges.
+     */
+    private static void assertBlockReadsMatch(Mapper mapper) {
+        for (int boundary = 0; boundary <= 0x10000; boundary += 0x2000) {
+            for (int start = boundary - 1; start <= boundary + 1; start++) {
+                for (int length : LENGTHS) {
+                    assertCpuBlockMatches(mapper, start & 0xFFFF, length);
+                }
+            }
+        }
+        for (int boundary = 0; boundary <= 0x2000; boundary += 0x400) {
+            for (int start = boundary - 1; start <= boundary + 1; start++) {
+                for (int length : LENGTHS) {
+                    assertPpuBlockMatches(mapper, start & 0x1FFF, length);
+                }
+            }
+        }
+        for (int run = 0; run < RANDOM_RUNS; run++) {
+            assertCpuBlockMatches(mapper, RANDOM.nextInt(0x10000), RANDOM.nextInt(0x3000));
+            assertPpuBlockMatches(mapper, RANDOM.nextInt(0x2000), RANDOM.nextInt(0x2400));
+        }
+    }
+
+    private static void assertCpuBlockMatches(Mapper mapper, int address, int length) {
+        byte[] expected = new byte[length + 2];
+        for (int i = 0; i < length; i++) {
+            expected[1 + i] = mapper.cpuRead((address + i) & 0xFFFF);
+        }
+        byte[] block = new byte[length + 2];
+        mapper.cpuReadBlock(address, block, 1, length);
+        assertArrayEquals(expected, block, () -> String.format("CPU $%04X, %d bytes", address, length));
+    }
+
+    private static void assertPpuBlockMatches(Mapper mapper, int address, int length) {
+        byte[] expected = new byte[length];
+        for (int i = 0; i < length; i++) {
+            expected[i] = mapper.ppuRead((address + i) & 0x1FFF);
+        }
+        byte[] block = new byte[length];
+        mapper.ppuReadBlock(address, block, 0, length);
+        assertArrayEquals(expected, block, () -> String.format("PPU $%04X, %d bytes", address, length));
+    }
+
+    @Test
+    @DisplayName("Should match byte-by-byte reads for 16KB and 32KB NROM")
+    void shouldMatchSingleReadsOnNrom() {
+        assertBlockReadsMatch(loaded(new NRomMapper(0, 16 * 1024, 8 * 1024, false), 16 * 1024, 8 * 1024));
+        NRomMapper nrom32 = new NRomMapper(0, 32 * 1024, 8 * 1024, false);
+        nrom32.configurePrgRam(2 * 1024); // Mirrored PRG RAM
+        assertBlockReadsMatch(loaded(nrom32, 32 * 1024, 8 * 1024));
+    }
+
+    @Test
+    @DisplayName("Should match byte-by-byte reads on MMC1 and MMC3 after bank switches")
+    void shouldMatchSingleReadsOnBankedMappers() {
+        Mapper mmc1 = loaded(new MMC1Mapper(1, 128 * 1024, 64 * 1024, false), 128 * 1024, 64 * 1024);
+        int[] mmc1Control = {0x10, 0x1C};
+        for (int control : mmc1Control) {
+            writeMmc1(mmc1, 0x8000, control);
+            writeMmc1(mmc1, 0xA000, 3);
+            writeMmc1(mmc1, 0xC000, 6);
+            writeMmc1(mmc1, 0xE000, 5);
+            assertBlockReadsMatch(mmc1);
+        }
+        writeMmc1(mmc1, 0xE000, 0x10); // Disable PRG RAM
+        assertBlockReadsMatch(mmc1);
+
+        Mapper mmc3 = loaded(new MMC3Mapper(4, 256 * 1024, 128 * 1024, false), 256 * 1024, 128 * 1024);
+        for (int mode : new int[]{0x00, 0xC0}) {
+            for (int register = 0; register < 8; register++) {
+                mmc3.cpuWrite(0x8000, (byte) (mode | register));
+                mmc3.cpuWrite(0x8001, (byte) (register * 7 + 3));
+            }
+            assertBlockReadsMatch(mmc3);
+        }
+    }
+}
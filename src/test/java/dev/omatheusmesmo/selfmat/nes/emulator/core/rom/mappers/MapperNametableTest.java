@@ -0,0 +1,67 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MapperTestSupport.writeMmc1;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapperNametableTest {
+
+    /** Tags each nametable slot through its own address and returns which slot each one reads. */
+    private static String layout(Mapper mapper) {
+        for (int slot = 3; slot >= 0; slot--) {
+            mapper.writeNametable(0x2000 + slot * 0x400 + 0x123, (byte) ('A' + slot));
+        }
+        StringBuilder layout = new StringBuilder();
+        for (int slot = 0; slot < 4; slot++) {
+            layout.append((char) mapper.readNametable(0x3000 + slot * 0x400 + 0x123)); // $3000 mirrors $2000
+        }
+        return layout.toString();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the nametable page table when the mapper changes mirroring")
+    void shouldFollowMirroringChanges() {
+        MMC1Mapper mapper = new MMC1Mapper(1, 128 * 1024, 0, false);
+        mapper.loadRomData(new byte[128 * 1024], null);
+        int[] syncs = new int[1];
+        mapper.connectRenderStateListener(() -> syncs[0]++);
+
+        writeMmc1(mapper, 0x8000, 0x0C | 2); // Vertical
+        assertEquals(MirroringMode.VERTICAL, mapper.getMirroringMode());
+        assertEquals("ABAB", layout(mapper));
+
+        writeMmc1(mapper, 0x8000, 0x0C | 3); // Horizontal
+        assertEquals("AACC", layout(mapper));
+
+        writeMmc1(mapper, 0x8000, 0x0C); // Single-screen, lower page
+        assertEquals("AAAA", layout(mapper));
+
+        writeMmc1(mapper, 0x8000, 0x0C | 1); // Single-screen, upper page: still holds 'C' from the horizontal layout
+        assertEquals('C', (char) mapper.readNametable(0x2123));
+        assertTrue(syncs[0] >= 4, "The PPU is told before every change");
+    }
+
+    @Test
+    @DisplayName("Should give four-screen cartridges four distinct nametables that survive save states")
+    void shouldSupportFourScreen() {
+        MMC3Mapper mapper = new MMC3Mapper(4, 32 * 1024, 8 * 1024, false);
+        mapper.loadRomData(new byte[32 * 1024], new byte[8 * 1024]);
+        mapper.configureFourScreen();
+
+        assertEquals("ABCD", layout(mapper));
+        mapper.cpuWrite(0xA000, (byte) 1); // Mirroring writes have no effect
+        assertEquals(MirroringMode.FOUR_SCREEN, mapper.getMirroringMode());
+
+        ByteBuffer state = ByteBuffer.allocate(mapper.getStateSize());
+        mapper.saveState(state);
+        mapper.writeNametable(0x2C00 + 0x123, (byte) 'Z');
+        state.flip();
+        mapper.loadState(state);
+        assertEquals('D', (char) mapper.readNametable(0x2C00 + 0x123));
+    }
+}
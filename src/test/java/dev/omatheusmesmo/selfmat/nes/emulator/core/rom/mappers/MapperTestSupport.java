@@ -0,0 +1,17 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers;
+
+/**
+ * Register helpers shared by the mapper tests.
+ */
+final class MapperTestSupport {
+
+    private MapperTestSupport() {
+    }
+
+    /** Loads a 5-bit MMC1 register through the serial port, LSB first. */
+    static void writeMmc1(Mapper mapper, int address, int value) {
+        for (int bit = 0; bit < 5; bit++) {
+            mapper.cpuWrite(address, (byte) ((value >> bit) & 1));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.state;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewindBufferTest {
+
+    private static final int STATE_SIZE = 12 * 1024;
+
+    /** Simulates a frame: a few RAM bytes change, the rest stays the same. */
+    private static byte[] nextState(byte[] previous, Random random) {
+        byte[] state = previous.clone();
+        for (int i = 0; i < 40; i++) {
+            state[random.nextInt(2048)] = (byte) random.nextInt();
+        }
+        return state;
+    }
+
+    @Test
+    @DisplayName("Should rewind frame by frame back through keyframes and deltas")
+    void shouldRewindInReverseOrder() {
+        RewindBuffer rewind = new RewindBuffer(STATE_SIZE, 600, 1024 * 1024, 30);
+        Random random = new Random(1);
+        byte[][] states = new byte[100][];
+        states[0] = new byte[STATE_SIZE];
+        random.nextBytes(states[0]);
+        for (int frame = 0; frame < states.length; frame++) {
+            if (frame > 0) {
+                states[frame] = nextState(states[frame - 1], random);
+            }
+            rewind.push(ByteBuffer.wrap(states[frame]));
+        }
+
+        // Deltas against the keyframe cost a fraction of a full copy
+        assertTrue(rewind.getStoredBytes() < (long) STATE_SIZE * states.length / 5);
+
+        ByteBuffer out = ByteBuffer.allocate(STATE_SIZE);
+        for (int frame = states.length - 1; frame >= 0; frame--) {
+            out.clear();
+            assertTrue(rewind.pop(out));
+            assertArrayEquals(states[frame], out.array(), "frame " + frame);
+        }
+        assertFalse(rewind.pop(out.clear()));
+    }
+
+    @Test
+    @DisplayName("Should evict whole keyframe groups when full and keep recording after a rewind")
+    void shouldEvictOldestGroupsWhenFull() {
+        RewindBuffer rewind = new RewindBuffer(STATE_SIZE, 1000, 128 * 1024, 10);
+        Random random = new Random(2);
+        byte[] state = new byte[STATE_SIZE];
+        random.nextBytes(state);
+        byte[] last = state;
+        for (int frame = 0; frame < 500; frame++) {
+            state = nextState(state, random);
+            rewind.push(ByteBuffer.wrap(state));
+            last = state;
+        }
+
+        assertTrue(rewind.size() > 0 && rewind.size() < 500);
+        assertTrue(rewind.getStoredBytes() <= rewind.getCapacityBytes());
+
+        ByteBuffer out = ByteBuffer.allocate(STATE_SIZE);
+        assertTrue(rewind.pop(out));
+        assertArrayEquals(last, out.array());
+
+        int remaining = rewind.size();
+        byte[] replacement = nextState(last, random);
+        rewind.push(ByteBuffer.wrap(replacement));
+        assertEquals(remaining + 1, rewind.size());
+        out.clear();
+        assertTrue(rewind.pop(out));
+        assertArrayEquals(replacement, out.array());
+        while (rewind.pop(out.clear())) {
+            // Every retained frame, down to the oldest keyframe, still decodes
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.state;
+
+import dev.omatheusmesmo.selfmat.nes.emulator.core.cpu.Cpu6502;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.memory.Bus;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.ppu.MirroringMode;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.Cartridge;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.RomHash;
+import dev.omatheusmesmo.selfmat.nes.emulator.core.rom.mappers.MMC3Mapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveStateTest {
+
+    private byte[] prgRom;
+    private byte[] chrRom;
+    private RomHash romHash;
+    private MMC3Mapper mapper;
+    private Bus bus;
+    private Cpu6502 cpu;
+
+    @BeforeEach
+    void setUp() {
+        prgRom = new byte[64 * 1024];
+        chrRom = new byte[8 * 1024];
+        for (int bank = 0; bank < 8; bank++) {
+            prgRom[bank * 0x2000] = (byte) bank; // First byte of each 8KB bank identifies it
+        }
+        prgRom[prgRom.length - 4] = 0x00; // Reset vector -> $8000
+        prgRom[prgRom.length - 3] = (byte) 0x80;
+
+        mapper = new MMC3Mapper(4, prgRom.length, chrRom.length, false);
+        mapper.loadRomData(prgRom, chrRom);
+        romHash = RomHash.of(prgRom, chrRom);
+        bus = new Bus(new Cartridge(null, prgRom, chrRom, null, mapper));
+        cpu = new Cpu6502(bus);
+        cpu.reset();
+    }
+
+    private ByteBuffer save() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SaveState.sizeOf(cpu, bus, mapper));
+        SaveState.save(buffer, romHash, cpu, bus, mapper);
+        assertFalse(buffer.hasRemaining());
+        return buffer.flip();
+    }
+
+    @Test
+    @DisplayName("Should restore CPU, RAM, PRG RAM and mapper bank state")
+    void shouldRoundTripState() {
+        cpu.setA(0x42);
+        cpu.setPc(0x1234);
+        bus.write(0x0010, (byte) 0x99);
+        bus.write(0x6000, (byte) 0x77);
+        bus.write(0x8000, (byte) 0x06); // Select R6
+        bus.write(0x8001, (byte) 0x05); // $8000 -> bank 5
+        bus.write(0xA000, (byte) 0x00); // Vertical mirroring
+        ByteBuffer state = save();
+
+        cpu.setA(0);
+        cpu.setPc(0);
+        bus.write(0x0010, (byte) 0);
+        bus.write(0x6000, (byte) 0);
+        bus.write(0x8001, (byte) 0x02);
+        bus.write(0xA000, (byte) 0x01);
+
+        SaveState.load(state, romHash, cpu, bus, mapper);
+
+        assertEquals(0x42, cpu.getA());
+        assertEquals(0x1234, cpu.getPc());
+        assertEquals(0x99, bus.read(0x0010) & 0xFF);
+        assertEquals(0x77, bus.read(0x6000) & 0xFF);
+        assertEquals(5, bus.read(0x8000)); // Page table rebuilt from the restored registers
+        assertEquals(MirroringMode.VERTICAL, mapper.getMirroringMode());
+    }
+
+    @Test
+    @DisplayName("Should reject a save state taken with a different ROM")
+    void shouldRejectDifferentRom() {
+        ByteBuffer state = save();
+        chrRom[0] = 1;
+
+        RomHash otherRom = RomHash.of(prgRom, chrRom);
+        assertThrows(IllegalArgumentException.class, () -> SaveState.load(state, otherRom, cpu, bus, mapper));
+    }
+}
@@ -0,0 +1,62 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.timing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerTest {
+
+    @Test
+    @DisplayName("Should run due events in time order, honouring reschedules and cancels")
+    void shouldRunEventsInTimeOrder() {
+        Scheduler scheduler = new Scheduler();
+        List<Integer> fired = new ArrayList<>();
+        for (int type = 0; type < Scheduler.EVENT_TYPE_COUNT; type++) {
+            scheduler.setHandler(type, (eventType, time) -> fired.add(eventType));
+        }
+
+        scheduler.schedule(Scheduler.EVENT_FRAME_END, 500);
+        scheduler.schedule(Scheduler.EVENT_SCANLINE_END, 100);
+        scheduler.schedule(Scheduler.EVENT_VBLANK, 300);
+        scheduler.schedule(Scheduler.EVENT_APU_FRAME, 200);
+        scheduler.schedule(Scheduler.EVENT_DMC_FETCH, 50);
+        scheduler.schedule(Scheduler.EVENT_SCANLINE_END, 400); // Moved later
+        scheduler.cancel(Scheduler.EVENT_DMC_FETCH);
+
+        assertEquals(200, scheduler.nextEventTime());
+        scheduler.runDueEvents(400);
+
+        assertEquals(List.of(Scheduler.EVENT_APU_FRAME, Scheduler.EVENT_VBLANK, Scheduler.EVENT_SCANLINE_END), fired);
+        assertFalse(scheduler.isScheduled(Scheduler.EVENT_VBLANK));
+        assertEquals(500, scheduler.nextEventTime());
+    }
+
+    @Test
+    @DisplayName("Should run events a handler schedules if they are already due and report earlier deadlines")
+    void shouldChainHandlersAndReportEarlierDeadlines() {
+        Scheduler scheduler = new Scheduler();
+        List<Long> deadlines = new ArrayList<>();
+        scheduler.setDeadlineListener(deadlines::add);
+        int[] scanlines = new int[1];
+        scheduler.setHandler(Scheduler.EVENT_SCANLINE_END, (type, time) -> {
+            scanlines[0]++;
+            scheduler.schedule(Scheduler.EVENT_SCANLINE_END, time + 10);
+        });
+
+        scheduler.schedule(Scheduler.EVENT_FRAME_END, 1_000);
+        scheduler.schedule(Scheduler.EVENT_SCANLINE_END, 10);
+        scheduler.runDueEvents(95);
+
+        assertEquals(9, scanlines[0]);
+        assertEquals(100, scheduler.getEventTime(Scheduler.EVENT_SCANLINE_END));
+        assertEquals(List.of(1_000L, 10L), deadlines.subList(0, 2));
+
+        deadlines.clear();
+        scheduler.schedule(Scheduler.EVENT_VBLANK, 500); // Later than the pending scanline end
+        assertTrue(deadlines.isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.video;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameBufferTest {
+
+    private static byte[] filled(int colour) {
+        byte[] indices = new byte[FrameBuffer.PIXELS];
+        Arrays.fill(indices, (byte) colour);
+        return indices;
+    }
+
+    @Test
+    @DisplayName("Should hand the consumer the newest frame in both index and ARGB form")
+    void shouldAcquireNewestFrame() {
+        FrameBuffer buffer = new FrameBuffer();
+        byte[] emphasis = new byte[FrameBuffer.HEIGHT];
+        assertFalse(buffer.hasNewFrame());
+
+        buffer.publish(filled(0x01), emphasis, 0);
+        emphasis[10] = 0x05;
+        buffer.publish(filled(0x21), emphasis, 1);
+        assertTrue(buffer.hasNewFrame());
+
+        FrameBuffer.Frame frame = buffer.acquire();
+        assertFalse(buffer.hasNewFrame());
+        assertEquals(1, frame.getFrameNumber());
+        assertTrue(frame.getIndices().isDirect());
+        assertTrue(frame.getIndices().isReadOnly());
+        assertEquals(0x21, frame.getIndices().get(FrameBuffer.PIXELS - 1));
+        assertEquals(NesPalette.argb(0x21), frame.getArgb().get(123));
+        assertEquals(5, frame.getEmphasis(10));
+        assertSame(frame, buffer.acquire(), "Nothing new was published");
+    }
+
+    @Test
+    @DisplayName("Should never overwrite the frame the consumer holds")
+    void shouldNotOverwriteAcquiredFrame() {
+        FrameBuffer buffer = new FrameBuffer();
+        byte[] emphasis = new byte[FrameBuffer.HEIGHT];
+        buffer.publish(filled(0x11), emphasis, 0);
+        FrameBuffer.Frame held = buffer.acquire();
+
+        for (int i = 1; i <= 5; i++) {
+            buffer.publish(filled(0x30 + i), emphasis, i);
+        }
+        assertEquals(0, held.getFrameNumber());
+        assertEquals(0x11, held.getIndices().get(0));
+        assertEquals(NesPalette.argb(0x11), held.getArgb().get(FrameBuffer.PIXELS - 1));
+
+        FrameBuffer.Frame next = buffer.acquire();
+        assertNotSame(held, next);
+        assertEquals(5, next.getFrameNumber());
+        assertEquals(0x35, next.getIndices().get(0));
+    }
+}
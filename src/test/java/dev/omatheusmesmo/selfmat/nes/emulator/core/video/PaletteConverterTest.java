@@ -0,0 +1,59 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.video;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaletteConverterTest {
+
+    @Test
+    @DisplayName("Should darken the channels that are not emphasized")
+    void shouldApplyEmphasis() {
+        PaletteConverter converter = PaletteConverter.scalar(1);
+        byte[] line = new byte[FrameBuffer.WIDTH];
+        line[0] = 0x30; // White
+        int[] out = new int[FrameBuffer.WIDTH];
+
+        converter.convertLine(line, 0, 0, out);
+        assertEquals(NesPalette.argb(0x30), out[0]);
+
+        converter.convertLine(line, 0, 0x01, out); // Emphasize red
+        int white = NesPalette.argb(0x30);
+        assertEquals(0xFF000000, out[0] & 0xFF000000);
+        assertEquals((white >> 16) & 0xFF, (out[0] >> 16) & 0xFF);
+        assertTrue((out[0] & 0xFF) < (white & 0xFF));
+        assertTrue(((out[0] >> 8) & 0xFF) < ((white >> 8) & 0xFF));
+    }
+
+    @Test
+    @DisplayName("Should match the scalar converter at every scale")
+    void shouldMatchScalarConverter() {
+        byte[] indices = new byte[FrameBuffer.PIXELS];
+        byte[] emphasis = new byte[FrameBuffer.HEIGHT];
+        Random random = new Random(42);
+        random.nextBytes(indices); // Bits 6-7 must be ignored
+        random.nextBytes(emphasis);
+
+        for (int scale = 1; scale <= PaletteConverter.MAX_SCALE; scale++) {
+            PaletteConverter scalar = PaletteConverter.scalar(scale);
+            PaletteConverter best = PaletteConverter.create(scale);
+            IntBuffer expected = IntBuffer.allocate(scalar.getOutputWidth() * scalar.getOutputHeight());
+            IntBuffer actual = IntBuffer.allocate(expected.capacity());
+            scalar.convertFrame(indices, emphasis, expected);
+            best.convertFrame(indices, emphasis, actual);
+            assertEquals(expected, actual, best.getClass().getSimpleName() + " at " + scale + "x");
+
+            // Nearest neighbour: output pixel (x, y) shows source pixel (x / scale, y / scale)
+            int x = 201, y = 117;
+            int[] unscaled = new int[FrameBuffer.WIDTH];
+            PaletteConverter.scalar(1).convertLine(indices, (y / scale) * FrameBuffer.WIDTH,
+                    emphasis[y / scale] & 0x07, unscaled);
+            assertEquals(unscaled[x / scale], expected.get(y * scalar.getOutputWidth() + x));
+        }
+        assertThrows(IllegalArgumentException.class, () -> PaletteConverter.create(4));
+    }
+}
@@ -0,0 +1,70 @@
+package dev.omatheusmesmo.selfmat.nes.emulator.core.video;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PaletteConverter} built on the incubating Vector API.
+ * <p>
+ * Each step widens one vector of colour index bytes to ints, then gathers their ARGB values from the
+ * line's emphasis table in a single gather. Scaling is a second gather from the converted
+ * row through a precomputed output-to-source column map, so 2x and 3x need no per-pixel branching.
+ * <p>
+ * Only compiled by the Maven {@code vector} profile; {@link PaletteConverter#create(int)} loads it
+ * reflectively.
+ */
+final class VectorPaletteConverter extends PaletteConverter {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    /** Byte species with as many lanes as {@link #INTS}, or null if no such shape exists. */
+    private static final VectorSpecies<Byte> BYTES = INTS.length() >= 8
+            ? VectorSpecies.of(byte.class, VectorShape.forBitSize(INTS.length() * Byte.SIZE))
+            : null;
+
+    private final int[] colourIndices = new int[FrameBuffer.WIDTH];
+    /** The unscaled row, when scaling. */
+    private final int[] row = new int[FrameBuffer.WIDTH];
+    /** Source column of each output column. */
+    private final int[] columnMap;
+
+    VectorPaletteConverter(int scale) {
+        super(scale);
+        this.columnMap = new int[FrameBuffer.WIDTH * scale];
+        for (int x = 0; x < columnMap.length; x++) {
+            columnMap[x] = x / scale;
+        }
+    }
+
+    /**
+     * @return true if the preferred vector shape is wide enough (8 or more int lanes) to pay off.
+     */
+    static boolean isSupported() {
+        return BYTES != null && FrameBuffer.WIDTH % INTS.length() == 0;
+    }
+
+    @Override
+    public void convertLine(byte[] indices, int offset, int emphasis, int[] out) {
+        int lanes = INTS.length();
+        for (int x = 0; x < FrameBuffer.WIDTH; x += lanes) {
+            ((IntVector) ByteVector.fromArray(BYTES, indices, offset + x)
+                    .convertShape(VectorOperators.B2I, INTS, 0))
+                    .and(NesPalette.SIZE - 1)
+                    .intoArray(colourIndices, x);
+        }
+
+        int base = emphasis * NesPalette.SIZE;
+        int[] target = scale == 1 ? out : row;
+        for (int x = 0; x < FrameBuffer.WIDTH; x += lanes) {
+            IntVector.fromArray(INTS, table, base, colourIndices, x).intoArray(target, x);
+        }
+        if (scale == 1) {
+            return;
+        }
+        for (int x = 0; x < columnMap.length; x += lanes) {
+            IntVector.fromArray(INTS, row, 0, columnMap, x).intoArray(out, x);
+        }
+    }
+}